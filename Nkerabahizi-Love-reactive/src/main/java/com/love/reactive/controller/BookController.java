@@ -0,0 +1,140 @@
+package com.love.reactive.controller;
+
+import com.love.dto.BookRequest;
+import com.love.dto.BookResponse;
+import com.love.dto.BulkImportResponse;
+import com.love.dto.CursorPageResponse;
+import com.love.enums.BookAvailabilityStatus;
+import com.love.reactive.service.BookService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Same contract as the servlet application's /api/books, minus the CSV import and the
+ * index-backed search and suggestions.
+ */
+@RestController
+@RequestMapping("/api/books")
+@CrossOrigin(origins = "*")
+public class BookController {
+    
+    private final BookService bookService;
+    
+    @Autowired
+    public BookController(BookService bookService) {
+        this.bookService = bookService;
+    }
+    
+    /**
+     * Create a new book
+     * POST /api/books
+     * @param bookRequest the book request containing book details
+     * @return ResponseEntity with created book details
+     */
+    @PostMapping
+    public Mono<ResponseEntity<BookResponse>> createBook(@Valid @RequestBody BookRequest bookRequest) {
+        return bookService.createBook(bookRequest)
+                .map(createdBook -> ResponseEntity.status(HttpStatus.CREATED).body(createdBook))
+                .onErrorResume(RuntimeException.class, e -> Mono.just(ResponseEntity.badRequest().build()));
+    }
+    
+    /**
+     * Import many books at once from a JSON array
+     * POST /api/books/bulk
+     * @param bookRequests the books to import
+     * @return ResponseEntity with the import summary and per-row errors
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<BulkImportResponse>> importBooks(@RequestBody List<BookRequest> bookRequests) {
+        return bookService.importBooks(bookRequests)
+                .map(ResponseEntity::ok);
+    }
+    
+    /**
+     * Retrieve book details by ISBN
+     * GET /api/books/{isbn}
+     * @param isbn the ISBN to search for
+     * @return ResponseEntity with book details if found
+     */
+    @GetMapping("/{isbn}")
+    public Mono<ResponseEntity<BookResponse>> getBookByIsbn(@PathVariable String isbn) {
+        return bookService.findBookByIsbn(isbn)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * Retrieve book availability by ISBN
+     * GET /api/books/{isbn}/availability
+     * @param isbn the ISBN to check
+     * @return ResponseEntity with availability status
+     */
+    @GetMapping("/{isbn}/availability")
+    public Mono<ResponseEntity<String>> getBookAvailability(@PathVariable String isbn) {
+        return bookService.getBookAvailability(isbn)
+                .map(ResponseEntity::ok)
+                .onErrorResume(RuntimeException.class, e -> Mono.just(ResponseEntity.notFound().build()));
+    }
+    
+    /**
+     * Get a page of books, optionally filtered by title, author and availability status
+     * GET /api/books?cursor={id}&size={size}&title={title}&author={author}&status={status}
+     * @param cursor the nextCursor of the previous page, omitted for the first page
+     * @param size the page size (default 20, max 100)
+     * @param title optional case-insensitive title fragment
+     * @param author optional case-insensitive author fragment
+     * @param status optional availability status
+     * @return ResponseEntity with the page of books and the cursor of the next page
+     */
+    @GetMapping
+    public Mono<ResponseEntity<CursorPageResponse<BookResponse>>> getAllBooks(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String title,
+            @RequestParam(required = false) String author,
+            @RequestParam(required = false) BookAvailabilityStatus status) {
+        return bookService.getBooks(cursor, size, title, author, status)
+                .map(ResponseEntity::ok);
+    }
+    
+    /**
+     * Get a page of available books, optionally filtered by title and author
+     * GET /api/books/available?cursor={id}&size={size}&title={title}&author={author}
+     * @param cursor the nextCursor of the previous page, omitted for the first page
+     * @param size the page size (default 20, max 100)
+     * @param title optional case-insensitive title fragment
+     * @param author optional case-insensitive author fragment
+     * @return ResponseEntity with the page of available books and the cursor of the next page
+     */
+    @GetMapping("/available")
+    public Mono<ResponseEntity<CursorPageResponse<BookResponse>>> getAvailableBooks(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String title,
+            @RequestParam(required = false) String author) {
+        return bookService.getAvailableBooks(cursor, size, title, author)
+                .map(ResponseEntity::ok);
+    }
+    
+    /**
+     * Count available books, optionally within an id range
+     * GET /api/books/available/count?fromId={id}&toId={id}
+     * @param fromId optional lowest book id to count
+     * @param toId optional highest book id to count
+     * @return ResponseEntity with the number of available books
+     */
+    @GetMapping("/available/count")
+    public Mono<ResponseEntity<Long>> countAvailableBooks(
+            @RequestParam(required = false) Long fromId,
+            @RequestParam(required = false) Long toId) {
+        return bookService.countAvailableBooks(fromId, toId)
+                .map(ResponseEntity::ok);
+    }
+}
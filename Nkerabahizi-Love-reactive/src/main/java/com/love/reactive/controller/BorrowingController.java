@@ -0,0 +1,113 @@
+package com.love.reactive.controller;
+
+import com.love.dto.BorrowingRequest;
+import com.love.dto.BorrowingResponse;
+import com.love.enums.BorrowingStatus;
+import com.love.reactive.service.BorrowingService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/borrowings")
+@CrossOrigin(origins = "*")
+public class BorrowingController {
+    
+    private final BorrowingService borrowingService;
+    
+    @Autowired
+    public BorrowingController(BorrowingService borrowingService) {
+        this.borrowingService = borrowingService;
+    }
+    
+    /**
+     * Create a new borrowing transaction
+     * POST /api/borrowings
+     * @param borrowingRequest the borrowing request containing transaction details
+     * @return ResponseEntity with created transaction details
+     */
+    @PostMapping
+    public Mono<ResponseEntity<BorrowingResponse>> createBorrowingTransaction(@Valid @RequestBody BorrowingRequest borrowingRequest) {
+        return borrowingService.createBorrowingTransaction(borrowingRequest)
+                .map(createdTransaction -> ResponseEntity.status(HttpStatus.CREATED).body(createdTransaction))
+                .onErrorResume(BorrowingController::errorResponse);
+    }
+    
+    /**
+     * Return a book (update transaction status and book availability)
+     * PUT /api/borrowings/{transactionId}/return
+     * @param transactionId the ID of the borrowing transaction
+     * @return ResponseEntity with updated transaction details
+     */
+    @PutMapping("/{transactionId}/return")
+    public Mono<ResponseEntity<BorrowingResponse>> returnBook(@PathVariable Long transactionId) {
+        return borrowingService.returnBook(transactionId)
+                .map(ResponseEntity::ok)
+                .onErrorResume(BorrowingController::errorResponse);
+    }
+    
+    /**
+     * Get all borrowing transactions
+     * GET /api/borrowings
+     * @return list of all transactions, written as a JSON array while it is read
+     */
+    @GetMapping
+    public Flux<BorrowingResponse> getAllBorrowingTransactions() {
+        return borrowingService.getAllBorrowingTransactions();
+    }
+    
+    /**
+     * Export all borrowing transactions as newline-delimited JSON
+     * GET /api/borrowings/export
+     * @return the transactions, one JSON document per line, flushed as they are read
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BorrowingResponse> exportBorrowingTransactions() {
+        return borrowingService.getAllBorrowingTransactions();
+    }
+    
+    /**
+     * Get borrowing transaction by ID
+     * GET /api/borrowings/{transactionId}
+     * @param transactionId the ID of the transaction
+     * @return ResponseEntity with transaction details if found
+     */
+    @GetMapping("/{transactionId}")
+    public Mono<ResponseEntity<BorrowingResponse>> getBorrowingTransactionById(@PathVariable Long transactionId) {
+        return borrowingService.getBorrowingTransactionById(transactionId)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * Get borrowing transactions by status
+     * GET /api/borrowings/status/{status}
+     * @param status the status to filter by
+     * @return list of transactions with the specified status
+     */
+    @GetMapping("/status/{status}")
+    public Flux<BorrowingResponse> getBorrowingTransactionsByStatus(@PathVariable BorrowingStatus status) {
+        return borrowingService.getBorrowingTransactionsByStatus(status);
+    }
+    
+    /**
+     * Map a failed borrow or return to 409 for a lost concurrent update and 400 for a broken business rule
+     * @param e the error signalled by the service
+     * @return the error response
+     */
+    private static Mono<ResponseEntity<BorrowingResponse>> errorResponse(Throwable e) {
+        if (e instanceof ConcurrencyFailureException) {
+            return Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).build());
+        }
+        if (e instanceof RuntimeException) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return Mono.error(e);
+    }
+}
@@ -0,0 +1,86 @@
+package com.love.reactive.entity;
+
+import com.love.enums.BookAvailabilityStatus;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Table;
+
+@Table("books")
+public class Book {
+    
+    @Id
+    private Long id;
+    
+    private String title;
+    
+    private String author;
+    
+    private String isbn;
+    
+    private BookAvailabilityStatus availabilityStatus;
+    
+    @Version
+    private Long version;
+    
+    // Default constructor
+    public Book() {
+        this.availabilityStatus = BookAvailabilityStatus.AVAILABLE;
+    }
+    
+    // Constructor with parameters
+    public Book(String title, String author, String isbn, BookAvailabilityStatus availabilityStatus) {
+        this.title = title;
+        this.author = author;
+        this.isbn = isbn;
+        this.availabilityStatus = availabilityStatus;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getTitle() {
+        return title;
+    }
+    
+    public void setTitle(String title) {
+        this.title = title;
+    }
+    
+    public String getAuthor() {
+        return author;
+    }
+    
+    public void setAuthor(String author) {
+        this.author = author;
+    }
+    
+    public String getIsbn() {
+        return isbn;
+    }
+    
+    public void setIsbn(String isbn) {
+        this.isbn = isbn;
+    }
+    
+    public BookAvailabilityStatus getAvailabilityStatus() {
+        return availabilityStatus;
+    }
+    
+    public void setAvailabilityStatus(BookAvailabilityStatus availabilityStatus) {
+        this.availabilityStatus = availabilityStatus;
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
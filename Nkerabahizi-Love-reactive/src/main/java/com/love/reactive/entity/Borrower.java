@@ -0,0 +1,55 @@
+package com.love.reactive.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * A registered borrower, created on their first borrow. Loans reference the row so the open
+ * loans of a borrower can be counted and limited, as in the servlet application.
+ */
+@Table("borrowers")
+public class Borrower {
+    
+    @Id
+    private Long id;
+    
+    private String name;
+    
+    @Version
+    private Long version;
+    
+    // Default constructor
+    public Borrower() {
+    }
+    
+    // Constructor with parameters
+    public Borrower(String name) {
+        this.name = name;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
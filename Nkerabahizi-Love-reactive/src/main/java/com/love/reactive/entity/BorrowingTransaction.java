@@ -0,0 +1,125 @@
+package com.love.reactive.entity;
+
+import com.love.enums.BorrowingStatus;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * A loan row. R2DBC has no lazy associations, so the book and the borrower are referenced by id
+ * and joined in queries. The borrower name is kept on the loan, as in the servlet application.
+ */
+@Table("borrowing_transactions")
+public class BorrowingTransaction {
+    
+    @Id
+    private Long id;
+    
+    private Long bookId;
+    
+    private Long borrowerId;
+    
+    private String borrowerName;
+    
+    private LocalDateTime borrowDate;
+    
+    private LocalDateTime dueDate;
+    
+    private LocalDateTime returnDate;
+    
+    private BorrowingStatus status;
+    
+    @Version
+    private Long version;
+    
+    // Default constructor
+    public BorrowingTransaction() {
+        this.status = BorrowingStatus.PENDING;
+    }
+    
+    // Constructor with parameters
+    public BorrowingTransaction(Long bookId, Long borrowerId, String borrowerName,
+                                LocalDateTime borrowDate, LocalDateTime dueDate) {
+        this.bookId = bookId;
+        this.borrowerId = borrowerId;
+        this.borrowerName = borrowerName;
+        this.borrowDate = borrowDate;
+        this.dueDate = dueDate;
+        this.status = BorrowingStatus.PENDING;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getBookId() {
+        return bookId;
+    }
+    
+    public void setBookId(Long bookId) {
+        this.bookId = bookId;
+    }
+    
+    public Long getBorrowerId() {
+        return borrowerId;
+    }
+    
+    public void setBorrowerId(Long borrowerId) {
+        this.borrowerId = borrowerId;
+    }
+    
+    public String getBorrowerName() {
+        return borrowerName;
+    }
+    
+    public void setBorrowerName(String borrowerName) {
+        this.borrowerName = borrowerName;
+    }
+    
+    public LocalDateTime getBorrowDate() {
+        return borrowDate;
+    }
+    
+    public void setBorrowDate(LocalDateTime borrowDate) {
+        this.borrowDate = borrowDate;
+    }
+    
+    public LocalDateTime getDueDate() {
+        return dueDate;
+    }
+    
+    public void setDueDate(LocalDateTime dueDate) {
+        this.dueDate = dueDate;
+    }
+    
+    public LocalDateTime getReturnDate() {
+        return returnDate;
+    }
+    
+    public void setReturnDate(LocalDateTime returnDate) {
+        this.returnDate = returnDate;
+    }
+    
+    public BorrowingStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(BorrowingStatus status) {
+        this.status = status;
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
@@ -0,0 +1,86 @@
+package com.love.reactive.repository;
+
+import com.love.enums.BookAvailabilityStatus;
+import com.love.reactive.entity.Book;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+@Repository
+public interface BookRepository extends R2dbcRepository<Book, Long> {
+    
+    /**
+     * Find book by ISBN
+     * @param isbn the ISBN to search for
+     * @return Mono emitting the book if found
+     */
+    Mono<Book> findByIsbn(String isbn);
+    
+    /**
+     * Check if book exists by ISBN
+     * @param isbn the ISBN to check
+     * @return Mono emitting true if book exists
+     */
+    Mono<Boolean> existsByIsbn(String isbn);
+    
+    /**
+     * Find which of the given ISBNs are already in the catalog
+     * @param isbns the ISBNs to check
+     * @return Flux of the ISBNs that already exist
+     */
+    @Query("SELECT isbn FROM books WHERE isbn IN (:isbns)")
+    Flux<String> findExistingIsbns(@Param("isbns") Collection<String> isbns);
+    
+    /**
+     * Atomically move a book to a new availability status, but only if it currently has the expected status
+     * @param isbn the ISBN of the book
+     * @param expectedStatus the status the book must currently have
+     * @param newStatus the status to set
+     * @return Mono emitting the number of updated rows: 1 if the status was changed, 0 otherwise
+     */
+    @Modifying
+    @Query("UPDATE books SET availability_status = :newStatus, version = version + 1 " +
+           "WHERE isbn = :isbn AND availability_status = :expectedStatus")
+    Mono<Integer> updateAvailabilityIfCurrent(@Param("isbn") String isbn,
+                                              @Param("expectedStatus") BookAvailabilityStatus expectedStatus,
+                                              @Param("newStatus") BookAvailabilityStatus newStatus);
+    
+    /**
+     * Find a page of books ordered by id, starting after the given id, with optional filters.
+     * Title and author patterns are lower-case LIKE patterns with '\' as escape character.
+     * @param afterId the id of the last book of the previous page, 0 for the first page
+     * @param titlePattern optional LIKE pattern on the lower-cased title
+     * @param authorPattern optional LIKE pattern on the lower-cased author
+     * @param status optional availability status name
+     * @param limit the maximum number of books to return
+     * @return Flux of books ordered by id
+     */
+    @Query("SELECT * FROM books WHERE id > :afterId " +
+           "AND (CAST(:titlePattern AS VARCHAR) IS NULL OR LOWER(title) LIKE :titlePattern ESCAPE '\\') " +
+           "AND (CAST(:authorPattern AS VARCHAR) IS NULL OR LOWER(author) LIKE :authorPattern ESCAPE '\\') " +
+           "AND (CAST(:status AS VARCHAR) IS NULL OR availability_status = :status) " +
+           "ORDER BY id LIMIT :limit")
+    Flux<Book> findPageAfterId(@Param("afterId") long afterId,
+                               @Param("titlePattern") String titlePattern,
+                               @Param("authorPattern") String authorPattern,
+                               @Param("status") String status,
+                               @Param("limit") int limit);
+    
+    /**
+     * Count the books with a given availability status within an id range
+     * @param status the availability status
+     * @param fromId the lowest id to count
+     * @param toId the highest id to count
+     * @return Mono emitting the number of books
+     */
+    @Query("SELECT COUNT(*) FROM books WHERE availability_status = :status AND id BETWEEN :fromId AND :toId")
+    Mono<Long> countByStatusBetween(@Param("status") BookAvailabilityStatus status,
+                                    @Param("fromId") long fromId,
+                                    @Param("toId") long toId);
+}
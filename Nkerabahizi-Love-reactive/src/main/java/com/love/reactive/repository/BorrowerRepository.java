@@ -0,0 +1,20 @@
+package com.love.reactive.repository;
+
+import com.love.reactive.entity.Borrower;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface BorrowerRepository extends R2dbcRepository<Borrower, Long> {
+    
+    /**
+     * Find a borrower by name and lock the row until the current transaction ends
+     * @param name the borrower name
+     * @return Mono emitting the borrower if registered
+     */
+    @Query("SELECT * FROM borrowers WHERE name = :name FOR UPDATE")
+    Mono<Borrower> findByNameForUpdate(@Param("name") String name);
+}
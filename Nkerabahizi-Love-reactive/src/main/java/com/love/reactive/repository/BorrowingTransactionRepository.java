@@ -0,0 +1,77 @@
+package com.love.reactive.repository;
+
+import com.love.dto.BorrowingResponse;
+import com.love.enums.BorrowingStatus;
+import com.love.reactive.entity.BorrowingTransaction;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@Repository
+public interface BorrowingTransactionRepository extends R2dbcRepository<BorrowingTransaction, Long> {
+    
+    /**
+     * Builds BorrowingResponse rows straight from one join with books
+     */
+    String BORROWING_RESPONSE_QUERY = "SELECT t.id, b.title AS book_title, b.isbn AS book_isbn, " +
+            "t.borrower_name, t.borrow_date, t.due_date, t.return_date, t.status " +
+            "FROM borrowing_transactions t JOIN books b ON b.id = t.book_id";
+    
+    /**
+     * Atomically move a transaction to a new status, but only if it currently has one of the expected statuses
+     * @param id the transaction id
+     * @param expectedStatuses the statuses the transaction may currently have
+     * @param newStatus the status to set
+     * @param returnDate the return date to set
+     * @return Mono emitting the number of updated rows: 1 if the status was changed, 0 otherwise
+     */
+    @Modifying
+    @Query("UPDATE borrowing_transactions SET status = :newStatus, return_date = :returnDate, " +
+           "version = version + 1 " +
+           "WHERE id = :id AND status IN (:expectedStatuses)")
+    Mono<Integer> updateStatusIfCurrent(@Param("id") Long id,
+                                        @Param("expectedStatuses") Collection<BorrowingStatus> expectedStatuses,
+                                        @Param("newStatus") BorrowingStatus newStatus,
+                                        @Param("returnDate") LocalDateTime returnDate);
+    
+    /**
+     * Count a borrower's loans with any of the given statuses
+     * @param borrowerId the borrower id
+     * @param statuses the statuses to count
+     * @return Mono emitting the number of loans
+     */
+    @Query("SELECT COUNT(*) FROM borrowing_transactions WHERE borrower_id = :borrowerId AND status IN (:statuses)")
+    Mono<Long> countByBorrowerAndStatuses(@Param("borrowerId") Long borrowerId,
+                                          @Param("statuses") Collection<BorrowingStatus> statuses);
+    
+    /**
+     * Find all transactions as responses, ordered by id. Rows are emitted as the driver reads
+     * them, so the full table is never held in memory.
+     * @return Flux of borrowing responses
+     */
+    @Query(BORROWING_RESPONSE_QUERY + " ORDER BY t.id")
+    Flux<BorrowingResponse> findAllResponses();
+    
+    /**
+     * Find the transactions with a given status as responses, ordered by id
+     * @param status the status to filter by
+     * @return Flux of borrowing responses with the specified status
+     */
+    @Query(BORROWING_RESPONSE_QUERY + " WHERE t.status = :status ORDER BY t.id")
+    Flux<BorrowingResponse> findResponsesByStatus(@Param("status") BorrowingStatus status);
+    
+    /**
+     * Find a transaction by id as a response
+     * @param id the transaction id
+     * @return Mono emitting the borrowing response if found
+     */
+    @Query(BORROWING_RESPONSE_QUERY + " WHERE t.id = :id")
+    Mono<BorrowingResponse> findResponseById(@Param("id") Long id);
+}
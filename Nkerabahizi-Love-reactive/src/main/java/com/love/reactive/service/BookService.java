@@ -0,0 +1,277 @@
+package com.love.reactive.service;
+
+import com.love.dto.BookRequest;
+import com.love.dto.BookResponse;
+import com.love.dto.BulkImportError;
+import com.love.dto.BulkImportResponse;
+import com.love.dto.CursorPageResponse;
+import com.love.enums.BookAvailabilityStatus;
+import com.love.reactive.entity.Book;
+import com.love.reactive.repository.BookRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Non-blocking counterpart of the servlet application's book service, with the same rules and
+ * page sizes. Every method returns immediately; the work runs when the result is subscribed to.
+ */
+@Service
+@Transactional
+public class BookService {
+    
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int IMPORT_CHUNK_SIZE = 1000;
+    
+    private final BookRepository bookRepository;
+    private final Validator validator;
+    
+    @Autowired
+    public BookService(BookRepository bookRepository, Validator validator) {
+        this.bookRepository = bookRepository;
+        this.validator = validator;
+    }
+    
+    /**
+     * Create a new book
+     * @param bookRequest the book request containing book details
+     * @return Mono emitting the created book response
+     * @throws RuntimeException (signalled) if book with ISBN already exists
+     */
+    public Mono<BookResponse> createBook(BookRequest bookRequest) {
+        return bookRepository.existsByIsbn(bookRequest.getIsbn())
+                .flatMap(exists -> exists
+                        ? Mono.error(new RuntimeException("Book with ISBN " + bookRequest.getIsbn() + " already exists"))
+                        : bookRepository.save(convertToBook(bookRequest)))
+                .map(this::convertToBookResponse);
+    }
+    
+    /**
+     * Import many books at once. Invalid rows and duplicate ISBNs (within the import or
+     * already in the catalog) are reported per row and skipped; the other rows are inserted
+     * chunk by chunk, one chunk after the other.
+     * @param bookRequests the books to import, in row order
+     * @return Mono emitting the import summary with per-row errors
+     */
+    public Mono<BulkImportResponse> importBooks(List<BookRequest> bookRequests) {
+        BulkImportResponse result = new BulkImportResponse();
+        Set<String> seenIsbns = new HashSet<>();
+        
+        return Flux.range(0, (bookRequests.size() + IMPORT_CHUNK_SIZE - 1) / IMPORT_CHUNK_SIZE)
+                .concatMap(chunk -> {
+                    int from = chunk * IMPORT_CHUNK_SIZE;
+                    int to = Math.min(bookRequests.size(), from + IMPORT_CHUNK_SIZE);
+                    Map<Integer, BookRequest> rows = new LinkedHashMap<>();
+                    for (int i = from; i < to; i++) {
+                        rows.put(i + 1, bookRequests.get(i));
+                    }
+                    return importChunk(rows, seenIsbns, result);
+                })
+                .then(Mono.fromSupplier(() -> {
+                    result.setReceived(bookRequests.size());
+                    return result;
+                }));
+    }
+    
+    /**
+     * Validate a chunk of import rows, check their ISBNs with one query and insert the valid ones
+     * @param chunk the rows to import keyed by row number
+     * @param seenIsbns the ISBNs already seen earlier in this import
+     * @param result the summary to add imported counts and errors to
+     * @return Mono completing once the chunk is inserted
+     */
+    private Mono<Void> importChunk(Map<Integer, BookRequest> chunk, Set<String> seenIsbns, BulkImportResponse result) {
+        Map<Integer, BookRequest> candidates = new LinkedHashMap<>();
+        for (Map.Entry<Integer, BookRequest> entry : chunk.entrySet()) {
+            BookRequest request = entry.getValue();
+            if (request == null) {
+                result.getErrors().add(new BulkImportError(entry.getKey(), null, "Book is required"));
+                continue;
+            }
+            
+            Set<ConstraintViolation<BookRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                String message = violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining(", "));
+                result.getErrors().add(new BulkImportError(entry.getKey(), request.getIsbn(), message));
+            } else if (!seenIsbns.add(request.getIsbn())) {
+                result.getErrors().add(new BulkImportError(entry.getKey(), request.getIsbn(),
+                        "Duplicate ISBN " + request.getIsbn() + " in import"));
+            } else {
+                candidates.put(entry.getKey(), request);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return Mono.empty();
+        }
+        
+        // One query for the whole chunk instead of one existsByIsbn per book
+        return bookRepository.findExistingIsbns(candidates.values().stream()
+                        .map(BookRequest::getIsbn)
+                        .collect(Collectors.toList()))
+                .collect(Collectors.toSet())
+                .flatMap(existingIsbns -> {
+                    List<Book> books = new ArrayList<>(candidates.size());
+                    for (Map.Entry<Integer, BookRequest> entry : candidates.entrySet()) {
+                        String isbn = entry.getValue().getIsbn();
+                        if (existingIsbns.contains(isbn)) {
+                            result.getErrors().add(new BulkImportError(entry.getKey(), isbn,
+                                    "Book with ISBN " + isbn + " already exists"));
+                        } else {
+                            books.add(convertToBook(entry.getValue()));
+                        }
+                    }
+                    result.setImported(result.getImported() + books.size());
+                    return bookRepository.saveAll(books).then();
+                });
+    }
+    
+    /**
+     * Find a book by ISBN
+     * @param isbn the ISBN to search for
+     * @return Mono emitting the book response, empty if not found
+     */
+    @Transactional(readOnly = true)
+    public Mono<BookResponse> findBookByIsbn(String isbn) {
+        return bookRepository.findByIsbn(isbn)
+                .map(this::convertToBookResponse);
+    }
+    
+    /**
+     * Get book availability status by ISBN
+     * @param isbn the ISBN to check
+     * @return Mono emitting the availability status as string
+     * @throws RuntimeException (signalled) if book not found
+     */
+    @Transactional(readOnly = true)
+    public Mono<String> getBookAvailability(String isbn) {
+        return bookRepository.findByIsbn(isbn)
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Book with ISBN " + isbn + " not found")))
+                .map(book -> book.getAvailabilityStatus().toString());
+    }
+    
+    /**
+     * Get a page of books using keyset pagination on the book id
+     * @param cursor the id of the last book of the previous page, or null for the first page
+     * @param size the requested page size, clamped to [1, MAX_PAGE_SIZE]
+     * @param title optional case-insensitive title fragment
+     * @param author optional case-insensitive author fragment
+     * @param status optional availability status
+     * @return Mono emitting the page of book responses with the cursor of the next page
+     */
+    @Transactional(readOnly = true)
+    public Mono<CursorPageResponse<BookResponse>> getBooks(Long cursor, Integer size, String title,
+                                                           String author, BookAvailabilityStatus status) {
+        int pageSize = resolvePageSize(size);
+        
+        // Fetch one extra row to know whether another page follows
+        return bookRepository.findPageAfterId(
+                        cursor != null ? cursor : 0L,
+                        containsPattern(title),
+                        containsPattern(author),
+                        status != null ? status.name() : null,
+                        pageSize + 1)
+                .map(this::convertToBookResponse)
+                .collectList()
+                .map(books -> {
+                    boolean hasNext = books.size() > pageSize;
+                    List<BookResponse> content = hasNext ? books.subList(0, pageSize) : books;
+                    String nextCursor = hasNext ? String.valueOf(content.get(content.size() - 1).getId()) : null;
+                    return new CursorPageResponse<>(content, nextCursor);
+                });
+    }
+    
+    /**
+     * Get a page of available books using keyset pagination on the book id
+     * @param cursor the id of the last book of the previous page, or null for the first page
+     * @param size the requested page size, clamped to [1, MAX_PAGE_SIZE]
+     * @param title optional case-insensitive title fragment
+     * @param author optional case-insensitive author fragment
+     * @return Mono emitting the page of available book responses with the cursor of the next page
+     */
+    @Transactional(readOnly = true)
+    public Mono<CursorPageResponse<BookResponse>> getAvailableBooks(Long cursor, Integer size, String title, String author) {
+        return getBooks(cursor, size, title, author, BookAvailabilityStatus.AVAILABLE);
+    }
+    
+    /**
+     * Count available books, optionally within an id range
+     * @param fromId optional lowest book id to count
+     * @param toId optional highest book id to count
+     * @return Mono emitting the number of available books
+     */
+    @Transactional(readOnly = true)
+    public Mono<Long> countAvailableBooks(Long fromId, Long toId) {
+        return bookRepository.countByStatusBetween(BookAvailabilityStatus.AVAILABLE,
+                fromId != null ? fromId : 0L, toId != null ? toId : Long.MAX_VALUE);
+    }
+    
+    /**
+     * Clamp a requested page size to the supported range
+     * @param size the requested page size, may be null
+     * @return the page size to use
+     */
+    private int resolvePageSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+    
+    /**
+     * Build a lower-case "contains" LIKE pattern, escaping LIKE wildcards in the input
+     * @param value the user supplied fragment
+     * @return the LIKE pattern, or null if the fragment is blank
+     */
+    private String containsPattern(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String escaped = value.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+    
+    /**
+     * Convert BookRequest DTO to a new Book row
+     * @param bookRequest the book request
+     * @return the unsaved book
+     */
+    private Book convertToBook(BookRequest bookRequest) {
+        return new Book(bookRequest.getTitle(), bookRequest.getAuthor(), bookRequest.getIsbn(),
+                bookRequest.getAvailabilityStatus());
+    }
+    
+    /**
+     * Convert Book row to BookResponse DTO
+     * @param book the book row
+     * @return the book response DTO
+     */
+    BookResponse convertToBookResponse(Book book) {
+        return new BookResponse(
+                book.getId(),
+                book.getTitle(),
+                book.getAuthor(),
+                book.getIsbn(),
+                book.getAvailabilityStatus()
+        );
+    }
+}
@@ -0,0 +1,174 @@
+package com.love.reactive.service;
+
+import com.love.dto.BorrowingRequest;
+import com.love.dto.BorrowingResponse;
+import com.love.enums.BookAvailabilityStatus;
+import com.love.enums.BorrowingStatus;
+import com.love.reactive.entity.Book;
+import com.love.reactive.entity.Borrower;
+import com.love.reactive.entity.BorrowingTransaction;
+import com.love.reactive.repository.BookRepository;
+import com.love.reactive.repository.BorrowerRepository;
+import com.love.reactive.repository.BorrowingTransactionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of the servlet application's borrowing service. Books are claimed and
+ * loans closed with the same conditional UPDATEs, so the business rules are identical: only an
+ * AVAILABLE book can be borrowed, and only an open (PENDING or OVERDUE) loan can be returned,
+ * exactly once. Borrowers are registered on their first borrow and may hold at most
+ * {@code library.loans.max-open-per-borrower} open loans. Overdue detection runs only in the
+ * servlet application.
+ */
+@Service
+@Transactional
+public class BorrowingService {
+    
+    private static final List<BorrowingStatus> OPEN_STATUSES = List.of(BorrowingStatus.PENDING, BorrowingStatus.OVERDUE);
+    
+    private final BorrowingTransactionRepository borrowingTransactionRepository;
+    private final BookRepository bookRepository;
+    private final BorrowerRepository borrowerRepository;
+    private final int loanPeriodDays;
+    private final int maxOpenLoans;
+    
+    @Autowired
+    public BorrowingService(BorrowingTransactionRepository borrowingTransactionRepository,
+                            BookRepository bookRepository,
+                            BorrowerRepository borrowerRepository,
+                            @Value("${library.loans.period-days:14}") int loanPeriodDays,
+                            @Value("${library.loans.max-open-per-borrower:10}") int maxOpenLoans) {
+        this.borrowingTransactionRepository = borrowingTransactionRepository;
+        this.bookRepository = bookRepository;
+        this.borrowerRepository = borrowerRepository;
+        this.loanPeriodDays = loanPeriodDays;
+        this.maxOpenLoans = maxOpenLoans;
+    }
+    
+    /**
+     * Create a new borrowing transaction
+     * @param borrowingRequest the borrowing request containing transaction details
+     * @return Mono emitting the created borrowing response
+     * @throws RuntimeException (signalled) if book is not available or not found, the due date is before the borrow date,
+     *         or the borrower has reached the open loan limit
+     */
+    public Mono<BorrowingResponse> createBorrowingTransaction(BorrowingRequest borrowingRequest) {
+        String isbn = borrowingRequest.getIsbn();
+        LocalDateTime borrowDate = borrowingRequest.getBorrowDate();
+        LocalDateTime dueDate = borrowingRequest.getDueDate() != null
+                ? borrowingRequest.getDueDate()
+                : borrowDate.plusDays(loanPeriodDays);
+        if (!dueDate.isAfter(borrowDate)) {
+            return Mono.error(new RuntimeException("Due date must be after the borrow date"));
+        }
+        
+        // The borrower row stays locked until commit, so concurrent borrows by the same borrower
+        // see each other's loans and cannot both slip under the limit
+        return lockBorrower(borrowingRequest.getBorrowerName())
+                .flatMap(borrower -> borrowingTransactionRepository.countByBorrowerAndStatuses(borrower.getId(), OPEN_STATUSES)
+                        .flatMap(openLoans -> openLoans >= maxOpenLoans
+                                ? Mono.error(new RuntimeException("Borrower " + borrower.getName()
+                                        + " has reached the limit of " + maxOpenLoans + " open loans"))
+                                : claimBook(isbn))
+                        .flatMap(book -> borrowingTransactionRepository.save(new BorrowingTransaction(
+                                        book.getId(), borrower.getId(), borrower.getName(), borrowDate, dueDate))
+                                .map(transaction -> new BorrowingResponse(
+                                        transaction.getId(),
+                                        book.getTitle(),
+                                        book.getIsbn(),
+                                        transaction.getBorrowerName(),
+                                        transaction.getBorrowDate(),
+                                        transaction.getDueDate(),
+                                        transaction.getReturnDate(),
+                                        transaction.getStatus()))));
+    }
+    
+    /**
+     * Find a borrower by name, registering them on their first borrow, and lock the borrower
+     * until the current transaction ends
+     * @param name the borrower name
+     * @return Mono emitting the locked borrower
+     * @throws OptimisticLockingFailureException (signalled) if the same borrower was registered concurrently
+     */
+    private Mono<Borrower> lockBorrower(String name) {
+        return borrowerRepository.findByNameForUpdate(name)
+                .switchIfEmpty(Mono.defer(() -> borrowerRepository.save(new Borrower(name))))
+                .onErrorMap(DataIntegrityViolationException.class, e ->
+                        new OptimisticLockingFailureException("Borrower " + name + " was registered concurrently", e));
+    }
+    
+    /**
+     * Claim the book with a single conditional UPDATE; the affected row count decides the outcome
+     * @param isbn the ISBN of the book
+     * @return Mono emitting the claimed book
+     * @throws RuntimeException (signalled) if book is not available or not found
+     */
+    private Mono<Book> claimBook(String isbn) {
+        return bookRepository.updateAvailabilityIfCurrent(isbn, BookAvailabilityStatus.AVAILABLE, BookAvailabilityStatus.BORROWED)
+                .flatMap(claimed -> claimed == 1
+                        ? bookRepository.findByIsbn(isbn)
+                        : bookRepository.existsByIsbn(isbn).flatMap(exists -> Mono.error(new RuntimeException(exists
+                                ? "Book with ISBN " + isbn + " is not available for borrowing"
+                                : "Book with ISBN " + isbn + " not found"))));
+    }
+    
+    /**
+     * Return a book (update transaction status and book availability)
+     * @param transactionId the ID of the borrowing transaction
+     * @return Mono emitting the updated borrowing response
+     * @throws RuntimeException (signalled) if transaction not found or already returned
+     */
+    public Mono<BorrowingResponse> returnBook(Long transactionId) {
+        // Close the transaction with a single conditional UPDATE so a loan can only be returned once
+        return borrowingTransactionRepository.updateStatusIfCurrent(transactionId,
+                        OPEN_STATUSES, BorrowingStatus.RETURNED, LocalDateTime.now())
+                .flatMap(returned -> returned == 1
+                        ? borrowingTransactionRepository.findById(transactionId)
+                        : borrowingTransactionRepository.existsById(transactionId).flatMap(exists -> Mono.error(new RuntimeException(exists
+                                ? "Book has already been returned"
+                                : "Borrowing transaction with ID " + transactionId + " not found"))))
+                .flatMap(transaction -> bookRepository.findById(transaction.getBookId()))
+                .flatMap(book -> bookRepository.updateAvailabilityIfCurrent(book.getIsbn(),
+                        BookAvailabilityStatus.BORROWED, BookAvailabilityStatus.AVAILABLE))
+                .then(borrowingTransactionRepository.findResponseById(transactionId));
+    }
+    
+    /**
+     * Get all borrowing transactions, read with the book details in one query
+     * @return Flux of all borrowing responses
+     */
+    @Transactional(readOnly = true)
+    public Flux<BorrowingResponse> getAllBorrowingTransactions() {
+        return borrowingTransactionRepository.findAllResponses();
+    }
+    
+    /**
+     * Get borrowing transactions by status, read with the book details in one query
+     * @param status the status to filter by
+     * @return Flux of borrowing responses with the specified status
+     */
+    @Transactional(readOnly = true)
+    public Flux<BorrowingResponse> getBorrowingTransactionsByStatus(BorrowingStatus status) {
+        return borrowingTransactionRepository.findResponsesByStatus(status);
+    }
+    
+    /**
+     * Get borrowing transaction by ID, read with the book details in one query
+     * @param transactionId the ID of the transaction
+     * @return Mono emitting the borrowing response, empty if not found
+     */
+    @Transactional(readOnly = true)
+    public Mono<BorrowingResponse> getBorrowingTransactionById(Long transactionId) {
+        return borrowingTransactionRepository.findResponseById(transactionId);
+    }
+}
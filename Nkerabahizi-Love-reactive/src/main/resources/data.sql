@@ -0,0 +1,7 @@
+-- Sample books for testing, the same as the servlet application's DataLoader
+INSERT INTO books (title, author, isbn, availability_status, version) VALUES
+    ('The Great Gatsby', 'F. Scott Fitzgerald', '978-0743273565', 'AVAILABLE', 0),
+    ('To Kill a Mockingbird', 'Harper Lee', '978-0446310789', 'AVAILABLE', 0),
+    ('1984', 'George Orwell', '978-0451524935', 'AVAILABLE', 0),
+    ('Pride and Prejudice', 'Jane Austen', '978-0141439518', 'AVAILABLE', 0),
+    ('The Hobbit', 'J.R.R. Tolkien', '978-0547928241', 'AVAILABLE', 0);
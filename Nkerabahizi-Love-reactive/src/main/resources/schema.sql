@@ -0,0 +1,32 @@
+CREATE TABLE IF NOT EXISTS books (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    title VARCHAR(255) NOT NULL,
+    author VARCHAR(255) NOT NULL,
+    isbn VARCHAR(255) NOT NULL UNIQUE,
+    availability_status VARCHAR(20) NOT NULL,
+    version BIGINT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS borrowers (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(255) NOT NULL UNIQUE,
+    version BIGINT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS borrowing_transactions (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    book_id BIGINT NOT NULL REFERENCES books (id),
+    borrower_id BIGINT NOT NULL REFERENCES borrowers (id),
+    borrower_name VARCHAR(255) NOT NULL,
+    borrow_date TIMESTAMP NOT NULL,
+    due_date TIMESTAMP NOT NULL,
+    return_date TIMESTAMP,
+    status VARCHAR(20) NOT NULL,
+    version BIGINT NOT NULL
+);
+
+-- The same indexes as the servlet application's entities
+CREATE INDEX IF NOT EXISTS idx_books_availability_status ON books (availability_status, id);
+CREATE INDEX IF NOT EXISTS idx_borrowing_transactions_book ON borrowing_transactions (book_id, status, borrow_date);
+CREATE INDEX IF NOT EXISTS idx_borrowing_transactions_status ON borrowing_transactions (status, due_date);
+CREATE INDEX IF NOT EXISTS idx_borrowing_transactions_borrower ON borrowing_transactions (borrower_id, status, borrow_date);
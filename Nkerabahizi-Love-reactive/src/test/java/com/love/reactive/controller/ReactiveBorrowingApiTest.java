@@ -0,0 +1,140 @@
+package com.love.reactive.controller;
+
+import com.love.dto.BookRequest;
+import com.love.dto.BookResponse;
+import com.love.dto.BorrowingRequest;
+import com.love.dto.BorrowingResponse;
+import com.love.dto.BulkImportResponse;
+import com.love.dto.CursorPageResponse;
+import com.love.enums.BookAvailabilityStatus;
+import com.love.enums.BorrowingStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+class ReactiveBorrowingApiTest {
+    
+    @Autowired
+    private WebTestClient webTestClient;
+    
+    @Test
+    void borrowAndReturnFollowTheSameRulesAsTheServletApi() {
+        String isbn = "978-" + UUID.randomUUID().toString().substring(0, 13);
+        webTestClient.post().uri("/api/books")
+                .bodyValue(new BookRequest("Reactive", "Author", isbn, BookAvailabilityStatus.AVAILABLE))
+                .exchange()
+                .expectStatus().isCreated();
+        webTestClient.post().uri("/api/books")
+                .bodyValue(new BookRequest("Reactive", "Author", isbn, BookAvailabilityStatus.AVAILABLE))
+                .exchange()
+                .expectStatus().isBadRequest();
+        
+        BorrowingRequest borrow = new BorrowingRequest(isbn, "Reader", LocalDateTime.now());
+        BorrowingResponse loan = webTestClient.post().uri("/api/borrowings").bodyValue(borrow)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(BorrowingResponse.class).returnResult().getResponseBody();
+        assertThat(loan.getBookIsbn()).isEqualTo(isbn);
+        assertThat(loan.getStatus()).isEqualTo(BorrowingStatus.PENDING);
+        assertThat(loan.getDueDate()).isEqualTo(borrow.getBorrowDate().plusDays(14));
+        
+        // A borrowed book cannot be borrowed again, an unknown one not at all
+        webTestClient.post().uri("/api/borrowings").bodyValue(borrow).exchange().expectStatus().isBadRequest();
+        webTestClient.post().uri("/api/borrowings")
+                .bodyValue(new BorrowingRequest("unknown", "Reader", LocalDateTime.now()))
+                .exchange()
+                .expectStatus().isBadRequest();
+        webTestClient.get().uri("/api/books/{isbn}/availability", isbn).exchange()
+                .expectBody(String.class).isEqualTo("BORROWED");
+        
+        webTestClient.put().uri("/api/borrowings/{id}/return", loan.getId()).exchange()
+                .expectStatus().isOk()
+                .expectBody(BorrowingResponse.class)
+                .value(returned -> assertThat(returned.getStatus()).isEqualTo(BorrowingStatus.RETURNED));
+        webTestClient.put().uri("/api/borrowings/{id}/return", loan.getId()).exchange().expectStatus().isBadRequest();
+        webTestClient.get().uri("/api/books/{isbn}/availability", isbn).exchange()
+                .expectBody(String.class).isEqualTo("AVAILABLE");
+        
+        webTestClient.get().uri("/api/borrowings/status/RETURNED").exchange()
+                .expectBodyList(BorrowingResponse.class)
+                .value(loans -> assertThat(loans).extracting(BorrowingResponse::getId).contains(loan.getId()));
+    }
+    
+    @Test
+    void borrowersAreLimitedToTenOpenLoansLikeTheServletApi() {
+        String prefix = UUID.randomUUID().toString().substring(0, 8);
+        List<BookRequest> books = IntStream.range(0, 11)
+                .mapToObj(i -> new BookRequest("Limited " + i, "Author", prefix + "-" + i, BookAvailabilityStatus.AVAILABLE))
+                .collect(Collectors.toList());
+        webTestClient.post().uri("/api/books/bulk").contentType(MediaType.APPLICATION_JSON).bodyValue(books)
+                .exchange()
+                .expectStatus().isOk();
+        
+        String borrower = "Limited " + prefix;
+        Long firstLoan = null;
+        for (int i = 0; i < 10; i++) {
+            BorrowingResponse loan = webTestClient.post().uri("/api/borrowings")
+                    .bodyValue(new BorrowingRequest(prefix + "-" + i, borrower, LocalDateTime.now()))
+                    .exchange()
+                    .expectStatus().isCreated()
+                    .expectBody(BorrowingResponse.class).returnResult().getResponseBody();
+            firstLoan = firstLoan != null ? firstLoan : loan.getId();
+        }
+        
+        BorrowingRequest overLimit = new BorrowingRequest(prefix + "-10", borrower, LocalDateTime.now());
+        webTestClient.post().uri("/api/borrowings").bodyValue(overLimit).exchange().expectStatus().isBadRequest();
+        webTestClient.get().uri("/api/books/{isbn}/availability", prefix + "-10").exchange()
+                .expectBody(String.class).isEqualTo("AVAILABLE");
+        
+        // A return frees a slot
+        webTestClient.put().uri("/api/borrowings/{id}/return", firstLoan).exchange().expectStatus().isOk();
+        webTestClient.post().uri("/api/borrowings").bodyValue(overLimit).exchange().expectStatus().isCreated();
+    }
+    
+    @Test
+    void bulkImportAndKeysetPagesMatchTheServletApi() {
+        String prefix = UUID.randomUUID().toString().substring(0, 8);
+        List<BookRequest> books = IntStream.range(0, 25)
+                .mapToObj(i -> new BookRequest("Paged " + prefix + " " + i, "Author", prefix + "-" + i, BookAvailabilityStatus.AVAILABLE))
+                .collect(Collectors.toList());
+        books.add(new BookRequest("Duplicate", "Author", prefix + "-0", BookAvailabilityStatus.AVAILABLE));
+        
+        BulkImportResponse result = webTestClient.post().uri("/api/books/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(books)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(BulkImportResponse.class).returnResult().getResponseBody();
+        assertThat(result.getReceived()).isEqualTo(26);
+        assertThat(result.getImported()).isEqualTo(25);
+        assertThat(result.getErrors()).singleElement().satisfies(error -> assertThat(error.getRow()).isEqualTo(26));
+        
+        CursorPageResponse<BookResponse> first = page("/api/books?size=20&title=" + prefix);
+        assertThat(first.getContent()).hasSize(20);
+        assertThat(first.isHasNext()).isTrue();
+        CursorPageResponse<BookResponse> second = page("/api/books?size=20&title=" + prefix + "&cursor=" + first.getNextCursor());
+        assertThat(second.getContent()).hasSize(5);
+        assertThat(second.isHasNext()).isFalse();
+    }
+    
+    private CursorPageResponse<BookResponse> page(String uri) {
+        return webTestClient.get().uri(uri).exchange()
+                .expectStatus().isOk()
+                .expectBody(new ParameterizedTypeReference<CursorPageResponse<BookResponse>>() { })
+                .returnResult().getResponseBody();
+    }
+}
@@ -0,0 +1,84 @@
+package com.love.benchmark;
+
+import com.love.NkerabahiziLoveApplication;
+import com.love.dto.BookRequest;
+import com.love.enums.BookAvailabilityStatus;
+import com.love.service.BookService;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Starts the application without the web layer against its own in-memory H2 database, or a
+ * storage profile in its own directory, with SQL logging off, and seeds the catalog through
+ * the bulk import.
+ */
+public final class BenchmarkContext {
+    
+    private static final int SEED_CHUNK_SIZE = 10_000;
+    
+    private BenchmarkContext() {
+    }
+    
+    /**
+     * Start the application and seed it with books {@code 0 .. catalogSize - 1}
+     * @param catalogSize the number of books to seed
+     * @return the running application context
+     */
+    public static ConfigurableApplicationContext start(int catalogSize) {
+        return start(catalogSize, null, null);
+    }
+    
+    /**
+     * Start the application with a storage profile and seed it with books {@code 0 .. catalogSize - 1}
+     * @param catalogSize the number of books to seed
+     * @param profile the profile to activate, or null for the in-memory database
+     * @param storageDirectory the storage directory of the profile, unused without one
+     * @return the running application context
+     */
+    public static ConfigurableApplicationContext start(int catalogSize, String profile, Path storageDirectory) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"));
+        if (profile == null) {
+            args.add("--spring.datasource.url=jdbc:h2:mem:benchmark-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        } else {
+            args.add("--spring.profiles.active=" + profile);
+            args.add("--library.storage.directory=" + storageDirectory.toAbsolutePath());
+        }
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(NkerabahiziLoveApplication.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .run(args.toArray(String[]::new));
+        
+        BookService bookService = context.getBean(BookService.class);
+        List<BookRequest> chunk = new ArrayList<>(SEED_CHUNK_SIZE);
+        for (int i = 0; i < catalogSize; i++) {
+            chunk.add(new BookRequest("Benchmark Title " + i, "Author " + (i % 1000), isbn(i),
+                    BookAvailabilityStatus.AVAILABLE));
+            if (chunk.size() == SEED_CHUNK_SIZE || i == catalogSize - 1) {
+                bookService.importBooks(chunk);
+                chunk.clear();
+            }
+        }
+        return context;
+    }
+    
+    /**
+     * ISBN of the i-th seeded book
+     * @param i the book number
+     * @return the ISBN
+     */
+    public static String isbn(int i) {
+        return "bench-" + i;
+    }
+}
@@ -0,0 +1,91 @@
+package com.love.benchmark;
+
+import com.love.dto.BookResponse;
+import com.love.dto.CursorPageResponse;
+import com.love.repository.BookRepository;
+import com.love.service.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Book lookups and availability listings at several catalog sizes
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BookServiceBenchmark {
+    
+    @Param({"1000", "10000", "100000"})
+    public int catalogSize;
+    
+    private ConfigurableApplicationContext context;
+    private BookService bookService;
+    private BookRepository bookRepository;
+    private TransactionTemplate readOnlyTransaction;
+    
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkContext.start(catalogSize);
+        bookService = context.getBean(BookService.class);
+        bookRepository = context.getBean(BookRepository.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(TransactionTemplate.class).getTransactionManager());
+        readOnlyTransaction.setReadOnly(true);
+    }
+    
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+    
+    /**
+     * ISBN lookup through the service, served by the ISBN cache once warm
+     */
+    @Benchmark
+    public Optional<BookResponse> findBookByIsbn() {
+        return bookService.findBookByIsbn(randomIsbn());
+    }
+    
+    /**
+     * The same lookup straight from the database, as the baseline for the cache
+     */
+    @Benchmark
+    public Optional<?> findBookByIsbnFromDatabase() {
+        return readOnlyTransaction.execute(status -> bookRepository.findByIsbn(randomIsbn()));
+    }
+    
+    @Benchmark
+    public CursorPageResponse<BookResponse> getAvailableBooksFirstPage() {
+        return bookService.getAvailableBooks(null, 20, null, null);
+    }
+    
+    /**
+     * A page starting at a random position in the catalog, as reached by following cursors
+     */
+    @Benchmark
+    public CursorPageResponse<BookResponse> getAvailableBooksRandomPage() {
+        return bookService.getAvailableBooks((long) ThreadLocalRandom.current().nextInt(catalogSize), 20, null, null);
+    }
+    
+    @Benchmark
+    public CursorPageResponse<BookResponse> getAvailableBooksByTitle() {
+        return bookService.getAvailableBooks(null, 20, "title 1", null);
+    }
+    
+    private String randomIsbn() {
+        return BenchmarkContext.isbn(ThreadLocalRandom.current().nextInt(catalogSize));
+    }
+}
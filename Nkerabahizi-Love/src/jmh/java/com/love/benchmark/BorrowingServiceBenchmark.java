@@ -0,0 +1,82 @@
+package com.love.benchmark;
+
+import com.love.dto.BorrowingRequest;
+import com.love.dto.BorrowingResponse;
+import com.love.service.BorrowingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A full borrow followed by the return of the same book. Each benchmark thread cycles
+ * through its own slice of the catalog under its own borrower name, so threads never contend
+ * for a book or a borrower.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BorrowingServiceBenchmark {
+    
+    @State(Scope.Benchmark)
+    public static class Library {
+        
+        @Param({"1000", "10000", "100000"})
+        public int catalogSize;
+        
+        private final AtomicInteger threads = new AtomicInteger();
+        private ConfigurableApplicationContext context;
+        private BorrowingService borrowingService;
+        
+        @Setup(Level.Trial)
+        public void start() {
+            context = BenchmarkContext.start(catalogSize);
+            borrowingService = context.getBean(BorrowingService.class);
+        }
+        
+        @TearDown(Level.Trial)
+        public void stop() {
+            context.close();
+        }
+    }
+    
+    @State(Scope.Thread)
+    public static class Borrower {
+        
+        private static final int BOOKS_PER_THREAD = 64;
+        
+        private int catalogSize;
+        private int firstBook;
+        private int next;
+        private String name;
+        
+        @Setup(Level.Trial)
+        public void assignBooks(Library library) {
+            int thread = library.threads.getAndIncrement();
+            catalogSize = library.catalogSize;
+            firstBook = thread * BOOKS_PER_THREAD;
+            name = "Benchmark Reader " + thread;
+        }
+        
+        String nextIsbn() {
+            return BenchmarkContext.isbn((firstBook + next++ % BOOKS_PER_THREAD) % catalogSize);
+        }
+    }
+    
+    @Benchmark
+    public BorrowingResponse borrowAndReturn(Library library, Borrower borrower) {
+        BorrowingResponse loan = library.borrowingService.createBorrowingTransaction(
+                new BorrowingRequest(borrower.nextIsbn(), borrower.name, LocalDateTime.now()));
+        return library.borrowingService.returnBook(loan.getId());
+    }
+}
@@ -0,0 +1,114 @@
+package com.love.benchmark;
+
+import com.love.dto.BookResponse;
+import com.love.dto.BorrowingRequest;
+import com.love.dto.BorrowingResponse;
+import com.love.dto.CursorPageResponse;
+import com.love.service.BookService;
+import com.love.service.BorrowingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The same service calls on each persistence backend: the in-memory H2 database ({@code memory},
+ * not durable), the file-backed H2 database of the durable profile, and the journal store.
+ * Run with several threads ({@code -t}) to see commits share a force of the journal.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PersistenceBackendBenchmark {
+    
+    @State(Scope.Benchmark)
+    public static class Library {
+        
+        @Param({"memory", "durable", "journal"})
+        public String backend;
+        
+        @Param({"10000"})
+        public int catalogSize;
+        
+        private final AtomicInteger threads = new AtomicInteger();
+        private Path storage;
+        private ConfigurableApplicationContext context;
+        private BookService bookService;
+        private BorrowingService borrowingService;
+        
+        @Setup(Level.Trial)
+        public void start() throws IOException {
+            if (backend.equals("memory")) {
+                context = BenchmarkContext.start(catalogSize);
+            } else {
+                storage = Files.createTempDirectory("library-" + backend);
+                context = BenchmarkContext.start(catalogSize, backend, storage);
+            }
+            bookService = context.getBean(BookService.class);
+            borrowingService = context.getBean(BorrowingService.class);
+        }
+        
+        @TearDown(Level.Trial)
+        public void stop() throws IOException {
+            context.close();
+            if (storage != null) {
+                FileSystemUtils.deleteRecursively(storage);
+            }
+        }
+    }
+    
+    @State(Scope.Thread)
+    public static class Borrower {
+        
+        private static final int BOOKS_PER_THREAD = 64;
+        
+        private int catalogSize;
+        private int firstBook;
+        private int next;
+        private String name;
+        
+        @Setup(Level.Trial)
+        public void assignBooks(Library library) {
+            int thread = library.threads.getAndIncrement();
+            catalogSize = library.catalogSize;
+            firstBook = thread * BOOKS_PER_THREAD;
+            name = "Benchmark Reader " + thread;
+        }
+        
+        String nextIsbn() {
+            return BenchmarkContext.isbn((firstBook + next++ % BOOKS_PER_THREAD) % catalogSize);
+        }
+    }
+    
+    /**
+     * Two write transactions, each committed durably by the durable and journal backends
+     */
+    @Benchmark
+    public BorrowingResponse borrowAndReturn(Library library, Borrower borrower) {
+        BorrowingResponse loan = library.borrowingService.createBorrowingTransaction(
+                new BorrowingRequest(borrower.nextIsbn(), borrower.name, LocalDateTime.now()));
+        return library.borrowingService.returnBook(loan.getId());
+    }
+    
+    /**
+     * A filtered page of the catalog, read past the book cache
+     */
+    @Benchmark
+    public CursorPageResponse<BookResponse> authorPage(Library library) {
+        return library.bookService.getBooks(null, 20, null, "author 99", null);
+    }
+}
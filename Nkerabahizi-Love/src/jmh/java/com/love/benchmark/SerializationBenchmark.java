@@ -0,0 +1,70 @@
+package com.love.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.love.dto.BookResponse;
+import com.love.dto.BorrowingResponse;
+import com.love.dto.CursorPageResponse;
+import com.love.enums.BookAvailabilityStatus;
+import com.love.enums.BorrowingStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Jackson serialization of the response DTOs, with dates written as ISO strings as the application does
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SerializationBenchmark {
+    
+    private ObjectWriter writer;
+    private BookResponse book;
+    private BorrowingResponse loan;
+    private CursorPageResponse<BookResponse> page;
+    
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        writer = objectMapper.writer();
+        book = new BookResponse(42L, "The Great Gatsby", "F. Scott Fitzgerald", "978-0743273565",
+                BookAvailabilityStatus.AVAILABLE);
+        loan = new BorrowingResponse(7L, book.getTitle(), book.getIsbn(), "Jane Reader",
+                LocalDateTime.of(2025, 1, 15, 10, 30), LocalDateTime.of(2025, 1, 29, 10, 30), null, BorrowingStatus.PENDING);
+        page = new CursorPageResponse<>(IntStream.range(0, 20)
+                .mapToObj(i -> new BookResponse((long) i, "Title " + i, "Author " + i, "isbn-" + i,
+                        BookAvailabilityStatus.AVAILABLE))
+                .collect(Collectors.toList()), "20");
+    }
+    
+    @Benchmark
+    public byte[] serializeBookResponse() throws JsonProcessingException {
+        return writer.writeValueAsBytes(book);
+    }
+    
+    @Benchmark
+    public byte[] serializeBorrowingResponse() throws JsonProcessingException {
+        return writer.writeValueAsBytes(loan);
+    }
+    
+    @Benchmark
+    public byte[] serializeBookPage() throws JsonProcessingException {
+        return writer.writeValueAsBytes(page);
+    }
+}
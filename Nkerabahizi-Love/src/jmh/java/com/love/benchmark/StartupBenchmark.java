@@ -0,0 +1,172 @@
+package com.love.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how fast a new node of the application can take traffic. Each variant starts the
+ * extracted jar in a fresh JVM, polls {@code /actuator/health/readiness} until it answers 200 and
+ * reads the resident set size of the process at that moment, then stops it. The variants add the
+ * startup optimizations one at a time: the fast profile, the AOT-generated bean definitions and
+ * the class data sharing archive.
+ * <p>
+ * Not a JMH benchmark, since every measurement is a new process; run it with
+ * {@code mvn -Pfast-start -DskipTests -Dstartup.skip=false verify}. The median and best of
+ * {@code startup.runs} starts per variant are written to {@code startup.reportDir}.
+ */
+public final class StartupBenchmark {
+    
+    private static final Duration START_TIMEOUT = Duration.ofMinutes(3);
+    private static final long POLL_INTERVAL_MS = 20;
+    
+    private final Path directory;
+    private final String jar;
+    private final String profiles;
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+    
+    private StartupBenchmark(Path directory, String jar, String profiles) {
+        this.directory = directory;
+        this.jar = jar;
+        this.profiles = profiles;
+    }
+    
+    public static void main(String[] args) throws Exception {
+        Path directory = Path.of(System.getProperty("startup.directory", "target/cds"));
+        String jar = System.getProperty("startup.jar", "Nkerabahizi-Love-0.0.1-SNAPSHOT.jar");
+        String profiles = System.getProperty("startup.profiles", "fast");
+        int runs = Integer.getInteger("startup.runs", 5);
+        Path reportDir = Path.of(System.getProperty("startup.reportDir", "target/startup"));
+        Files.createDirectories(reportDir);
+        
+        StartupBenchmark benchmark = new StartupBenchmark(directory, jar, profiles);
+        Map<String, List<String>> variants = new LinkedHashMap<>();
+        variants.put("default", List.of());
+        variants.put(profiles, List.of("--spring.profiles.active=" + profiles));
+        variants.put(profiles + " + AOT", List.of("-Dspring.aot.enabled=true", "--spring.profiles.active=" + profiles));
+        variants.put(profiles + " + AOT + CDS", List.of("-Dspring.aot.enabled=true", "-XX:SharedArchiveFile=application.jsa",
+                "--spring.profiles.active=" + profiles));
+        
+        List<Map<String, Object>> results = new ArrayList<>();
+        StringBuilder table = new StringBuilder(String.format("%-24s %12s %12s %12s%n",
+                "Variant", "Ready p50 ms", "Ready min ms", "RSS p50 MB"));
+        for (Map.Entry<String, List<String>> variant : variants.entrySet()) {
+            long[] readyMs = new long[runs];
+            long[] rssKb = new long[runs];
+            for (int run = 0; run < runs; run++) {
+                long[] measurement = benchmark.start(variant.getValue(),
+                        reportDir.resolve(variant.getKey().replaceAll("\\W+", "-") + ".log"));
+                readyMs[run] = measurement[0];
+                rssKb[run] = measurement[1];
+            }
+            Arrays.sort(readyMs);
+            Arrays.sort(rssKb);
+            
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("variant", variant.getKey());
+            result.put("runs", runs);
+            result.put("readyMillisMedian", readyMs[runs / 2]);
+            result.put("readyMillisMin", readyMs[0]);
+            result.put("rssMegabytesMedian", rssKb[runs / 2] / 1024);
+            results.add(result);
+            table.append(String.format("%-24s %12d %12d %12d%n",
+                    variant.getKey(), readyMs[runs / 2], readyMs[0], rssKb[runs / 2] / 1024));
+        }
+        
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(reportDir.resolve("startup-report.json").toFile(), results);
+        Files.writeString(reportDir.resolve("startup-report.txt"), table);
+    }
+    
+    /**
+     * Start the application once and stop it as soon as it is ready
+     * @param options the JVM options, then the application arguments starting with {@code --}
+     * @param log the file the process output is written to
+     * @return the milliseconds from launch to readiness and the resident set size in KB, -1 if unknown
+     */
+    private long[] start(List<String> options, Path log) throws IOException, InterruptedException {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        options.stream().filter(option -> !option.startsWith("--")).forEach(command::add);
+        command.add("-jar");
+        command.add(jar);
+        options.stream().filter(option -> option.startsWith("--")).forEach(command::add);
+        command.add("--server.port=" + port);
+        command.add("--management.endpoint.health.probes.enabled=true");
+        
+        long started = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .directory(directory.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        try {
+            awaitReady(process, port, started);
+            long readyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            return new long[] {readyMs, residentSetKb(process.pid())};
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+    
+    private void awaitReady(Process process, int port, long started) throws InterruptedException {
+        HttpRequest readiness = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/health/readiness"))
+                .timeout(Duration.ofSeconds(1))
+                .build();
+        while (System.nanoTime() - started < START_TIMEOUT.toNanos()) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited with status " + process.exitValue() + " before it was ready");
+            }
+            try {
+                if (client.send(readiness, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(POLL_INTERVAL_MS);
+        }
+        throw new IllegalStateException("Application was not ready within " + START_TIMEOUT);
+    }
+    
+    /**
+     * Read the resident set size of a process, only available on Linux
+     */
+    private static long residentSetKb(long pid) throws IOException {
+        Path status = Path.of("/proc", Long.toString(pid), "status");
+        if (!Files.exists(status)) {
+            return -1;
+        }
+        for (String line : Files.readAllLines(status)) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("\\D+", ""));
+            }
+        }
+        return -1;
+    }
+    
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.love.metrics;
+
+import com.love.dto.BorrowingResponse;
+import com.love.service.BorrowingService;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of the service timing advice: the same trivial service call with and without the
+ * {@link ServiceMetricsAspect} proxy, recording into a Prometheus registry with percentile
+ * histograms enabled as in application.properties.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ServiceMetricsBenchmark {
+    
+    private BorrowingService plain;
+    private BorrowingService timed;
+    
+    @Setup
+    public void setUp() {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        registry.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                return DistributionStatisticConfig.builder()
+                        .percentilesHistogram(true)
+                        .minimumExpectedValue((double) TimeUnit.MICROSECONDS.toNanos(10))
+                        .maximumExpectedValue((double) TimeUnit.SECONDS.toNanos(10))
+                        .build()
+                        .merge(config);
+            }
+        });
+        
+        plain = new StubBorrowingService();
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new StubBorrowingService());
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new ServiceMetricsAspect(registry));
+        timed = proxyFactory.getProxy();
+    }
+    
+    @Benchmark
+    public Optional<BorrowingResponse> plainCall() {
+        return plain.getBorrowingTransactionById(7L);
+    }
+    
+    @Benchmark
+    public Optional<BorrowingResponse> timedCall() {
+        return timed.getBorrowingTransactionById(7L);
+    }
+    
+    /**
+     * A service whose lookup touches no collaborators, so only the advice is measured
+     */
+    static class StubBorrowingService extends BorrowingService {
+        
+        StubBorrowingService() {
+            super(null, null, null, null, null, null, null, null, null);
+        }
+        
+        @Override
+        public Optional<BorrowingResponse> getBorrowingTransactionById(Long transactionId) {
+            return Optional.empty();
+        }
+    }
+}
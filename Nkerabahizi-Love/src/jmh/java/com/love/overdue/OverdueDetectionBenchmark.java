@@ -0,0 +1,96 @@
+package com.love.overdue;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of finding the loans that fell due in one tick of the overdue scheduler, with every loan
+ * open and due within the next loan period. The timing wheel only touches the buckets whose time
+ * has come; the scan baseline checks every open loan per tick, as a periodic query without an
+ * index on the due date would, but entirely in memory. Expired loans are renewed for another
+ * period so the number of open loans stays constant.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OverdueDetectionBenchmark {
+    
+    private static final long TICK_MS = 1000;
+    private static final long LOAN_PERIOD_MS = TimeUnit.DAYS.toMillis(14);
+    
+    @Param("1000000")
+    private int openLoans;
+    
+    private long[] dueDates;
+    private HierarchicalTimingWheel wheel;
+    private long wheelNow;
+    private long scanNow;
+    private long[] expired;
+    private int expiredCount;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        dueDates = new long[openLoans];
+        SplittableRandom random = new SplittableRandom(42);
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < openLoans; i++) {
+            dueDates[i] = start + 1 + random.nextLong(LOAN_PERIOD_MS);
+        }
+        wheel = load(start);
+        wheelNow = start;
+        scanNow = start;
+        expired = new long[openLoans];
+    }
+    
+    /**
+     * Load every open loan into a new wheel, as at startup
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public HierarchicalTimingWheel loadWheel() {
+        return load(System.currentTimeMillis());
+    }
+    
+    @Benchmark
+    public int wheelTick() {
+        wheelNow += TICK_MS;
+        expiredCount = 0;
+        wheel.advance(wheelNow, id -> expired[expiredCount++] = id);
+        for (int i = 0; i < expiredCount; i++) {
+            wheel.schedule(expired[i], wheelNow + LOAN_PERIOD_MS);
+        }
+        return expiredCount;
+    }
+    
+    @Benchmark
+    public int scanTick() {
+        scanNow += TICK_MS;
+        int count = 0;
+        for (int i = 0; i < dueDates.length; i++) {
+            if (dueDates[i] <= scanNow) {
+                dueDates[i] = scanNow + LOAN_PERIOD_MS;
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    private HierarchicalTimingWheel load(long start) {
+        HierarchicalTimingWheel loaded = new HierarchicalTimingWheel(TICK_MS, start);
+        for (int i = 0; i < dueDates.length; i++) {
+            loaded.schedule(i, dueDates[i]);
+        }
+        return loaded;
+    }
+}
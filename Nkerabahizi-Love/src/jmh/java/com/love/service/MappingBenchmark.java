@@ -0,0 +1,61 @@
+package com.love.service;
+
+import com.love.dto.BookResponse;
+import com.love.dto.BorrowingResponse;
+import com.love.entity.Book;
+import com.love.entity.Borrower;
+import com.love.entity.BorrowingTransaction;
+import com.love.enums.BookAvailabilityStatus;
+import com.love.enums.BorrowingStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The entity to response mappers shared by the services. Lives in the service package to reach
+ * the package-private {@link ResponseMapper}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MappingBenchmark {
+    
+    private Book book;
+    private BookResponse bookResponse;
+    private BorrowingTransaction transaction;
+    
+    @Setup
+    public void setUp() {
+        book = new Book("The Great Gatsby", "F. Scott Fitzgerald", "978-0743273565");
+        book.setId(42L);
+        book.setAvailabilityStatus(BookAvailabilityStatus.BORROWED);
+        bookResponse = ResponseMapper.toBookResponse(book);
+        
+        transaction = new BorrowingTransaction(book, new Borrower("Jane Reader"), LocalDateTime.of(2025, 1, 15, 10, 30),
+                LocalDateTime.of(2025, 1, 29, 10, 30));
+        transaction.setId(7L);
+        transaction.setStatus(BorrowingStatus.PENDING);
+    }
+    
+    @Benchmark
+    public BookResponse convertToBookResponse() {
+        return ResponseMapper.toBookResponse(book);
+    }
+    
+    @Benchmark
+    public BorrowingResponse convertToBorrowingResponse() {
+        return ResponseMapper.toBorrowingResponse(transaction);
+    }
+    
+    @Benchmark
+    public BorrowingResponse convertToBorrowingResponseFromBook() {
+        return ResponseMapper.toBorrowingResponse(transaction, bookResponse);
+    }
+}
@@ -0,0 +1,158 @@
+package com.love.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.love.dto.BookResponse;
+import com.love.dto.CacheStatsResponse;
+import com.love.event.BookAvailabilityChangedEvent;
+import com.love.event.BookCreatedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Bounded in-process cache of book details keyed by ISBN, in front of {@code BookRepository.findByIsbn}.
+ * Eviction is size based (Caffeine's W-TinyLFU policy). New books and availability changes drop
+ * the entry once their transaction commits, and the next lookup reloads it. Entries are never
+ * written from an event: after-commit listeners run in no particular order, so a late borrow event
+ * could otherwise overwrite the status of a return committed after it.
+ * Cached responses are shared between callers and must be treated as read-only.
+ * <p>
+ * Loads run on the calling thread outside the map's internal locks: a miss only claims the entry
+ * with an incomplete future, so a virtual thread waiting on the database never pins its carrier.
+ * Dropping an entry also drops a load still in flight, whose result may predate the change.
+ */
+@Component
+public class BookCache {
+    
+    private final long maximumSize;
+    private final AsyncCache<String, BookResponse> loads;
+    private final Cache<String, BookResponse> cache;
+    private final Set<String> invalidatedDuringWarmUp = ConcurrentHashMap.newKeySet();
+    private volatile boolean warmingUp;
+    
+    @Autowired
+    public BookCache(@Value("${library.cache.books.maximum-size:100000}") long maximumSize) {
+        this.maximumSize = maximumSize;
+        this.loads = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .buildAsync();
+        this.cache = loads.synchronous();
+    }
+    
+    /**
+     * Get a book by ISBN, loading and caching it on a miss. Unknown ISBNs are not cached.
+     * A load runs at most once per ISBN at a time; concurrent callers wait for its result.
+     * @param isbn the ISBN to look up
+     * @param loader loads the book from the database on a miss
+     * @return Optional containing the book if found
+     */
+    public Optional<BookResponse> get(String isbn, Function<String, Optional<BookResponse>> loader) {
+        CompletableFuture<BookResponse> claim = new CompletableFuture<>();
+        CompletableFuture<BookResponse> entry = loads.get(isbn, (key, executor) -> claim);
+        if (entry == claim) {
+            // A future completed with null or an exception is removed from the cache again
+            try {
+                claim.complete(loader.apply(isbn).orElse(null));
+            } catch (RuntimeException e) {
+                claim.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return Optional.ofNullable(entry.join());
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+    
+    /**
+     * Fill the cache with the given books until it reaches its maximum size, without counting misses.
+     * Entries already present are kept, and so are entries dropped by a change that commits while
+     * the books are read: the copy read for them may be older than the change.
+     * @param books opens the stream of books to cache, most wanted first; closed on return
+     * @return the number of books added
+     */
+    public long warm(Supplier<Stream<BookResponse>> books) {
+        // Track invalidations from before the query starts, so none of the changes it may miss is lost
+        warmingUp = true;
+        long added = 0;
+        try (Stream<BookResponse> stream = books.get()) {
+            Iterator<BookResponse> iterator = stream.iterator();
+            while (iterator.hasNext() && cache.estimatedSize() < maximumSize) {
+                BookResponse book = iterator.next();
+                if (cache.asMap().putIfAbsent(book.getIsbn(), book) == null) {
+                    if (invalidatedDuringWarmUp.contains(book.getIsbn())) {
+                        cache.asMap().remove(book.getIsbn(), book);
+                    } else {
+                        added++;
+                    }
+                }
+            }
+        } finally {
+            warmingUp = false;
+            invalidatedDuringWarmUp.clear();
+        }
+        return added;
+    }
+    
+    /**
+     * Drop the entry of a book, and any load of it still in flight
+     * @param isbn the ISBN of the book
+     */
+    public void invalidate(String isbn) {
+        if (warmingUp) {
+            invalidatedDuringWarmUp.add(isbn);
+        }
+        cache.invalidate(isbn);
+    }
+    
+    /**
+     * Drop any entry of a newly created book once its transaction commits
+     * @param event the book created event
+     */
+    @Order(CatalogVersions.CONTENT_LISTENER_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookCreated(BookCreatedEvent event) {
+        invalidate(event.getBook().getIsbn());
+    }
+    
+    /**
+     * Drop the entry of a book once a change of its availability commits
+     * @param event the availability changed event
+     */
+    @Order(CatalogVersions.CONTENT_LISTENER_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAvailabilityChanged(BookAvailabilityChangedEvent event) {
+        invalidate(event.getIsbn());
+    }
+    
+    /**
+     * Get hit, miss and eviction statistics of the cache
+     * @return the cache statistics
+     */
+    public CacheStatsResponse getStatistics() {
+        CacheStats stats = cache.stats();
+        return new CacheStatsResponse(
+                cache.estimatedSize(),
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                stats.evictionCount());
+    }
+}
@@ -0,0 +1,132 @@
+package com.love.cache;
+
+import com.love.event.BookAvailabilityChangedEvent;
+import com.love.event.BookCreatedEvent;
+import com.love.event.BooksImportedEvent;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Version counters behind the ETag headers of the catalog endpoints, so a
+ * conditional GET can be answered without reading the book. Every committed change to a book
+ * takes the next value of one counter; the book keeps it as its own version and it becomes the
+ * version of the whole catalog.
+ * <p>
+ * Only books changed since startup are tracked. The others share a default version, taken when
+ * the application starts and again after each bulk import, so an ISBN that was unknown before an
+ * import never keeps the version it had while it did not exist. ETags carry the startup time, so
+ * they do not repeat across restarts.
+ * <p>
+ * Versions are bumped after the listeners that update the book cache and the availability index,
+ * which run at {@link #CONTENT_LISTENER_ORDER}, so a new ETag is never served with old content.
+ * No Last-Modified is sent: several changes can fall within the one-second resolution of
+ * If-Modified-Since.
+ */
+@Component
+public class CatalogVersions {
+    
+    /**
+     * Order of the after-commit listeners that update what the catalog endpoints serve
+     */
+    public static final int CONTENT_LISTENER_ORDER = Ordered.LOWEST_PRECEDENCE - 1;
+    
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong counter = new AtomicLong();
+    private final AtomicReference<Version> catalog = new AtomicReference<>(new Version(epoch, 0));
+    private final AtomicReference<Version> untouchedBooks = new AtomicReference<>(catalog.get());
+    private final Map<String, Version> books = new ConcurrentHashMap<>();
+    
+    /**
+     * Get the version of a single book, also for an ISBN that is not in the catalog
+     * @param isbn the ISBN of the book
+     * @return the version of the book
+     */
+    public Version getBookVersion(String isbn) {
+        Version version = books.get(isbn);
+        return version != null ? version : untouchedBooks.get();
+    }
+    
+    /**
+     * Get the version of the whole catalog, which changes with every book
+     * @return the catalog version
+     */
+    public Version getCatalogVersion() {
+        return catalog.get();
+    }
+    
+    /**
+     * Bump the version of a newly created book once its transaction commits
+     * @param event the book created event
+     */
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookCreated(BookCreatedEvent event) {
+        bookChanged(event.getBook().getIsbn());
+    }
+    
+    /**
+     * Bump the version of a book whose availability changed once its transaction commits
+     * @param event the availability changed event
+     */
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAvailabilityChanged(BookAvailabilityChangedEvent event) {
+        bookChanged(event.getIsbn());
+    }
+    
+    /**
+     * Bump the catalog and the default book version once an import chunk commits,
+     * rather than tracking every imported book
+     * @param event the books imported event
+     */
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksImported(BooksImportedEvent event) {
+        Version version = next();
+        untouchedBooks.accumulateAndGet(version, Version::latest);
+        catalog.accumulateAndGet(version, Version::latest);
+    }
+    
+    private void bookChanged(String isbn) {
+        Version version = next();
+        books.merge(isbn, version, Version::latest);
+        catalog.accumulateAndGet(version, Version::latest);
+    }
+    
+    private Version next() {
+        return new Version(epoch, counter.incrementAndGet());
+    }
+    
+    /**
+     * A version number with its ETag
+     */
+    public static final class Version {
+        
+        private final String eTag;
+        private final long value;
+        
+        private Version(String epoch, long value) {
+            this.eTag = "\"" + epoch + "-" + Long.toString(value, 36) + "\"";
+            this.value = value;
+        }
+        
+        /**
+         * Get the strong ETag for this version, quoted
+         * @return the ETag
+         */
+        public String getETag() {
+            return eTag;
+        }
+        
+        private static Version latest(Version a, Version b) {
+            return a.value >= b.value ? a : b;
+        }
+    }
+}
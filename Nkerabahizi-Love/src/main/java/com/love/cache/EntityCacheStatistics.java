@@ -0,0 +1,56 @@
+package com.love.cache;
+
+import com.love.dto.CacheRegionStatsResponse;
+import com.love.entity.Book;
+import com.love.repository.BookRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hit and miss counts of the Hibernate second-level cache regions for books: rows by id, ids by
+ * ISBN, and the listings by status. Empty when the application runs without JPA, as under the
+ * journal profile.
+ */
+@Component
+public class EntityCacheStatistics {
+    
+    private static final List<String> REGIONS = List.of(
+            Book.CACHE_REGION, Book.ISBN_CACHE_REGION, BookRepository.AVAILABILITY_QUERY_CACHE_REGION);
+    
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+    
+    @Autowired
+    public EntityCacheStatistics(ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+    
+    /**
+     * Get the statistics of every book cache region since startup
+     * @return one entry per region
+     */
+    public List<CacheRegionStatsResponse> getStatistics() {
+        EntityManagerFactory factory = entityManagerFactory.getIfAvailable();
+        if (factory == null) {
+            return List.of();
+        }
+        Statistics statistics = factory.unwrap(SessionFactory.class).getStatistics();
+        List<CacheRegionStatsResponse> regions = new ArrayList<>(REGIONS.size());
+        for (String region : REGIONS) {
+            CacheRegionStatistics stats = statistics.getCacheRegionStatistics(region);
+            long hits = stats == null ? 0 : stats.getHitCount();
+            long misses = stats == null ? 0 : stats.getMissCount();
+            long puts = stats == null ? 0 : stats.getPutCount();
+            regions.add(new CacheRegionStatsResponse(region, hits, misses, puts,
+                    hits + misses == 0 ? 0.0 : (double) hits / (hits + misses)));
+        }
+        return regions;
+    }
+}
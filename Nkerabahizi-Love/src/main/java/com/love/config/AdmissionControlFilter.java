@@ -0,0 +1,116 @@
+package com.love.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounds the number of API requests in progress to a small multiple of the connection pool size.
+ * <p>
+ * With virtual threads the container no longer caps concurrency, so a burst would otherwise pile
+ * thousands of threads onto the pool, each holding a session until the pool's connection timeout.
+ * Excess requests instead wait in a fair queue on a semaphore, which parks virtual threads cheaply,
+ * and are answered with 503 and a {@code Retry-After} header if no permit frees up in time.
+ * Actuator and other non-API paths are never queued.
+ * <p>
+ * Bulk imports and the NDJSON export hold a permit for as long as they stream, so they draw from
+ * a small limit of their own and cannot starve the short requests.
+ * <p>
+ * Enabled by the virtual profile only. On platform threads the Tomcat thread pool already bounds
+ * concurrency and queues the excess.
+ */
+@Component
+public class AdmissionControlFilter extends OncePerRequestFilter {
+    
+    private static final String API_PREFIX = "/api/";
+    
+    /**
+     * Long-running routes, as method and path, that are admitted against the bulk limit
+     */
+    private static final Set<String> BULK_ROUTES = Set.of(
+            "GET /api/borrowings/export",
+            "POST /api/books/bulk");
+    
+    private final boolean enabled;
+    private final long queueTimeoutMs;
+    private final Semaphore permits;
+    private final Semaphore bulkPermits;
+    private final Counter rejected;
+    
+    @Autowired
+    public AdmissionControlFilter(@Value("${library.admission.enabled:false}") boolean enabled,
+                                  @Value("${library.admission.max-concurrent-requests:20}") int maxConcurrentRequests,
+                                  @Value("${library.admission.max-concurrent-bulk-requests:2}") int maxConcurrentBulkRequests,
+                                  @Value("${library.admission.queue-timeout-ms:2000}") long queueTimeoutMs,
+                                  MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.queueTimeoutMs = queueTimeoutMs;
+        this.permits = new Semaphore(maxConcurrentRequests, true);
+        this.bulkPermits = new Semaphore(maxConcurrentBulkRequests, true);
+        this.rejected = Counter.builder("library.admission.rejected")
+                .description("API requests rejected with 503 after waiting for admission")
+                .register(meterRegistry);
+        registerGauges(meterRegistry, "standard", permits, maxConcurrentRequests);
+        registerGauges(meterRegistry, "bulk", bulkPermits, maxConcurrentBulkRequests);
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith(API_PREFIX);
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Semaphore routePermits = BULK_ROUTES.contains(request.getMethod() + " " + request.getRequestURI())
+                ? bulkPermits
+                : permits;
+        boolean admitted;
+        try {
+            admitted = routePermits.tryAcquire(queueTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        if (!admitted) {
+            rejected.increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"The server is busy, please retry\"}");
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            routePermits.release();
+        }
+    }
+    
+    private static void registerGauges(MeterRegistry meterRegistry, String route, Semaphore permits, int limit) {
+        Gauge.builder("library.admission.in.flight", permits, p -> limit - p.availablePermits())
+                .description("API requests currently admitted")
+                .tag("route", route)
+                .register(meterRegistry);
+        Gauge.builder("library.admission.queued", permits, Semaphore::getQueueLength)
+                .description("API requests waiting for admission")
+                .tag("route", route)
+                .register(meterRegistry);
+    }
+}
@@ -1,52 +1,61 @@
 package com.love.config;
 
-import com.love.entity.Book;
-import com.love.enums.BookAvailabilityStatus;
+import com.love.dto.BulkImportResponse;
 import com.love.repository.BookRepository;
+import com.love.service.BookService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Seeds an empty catalog from the bundled CSV dataset at {@code library.seed.books}.
+ * The rows go through the bulk import, so they are validated and inserted in JDBC batches
+ * of {@link BookService#IMPORT_CHUNK_SIZE} instead of one statement per book.
+ */
 @Component
 public class DataLoader implements CommandLineRunner {
     
+    private static final Logger log = LoggerFactory.getLogger(DataLoader.class);
+    
     private final BookRepository bookRepository;
+    private final BookService bookService;
+    private final Resource seedBooks;
     
     @Autowired
-    public DataLoader(BookRepository bookRepository) {
+    public DataLoader(BookRepository bookRepository,
+                      BookService bookService,
+                      @Value("${library.seed.books:classpath:data/sample-books.csv}") Resource seedBooks) {
         this.bookRepository = bookRepository;
+        this.bookService = bookService;
+        this.seedBooks = seedBooks;
     }
     
     @Override
     public void run(String... args) throws Exception {
         // Load sample books if the database is empty
-        if (bookRepository.count() == 0) {
+        if (seedBooks.exists() && bookRepository.count() == 0) {
             loadSampleBooks();
         }
     }
     
-    private void loadSampleBooks() {
-        // Sample books for testing
-        Book book1 = new Book("The Great Gatsby", "F. Scott Fitzgerald", "978-0743273565");
-        book1.setAvailabilityStatus(BookAvailabilityStatus.AVAILABLE);
-        bookRepository.save(book1);
-        
-        Book book2 = new Book("To Kill a Mockingbird", "Harper Lee", "978-0446310789");
-        book2.setAvailabilityStatus(BookAvailabilityStatus.AVAILABLE);
-        bookRepository.save(book2);
-        
-        Book book3 = new Book("1984", "George Orwell", "978-0451524935");
-        book3.setAvailabilityStatus(BookAvailabilityStatus.AVAILABLE);
-        bookRepository.save(book3);
-        
-        Book book4 = new Book("Pride and Prejudice", "Jane Austen", "978-0141439518");
-        book4.setAvailabilityStatus(BookAvailabilityStatus.AVAILABLE);
-        bookRepository.save(book4);
-        
-        Book book5 = new Book("The Hobbit", "J.R.R. Tolkien", "978-0547928241");
-        book5.setAvailabilityStatus(BookAvailabilityStatus.AVAILABLE);
-        bookRepository.save(book5);
-        
-        System.out.println("Sample books loaded successfully!");
+    private void loadSampleBooks() throws Exception {
+        long started = System.nanoTime();
+        BulkImportResponse result;
+        try (Reader csv = new InputStreamReader(seedBooks.getInputStream(), StandardCharsets.UTF_8)) {
+            result = bookService.importBooksFromCsv(csv);
+        }
+        log.info("Loaded {} sample books from {} in {} ms", result.getImported(), seedBooks.getDescription(),
+                (System.nanoTime() - started) / 1_000_000);
+        if (!result.getErrors().isEmpty()) {
+            log.warn("Skipped {} invalid rows of {}", result.getErrors().size(), seedBooks.getDescription());
+        }
     }
-} 
\ No newline at end of file
+}
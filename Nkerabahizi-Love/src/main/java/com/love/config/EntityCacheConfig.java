@@ -0,0 +1,30 @@
+package com.love.config;
+
+import com.github.benmanes.caffeine.jcache.CacheManagerImpl;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.URI;
+import java.util.Properties;
+
+/**
+ * Gives each Hibernate session factory a JCache manager of its own for the second-level cache.
+ * The JCache provider otherwise hands every session factory in the JVM the same manager, and
+ * Hibernate closes it when any one of them shuts down, breaking the caches of the others.
+ */
+@Configuration
+public class EntityCacheConfig {
+    
+    // Region sizes of the second-level cache
+    private static final URI CACHE_CONFIGURATION = URI.create("classpath:hibernate-cache.conf");
+    
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheManager() {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, new CacheManagerImpl(
+                new CaffeineCachingProvider(), false, CACHE_CONFIGURATION,
+                EntityCacheConfig.class.getClassLoader(), new Properties()));
+    }
+}
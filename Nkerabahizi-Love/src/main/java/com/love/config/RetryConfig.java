@@ -0,0 +1,13 @@
+package com.love.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.retry.annotation.EnableRetry;
+
+/**
+ * Enables annotation-driven retries. The retry advice is ordered before the transaction
+ * advice, so every attempt of a retried service method runs in a fresh transaction.
+ */
+@Configuration
+@EnableRetry
+public class RetryConfig {
+}
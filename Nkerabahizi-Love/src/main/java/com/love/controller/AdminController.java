@@ -0,0 +1,118 @@
+package com.love.controller;
+
+import com.love.cache.BookCache;
+import com.love.cache.EntityCacheStatistics;
+import com.love.dto.CacheRegionStatsResponse;
+import com.love.dto.CacheStatsResponse;
+import com.love.dto.ContentionResponse;
+import com.love.dto.IndexConsistencyResponse;
+import com.love.dto.PipelineStatsResponse;
+import com.love.dto.SuggestionIndexStatsResponse;
+import com.love.index.BookSuggestionIndex;
+import com.love.pipeline.CirculationPipeline;
+import com.love.service.AvailabilityIndexService;
+import com.love.service.ConflictRetryMonitor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin")
+@CrossOrigin(origins = "*")
+public class AdminController {
+    
+    private final ConflictRetryMonitor conflictRetryMonitor;
+    private final BookCache bookCache;
+    private final EntityCacheStatistics entityCacheStatistics;
+    private final AvailabilityIndexService availabilityIndexService;
+    private final BookSuggestionIndex bookSuggestionIndex;
+    private final CirculationPipeline circulationPipeline;
+    
+    @Autowired
+    public AdminController(ConflictRetryMonitor conflictRetryMonitor,
+                           BookCache bookCache,
+                           EntityCacheStatistics entityCacheStatistics,
+                           AvailabilityIndexService availabilityIndexService,
+                           BookSuggestionIndex bookSuggestionIndex,
+                           CirculationPipeline circulationPipeline) {
+        this.conflictRetryMonitor = conflictRetryMonitor;
+        this.bookCache = bookCache;
+        this.entityCacheStatistics = entityCacheStatistics;
+        this.availabilityIndexService = availabilityIndexService;
+        this.bookSuggestionIndex = bookSuggestionIndex;
+        this.circulationPipeline = circulationPipeline;
+    }
+    
+    /**
+     * Get write conflict and retry counters per service operation
+     * GET /api/admin/contention
+     * @return ResponseEntity with the contention statistics
+     */
+    @GetMapping("/contention")
+    public ResponseEntity<List<ContentionResponse>> getContentionStatistics() {
+        return ResponseEntity.ok(conflictRetryMonitor.getStatistics());
+    }
+    
+    /**
+     * Get hit, miss and eviction statistics of the ISBN lookup cache
+     * GET /api/admin/cache
+     * @return ResponseEntity with the cache statistics
+     */
+    @GetMapping("/cache")
+    public ResponseEntity<CacheStatsResponse> getCacheStatistics() {
+        return ResponseEntity.ok(bookCache.getStatistics());
+    }
+    
+    /**
+     * Get hit, miss and put statistics of the Hibernate second-level cache regions for books
+     * GET /api/admin/entity-cache
+     * @return ResponseEntity with one entry per cache region
+     */
+    @GetMapping("/entity-cache")
+    public ResponseEntity<List<CacheRegionStatsResponse>> getEntityCacheStatistics() {
+        return ResponseEntity.ok(entityCacheStatistics.getStatistics());
+    }
+    
+    /**
+     * Compare the availability index with the books table
+     * GET /api/admin/availability-index
+     * @return ResponseEntity with the consistency report
+     */
+    @GetMapping("/availability-index")
+    public ResponseEntity<IndexConsistencyResponse> checkAvailabilityIndex() {
+        return ResponseEntity.ok(availabilityIndexService.checkConsistency());
+    }
+    
+    /**
+     * Rebuild the availability index from the books table
+     * POST /api/admin/availability-index/rebuild
+     * @return ResponseEntity with the consistency report after the rebuild
+     */
+    @PostMapping("/availability-index/rebuild")
+    public ResponseEntity<IndexConsistencyResponse> rebuildAvailabilityIndex() {
+        availabilityIndexService.rebuildIndex();
+        return ResponseEntity.ok(availabilityIndexService.checkConsistency());
+    }
+    
+    /**
+     * Get the size and memory use of the title and author suggestion index
+     * GET /api/admin/suggestions
+     * @return ResponseEntity with the suggestion index statistics
+     */
+    @GetMapping("/suggestions")
+    public ResponseEntity<SuggestionIndexStatsResponse> getSuggestionStatistics() {
+        return ResponseEntity.ok(bookSuggestionIndex.getStatistics());
+    }
+    
+    /**
+     * Get the capacity, throughput and per-handler lag of the circulation event pipeline
+     * GET /api/admin/pipeline
+     * @return ResponseEntity with the pipeline statistics
+     */
+    @GetMapping("/pipeline")
+    public ResponseEntity<PipelineStatsResponse> getPipelineStatistics() {
+        return ResponseEntity.ok(circulationPipeline.getStatistics());
+    }
+}
\ No newline at end of file
@@ -1,14 +1,25 @@
 package com.love.controller;
 
+import com.love.cache.CatalogVersions;
 import com.love.dto.BookRequest;
 import com.love.dto.BookResponse;
+import com.love.dto.BulkImportResponse;
+import com.love.dto.CursorPageResponse;
+import com.love.dto.SearchPageResponse;
+import com.love.dto.SuggestionResponse;
+import com.love.enums.BookAvailabilityStatus;
+import com.love.service.BookSearchService;
 import com.love.service.BookService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.Reader;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,11 +28,18 @@ import java.util.Optional;
 @CrossOrigin(origins = "*")
 public class BookController {
     
+    // Pollers may keep a copy but must revalidate it with If-None-Match before each use
+    private static final CacheControl REVALIDATE = CacheControl.noCache();
+    
     private final BookService bookService;
+    private final BookSearchService bookSearchService;
+    private final CatalogVersions catalogVersions;
     
     @Autowired
-    public BookController(BookService bookService) {
+    public BookController(BookService bookService, BookSearchService bookSearchService, CatalogVersions catalogVersions) {
         this.bookService = bookService;
+        this.bookSearchService = bookSearchService;
+        this.catalogVersions = catalogVersions;
     }
     
     /**
@@ -41,53 +59,172 @@ public class BookController {
     }
     
     /**
-     * Retrieve book details by ISBN
+     * Import many books at once from a JSON array
+     * POST /api/books/bulk
+     * @param bookRequests the books to import
+     * @return ResponseEntity with the import summary and per-row errors
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkImportResponse> importBooks(@RequestBody List<BookRequest> bookRequests) {
+        BulkImportResponse result = bookService.importBooks(bookRequests);
+        return ResponseEntity.ok(result);
+    }
+    
+    /**
+     * Import many books at once from CSV (title,author,isbn[,availabilityStatus])
+     * POST /api/books/bulk
+     * @param csv the CSV request body
+     * @return ResponseEntity with the import summary and per-row errors
+     */
+    @PostMapping(value = "/bulk", consumes = "text/csv")
+    public ResponseEntity<BulkImportResponse> importBooksFromCsv(Reader csv) {
+        BulkImportResponse result = bookService.importBooksFromCsv(csv);
+        return ResponseEntity.ok(result);
+    }
+    
+    /**
+     * Retrieve book details by ISBN. Conditional on the version of the book: a matching
+     * If-None-Match is answered with 304 before the book is looked up.
      * GET /api/books/{isbn}
      * @param isbn the ISBN to search for
+     * @param request the request, for its conditional headers
      * @return ResponseEntity with book details if found
      */
     @GetMapping("/{isbn}")
-    public ResponseEntity<BookResponse> getBookByIsbn(@PathVariable String isbn) {
+    public ResponseEntity<BookResponse> getBookByIsbn(@PathVariable String isbn, WebRequest request) {
+        // Read the version before the book: a change in between costs the client one more
+        // full response, never a stale copy under the new ETag
+        CatalogVersions.Version version = catalogVersions.getBookVersion(isbn);
+        if (request.checkNotModified(version.getETag())) {
+            return notModified();
+        }
+        
+        // checkNotModified has already set the ETag header
         Optional<BookResponse> book = bookService.findBookByIsbn(isbn);
-        return book.map(ResponseEntity::ok)
+        return book.map(found -> ResponseEntity.ok().cacheControl(REVALIDATE).body(found))
                 .orElse(ResponseEntity.notFound().build());
     }
     
     /**
-     * Retrieve book availability by ISBN
+     * Retrieve book availability by ISBN. Conditional on the version of the book, like {@code GET /api/books/{isbn}}.
      * GET /api/books/{isbn}/availability
      * @param isbn the ISBN to check
+     * @param request the request, for its conditional headers
      * @return ResponseEntity with availability status
      */
     @GetMapping("/{isbn}/availability")
-    public ResponseEntity<String> getBookAvailability(@PathVariable String isbn) {
+    public ResponseEntity<String> getBookAvailability(@PathVariable String isbn, WebRequest request) {
+        CatalogVersions.Version version = catalogVersions.getBookVersion(isbn);
+        if (request.checkNotModified(version.getETag())) {
+            return notModified();
+        }
+        
         try {
             String availability = bookService.getBookAvailability(isbn);
-            return ResponseEntity.ok(availability);
+            return ResponseEntity.ok().cacheControl(REVALIDATE).body(availability);
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
     
     /**
-     * Get all books
-     * GET /api/books
-     * @return ResponseEntity with list of all books
+     * Get a page of books, optionally filtered by title, author and availability status
+     * GET /api/books?cursor={id}&size={size}&title={title}&author={author}&status={status}
+     * @param cursor the nextCursor of the previous page, omitted for the first page
+     * @param size the page size (default 20, max 100)
+     * @param title optional case-insensitive title fragment
+     * @param author optional case-insensitive author fragment
+     * @param status optional availability status
+     * @return ResponseEntity with the page of books and the cursor of the next page
      */
     @GetMapping
-    public ResponseEntity<List<BookResponse>> getAllBooks() {
-        List<BookResponse> books = bookService.getAllBooks();
+    public ResponseEntity<CursorPageResponse<BookResponse>> getAllBooks(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String title,
+            @RequestParam(required = false) String author,
+            @RequestParam(required = false) BookAvailabilityStatus status) {
+        CursorPageResponse<BookResponse> books = bookService.getBooks(cursor, size, title, author, status);
         return ResponseEntity.ok(books);
     }
     
     /**
-     * Get all available books
-     * GET /api/books/available
-     * @return ResponseEntity with list of available books
+     * Get a page of available books, optionally filtered by title and author.
+     * Conditional on the catalog version, which changes with any book.
+     * GET /api/books/available?cursor={id}&size={size}&title={title}&author={author}
+     * @param cursor the nextCursor of the previous page, omitted for the first page
+     * @param size the page size (default 20, max 100)
+     * @param title optional case-insensitive title fragment
+     * @param author optional case-insensitive author fragment
+     * @param request the request, for its conditional headers
+     * @return ResponseEntity with the page of available books and the cursor of the next page
      */
     @GetMapping("/available")
-    public ResponseEntity<List<BookResponse>> getAvailableBooks() {
-        List<BookResponse> books = bookService.getAvailableBooks();
-        return ResponseEntity.ok(books);
+    public ResponseEntity<CursorPageResponse<BookResponse>> getAvailableBooks(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String title,
+            @RequestParam(required = false) String author,
+            WebRequest request) {
+        CatalogVersions.Version version = catalogVersions.getCatalogVersion();
+        if (request.checkNotModified(version.getETag())) {
+            return notModified();
+        }
+        
+        CursorPageResponse<BookResponse> books = bookService.getAvailableBooks(cursor, size, title, author);
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(books);
+    }
+    
+    /**
+     * Count available books, optionally within a range of book ids
+     * GET /api/books/available/count?fromId={id}&toId={id}
+     * @param fromId optional lowest book id to count
+     * @param toId optional highest book id to count
+     * @return ResponseEntity with the number of available books
+     */
+    @GetMapping("/available/count")
+    public ResponseEntity<Long> countAvailableBooks(
+            @RequestParam(required = false) Long fromId,
+            @RequestParam(required = false) Long toId) {
+        return ResponseEntity.ok(bookService.countAvailableBooks(fromId, toId));
+    }
+    
+    /**
+     * Search books by words of their title and author, best matches first
+     * GET /api/books/search?q={query}&page={page}&size={size}
+     * @param q the search terms; every term must occur in the title or the author
+     * @param page the zero-based page number (default 0)
+     * @param size the page size (default 20, max 100)
+     * @return ResponseEntity with the page of ranked books and the total number of hits
+     */
+    @GetMapping("/search")
+    public ResponseEntity<SearchPageResponse<BookResponse>> searchBooks(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(bookSearchService.searchBooks(q, page, size));
+    }
+    
+    /**
+     * Suggest titles and authors for type-ahead
+     * GET /api/books/suggest?prefix={text}&limit={limit}&available={true|false}
+     * @param prefix the text typed so far
+     * @param limit the maximum number of suggestions (default 10, max 20)
+     * @param available only suggest titles and authors with an available book
+     * @return ResponseEntity with the suggestions, most common first
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionResponse>> suggest(
+            @RequestParam String prefix,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean available) {
+        return ResponseEntity.ok(bookSearchService.suggest(prefix, limit, available));
+    }
+    
+    /**
+     * Build the 304 response of a conditional GET; its ETag header is already set
+     */
+    private static <T> ResponseEntity<T> notModified() {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE).build();
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
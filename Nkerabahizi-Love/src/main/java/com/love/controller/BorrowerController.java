@@ -0,0 +1,69 @@
+package com.love.controller;
+
+import com.love.dto.BorrowerResponse;
+import com.love.dto.BorrowingResponse;
+import com.love.dto.CursorPageResponse;
+import com.love.enums.BorrowingStatus;
+import com.love.service.BorrowerService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/borrowers")
+@CrossOrigin(origins = "*")
+public class BorrowerController {
+    
+    private final BorrowerService borrowerService;
+    
+    @Autowired
+    public BorrowerController(BorrowerService borrowerService) {
+        this.borrowerService = borrowerService;
+    }
+    
+    /**
+     * Get a borrower by name; borrowers are registered on their first borrow
+     * GET /api/borrowers?name={name}
+     * @param name the borrower name
+     * @return ResponseEntity with the borrower if found
+     */
+    @GetMapping
+    public ResponseEntity<BorrowerResponse> getBorrowerByName(@RequestParam String name) {
+        return borrowerService.getBorrowerByName(name)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * Get a borrower with their number of open loans and the loan limit
+     * GET /api/borrowers/{id}
+     * @param id the borrower id
+     * @return ResponseEntity with the borrower if found
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<BorrowerResponse> getBorrower(@PathVariable Long id) {
+        return borrowerService.getBorrower(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * Get a page of a borrower's loans, most recent first
+     * GET /api/borrowers/{id}/loans?status={status}&cursor={cursor}&size={size}
+     * @param id the borrower id
+     * @param status optional status to filter by, e.g. PENDING for what the borrower currently has
+     * @param cursor the nextCursor of the previous page, omitted for the first page
+     * @param size the page size (default 20, max 100)
+     * @return ResponseEntity with the page of loans and the cursor of the next page, 404 if the borrower does not exist
+     */
+    @GetMapping("/{id}/loans")
+    public ResponseEntity<CursorPageResponse<BorrowingResponse>> getLoans(
+            @PathVariable Long id,
+            @RequestParam(required = false) BorrowingStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return borrowerService.getLoans(id, status, cursor, size)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
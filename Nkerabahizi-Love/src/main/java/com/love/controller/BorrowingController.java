@@ -1,15 +1,27 @@
 package com.love.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.love.dto.BorrowingRequest;
 import com.love.dto.BorrowingResponse;
+import com.love.dto.CirculationStatsResponse;
 import com.love.enums.BorrowingStatus;
 import com.love.service.BorrowingService;
+import com.love.service.CirculationStatisticsService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,11 +30,22 @@ import java.util.Optional;
 @CrossOrigin(origins = "*")
 public class BorrowingController {
     
+    private static final int EXPORT_FLUSH_INTERVAL = 1000;
+    
     private final BorrowingService borrowingService;
+    private final CirculationStatisticsService circulationStatisticsService;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter exportWriter;
     
     @Autowired
-    public BorrowingController(BorrowingService borrowingService) {
+    public BorrowingController(BorrowingService borrowingService,
+                               CirculationStatisticsService circulationStatisticsService,
+                               ObjectMapper objectMapper) {
         this.borrowingService = borrowingService;
+        this.circulationStatisticsService = circulationStatisticsService;
+        this.objectMapper = objectMapper;
+        this.exportWriter = objectMapper.writerFor(BorrowingResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
     
     /**
@@ -36,6 +59,8 @@ public class BorrowingController {
         try {
             BorrowingResponse createdTransaction = borrowingService.createBorrowingTransaction(borrowingRequest);
             return ResponseEntity.status(HttpStatus.CREATED).body(createdTransaction);
+        } catch (ConcurrencyFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
@@ -52,6 +77,8 @@ public class BorrowingController {
         try {
             BorrowingResponse updatedTransaction = borrowingService.returnBook(transactionId);
             return ResponseEntity.ok(updatedTransaction);
+        } catch (ConcurrencyFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
@@ -68,6 +95,38 @@ public class BorrowingController {
         return ResponseEntity.ok(transactions);
     }
     
+    /**
+     * Export all borrowing transactions as newline-delimited JSON
+     * GET /api/borrowings/export
+     * @param response the HTTP response the transactions are streamed to
+     * @throws IOException if writing to the response fails
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportBorrowingTransactions(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            // One JSON document per line, no separator between root values
+            generator.setRootValueSeparator(null);
+            long[] written = {0};
+            
+            borrowingService.exportBorrowingTransactions(transaction -> {
+                try {
+                    exportWriter.writeValue(generator, transaction);
+                    generator.writeRaw('\n');
+                    
+                    // Flush the first row right away, then in chunks
+                    if (written[0]++ % EXPORT_FLUSH_INTERVAL == 0) {
+                        generator.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+    
     /**
      * Get borrowing transaction by ID
      * GET /api/borrowings/{transactionId}
@@ -92,4 +151,37 @@ public class BorrowingController {
         List<BorrowingResponse> transactions = borrowingService.getBorrowingTransactionsByStatus(status);
         return ResponseEntity.ok(transactions);
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Get open loans, borrow and return totals and returns per day, kept up to date in memory
+     * GET /api/borrowings/statistics?days={days}
+     * @param days the number of days of returns to include, ending today (default 7, max 366)
+     * @return ResponseEntity with the circulation statistics
+     */
+    @GetMapping("/statistics")
+    public ResponseEntity<CirculationStatsResponse> getStatistics(@RequestParam(defaultValue = "7") int days) {
+        return ResponseEntity.ok(circulationStatisticsService.getStatistics(days));
+    }
+    
+    /**
+     * Count the borrows of a book
+     * GET /api/borrowings/statistics/books/{bookId}
+     * @param bookId the book id
+     * @return ResponseEntity with the number of times the book has been borrowed
+     */
+    @GetMapping("/statistics/books/{bookId}")
+    public ResponseEntity<Long> countBorrowsOfBook(@PathVariable Long bookId) {
+        return ResponseEntity.ok(circulationStatisticsService.countBorrowsOfBook(bookId));
+    }
+    
+    /**
+     * Count the borrows of a borrower
+     * GET /api/borrowings/statistics/borrowers/{borrowerName}
+     * @param borrowerName the borrower name
+     * @return ResponseEntity with the number of books the borrower has borrowed
+     */
+    @GetMapping("/statistics/borrowers/{borrowerName}")
+    public ResponseEntity<Long> countBorrowsByBorrower(@PathVariable String borrowerName) {
+        return ResponseEntity.ok(circulationStatisticsService.countBorrowsByBorrower(borrowerName));
+    }
+}
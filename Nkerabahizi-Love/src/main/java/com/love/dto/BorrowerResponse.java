@@ -0,0 +1,54 @@
+package com.love.dto;
+
+public class BorrowerResponse {
+    
+    private Long id;
+    private String name;
+    private long openLoans;
+    private int maxOpenLoans;
+    
+    // Default constructor
+    public BorrowerResponse() {
+    }
+    
+    // Constructor with parameters
+    public BorrowerResponse(Long id, String name, long openLoans, int maxOpenLoans) {
+        this.id = id;
+        this.name = name;
+        this.openLoans = openLoans;
+        this.maxOpenLoans = maxOpenLoans;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public long getOpenLoans() {
+        return openLoans;
+    }
+    
+    public void setOpenLoans(long openLoans) {
+        this.openLoans = openLoans;
+    }
+    
+    public int getMaxOpenLoans() {
+        return maxOpenLoans;
+    }
+    
+    public void setMaxOpenLoans(int maxOpenLoans) {
+        this.maxOpenLoans = maxOpenLoans;
+    }
+}
@@ -16,6 +16,9 @@ public class BorrowingRequest {
     @NotNull(message = "Borrow date is required")
     private LocalDateTime borrowDate;
     
+    // Optional; defaults to the borrow date plus the loan period
+    private LocalDateTime dueDate;
+    
     // Default constructor
     public BorrowingRequest() {
     }
@@ -51,4 +54,12 @@ public class BorrowingRequest {
     public void setBorrowDate(LocalDateTime borrowDate) {
         this.borrowDate = borrowDate;
     }
+    
+    public LocalDateTime getDueDate() {
+        return dueDate;
+    }
+    
+    public void setDueDate(LocalDateTime dueDate) {
+        this.dueDate = dueDate;
+    }
 } 
\ No newline at end of file
@@ -11,6 +11,7 @@ public class BorrowingResponse {
     private String bookIsbn;
     private String borrowerName;
     private LocalDateTime borrowDate;
+    private LocalDateTime dueDate;
     private LocalDateTime returnDate;
     private BorrowingStatus status;
     
@@ -20,12 +21,14 @@ public class BorrowingResponse {
     
     // Constructor with parameters
     public BorrowingResponse(Long id, String bookTitle, String bookIsbn, String borrowerName, 
-                           LocalDateTime borrowDate, LocalDateTime returnDate, BorrowingStatus status) {
+                           LocalDateTime borrowDate, LocalDateTime dueDate, LocalDateTime returnDate,
+                           BorrowingStatus status) {
         this.id = id;
         this.bookTitle = bookTitle;
         this.bookIsbn = bookIsbn;
         this.borrowerName = borrowerName;
         this.borrowDate = borrowDate;
+        this.dueDate = dueDate;
         this.returnDate = returnDate;
         this.status = status;
     }
@@ -71,6 +74,14 @@ public class BorrowingResponse {
         this.borrowDate = borrowDate;
     }
     
+    public LocalDateTime getDueDate() {
+        return dueDate;
+    }
+    
+    public void setDueDate(LocalDateTime dueDate) {
+        this.dueDate = dueDate;
+    }
+    
     public LocalDateTime getReturnDate() {
         return returnDate;
     }
@@ -0,0 +1,44 @@
+package com.love.dto;
+
+public class BulkImportError {
+    
+    private int row;
+    private String isbn;
+    private String message;
+    
+    // Default constructor
+    public BulkImportError() {
+    }
+    
+    // Constructor with parameters
+    public BulkImportError(int row, String isbn, String message) {
+        this.row = row;
+        this.isbn = isbn;
+        this.message = message;
+    }
+    
+    // Getters and Setters
+    public int getRow() {
+        return row;
+    }
+    
+    public void setRow(int row) {
+        this.row = row;
+    }
+    
+    public String getIsbn() {
+        return isbn;
+    }
+    
+    public void setIsbn(String isbn) {
+        this.isbn = isbn;
+    }
+    
+    public String getMessage() {
+        return message;
+    }
+    
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,64 @@
+package com.love.dto;
+
+public class CacheRegionStatsResponse {
+    
+    private String region;
+    private long hitCount;
+    private long missCount;
+    private long putCount;
+    private double hitRate;
+    
+    // Default constructor
+    public CacheRegionStatsResponse() {
+    }
+    
+    // Constructor with parameters
+    public CacheRegionStatsResponse(String region, long hitCount, long missCount, long putCount, double hitRate) {
+        this.region = region;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.putCount = putCount;
+        this.hitRate = hitRate;
+    }
+    
+    // Getters and Setters
+    public String getRegion() {
+        return region;
+    }
+    
+    public void setRegion(String region) {
+        this.region = region;
+    }
+    
+    public long getHitCount() {
+        return hitCount;
+    }
+    
+    public void setHitCount(long hitCount) {
+        this.hitCount = hitCount;
+    }
+    
+    public long getMissCount() {
+        return missCount;
+    }
+    
+    public void setMissCount(long missCount) {
+        this.missCount = missCount;
+    }
+    
+    public long getPutCount() {
+        return putCount;
+    }
+    
+    public void setPutCount(long putCount) {
+        this.putCount = putCount;
+    }
+    
+    public double getHitRate() {
+        return hitRate;
+    }
+    
+    public void setHitRate(double hitRate) {
+        this.hitRate = hitRate;
+    }
+}
@@ -0,0 +1,78 @@
+package com.love.dto;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+public class CirculationStatsResponse {
+
+    private long openLoans;
+    private long totalBorrows;
+    private long totalReturns;
+    private int distinctBooks;
+    private int distinctBorrowers;
+    private Map<LocalDate, Long> returnsPerDay;
+
+    // Default constructor
+    public CirculationStatsResponse() {
+    }
+
+    // Constructor with parameters
+    public CirculationStatsResponse(long openLoans, long totalBorrows, long totalReturns,
+                                    int distinctBooks, int distinctBorrowers, Map<LocalDate, Long> returnsPerDay) {
+        this.openLoans = openLoans;
+        this.totalBorrows = totalBorrows;
+        this.totalReturns = totalReturns;
+        this.distinctBooks = distinctBooks;
+        this.distinctBorrowers = distinctBorrowers;
+        this.returnsPerDay = returnsPerDay;
+    }
+
+    // Getters and Setters
+    public long getOpenLoans() {
+        return openLoans;
+    }
+
+    public void setOpenLoans(long openLoans) {
+        this.openLoans = openLoans;
+    }
+
+    public long getTotalBorrows() {
+        return totalBorrows;
+    }
+
+    public void setTotalBorrows(long totalBorrows) {
+        this.totalBorrows = totalBorrows;
+    }
+
+    public long getTotalReturns() {
+        return totalReturns;
+    }
+
+    public void setTotalReturns(long totalReturns) {
+        this.totalReturns = totalReturns;
+    }
+
+    public int getDistinctBooks() {
+        return distinctBooks;
+    }
+
+    public void setDistinctBooks(int distinctBooks) {
+        this.distinctBooks = distinctBooks;
+    }
+
+    public int getDistinctBorrowers() {
+        return distinctBorrowers;
+    }
+
+    public void setDistinctBorrowers(int distinctBorrowers) {
+        this.distinctBorrowers = distinctBorrowers;
+    }
+
+    public Map<LocalDate, Long> getReturnsPerDay() {
+        return returnsPerDay;
+    }
+
+    public void setReturnsPerDay(Map<LocalDate, Long> returnsPerDay) {
+        this.returnsPerDay = returnsPerDay;
+    }
+}
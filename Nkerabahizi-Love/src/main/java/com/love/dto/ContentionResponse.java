@@ -0,0 +1,54 @@
+package com.love.dto;
+
+public class ContentionResponse {
+    
+    private String operation;
+    private long conflicts;
+    private long retries;
+    private long exhausted;
+    
+    // Default constructor
+    public ContentionResponse() {
+    }
+    
+    // Constructor with parameters
+    public ContentionResponse(String operation, long conflicts, long retries, long exhausted) {
+        this.operation = operation;
+        this.conflicts = conflicts;
+        this.retries = retries;
+        this.exhausted = exhausted;
+    }
+    
+    // Getters and Setters
+    public String getOperation() {
+        return operation;
+    }
+    
+    public void setOperation(String operation) {
+        this.operation = operation;
+    }
+    
+    public long getConflicts() {
+        return conflicts;
+    }
+    
+    public void setConflicts(long conflicts) {
+        this.conflicts = conflicts;
+    }
+    
+    public long getRetries() {
+        return retries;
+    }
+    
+    public void setRetries(long retries) {
+        this.retries = retries;
+    }
+    
+    public long getExhausted() {
+        return exhausted;
+    }
+    
+    public void setExhausted(long exhausted) {
+        this.exhausted = exhausted;
+    }
+}
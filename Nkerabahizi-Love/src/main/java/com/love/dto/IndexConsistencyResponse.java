@@ -0,0 +1,77 @@
+package com.love.dto;
+
+import java.util.List;
+
+public class IndexConsistencyResponse {
+    
+    private boolean consistent;
+    private long indexedCount;
+    private long databaseCount;
+    private long missingCount;
+    private long unexpectedCount;
+    private List<Long> sampleMismatchedIds;
+    
+    // Default constructor
+    public IndexConsistencyResponse() {
+    }
+    
+    // Constructor with parameters
+    public IndexConsistencyResponse(long indexedCount, long databaseCount, long missingCount,
+                                    long unexpectedCount, List<Long> sampleMismatchedIds) {
+        this.consistent = missingCount == 0 && unexpectedCount == 0;
+        this.indexedCount = indexedCount;
+        this.databaseCount = databaseCount;
+        this.missingCount = missingCount;
+        this.unexpectedCount = unexpectedCount;
+        this.sampleMismatchedIds = sampleMismatchedIds;
+    }
+    
+    // Getters and Setters
+    public boolean isConsistent() {
+        return consistent;
+    }
+    
+    public void setConsistent(boolean consistent) {
+        this.consistent = consistent;
+    }
+    
+    public long getIndexedCount() {
+        return indexedCount;
+    }
+    
+    public void setIndexedCount(long indexedCount) {
+        this.indexedCount = indexedCount;
+    }
+    
+    public long getDatabaseCount() {
+        return databaseCount;
+    }
+    
+    public void setDatabaseCount(long databaseCount) {
+        this.databaseCount = databaseCount;
+    }
+    
+    public long getMissingCount() {
+        return missingCount;
+    }
+    
+    public void setMissingCount(long missingCount) {
+        this.missingCount = missingCount;
+    }
+    
+    public long getUnexpectedCount() {
+        return unexpectedCount;
+    }
+    
+    public void setUnexpectedCount(long unexpectedCount) {
+        this.unexpectedCount = unexpectedCount;
+    }
+    
+    public List<Long> getSampleMismatchedIds() {
+        return sampleMismatchedIds;
+    }
+    
+    public void setSampleMismatchedIds(List<Long> sampleMismatchedIds) {
+        this.sampleMismatchedIds = sampleMismatchedIds;
+    }
+}
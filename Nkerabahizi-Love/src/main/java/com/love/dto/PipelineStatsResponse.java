@@ -0,0 +1,79 @@
+package com.love.dto;
+
+import com.love.enums.PipelineOverflowPolicy;
+
+import java.util.Map;
+
+public class PipelineStatsResponse {
+
+    private int capacity;
+    private PipelineOverflowPolicy overflowPolicy;
+    private long published;
+    private long dropped;
+    private long remainingCapacity;
+    private Map<String, Long> consumerLag;
+
+    // Default constructor
+    public PipelineStatsResponse() {
+    }
+
+    // Constructor with parameters
+    public PipelineStatsResponse(int capacity, PipelineOverflowPolicy overflowPolicy, long published,
+                                 long dropped, long remainingCapacity, Map<String, Long> consumerLag) {
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+        this.published = published;
+        this.dropped = dropped;
+        this.remainingCapacity = remainingCapacity;
+        this.consumerLag = consumerLag;
+    }
+
+    // Getters and Setters
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public PipelineOverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public void setOverflowPolicy(PipelineOverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public long getPublished() {
+        return published;
+    }
+
+    public void setPublished(long published) {
+        this.published = published;
+    }
+
+    public long getDropped() {
+        return dropped;
+    }
+
+    public void setDropped(long dropped) {
+        this.dropped = dropped;
+    }
+
+    public long getRemainingCapacity() {
+        return remainingCapacity;
+    }
+
+    public void setRemainingCapacity(long remainingCapacity) {
+        this.remainingCapacity = remainingCapacity;
+    }
+
+    public Map<String, Long> getConsumerLag() {
+        return consumerLag;
+    }
+
+    public void setConsumerLag(Map<String, Long> consumerLag) {
+        this.consumerLag = consumerLag;
+    }
+}
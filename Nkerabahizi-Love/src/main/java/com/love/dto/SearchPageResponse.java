@@ -0,0 +1,76 @@
+package com.love.dto;
+
+import java.util.List;
+
+public class SearchPageResponse<T> {
+    
+    private String query;
+    private List<T> content;
+    private int page;
+    private int size;
+    private long totalHits;
+    private boolean hasNext;
+    
+    // Default constructor
+    public SearchPageResponse() {
+    }
+    
+    // Constructor with parameters
+    public SearchPageResponse(String query, List<T> content, int page, int size, long totalHits, boolean hasNext) {
+        this.query = query;
+        this.content = content;
+        this.page = page;
+        this.size = size;
+        this.totalHits = totalHits;
+        this.hasNext = hasNext;
+    }
+    
+    // Getters and Setters
+    public String getQuery() {
+        return query;
+    }
+    
+    public void setQuery(String query) {
+        this.query = query;
+    }
+    
+    public List<T> getContent() {
+        return content;
+    }
+    
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+    
+    public int getPage() {
+        return page;
+    }
+    
+    public void setPage(int page) {
+        this.page = page;
+    }
+    
+    public int getSize() {
+        return size;
+    }
+    
+    public void setSize(int size) {
+        this.size = size;
+    }
+    
+    public long getTotalHits() {
+        return totalHits;
+    }
+    
+    public void setTotalHits(long totalHits) {
+        this.totalHits = totalHits;
+    }
+    
+    public boolean isHasNext() {
+        return hasNext;
+    }
+    
+    public void setHasNext(boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+}
@@ -0,0 +1,54 @@
+package com.love.dto;
+
+public class SuggestionIndexStatsResponse {
+    
+    private long entries;
+    private long pendingEntries;
+    private long sizeInBytes;
+    private double bytesPerEntry;
+    
+    // Default constructor
+    public SuggestionIndexStatsResponse() {
+    }
+    
+    // Constructor with parameters
+    public SuggestionIndexStatsResponse(long entries, long pendingEntries, long sizeInBytes) {
+        this.entries = entries;
+        this.pendingEntries = pendingEntries;
+        this.sizeInBytes = sizeInBytes;
+        this.bytesPerEntry = entries == 0 ? 0.0 : (double) sizeInBytes / entries;
+    }
+    
+    // Getters and Setters
+    public long getEntries() {
+        return entries;
+    }
+    
+    public void setEntries(long entries) {
+        this.entries = entries;
+    }
+    
+    public long getPendingEntries() {
+        return pendingEntries;
+    }
+    
+    public void setPendingEntries(long pendingEntries) {
+        this.pendingEntries = pendingEntries;
+    }
+    
+    public long getSizeInBytes() {
+        return sizeInBytes;
+    }
+    
+    public void setSizeInBytes(long sizeInBytes) {
+        this.sizeInBytes = sizeInBytes;
+    }
+    
+    public double getBytesPerEntry() {
+        return bytesPerEntry;
+    }
+    
+    public void setBytesPerEntry(double bytesPerEntry) {
+        this.bytesPerEntry = bytesPerEntry;
+    }
+}
@@ -0,0 +1,46 @@
+package com.love.dto;
+
+import com.love.enums.SuggestionType;
+
+public class SuggestionResponse {
+    
+    private String text;
+    private SuggestionType type;
+    private int books;
+    
+    // Default constructor
+    public SuggestionResponse() {
+    }
+    
+    // Constructor with parameters
+    public SuggestionResponse(String text, SuggestionType type, int books) {
+        this.text = text;
+        this.type = type;
+        this.books = books;
+    }
+    
+    // Getters and Setters
+    public String getText() {
+        return text;
+    }
+    
+    public void setText(String text) {
+        this.text = text;
+    }
+    
+    public SuggestionType getType() {
+        return type;
+    }
+    
+    public void setType(SuggestionType type) {
+        this.type = type;
+    }
+    
+    public int getBooks() {
+        return books;
+    }
+    
+    public void setBooks(int books) {
+        this.books = books;
+    }
+}
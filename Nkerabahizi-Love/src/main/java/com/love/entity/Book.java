@@ -4,13 +4,27 @@ import com.love.enums.BookAvailabilityStatus;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 @Entity
-@Table(name = "books")
+@Table(name = "books", indexes = {
+        // Listings and the availability index rebuild by status, in id order; isbn has its unique constraint
+        @Index(name = "idx_books_availability_status", columnList = "availability_status, id")
+})
+// Books are read far more often than they change: rows are cached by id, and ids by ISBN
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Book.CACHE_REGION)
+@NaturalIdCache(region = Book.ISBN_CACHE_REGION)
 public class Book {
     
+    public static final String CACHE_REGION = "book";
+    public static final String ISBN_CACHE_REGION = "book-isbn";
+    
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "books_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank(message = "Title is required")
@@ -21,6 +35,7 @@ public class Book {
     @Column(nullable = false)
     private String author;
     
+    @NaturalId
     @NotBlank(message = "ISBN is required")
     @Column(nullable = false, unique = true)
     private String isbn;
@@ -30,6 +45,10 @@ public class Book {
     @Column(nullable = false)
     private BookAvailabilityStatus availabilityStatus;
     
+    @Version
+    @Column(nullable = false)
+    private Long version;
+    
     // Default constructor
     public Book() {
         this.availabilityStatus = BookAvailabilityStatus.AVAILABLE;
@@ -84,6 +103,14 @@ public class Book {
         this.availabilityStatus = availabilityStatus;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     @Override
     public String toString() {
         return "Book{" +
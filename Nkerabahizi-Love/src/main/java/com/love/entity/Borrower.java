@@ -0,0 +1,52 @@
+package com.love.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+
+@Entity
+@Table(name = "borrowers")
+public class Borrower {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "borrower_seq")
+    @SequenceGenerator(name = "borrower_seq", sequenceName = "borrowers_seq", allocationSize = 50)
+    private Long id;
+    
+    @NotBlank(message = "Name is required")
+    @Column(nullable = false, unique = true)
+    private String name;
+    
+    // Default constructor
+    public Borrower() {
+    }
+    
+    // Constructor with parameters
+    public Borrower(String name) {
+        this.name = name;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    @Override
+    public String toString() {
+        return "Borrower{" +
+                "id=" + id +
+                ", name='" + name + '\'' +
+                '}';
+    }
+}
@@ -8,11 +8,19 @@ import jakarta.validation.constraints.NotNull;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "borrowing_transactions")
+@Table(name = "borrowing_transactions", indexes = {
+        // A book's loans by status, most recent first: findByBook, findByBookAndStatus and the latest loan of a book
+        @Index(name = "idx_borrowing_transactions_book", columnList = "book_id, status, borrow_date"),
+        // Loans by status, with the due date for the overdue scheduler's startup load
+        @Index(name = "idx_borrowing_transactions_status", columnList = "status, due_date"),
+        // A borrower's loans by status, most recent first: loan history pages and the open loan count
+        @Index(name = "idx_borrowing_transactions_borrower", columnList = "borrower_id, status, borrow_date")
+})
 public class BorrowingTransaction {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "borrowing_transaction_seq")
+    @SequenceGenerator(name = "borrowing_transaction_seq", sequenceName = "borrowing_transactions_seq", allocationSize = 50)
     private Long id;
     
     @NotNull(message = "Book is required")
@@ -20,6 +28,12 @@ public class BorrowingTransaction {
     @JoinColumn(name = "book_id", nullable = false)
     private Book book;
     
+    @NotNull(message = "Borrower is required")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "borrower_id", nullable = false)
+    private Borrower borrower;
+    
+    // Copied from the borrower so loan listings need no join with borrowers
     @NotBlank(message = "Borrower name is required")
     @Column(nullable = false)
     private String borrowerName;
@@ -28,6 +42,10 @@ public class BorrowingTransaction {
     @Column(nullable = false)
     private LocalDateTime borrowDate;
     
+    @NotNull(message = "Due date is required")
+    @Column(nullable = false)
+    private LocalDateTime dueDate;
+    
     @Column
     private LocalDateTime returnDate;
     
@@ -36,16 +54,22 @@ public class BorrowingTransaction {
     @Column(nullable = false)
     private BorrowingStatus status;
     
+    @Version
+    @Column(nullable = false)
+    private Long version;
+    
     // Default constructor
     public BorrowingTransaction() {
         this.status = BorrowingStatus.PENDING;
     }
     
     // Constructor with parameters
-    public BorrowingTransaction(Book book, String borrowerName, LocalDateTime borrowDate) {
+    public BorrowingTransaction(Book book, Borrower borrower, LocalDateTime borrowDate, LocalDateTime dueDate) {
         this.book = book;
-        this.borrowerName = borrowerName;
+        this.borrower = borrower;
+        this.borrowerName = borrower.getName();
         this.borrowDate = borrowDate;
+        this.dueDate = dueDate;
         this.status = BorrowingStatus.PENDING;
     }
     
@@ -66,6 +90,14 @@ public class BorrowingTransaction {
         this.book = book;
     }
     
+    public Borrower getBorrower() {
+        return borrower;
+    }
+    
+    public void setBorrower(Borrower borrower) {
+        this.borrower = borrower;
+    }
+    
     public String getBorrowerName() {
         return borrowerName;
     }
@@ -82,6 +114,14 @@ public class BorrowingTransaction {
         this.borrowDate = borrowDate;
     }
     
+    public LocalDateTime getDueDate() {
+        return dueDate;
+    }
+    
+    public void setDueDate(LocalDateTime dueDate) {
+        this.dueDate = dueDate;
+    }
+    
     public LocalDateTime getReturnDate() {
         return returnDate;
     }
@@ -98,6 +138,14 @@ public class BorrowingTransaction {
         this.status = status;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     @Override
     public String toString() {
         return "BorrowingTransaction{" +
@@ -105,6 +153,7 @@ public class BorrowingTransaction {
                 ", book=" + (book != null ? book.getTitle() : "null") +
                 ", borrowerName='" + borrowerName + '\'' +
                 ", borrowDate=" + borrowDate +
+                ", dueDate=" + dueDate +
                 ", returnDate=" + returnDate +
                 ", status=" + status +
                 '}';
@@ -2,5 +2,6 @@ package com.love.enums;
 
 public enum BorrowingStatus {
     PENDING,
-    RETURNED
+    RETURNED,
+    OVERDUE
 } 
\ No newline at end of file
@@ -0,0 +1,6 @@
+package com.love.enums;
+
+public enum CirculationEventType {
+    BORROWED,
+    RETURNED
+}
@@ -0,0 +1,10 @@
+package com.love.enums;
+
+/**
+ * What a publisher does when the circulation event ring is full: wait for the slowest consumer
+ * to free a slot, or drop the event and count it.
+ */
+public enum PipelineOverflowPolicy {
+    BLOCK,
+    DROP
+}
@@ -0,0 +1,6 @@
+package com.love.enums;
+
+public enum SuggestionType {
+    TITLE,
+    AUTHOR
+} 
\ No newline at end of file
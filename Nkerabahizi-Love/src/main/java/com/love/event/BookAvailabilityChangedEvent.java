@@ -0,0 +1,32 @@
+package com.love.event;
+
+import com.love.enums.BookAvailabilityStatus;
+
+/**
+ * Published when the availability status of a book has been changed (borrow, return or manual update).
+ * Listeners that mirror the catalog react after the surrounding transaction commits.
+ */
+public class BookAvailabilityChangedEvent {
+    
+    private final Long bookId;
+    private final String isbn;
+    private final BookAvailabilityStatus status;
+    
+    public BookAvailabilityChangedEvent(Long bookId, String isbn, BookAvailabilityStatus status) {
+        this.bookId = bookId;
+        this.isbn = isbn;
+        this.status = status;
+    }
+    
+    public Long getBookId() {
+        return bookId;
+    }
+    
+    public String getIsbn() {
+        return isbn;
+    }
+    
+    public BookAvailabilityStatus getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,20 @@
+package com.love.event;
+
+import com.love.dto.BookResponse;
+
+/**
+ * Published when a book has been added to the catalog.
+ * Listeners that mirror the catalog react after the surrounding transaction commits.
+ */
+public class BookCreatedEvent {
+    
+    private final BookResponse book;
+    
+    public BookCreatedEvent(BookResponse book) {
+        this.book = book;
+    }
+    
+    public BookResponse getBook() {
+        return book;
+    }
+}
@@ -0,0 +1,22 @@
+package com.love.event;
+
+import com.love.dto.BookResponse;
+
+import java.util.List;
+
+/**
+ * Published for each chunk of books saved by a bulk import.
+ * Listeners that mirror the catalog react after the surrounding transaction commits.
+ */
+public class BooksImportedEvent {
+    
+    private final List<BookResponse> books;
+    
+    public BooksImportedEvent(List<BookResponse> books) {
+        this.books = books;
+    }
+    
+    public List<BookResponse> getBooks() {
+        return books;
+    }
+}
@@ -0,0 +1,343 @@
+package com.love.index;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * In-memory bitset of available books, keyed by {@code Book.id}: bit {@code id} is set when the
+ * book is AVAILABLE. Counting and listing available ids never touches the {@code books} table.
+ * <p>
+ * Bits are flipped with atomic word updates. Growing the bitset swaps in a larger array under a
+ * write lock; bit updates share a read lock so none is lost during the copy. Readers work on a
+ * snapshot of the array without locking.
+ * <p>
+ * Committed changes are applied with {@link #refresh}, which reads the stored status again instead
+ * of trusting the order in which changes are reported. Each stripe of books carries a stamp that
+ * moves with every update, so a status read before a newer update of the same stripe is read
+ * again rather than applied. Changes reported while {@link #rebuild(Supplier, Function)} runs are
+ * held back and refreshed once the new bitset is in place.
+ */
+@Component
+public class AvailabilityIndex {
+    
+    private static final int INITIAL_WORDS = 1024;
+    private static final int STRIPES = 256;
+    private static final long ANY_STAMP = -1;
+    
+    private final ReentrantReadWriteLock resizeLock = new ReentrantReadWriteLock();
+    private final ReentrantLock[] stripeLocks = new ReentrantLock[STRIPES];
+    private final AtomicLongArray stripeStamps = new AtomicLongArray(STRIPES);
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private final ReentrantLock changesLock = new ReentrantLock();
+    private final AtomicLong availableCount = new AtomicLong();
+    private volatile AtomicLongArray words = new AtomicLongArray(INITIAL_WORDS);
+    private Set<Long> changedDuringRebuild;
+    
+    public AvailabilityIndex() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripeLocks[i] = new ReentrantLock();
+        }
+    }
+    
+    /**
+     * Mark a book as available, regardless of any concurrent refresh or rebuild
+     * @param bookId the book id
+     */
+    public void markAvailable(long bookId) {
+        update(bookId, true, ANY_STAMP);
+    }
+    
+    /**
+     * Mark a book as not available, regardless of any concurrent refresh or rebuild
+     * @param bookId the book id
+     */
+    public void markUnavailable(long bookId) {
+        update(bookId, false, ANY_STAMP);
+    }
+    
+    /**
+     * Bring the bits of the given books in line with their stored status, once a change to them
+     * has committed. Books whose stripe was updated while their status was read are read again.
+     * @param bookIds the ids of the changed books
+     * @param availableAmong returns which of the given ids are stored as AVAILABLE
+     */
+    public void refresh(Collection<Long> bookIds, Function<Collection<Long>, ? extends Collection<Long>> availableAmong) {
+        List<Long> pending = List.copyOf(bookIds);
+        while (!pending.isEmpty()) {
+            long[] stamps = new long[pending.size()];
+            for (int i = 0; i < stamps.length; i++) {
+                stamps[i] = stripeStamps.get(stripe(pending.get(i)));
+            }
+            Set<Long> available = new HashSet<>(availableAmong.apply(pending));
+            
+            List<Long> stale = new ArrayList<>();
+            for (int i = 0; i < stamps.length; i++) {
+                Long bookId = pending.get(i);
+                if (!update(bookId, available.contains(bookId), stamps[i])) {
+                    stale.add(bookId);
+                }
+            }
+            pending = stale;
+        }
+    }
+    
+    /**
+     * Check whether a book is marked as available
+     * @param bookId the book id
+     * @return true if the book is available
+     */
+    public boolean isAvailable(long bookId) {
+        AtomicLongArray current = words;
+        int wordIndex = wordIndex(bookId);
+        return wordIndex < current.length() && (current.get(wordIndex) & (1L << bookId)) != 0;
+    }
+    
+    /**
+     * Get the number of available books
+     * @return the number of set bits
+     */
+    public long availableCount() {
+        return availableCount.get();
+    }
+    
+    /**
+     * Count the available books with an id in the given inclusive range
+     * @param fromId the lowest id to count
+     * @param toId the highest id to count
+     * @return the number of available books in the range
+     */
+    public long countAvailable(long fromId, long toId) {
+        AtomicLongArray current = words;
+        long from = Math.max(fromId, 0);
+        long to = Math.min(toId, (long) current.length() * Long.SIZE - 1);
+        if (from > to) {
+            return 0;
+        }
+        
+        int firstWord = (int) (from >>> 6);
+        int lastWord = (int) (to >>> 6);
+        long count = 0;
+        for (int i = firstWord; i <= lastWord; i++) {
+            long word = current.get(i);
+            if (i == firstWord) {
+                word &= -1L << from;
+            }
+            if (i == lastWord) {
+                word &= -1L >>> (Long.SIZE - 1 - (to & 63));
+            }
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+    
+    /**
+     * List available book ids in ascending order, starting after the given id
+     * @param afterId only ids greater than this are returned
+     * @param limit the maximum number of ids to return
+     * @return the available ids, at most {@code limit} of them
+     */
+    public long[] availableIdsAfter(long afterId, int limit) {
+        AtomicLongArray current = words;
+        long[] ids = new long[limit];
+        int found = 0;
+        long start = Math.max(afterId + 1, 0);
+        
+        for (int i = (int) Math.min(start >>> 6, current.length()); i < current.length() && found < limit; i++) {
+            long word = current.get(i);
+            if (i == (start >>> 6)) {
+                word &= -1L << start;
+            }
+            while (word != 0 && found < limit) {
+                ids[found++] = ((long) i << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return found == limit ? ids : Arrays.copyOf(ids, found);
+    }
+    
+    /**
+     * Rebuild the index from the stored available ids. Changes passed to {@link #refresh} while
+     * the ids are streamed are held back and refreshed once the new bitset is in place, since
+     * the stream may have read those books before they changed.
+     * @param availableIds opens a stream of the ids of all available books
+     * @param availableAmong returns which of the given ids are stored as AVAILABLE
+     */
+    public void rebuild(Supplier<? extends Stream<Long>> availableIds,
+                        Function<Collection<Long>, ? extends Collection<Long>> availableAmong) {
+        rebuildLock.lock();
+        try {
+            Set<Long> changed;
+            changesLock.lock();
+            try {
+                changedDuringRebuild = new HashSet<>();
+            } finally {
+                changesLock.unlock();
+            }
+            try (Stream<Long> ids = availableIds.get()) {
+                rebuild(ids.mapToLong(Long::longValue).iterator());
+            } finally {
+                changesLock.lock();
+                try {
+                    changed = changedDuringRebuild;
+                    changedDuringRebuild = null;
+                } finally {
+                    changesLock.unlock();
+                }
+            }
+            refresh(changed, availableAmong);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+    
+    /**
+     * Replace the whole index with the given available ids
+     * @param availableIds the ids of all available books
+     */
+    public void rebuild(PrimitiveIterator.OfLong availableIds) {
+        long[] rebuilt = new long[INITIAL_WORDS];
+        long count = 0;
+        while (availableIds.hasNext()) {
+            long bookId = availableIds.nextLong();
+            int wordIndex = wordIndex(bookId);
+            if (wordIndex >= rebuilt.length) {
+                rebuilt = Arrays.copyOf(rebuilt, Math.max(wordIndex + 1, rebuilt.length * 2));
+            }
+            long mask = 1L << bookId;
+            if ((rebuilt[wordIndex] & mask) == 0) {
+                rebuilt[wordIndex] |= mask;
+                count++;
+            }
+        }
+        
+        resizeLock.writeLock().lock();
+        try {
+            words = new AtomicLongArray(rebuilt);
+            availableCount.set(count);
+            // Statuses read before the swap may be older than the rebuilt bits
+            for (int i = 0; i < STRIPES; i++) {
+                stripeStamps.incrementAndGet(i);
+            }
+        } finally {
+            resizeLock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Copy the current bits, for comparison with the database
+     * @return a snapshot of the bitset words
+     */
+    public long[] snapshot() {
+        AtomicLongArray current = words;
+        long[] copy = new long[current.length()];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = current.get(i);
+        }
+        return copy;
+    }
+    
+    /**
+     * Set or clear the bit of a book, unless its stripe moved past the given stamp
+     * @return false if the stamp is stale and the status has to be read again
+     */
+    private boolean update(long bookId, boolean available, long stamp) {
+        int wordIndex = wordIndex(bookId);
+        int stripe = stripe(bookId);
+        stripeLocks[stripe].lock();
+        try {
+            while (true) {
+                resizeLock.readLock().lock();
+                try {
+                    if (stamp != ANY_STAMP) {
+                        if (stripeStamps.get(stripe) != stamp) {
+                            return false;
+                        }
+                        if (deferredByRebuild(bookId)) {
+                            return true;
+                        }
+                    }
+                    AtomicLongArray current = words;
+                    if (wordIndex < current.length()) {
+                        long mask = 1L << bookId;
+                        if (available) {
+                            long previous = current.getAndAccumulate(wordIndex, mask, (word, bit) -> word | bit);
+                            if ((previous & mask) == 0) {
+                                availableCount.incrementAndGet();
+                            }
+                        } else {
+                            long previous = current.getAndAccumulate(wordIndex, mask, (word, bit) -> word & ~bit);
+                            if ((previous & mask) != 0) {
+                                availableCount.decrementAndGet();
+                            }
+                        }
+                        stripeStamps.incrementAndGet(stripe);
+                        return true;
+                    }
+                    if (!available) {
+                        return true;
+                    }
+                } finally {
+                    resizeLock.readLock().unlock();
+                }
+                // A rebuild may have shrunk the array again before the read lock is retaken
+                ensureCapacity(wordIndex);
+            }
+        } finally {
+            stripeLocks[stripe].unlock();
+        }
+    }
+    
+    private boolean deferredByRebuild(long bookId) {
+        changesLock.lock();
+        try {
+            return changedDuringRebuild != null && changedDuringRebuild.add(bookId);
+        } finally {
+            changesLock.unlock();
+        }
+    }
+    
+    private void ensureCapacity(int wordIndex) {
+        if (wordIndex < words.length()) {
+            return;
+        }
+        resizeLock.writeLock().lock();
+        try {
+            AtomicLongArray current = words;
+            if (wordIndex < current.length()) {
+                return;
+            }
+            AtomicLongArray grown = new AtomicLongArray(Math.max(wordIndex + 1, current.length() * 2));
+            for (int i = 0; i < current.length(); i++) {
+                grown.set(i, current.get(i));
+            }
+            words = grown;
+        } finally {
+            resizeLock.writeLock().unlock();
+        }
+    }
+    
+    private static int stripe(long bookId) {
+        return (int) (bookId & (STRIPES - 1));
+    }
+    
+    private static int wordIndex(long bookId) {
+        if (bookId < 0 || (bookId >>> 6) >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Book id " + bookId + " is outside the range of the availability index");
+        }
+        return (int) (bookId >>> 6);
+    }
+}
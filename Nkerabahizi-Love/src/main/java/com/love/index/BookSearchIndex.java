@@ -0,0 +1,477 @@
+package com.love.index;
+
+import com.love.dto.BookResponse;
+import com.love.event.BookCreatedEvent;
+import com.love.event.BooksImportedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over book titles and authors.
+ * <p>
+ * Every book gets a dense internal document number in the order it was indexed. Each term maps to
+ * a postings list stored as a primitive {@code int[]} of {@code document << 2 | fields}, where the
+ * two low bits record whether the term occurs in the title, the author, or both. Documents are only
+ * ever appended, so postings stay sorted and are intersected with galloping search.
+ * <p>
+ * A query matches books containing all of its terms. A match scores the sum over the query terms
+ * of {@code idf(term)} times 2 for a title hit plus 1 for an author hit; ties go to the book
+ * indexed first.
+ * <p>
+ * A book id is indexed at most once. Books added while a {@link Rebuild} reads the catalog are
+ * added to the rebuilt index as well when it is swapped in, so a book committed during the rebuild
+ * is neither lost nor indexed twice.
+ */
+@Component
+public class BookSearchIndex {
+    
+    static final int TITLE = 1;
+    static final int AUTHOR = 2;
+    
+    private static final float TITLE_WEIGHT = 2f;
+    private static final float AUTHOR_WEIGHT = 1f;
+    private static final int MAX_DOCUMENTS = 1 << 29;
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Segment segment = new Segment();
+    private List<IndexedBook> addedDuringRebuild;
+    
+    /**
+     * Add a book to the index
+     * @param book the book to index
+     */
+    public void add(IndexedBook book) {
+        addAll(List.of(book));
+    }
+    
+    /**
+     * Replace the whole index with the given books. The new index is built before the
+     * old one is swapped out, so searches keep working during a rebuild.
+     * @param books all books of the catalog
+     * @return the number of books indexed
+     */
+    public int rebuild(Iterator<IndexedBook> books) {
+        Rebuild rebuild = startRebuild();
+        try {
+            books.forEachRemaining(rebuild::add);
+        } catch (RuntimeException e) {
+            rebuild.abort();
+            throw e;
+        }
+        return rebuild.finish();
+    }
+    
+    /**
+     * Start building a new index. Start it before opening the stream of books it is fed from,
+     * so every book committed after that stream's snapshot is recorded for the swap.
+     * @return the rebuild to add the books of the catalog to
+     * @throws IllegalStateException if a rebuild is already running
+     */
+    public Rebuild startRebuild() {
+        lock.writeLock().lock();
+        try {
+            if (addedDuringRebuild != null) {
+                throw new IllegalStateException("The search index is already being rebuilt");
+            }
+            addedDuringRebuild = new ArrayList<>();
+            return new Rebuild();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Search for books whose title or author contain all terms of the query
+     * @param query the free text query
+     * @param offset the number of ranked hits to skip
+     * @param limit the maximum number of hits to return
+     * @return the total number of matches and the requested slice of ranked hits
+     */
+    public SearchResult search(String query, int offset, int limit) {
+        Set<String> terms = new LinkedHashSet<>(Tokenizer.tokenize(query));
+        if (terms.isEmpty() || limit <= 0) {
+            return SearchResult.EMPTY;
+        }
+        
+        lock.readLock().lock();
+        try {
+            return segment.search(terms, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Get the number of indexed books
+     * @return the document count
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return segment.documentCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Index a newly created book once its transaction commits
+     * @param event the book created event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookCreated(BookCreatedEvent event) {
+        add(toIndexedBook(event.getBook()));
+    }
+    
+    /**
+     * Index imported books once their transaction commits
+     * @param event the books imported event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksImported(BooksImportedEvent event) {
+        List<IndexedBook> books = new ArrayList<>(event.getBooks().size());
+        event.getBooks().forEach(book -> books.add(toIndexedBook(book)));
+        addAll(books);
+    }
+    
+    private void addAll(List<IndexedBook> books) {
+        lock.writeLock().lock();
+        try {
+            books.forEach(segment::add);
+            if (addedDuringRebuild != null) {
+                addedDuringRebuild.addAll(books);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private static IndexedBook toIndexedBook(BookResponse book) {
+        return new IndexedBook(book.getId(), book.getTitle(), book.getAuthor());
+    }
+    
+    /**
+     * A new index being filled from the catalog, while the current one keeps serving searches
+     */
+    public final class Rebuild {
+        
+        private final Segment rebuilt = new Segment();
+        
+        private Rebuild() {
+        }
+        
+        /**
+         * Add a book of the catalog to the new index
+         * @param book the book to index
+         */
+        public void add(IndexedBook book) {
+            rebuilt.add(book);
+        }
+        
+        /**
+         * Add the books added to the index since the rebuild started, then swap the new index in
+         * @return the number of books indexed
+         */
+        public int finish() {
+            lock.writeLock().lock();
+            try {
+                addedDuringRebuild.forEach(rebuilt::add);
+                addedDuringRebuild = null;
+                rebuilt.trim();
+                segment = rebuilt;
+                return rebuilt.documentCount;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        
+        /**
+         * Drop the new index and keep the current one
+         */
+        public void abort() {
+            lock.writeLock().lock();
+            try {
+                addedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+    
+    /**
+     * Ranked hits of a search, best first
+     */
+    public static final class SearchResult {
+        
+        static final SearchResult EMPTY = new SearchResult(0, new long[0], new float[0]);
+        
+        private final long totalHits;
+        private final long[] bookIds;
+        private final float[] scores;
+        
+        SearchResult(long totalHits, long[] bookIds, float[] scores) {
+            this.totalHits = totalHits;
+            this.bookIds = bookIds;
+            this.scores = scores;
+        }
+        
+        public long getTotalHits() {
+            return totalHits;
+        }
+        
+        public long[] getBookIds() {
+            return bookIds;
+        }
+        
+        public float[] getScores() {
+            return scores;
+        }
+    }
+    
+    /**
+     * The term dictionary, postings and document-to-book mapping. Guarded by the index lock.
+     */
+    private static final class Segment {
+        
+        private final Map<String, Postings> postings = new HashMap<>();
+        private final LongCounterMap indexedBooks = new LongCounterMap();
+        private long[] bookIds = new long[1024];
+        private int documentCount;
+        
+        void add(IndexedBook book) {
+            if (indexedBooks.get(book.getId()) != 0) {
+                return;
+            }
+            if (documentCount == MAX_DOCUMENTS) {
+                throw new IllegalStateException("The search index is full");
+            }
+            
+            Map<String, Integer> fields = new LinkedHashMap<>();
+            for (String term : Tokenizer.tokenize(book.getTitle())) {
+                fields.merge(term, TITLE, (a, b) -> a | b);
+            }
+            for (String term : Tokenizer.tokenize(book.getAuthor())) {
+                fields.merge(term, AUTHOR, (a, b) -> a | b);
+            }
+            
+            int document = documentCount++;
+            if (document == bookIds.length) {
+                bookIds = Arrays.copyOf(bookIds, bookIds.length * 2);
+            }
+            bookIds[document] = book.getId();
+            indexedBooks.add(book.getId(), 1);
+            fields.forEach((term, mask) -> postings.computeIfAbsent(term, t -> new Postings()).add(document << 2 | mask));
+        }
+        
+        void trim() {
+            bookIds = Arrays.copyOf(bookIds, Math.max(documentCount, 1));
+            postings.values().forEach(Postings::trim);
+        }
+        
+        SearchResult search(Set<String> terms, int offset, int limit) {
+            Postings[] lists = new Postings[terms.size()];
+            int n = 0;
+            for (String term : terms) {
+                Postings list = postings.get(term);
+                if (list == null) {
+                    return SearchResult.EMPTY;
+                }
+                lists[n++] = list;
+            }
+            // Drive the intersection from the rarest term
+            Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+            
+            float[] idf = new float[lists.length];
+            for (int i = 0; i < lists.length; i++) {
+                idf[i] = (float) Math.log(1 + (double) documentCount / lists[i].size);
+            }
+            
+            TopHits top = new TopHits(offset + limit);
+            int[] cursors = new int[lists.length];
+            long totalHits = 0;
+            Postings driver = lists[0];
+            
+            candidates:
+            for (int i = 0; i < driver.size; i++) {
+                int document = driver.entries[i] >>> 2;
+                float score = idf[0] * weight(driver.entries[i]);
+                for (int j = 1; j < lists.length; j++) {
+                    Postings list = lists[j];
+                    int position = list.seek(cursors[j], document);
+                    cursors[j] = position;
+                    if (position == list.size) {
+                        break candidates;
+                    }
+                    if (list.entries[position] >>> 2 != document) {
+                        continue candidates;
+                    }
+                    score += idf[j] * weight(list.entries[position]);
+                }
+                totalHits++;
+                top.offer(document, score);
+            }
+            
+            return top.slice(offset, bookIds, totalHits);
+        }
+        
+        private static float weight(int entry) {
+            return ((entry & TITLE) != 0 ? TITLE_WEIGHT : 0f) + ((entry & AUTHOR) != 0 ? AUTHOR_WEIGHT : 0f);
+        }
+    }
+    
+    /**
+     * A growable, sorted postings list
+     */
+    private static final class Postings {
+        
+        private int[] entries = new int[2];
+        private int size;
+        
+        void add(int entry) {
+            if (size == entries.length) {
+                entries = Arrays.copyOf(entries, size + (size >> 1) + 1);
+            }
+            entries[size++] = entry;
+        }
+        
+        void trim() {
+            if (entries.length != size) {
+                entries = Arrays.copyOf(entries, size);
+            }
+        }
+        
+        /**
+         * Find the first position at or after {@code from} whose document is not below the target,
+         * galloping ahead and then binary searching the last step
+         */
+        int seek(int from, int document) {
+            if (from >= size || entries[from] >>> 2 >= document) {
+                return from;
+            }
+            int step = 1;
+            int low = from;
+            while (low + step < size && entries[low + step] >>> 2 < document) {
+                low += step;
+                step <<= 1;
+            }
+            int high = Math.min(low + step, size);
+            // entries[low] is below the target; find the first entry at or above it in (low, high]
+            while (low + 1 < high) {
+                int mid = (low + high) >>> 1;
+                if (entries[mid] >>> 2 < document) {
+                    low = mid;
+                } else {
+                    high = mid;
+                }
+            }
+            return high;
+        }
+    }
+    
+    /**
+     * Bounded min-heap keeping the best {@code capacity} hits, worst hit at the root
+     */
+    private static final class TopHits {
+        
+        private final int[] documents;
+        private final float[] scores;
+        private int size;
+        
+        TopHits(int capacity) {
+            this.documents = new int[capacity];
+            this.scores = new float[capacity];
+        }
+        
+        void offer(int document, float score) {
+            if (size < documents.length) {
+                documents[size] = document;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (size > 0 && isWorse(documents[0], scores[0], document, score)) {
+                documents[0] = document;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+        
+        SearchResult slice(int offset, long[] bookIds, long totalHits) {
+            int count = size;
+            int[] rankedDocuments = new int[count];
+            float[] rankedScores = new float[count];
+            // Popping the root yields the worst remaining hit, so fill from the back
+            for (int i = count - 1; i >= 0; i--) {
+                rankedDocuments[i] = documents[0];
+                rankedScores[i] = scores[0];
+                size--;
+                documents[0] = documents[size];
+                scores[0] = scores[size];
+                siftDown(0);
+            }
+            
+            int from = Math.min(offset, count);
+            long[] ids = new long[count - from];
+            float[] sliceScores = new float[count - from];
+            for (int i = from; i < count; i++) {
+                ids[i - from] = bookIds[rankedDocuments[i]];
+                sliceScores[i - from] = rankedScores[i];
+            }
+            return new SearchResult(totalHits, ids, sliceScores);
+        }
+        
+        /**
+         * Whether hit a ranks below hit b: lower score, or the same score and indexed later
+         */
+        private static boolean isWorse(int documentA, float scoreA, int documentB, float scoreB) {
+            return scoreA < scoreB || (scoreA == scoreB && documentA > documentB);
+        }
+        
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (!isWorse(documents[index], scores[index], documents[parent], scores[parent])) {
+                    return;
+                }
+                swap(index, parent);
+                index = parent;
+            }
+        }
+        
+        private void siftDown(int index) {
+            while (true) {
+                int child = 2 * index + 1;
+                if (child >= size) {
+                    return;
+                }
+                if (child + 1 < size && isWorse(documents[child + 1], scores[child + 1], documents[child], scores[child])) {
+                    child++;
+                }
+                if (!isWorse(documents[child], scores[child], documents[index], scores[index])) {
+                    return;
+                }
+                swap(index, child);
+                index = child;
+            }
+        }
+        
+        private void swap(int a, int b) {
+            int document = documents[a];
+            documents[a] = documents[b];
+            documents[b] = document;
+            float score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+    }
+}
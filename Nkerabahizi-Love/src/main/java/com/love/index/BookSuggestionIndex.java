@@ -0,0 +1,354 @@
+package com.love.index;
+
+import com.love.dto.BookResponse;
+import com.love.dto.SuggestionIndexStatsResponse;
+import com.love.dto.SuggestionResponse;
+import com.love.enums.SuggestionType;
+import com.love.event.BookCreatedEvent;
+import com.love.event.BooksImportedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Type-ahead suggestions for book titles and authors.
+ * <p>
+ * Every distinct title and author is one entry, weighted by the number of books that carry it.
+ * The bulk of the entries live in an immutable {@link SuggestionSegment} of packed sorted arrays
+ * built at startup. Books created afterwards go to a small sorted delta map that is merged into a
+ * new segment once it outgrows an eighth of the segment, so the amortized cost of an add stays low.
+ * Lookups merge the top entries of both.
+ * <p>
+ * Books added while a {@link Rebuild} reads the catalog are recorded and, unless the rebuild
+ * already saw them, added to the rebuilt segment when it is swapped in.
+ */
+@Component
+public class BookSuggestionIndex {
+    
+    private static final int MIN_COMPACTION_THRESHOLD = 4096;
+    private static final int VISITS_PER_SUGGESTION = 32;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    
+    private final AvailabilityIndex availabilityIndex;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock writerLock = new ReentrantLock();
+    private final TreeMap<String, SuggestionEntry> delta = new TreeMap<>();
+    private SuggestionSegment base = SuggestionSegment.EMPTY;
+    private List<IndexedBook> addedDuringRebuild;
+    
+    @Autowired
+    public BookSuggestionIndex(AvailabilityIndex availabilityIndex) {
+        this.availabilityIndex = availabilityIndex;
+    }
+    
+    /**
+     * Replace all suggestions with those of the given books
+     * @param books all books of the catalog
+     * @return the number of distinct suggestions
+     */
+    public int rebuild(Iterator<IndexedBook> books) {
+        Rebuild rebuild = startRebuild();
+        try {
+            books.forEachRemaining(rebuild::add);
+        } catch (RuntimeException e) {
+            rebuild.abort();
+            throw e;
+        }
+        return rebuild.finish();
+    }
+    
+    /**
+     * Start collecting new suggestions. Start it before opening the stream of books it is fed from,
+     * so every book committed after that stream's snapshot is recorded for the swap.
+     * @return the rebuild to add the books of the catalog to
+     * @throws IllegalStateException if a rebuild is already running
+     */
+    public Rebuild startRebuild() {
+        writerLock.lock();
+        try {
+            if (addedDuringRebuild != null) {
+                throw new IllegalStateException("The suggestion index is already being rebuilt");
+            }
+            addedDuringRebuild = new ArrayList<>();
+            return new Rebuild();
+        } finally {
+            writerLock.unlock();
+        }
+    }
+    
+    /**
+     * Add the titles and authors of new books
+     * @param books the books to add
+     */
+    public void addAll(Collection<IndexedBook> books) {
+        writerLock.lock();
+        try {
+            lock.writeLock().lock();
+            try {
+                books.forEach(book -> collect(delta, book));
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (addedDuringRebuild != null) {
+                addedDuringRebuild.addAll(books);
+            }
+            if (delta.size() > Math.max(MIN_COMPACTION_THRESHOLD, base.size() / 8)) {
+                compact();
+            }
+        } finally {
+            writerLock.unlock();
+        }
+    }
+    
+    /**
+     * Suggest the titles and authors starting with a prefix, most common first
+     * @param prefix what the user has typed so far; case, accents and repeated spaces are ignored
+     * @param limit the maximum number of suggestions
+     * @param availableOnly only suggest texts carried by at least one available book
+     * @return the suggestions, heaviest first
+     */
+    public List<SuggestionResponse> suggest(String prefix, int limit, boolean availableOnly) {
+        String key = normalizeKey(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        
+        lock.readLock().lock();
+        try {
+            Map<String, SuggestionResponse> suggestions = new LinkedHashMap<>();
+            
+            int[] range = base.prefixRange(keyBytes);
+            int[] top = base.top(range[0], range[1], limit, limit * VISITS_PER_SUGGESTION,
+                    entry -> !availableOnly || hasAvailableBook(entry, deltaEntry(entry)));
+            for (int entry : top) {
+                SuggestionEntry pending = deltaEntry(entry);
+                int weight = base.weight(entry) + (pending != null ? pending.bookCount() : 0);
+                suggestions.put(deltaKey(base.key(entry), base.type(entry)),
+                        new SuggestionResponse(base.text(entry), base.type(entry), weight));
+            }
+            
+            for (Map.Entry<String, SuggestionEntry> pending : delta.subMap(key, key + Character.MAX_VALUE).entrySet()) {
+                if (suggestions.containsKey(pending.getKey())) {
+                    continue;
+                }
+                SuggestionEntry entry = pending.getValue();
+                int baseEntry = base.find(entry.keyBytes(), entry.type());
+                if (availableOnly && !hasAvailableBook(baseEntry, entry)) {
+                    continue;
+                }
+                int weight = entry.bookCount() + (baseEntry >= 0 ? base.weight(baseEntry) : 0);
+                String text = baseEntry >= 0 ? base.text(baseEntry) : entry.text();
+                suggestions.put(pending.getKey(), new SuggestionResponse(text, entry.type(), weight));
+            }
+            
+            return suggestions.values().stream()
+                    .sorted(Comparator.comparingInt(SuggestionResponse::getBooks).reversed()
+                            .thenComparing(SuggestionResponse::getText))
+                    .limit(limit)
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Get the size of the index
+     * @return entry counts and the heap used by the packed segment
+     */
+    public SuggestionIndexStatsResponse getStatistics() {
+        lock.readLock().lock();
+        try {
+            return new SuggestionIndexStatsResponse(base.size(), delta.size(), base.sizeInBytes());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Add the title and author of a newly created book once its transaction commits
+     * @param event the book created event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookCreated(BookCreatedEvent event) {
+        addAll(List.of(toIndexedBook(event.getBook())));
+    }
+    
+    /**
+     * Add the titles and authors of imported books once their transaction commits
+     * @param event the books imported event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksImported(BooksImportedEvent event) {
+        addAll(event.getBooks().stream()
+                .map(BookSuggestionIndex::toIndexedBook)
+                .collect(Collectors.toList()));
+    }
+    
+    /**
+     * Merge the delta into a new segment. Only writers change the segment and the delta,
+     * and they hold the writer lock, so both can be read here without the read-write lock.
+     */
+    private void compact() {
+        Map<String, SuggestionEntry> merged = new HashMap<>(base.size() + delta.size());
+        for (int entry = 0; entry < base.size(); entry++) {
+            byte[] key = base.key(entry);
+            SuggestionEntry copy = new SuggestionEntry(key, base.textBytes(entry), base.type(entry));
+            for (int i = 0; i < base.bookCount(entry); i++) {
+                copy.addBook(base.bookId(entry, i));
+            }
+            merged.put(deltaKey(key, base.type(entry)), copy);
+        }
+        for (Map.Entry<String, SuggestionEntry> pending : delta.entrySet()) {
+            SuggestionEntry target = merged.putIfAbsent(pending.getKey(), pending.getValue());
+            if (target != null) {
+                SuggestionEntry entry = pending.getValue();
+                for (int i = 0; i < entry.bookCount(); i++) {
+                    target.addBook(entry.bookId(i));
+                }
+            }
+        }
+        SuggestionSegment compacted = SuggestionSegment.build(merged.values());
+        
+        lock.writeLock().lock();
+        try {
+            base = compacted;
+            delta.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private boolean hasAvailableBook(int baseEntry, SuggestionEntry pending) {
+        if (baseEntry >= 0) {
+            for (int i = 0; i < base.bookCount(baseEntry); i++) {
+                if (availabilityIndex.isAvailable(base.bookId(baseEntry, i))) {
+                    return true;
+                }
+            }
+        }
+        if (pending != null) {
+            for (int i = 0; i < pending.bookCount(); i++) {
+                if (availabilityIndex.isAvailable(pending.bookId(i))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    private SuggestionEntry deltaEntry(int baseEntry) {
+        return delta.isEmpty() ? null : delta.get(deltaKey(base.key(baseEntry), base.type(baseEntry)));
+    }
+    
+    private static void collect(Map<String, SuggestionEntry> entries, IndexedBook book) {
+        collect(entries, book.getId(), book.getTitle(), SuggestionType.TITLE);
+        collect(entries, book.getId(), book.getAuthor(), SuggestionType.AUTHOR);
+    }
+    
+    private static void collect(Map<String, SuggestionEntry> entries, long bookId, String text, SuggestionType type) {
+        String key = normalizeKey(text);
+        if (key.isEmpty()) {
+            return;
+        }
+        entries.computeIfAbsent(deltaKey(key, type),
+                        k -> new SuggestionEntry(key, WHITESPACE.matcher(text.trim()).replaceAll(" "), type))
+                .addBook(bookId);
+    }
+    
+    private static String normalizeKey(String text) {
+        return WHITESPACE.matcher(Tokenizer.fold(text).trim()).replaceAll(" ");
+    }
+    
+    /**
+     * Key of an entry in the delta map: the folded text, so prefix ranges stay contiguous, then its type
+     */
+    private static String deltaKey(String key, SuggestionType type) {
+        return key + '\0' + type.ordinal();
+    }
+    
+    private static String deltaKey(byte[] key, SuggestionType type) {
+        return deltaKey(new String(key, StandardCharsets.UTF_8), type);
+    }
+    
+    private static IndexedBook toIndexedBook(BookResponse book) {
+        return new IndexedBook(book.getId(), book.getTitle(), book.getAuthor());
+    }
+    
+    /**
+     * New suggestions being collected from the catalog, while the current ones keep being served
+     */
+    public final class Rebuild {
+        
+        private final Map<String, SuggestionEntry> entries = new HashMap<>();
+        private final LongCounterMap collectedBooks = new LongCounterMap();
+        
+        private Rebuild() {
+        }
+        
+        /**
+         * Add the title and author of a book of the catalog
+         * @param book the book to add
+         */
+        public void add(IndexedBook book) {
+            collectedBooks.add(book.getId(), 1);
+            collect(entries, book);
+        }
+        
+        /**
+         * Add the books added to the index since the rebuild started, then swap the new suggestions in
+         * @return the number of distinct suggestions
+         */
+        public int finish() {
+            writerLock.lock();
+            try {
+                for (IndexedBook book : addedDuringRebuild) {
+                    if (collectedBooks.get(book.getId()) == 0) {
+                        collectedBooks.add(book.getId(), 1);
+                        collect(entries, book);
+                    }
+                }
+                addedDuringRebuild = null;
+                SuggestionSegment rebuilt = SuggestionSegment.build(entries.values());
+                
+                lock.writeLock().lock();
+                try {
+                    base = rebuilt;
+                    delta.clear();
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                return rebuilt.size();
+            } finally {
+                writerLock.unlock();
+            }
+        }
+        
+        /**
+         * Drop the new suggestions and keep the current ones
+         */
+        public void abort() {
+            writerLock.lock();
+            try {
+                addedDuringRebuild = null;
+            } finally {
+                writerLock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.love.index;
+
+import com.love.enums.BorrowingStatus;
+import com.love.enums.CirculationEventType;
+import com.love.pipeline.CirculationEvent;
+import com.love.pipeline.CirculationEventHandler;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Running circulation counters: open loans, borrows and returns in total, returns per day, and
+ * borrows per book and per borrower. They are updated from the circulation pipeline after every
+ * committed borrow and return, so reading any of them costs O(1) whatever the number of
+ * transactions.
+ * <p>
+ * Totals are {@link LongAdder}s; the keyed counts are {@link LongCounterMap}s, with borrower
+ * names mapped to dense ids once. Updates are serialized by a lock that is uncontended in
+ * practice, since the pipeline delivers events on a single thread; readers never lock.
+ * <p>
+ * Each generation remembers which transactions it has counted as borrowed and as returned, one
+ * bit per transaction id, so a borrow or return is never counted twice. Events delivered while
+ * {@link #rebuild(Supplier)} runs are queued and applied to the rebuilt counters once the stream
+ * is read: those the stream already saw are skipped, the others are counted.
+ */
+@Component
+public class CirculationStatistics implements CirculationEventHandler {
+    
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile Counts counts = new Counts();
+    private List<Consumer<Counts>> eventsDuringRebuild;
+    
+    @Override
+    public void onEvent(CirculationEvent event, long sequence, boolean endOfBatch) {
+        // The event is reused by the pipeline, so copy what a queued update needs
+        long transactionId = event.getTransactionId();
+        Consumer<Counts> update;
+        if (event.getType() == CirculationEventType.BORROWED) {
+            long bookId = event.getBookId();
+            String borrowerName = event.getBorrowerName();
+            update = target -> target.borrowed(transactionId, bookId, borrowerName);
+        } else {
+            LocalDate day = event.getOccurredAt().toLocalDate();
+            update = target -> target.returned(transactionId, day);
+        }
+        
+        writeLock.lock();
+        try {
+            update.accept(counts);
+            if (eventsDuringRebuild != null) {
+                eventsDuringRebuild.add(update);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    /**
+     * Replace all counters with counts over the given transactions. Events delivered from the
+     * moment the stream is opened until it is read are applied to the new counters too.
+     * @param loans opens a stream of every borrowing transaction; closed by this method
+     */
+    public void rebuild(Supplier<? extends Stream<IndexedLoan>> loans) {
+        writeLock.lock();
+        try {
+            if (eventsDuringRebuild != null) {
+                throw new IllegalStateException("Circulation statistics are already being rebuilt");
+            }
+            eventsDuringRebuild = new ArrayList<>();
+        } finally {
+            writeLock.unlock();
+        }
+        
+        Counts rebuilt = new Counts();
+        try {
+            try (Stream<IndexedLoan> stream = loans.get()) {
+                Iterator<IndexedLoan> iterator = stream.iterator();
+                while (iterator.hasNext()) {
+                    IndexedLoan loan = iterator.next();
+                    rebuilt.borrowed(loan.getTransactionId(), loan.getBookId(), loan.getBorrowerName());
+                    if (loan.getStatus() == BorrowingStatus.RETURNED) {
+                        rebuilt.returned(loan.getTransactionId(), loan.getReturnDate().toLocalDate());
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            writeLock.lock();
+            try {
+                eventsDuringRebuild = null;
+            } finally {
+                writeLock.unlock();
+            }
+            throw e;
+        }
+        
+        writeLock.lock();
+        try {
+            eventsDuringRebuild.forEach(update -> update.accept(rebuilt));
+            eventsDuringRebuild = null;
+            counts = rebuilt;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    /**
+     * Get the number of books currently out on loan
+     * @return the number of transactions not yet returned
+     */
+    public long openLoans() {
+        Counts current = counts;
+        // Returns first: borrows only grow, so the difference never dips below zero
+        long returned = current.returns.sum();
+        return current.borrows.sum() - returned;
+    }
+    
+    /**
+     * Get the number of borrows ever made
+     * @return the number of borrowing transactions
+     */
+    public long totalBorrows() {
+        return counts.borrows.sum();
+    }
+    
+    /**
+     * Get the number of returns ever made
+     * @return the number of returned transactions
+     */
+    public long totalReturns() {
+        return counts.returns.sum();
+    }
+    
+    /**
+     * Get the number of returns on a day
+     * @param day the day of the return
+     * @return the number of books returned that day
+     */
+    public long returnsOn(LocalDate day) {
+        return counts.returnsPerDay.get(day.toEpochDay());
+    }
+    
+    /**
+     * Get the number of times a book has been borrowed
+     * @param bookId the book id
+     * @return the number of borrows of the book
+     */
+    public long borrowsOfBook(long bookId) {
+        return counts.borrowsPerBook.get(bookId);
+    }
+    
+    /**
+     * Get the number of books a borrower has borrowed
+     * @param borrowerName the borrower name
+     * @return the number of borrows by the borrower
+     */
+    public long borrowsByBorrower(String borrowerName) {
+        Counts current = counts;
+        Integer borrowerId = current.borrowerIds.get(borrowerName);
+        return borrowerId == null ? 0L : current.borrowsPerBorrower.get(borrowerId);
+    }
+    
+    /**
+     * Get the number of distinct books ever borrowed
+     * @return the number of books
+     */
+    public int distinctBooks() {
+        return counts.borrowsPerBook.size();
+    }
+    
+    /**
+     * Get the number of distinct borrowers
+     * @return the number of borrowers
+     */
+    public int distinctBorrowers() {
+        return counts.borrowerIds.size();
+    }
+    
+    /**
+     * One generation of counters, replaced as a whole on rebuild
+     */
+    private static final class Counts {
+        
+        private final LongAdder borrows = new LongAdder();
+        private final LongAdder returns = new LongAdder();
+        private final LongCounterMap returnsPerDay = new LongCounterMap();
+        private final LongCounterMap borrowsPerBook = new LongCounterMap();
+        private final LongCounterMap borrowsPerBorrower = new LongCounterMap();
+        private final Map<String, Integer> borrowerIds = new ConcurrentHashMap<>();
+        private final BitSet borrowedTransactions = new BitSet();
+        private final BitSet returnedTransactions = new BitSet();
+        
+        private void borrowed(long transactionId, long bookId, String borrowerName) {
+            int bit = Math.toIntExact(transactionId);
+            if (borrowedTransactions.get(bit)) {
+                return;
+            }
+            borrowedTransactions.set(bit);
+            borrows.increment();
+            borrowsPerBook.add(bookId, 1);
+            Integer borrowerId = borrowerIds.get(borrowerName);
+            if (borrowerId == null) {
+                borrowerId = borrowerIds.size();
+                borrowerIds.put(borrowerName, borrowerId);
+            }
+            borrowsPerBorrower.add(borrowerId, 1);
+        }
+        
+        private void returned(long transactionId, LocalDate day) {
+            int bit = Math.toIntExact(transactionId);
+            if (returnedTransactions.get(bit)) {
+                return;
+            }
+            returnedTransactions.set(bit);
+            returns.increment();
+            returnsPerDay.add(day.toEpochDay(), 1);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.love.index;
+
+/**
+ * The fields of a book that the in-memory text indexes are built from.
+ * Loaded with a constructor expression so no entity is hydrated while indexing.
+ */
+public class IndexedBook {
+    
+    private final Long id;
+    private final String title;
+    private final String author;
+    
+    public IndexedBook(Long id, String title, String author) {
+        this.id = id;
+        this.title = title;
+        this.author = author;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public String getTitle() {
+        return title;
+    }
+    
+    public String getAuthor() {
+        return author;
+    }
+}
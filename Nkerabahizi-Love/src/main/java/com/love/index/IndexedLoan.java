@@ -0,0 +1,47 @@
+package com.love.index;
+
+import com.love.enums.BorrowingStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * The fields of a borrowing transaction that the circulation statistics are built from.
+ * Loaded with a constructor expression so no entity is hydrated while rebuilding.
+ */
+public class IndexedLoan {
+    
+    private final Long transactionId;
+    private final Long bookId;
+    private final String borrowerName;
+    private final BorrowingStatus status;
+    private final LocalDateTime returnDate;
+    
+    public IndexedLoan(Long transactionId, Long bookId, String borrowerName, BorrowingStatus status,
+                       LocalDateTime returnDate) {
+        this.transactionId = transactionId;
+        this.bookId = bookId;
+        this.borrowerName = borrowerName;
+        this.status = status;
+        this.returnDate = returnDate;
+    }
+    
+    public Long getTransactionId() {
+        return transactionId;
+    }
+    
+    public Long getBookId() {
+        return bookId;
+    }
+    
+    public String getBorrowerName() {
+        return borrowerName;
+    }
+    
+    public BorrowingStatus getStatus() {
+        return status;
+    }
+    
+    public LocalDateTime getReturnDate() {
+        return returnDate;
+    }
+}
@@ -0,0 +1,140 @@
+package com.love.index;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Open-addressing hash map from {@code long} keys to {@code long} counts, without boxing.
+ * <p>
+ * One writer at a time (callers serialize updates); any number of readers without locking.
+ * A key's count is stored before the key itself, and a larger table is filled completely before
+ * it is published, so a reader sees either the previous or the current count, never garbage.
+ */
+public class LongCounterMap {
+    
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int MIN_CAPACITY = 16;
+    
+    private volatile Table table;
+    private volatile int size;
+    
+    public LongCounterMap() {
+        this(MIN_CAPACITY);
+    }
+    
+    /**
+     * Create a map sized for the expected number of keys
+     * @param expectedKeys the number of keys expected
+     */
+    public LongCounterMap(int expectedKeys) {
+        this.table = new Table(tableSizeFor(expectedKeys));
+    }
+    
+    /**
+     * Add to the count of a key, inserting the key if it is new
+     * @param key the key, anything but {@link Long#MIN_VALUE}
+     * @param delta the amount to add
+     * @return the new count
+     */
+    public long add(long key, long delta) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Key " + key + " is reserved");
+        }
+        Table current = table;
+        int slot = current.find(key);
+        if (current.keys.get(slot) == key) {
+            return current.values.addAndGet(slot, delta);
+        }
+        // Keep the load factor at or below one half
+        if ((size + 1) * 2 > current.capacity()) {
+            current = resize(current);
+            slot = current.find(key);
+        }
+        current.values.set(slot, delta);
+        current.keys.set(slot, key);
+        size++;
+        return delta;
+    }
+    
+    /**
+     * Get the count of a key
+     * @param key the key
+     * @return the count, or 0 if the key was never added
+     */
+    public long get(long key) {
+        Table current = table;
+        int slot = current.find(key);
+        return current.keys.get(slot) == key ? current.values.get(slot) : 0L;
+    }
+    
+    /**
+     * Get the number of distinct keys
+     * @return the number of keys
+     */
+    public int size() {
+        return size;
+    }
+    
+    private Table resize(Table current) {
+        Table larger = new Table(current.capacity() * 2);
+        for (int i = 0; i < current.capacity(); i++) {
+            long key = current.keys.get(i);
+            if (key != EMPTY) {
+                int slot = larger.find(key);
+                larger.values.set(slot, current.values.get(i));
+                larger.keys.set(slot, key);
+            }
+        }
+        table = larger;
+        return larger;
+    }
+    
+    private static int tableSizeFor(int expectedKeys) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedKeys * 2L) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+    
+    private static final class Table {
+        
+        private final AtomicLongArray keys;
+        private final AtomicLongArray values;
+        private final int mask;
+        
+        private Table(int capacity) {
+            this.keys = new AtomicLongArray(capacity);
+            for (int i = 0; i < capacity; i++) {
+                keys.set(i, EMPTY);
+            }
+            this.values = new AtomicLongArray(capacity);
+            this.mask = capacity - 1;
+        }
+        
+        private int capacity() {
+            return mask + 1;
+        }
+        
+        /**
+         * Linear probing from the key's hash to the slot holding the key or the first empty slot
+         */
+        private int find(long key) {
+            int slot = (int) mix(key) & mask;
+            while (true) {
+                long existing = keys.get(slot);
+                if (existing == key || existing == EMPTY) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+        
+        private static long mix(long key) {
+            // Finalizer of MurmurHash3: sequential ids and days spread over the whole table
+            key ^= key >>> 33;
+            key *= 0xff51afd7ed558ccdL;
+            key ^= key >>> 33;
+            return key;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.love.index;
+
+import com.love.enums.SuggestionType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A mutable suggestion while it is being collected: one distinct title or author
+ * with the ids of the books that carry it. Its weight is the number of books.
+ */
+final class SuggestionEntry {
+    
+    private final byte[] keyBytes;
+    private final byte[] textBytes;
+    private final SuggestionType type;
+    private long[] bookIds = new long[1];
+    private int bookCount;
+    
+    SuggestionEntry(String key, String text, SuggestionType type) {
+        this(key.getBytes(StandardCharsets.UTF_8), text.getBytes(StandardCharsets.UTF_8), type);
+    }
+    
+    SuggestionEntry(byte[] keyBytes, byte[] textBytes, SuggestionType type) {
+        this.keyBytes = keyBytes;
+        this.textBytes = textBytes;
+        this.type = type;
+    }
+    
+    void addBook(long bookId) {
+        if (bookCount == bookIds.length) {
+            bookIds = Arrays.copyOf(bookIds, bookCount * 2);
+        }
+        bookIds[bookCount++] = bookId;
+    }
+    
+    void copyBookIds(long[] target, int offset) {
+        System.arraycopy(bookIds, 0, target, offset, bookCount);
+    }
+    
+    byte[] keyBytes() {
+        return keyBytes;
+    }
+    
+    byte[] textBytes() {
+        return textBytes;
+    }
+    
+    String text() {
+        return new String(textBytes, StandardCharsets.UTF_8);
+    }
+    
+    SuggestionType type() {
+        return type;
+    }
+    
+    int bookCount() {
+        return bookCount;
+    }
+    
+    long bookId(int index) {
+        return bookIds[index];
+    }
+}
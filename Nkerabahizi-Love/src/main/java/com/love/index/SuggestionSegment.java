@@ -0,0 +1,302 @@
+package com.love.index;
+
+import com.love.enums.SuggestionType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable, sorted suggestion entries packed into primitive arrays.
+ * <p>
+ * Keys (folded text) and display texts are UTF-8 bytes concatenated into one array each, with
+ * offset arrays marking where every entry starts; keys are sorted by unsigned byte order so all
+ * completions of a prefix form one contiguous range found by binary search. The best entries of a
+ * range are found with a sparse table of the heaviest entry per block of {@value #BLOCK} entries,
+ * so a top-k lookup costs O(k log k) range-maximum queries instead of a scan of the range.
+ */
+final class SuggestionSegment {
+    
+    static final SuggestionSegment EMPTY = build(List.of());
+    
+    private static final int BLOCK = 64;
+    private static final SuggestionType[] TYPES = SuggestionType.values();
+    
+    private final int size;
+    private final byte[] keyBytes;
+    private final int[] keyOffsets;
+    private final byte[] textBytes;
+    private final int[] textOffsets;
+    private final byte[] types;
+    private final int[] weights;
+    private final long[] bookIds;
+    private final int[] bookOffsets;
+    private final int[][] blockMaxima;
+    
+    private SuggestionSegment(int size, byte[] keyBytes, int[] keyOffsets, byte[] textBytes, int[] textOffsets,
+                              byte[] types, int[] weights, long[] bookIds, int[] bookOffsets) {
+        this.size = size;
+        this.keyBytes = keyBytes;
+        this.keyOffsets = keyOffsets;
+        this.textBytes = textBytes;
+        this.textOffsets = textOffsets;
+        this.types = types;
+        this.weights = weights;
+        this.bookIds = bookIds;
+        this.bookOffsets = bookOffsets;
+        this.blockMaxima = buildBlockMaxima();
+    }
+    
+    /**
+     * Pack the given entries. Entries must have distinct (key, type) pairs.
+     * @param entries the entries to pack, in any order
+     * @return the packed segment
+     */
+    static SuggestionSegment build(Collection<SuggestionEntry> entries) {
+        List<SuggestionEntry> sorted = entries.stream()
+                .sorted(Comparator.<SuggestionEntry, byte[]>comparing(SuggestionEntry::keyBytes, Arrays::compareUnsigned)
+                        .thenComparing(SuggestionEntry::type))
+                .collect(Collectors.toList());
+        
+        int size = sorted.size();
+        int[] keyOffsets = new int[size + 1];
+        int[] textOffsets = new int[size + 1];
+        int[] bookOffsets = new int[size + 1];
+        for (int i = 0; i < size; i++) {
+            SuggestionEntry entry = sorted.get(i);
+            keyOffsets[i + 1] = keyOffsets[i] + entry.keyBytes().length;
+            textOffsets[i + 1] = textOffsets[i] + entry.textBytes().length;
+            bookOffsets[i + 1] = bookOffsets[i] + entry.bookCount();
+        }
+        
+        byte[] keyBytes = new byte[keyOffsets[size]];
+        byte[] textBytes = new byte[textOffsets[size]];
+        long[] bookIds = new long[bookOffsets[size]];
+        byte[] types = new byte[size];
+        int[] weights = new int[size];
+        for (int i = 0; i < size; i++) {
+            SuggestionEntry entry = sorted.get(i);
+            System.arraycopy(entry.keyBytes(), 0, keyBytes, keyOffsets[i], entry.keyBytes().length);
+            System.arraycopy(entry.textBytes(), 0, textBytes, textOffsets[i], entry.textBytes().length);
+            entry.copyBookIds(bookIds, bookOffsets[i]);
+            types[i] = (byte) entry.type().ordinal();
+            weights[i] = entry.bookCount();
+        }
+        return new SuggestionSegment(size, keyBytes, keyOffsets, textBytes, textOffsets,
+                types, weights, bookIds, bookOffsets);
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    /**
+     * Find the entries whose key starts with the given prefix
+     * @param prefix the folded prefix as UTF-8
+     * @return {@code {from, to}}, the half-open range of matching entries
+     */
+    int[] prefixRange(byte[] prefix) {
+        int from = lowerBound(prefix, false);
+        int to = lowerBound(prefix, true);
+        return new int[] {from, to};
+    }
+    
+    /**
+     * Find the heaviest entries in a range, best first
+     * @param from the first entry of the range
+     * @param to the end of the range, exclusive
+     * @param limit the maximum number of entries to return
+     * @param maxVisits the maximum number of entries to test against the filter
+     * @param accept filter applied to each candidate in rank order
+     * @return the accepted entry positions, best first
+     */
+    int[] top(int from, int to, int limit, int maxVisits, IntPredicate accept) {
+        if (from >= to) {
+            return new int[0];
+        }
+        int[] result = new int[limit];
+        int found = 0;
+        
+        // Each queued range carries its heaviest entry; popping it splits the range around that entry
+        PriorityQueue<int[]> ranges = new PriorityQueue<>((a, b) -> isHeavier(a[2], b[2]) ? -1 : 1);
+        ranges.add(new int[] {from, to, heaviest(from, to)});
+        int visits = 0;
+        while (!ranges.isEmpty() && found < limit && visits++ < maxVisits) {
+            int[] range = ranges.poll();
+            int best = range[2];
+            if (accept.test(best)) {
+                result[found++] = best;
+            }
+            if (range[0] < best) {
+                ranges.add(new int[] {range[0], best, heaviest(range[0], best)});
+            }
+            if (best + 1 < range[1]) {
+                ranges.add(new int[] {best + 1, range[1], heaviest(best + 1, range[1])});
+            }
+        }
+        return Arrays.copyOf(result, found);
+    }
+    
+    /**
+     * Find the exact entry for a key and type
+     * @param key the folded key as UTF-8
+     * @param type the suggestion type
+     * @return the entry position, or -1 if absent
+     */
+    int find(byte[] key, SuggestionType type) {
+        for (int i = lowerBound(key, false); i < size && compareKey(i, key, false) == 0; i++) {
+            if (types[i] == type.ordinal() && keyOffsets[i + 1] - keyOffsets[i] == key.length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    String text(int entry) {
+        return new String(textBytes, textOffsets[entry], textOffsets[entry + 1] - textOffsets[entry], StandardCharsets.UTF_8);
+    }
+    
+    byte[] textBytes(int entry) {
+        return Arrays.copyOfRange(textBytes, textOffsets[entry], textOffsets[entry + 1]);
+    }
+    
+    byte[] key(int entry) {
+        return Arrays.copyOfRange(keyBytes, keyOffsets[entry], keyOffsets[entry + 1]);
+    }
+    
+    SuggestionType type(int entry) {
+        return TYPES[types[entry]];
+    }
+    
+    int weight(int entry) {
+        return weights[entry];
+    }
+    
+    int bookCount(int entry) {
+        return bookOffsets[entry + 1] - bookOffsets[entry];
+    }
+    
+    long bookId(int entry, int index) {
+        return bookIds[bookOffsets[entry] + index];
+    }
+    
+    /**
+     * Estimate the heap used by the packed arrays
+     * @return the size in bytes
+     */
+    long sizeInBytes() {
+        long bytes = keyBytes.length + textBytes.length + types.length
+                + 4L * (keyOffsets.length + textOffsets.length + weights.length + bookOffsets.length)
+                + 8L * bookIds.length;
+        for (int[] level : blockMaxima) {
+            bytes += 4L * level.length;
+        }
+        return bytes;
+    }
+    
+    /**
+     * Binary search for the first entry whose key is not below the prefix, or, with
+     * {@code pastPrefix}, the first entry after all keys starting with the prefix
+     */
+    private int lowerBound(byte[] prefix, boolean pastPrefix) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareKey(mid, prefix, pastPrefix);
+            if (cmp < 0 || (pastPrefix && cmp == 0)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    /**
+     * Compare the key of an entry with a prefix; a key that starts with the prefix compares
+     * equal when {@code prefixOnly} is set, and is otherwise ordered by the full comparison
+     */
+    private int compareKey(int entry, byte[] prefix, boolean prefixOnly) {
+        int start = keyOffsets[entry];
+        int length = keyOffsets[entry + 1] - start;
+        int common = Math.min(length, prefix.length);
+        int cmp = Arrays.compareUnsigned(keyBytes, start, start + common, prefix, 0, common);
+        if (cmp != 0) {
+            return cmp;
+        }
+        if (length >= prefix.length) {
+            return prefixOnly || length == prefix.length ? 0 : 1;
+        }
+        return -1;
+    }
+    
+    private boolean isHeavier(int a, int b) {
+        return weights[a] > weights[b] || (weights[a] == weights[b] && a < b);
+    }
+    
+    private int heavierOf(int a, int b) {
+        return isHeavier(a, b) ? a : b;
+    }
+    
+    private int scan(int from, int to) {
+        int best = from;
+        for (int i = from + 1; i < to; i++) {
+            if (isHeavier(i, best)) {
+                best = i;
+            }
+        }
+        return best;
+    }
+    
+    /**
+     * Range maximum query over [from, to): scan the partial blocks at both ends and answer
+     * the whole blocks in between from the sparse table
+     */
+    private int heaviest(int from, int to) {
+        int firstBlock = from / BLOCK;
+        int lastBlock = (to - 1) / BLOCK;
+        if (lastBlock - firstBlock <= 1) {
+            return scan(from, to);
+        }
+        
+        int best = heavierOf(scan(from, (firstBlock + 1) * BLOCK), scan(lastBlock * BLOCK, to));
+        int blocks = lastBlock - firstBlock - 1;
+        int level = 31 - Integer.numberOfLeadingZeros(blocks);
+        int[] maxima = blockMaxima[level];
+        best = heavierOf(best, maxima[firstBlock + 1]);
+        return heavierOf(best, maxima[lastBlock - (1 << level)]);
+    }
+    
+    /**
+     * Level l holds, for every block b, the heaviest entry of blocks [b, b + 2^l)
+     */
+    private int[][] buildBlockMaxima() {
+        int blocks = (size + BLOCK - 1) / BLOCK;
+        if (blocks == 0) {
+            return new int[0][];
+        }
+        int levels = 32 - Integer.numberOfLeadingZeros(blocks);
+        int[][] maxima = new int[levels][];
+        maxima[0] = new int[blocks];
+        for (int b = 0; b < blocks; b++) {
+            maxima[0][b] = scan(b * BLOCK, Math.min(size, (b + 1) * BLOCK));
+        }
+        for (int level = 1; level < levels; level++) {
+            int span = 1 << level;
+            int half = span >> 1;
+            int[] previous = maxima[level - 1];
+            int[] current = new int[blocks - span + 1];
+            for (int b = 0; b < current.length; b++) {
+                current[b] = heavierOf(previous[b], previous[b + half]);
+            }
+            maxima[level] = current;
+        }
+        return maxima;
+    }
+}
@@ -0,0 +1,55 @@
+package com.love.index;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits text into lower-case terms on anything that is not a letter or digit.
+ * Accents are folded so that "Brontë" and "bronte" produce the same term.
+ */
+final class Tokenizer {
+    
+    private Tokenizer() {
+    }
+    
+    /**
+     * Fold text to lower case without accents
+     * @param text the text to fold, may be null
+     * @return the folded text, empty for null
+     */
+    static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lower.length(); i++) {
+            if (lower.charAt(i) > 0x7F) {
+                return Normalizer.normalize(lower, Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+            }
+        }
+        return lower;
+    }
+    
+    /**
+     * Split text into folded terms, in order and with repetitions
+     * @param text the text to split, may be null
+     * @return the terms
+     */
+    static List<String> tokenize(String text) {
+        String folded = fold(text);
+        List<String> terms = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean termChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (termChar && start < 0) {
+                start = i;
+            } else if (!termChar && start >= 0) {
+                terms.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+}
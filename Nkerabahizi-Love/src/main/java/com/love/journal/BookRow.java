@@ -0,0 +1,45 @@
+package com.love.journal;
+
+import com.love.enums.BookAvailabilityStatus;
+
+final class BookRow extends JournalRow {
+    
+    private final String title;
+    private final String author;
+    private final String isbn;
+    private final BookAvailabilityStatus availabilityStatus;
+    
+    BookRow(long id, long version, String title, String author, String isbn,
+            BookAvailabilityStatus availabilityStatus) {
+        super(id, version);
+        this.title = title;
+        this.author = author;
+        this.isbn = isbn;
+        this.availabilityStatus = availabilityStatus;
+    }
+    
+    BookRow withAvailabilityStatus(BookAvailabilityStatus status) {
+        return new BookRow(getId(), getVersion() + 1, title, author, isbn, status);
+    }
+    
+    @Override
+    byte type() {
+        return BOOK;
+    }
+    
+    String getTitle() {
+        return title;
+    }
+    
+    String getAuthor() {
+        return author;
+    }
+    
+    String getIsbn() {
+        return isbn;
+    }
+    
+    BookAvailabilityStatus getAvailabilityStatus() {
+        return availabilityStatus;
+    }
+}
@@ -0,0 +1,20 @@
+package com.love.journal;
+
+final class BorrowerRow extends JournalRow {
+    
+    private final String name;
+    
+    BorrowerRow(long id, long version, String name) {
+        super(id, version);
+        this.name = name;
+    }
+    
+    @Override
+    byte type() {
+        return BORROWER;
+    }
+    
+    String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,230 @@
+package com.love.journal;
+
+import com.love.dto.BookResponse;
+import com.love.entity.Book;
+import com.love.enums.BookAvailabilityStatus;
+import com.love.index.IndexedBook;
+import com.love.repository.BookRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * {@link BookRepository} on the journal store. ISBN lookups use the ISBN index; listings walk
+ * the ids in order, like the primary key scans of the JPA queries, and streams read them in
+ * batches rather than copying the table.
+ */
+@Repository
+@Profile("journal")
+public class JournalBookRepository extends JournalRepositorySupport<Book> implements BookRepository {
+    
+    @Autowired
+    public JournalBookRepository(JournalStore store) {
+        super(store, Book.class);
+    }
+    
+    @Override
+    public Optional<Book> findByIsbn(String isbn) {
+        return store.read(tables -> Optional.ofNullable(tables.bookByIsbn(isbn)).map(JournalBookRepository::toBook));
+    }
+    
+    @Override
+    public List<Book> findByAvailabilityStatus(BookAvailabilityStatus status) {
+        return store.read(tables -> {
+            List<Book> books = new ArrayList<>();
+            for (long id = 1; id <= tables.maxBookId(); id++) {
+                BookRow row = tables.book(id);
+                if (row != null && row.getAvailabilityStatus() == status) {
+                    books.add(toBook(row));
+                }
+            }
+            return books;
+        });
+    }
+    
+    @Override
+    public boolean existsByIsbn(String isbn) {
+        return store.read(tables -> tables.bookByIsbn(isbn) != null);
+    }
+    
+    @Override
+    public Set<String> findExistingIsbns(Collection<String> isbns) {
+        return store.read(tables -> {
+            Set<String> existing = new HashSet<>();
+            for (String isbn : isbns) {
+                if (tables.bookByIsbn(isbn) != null) {
+                    existing.add(isbn);
+                }
+            }
+            return existing;
+        });
+    }
+    
+    @Override
+    public List<Long> findIdsWithStatusAmong(Collection<Long> ids, BookAvailabilityStatus status) {
+        return store.read(tables -> {
+            List<Long> matching = new ArrayList<>();
+            for (Long id : ids) {
+                BookRow row = tables.book(id);
+                if (row != null && row.getAvailabilityStatus() == status) {
+                    matching.add(id);
+                }
+            }
+            return matching;
+        });
+    }
+    
+    @Override
+    public int updateAvailabilityIfCurrent(String isbn, BookAvailabilityStatus expectedStatus,
+                                           BookAvailabilityStatus newStatus) {
+        return store.write(tables -> {
+            BookRow row = tables.bookByIsbn(isbn);
+            if (row == null || row.getAvailabilityStatus() != expectedStatus) {
+                return 0;
+            }
+            store.put(row.withAvailabilityStatus(newStatus));
+            return 1;
+        });
+    }
+    
+    @Override
+    public List<Book> findPageAfterId(Long afterId, String titlePattern, String authorPattern,
+                                      BookAvailabilityStatus status, Limit limit) {
+        Predicate<String> title = like(titlePattern);
+        Predicate<String> author = like(authorPattern);
+        int max = maxResults(limit);
+        return store.read(tables -> {
+            List<Book> books = new ArrayList<>();
+            for (long id = Math.max(afterId, 0) + 1; id <= tables.maxBookId() && books.size() < max; id++) {
+                BookRow row = tables.book(id);
+                if (row != null
+                        && (status == null || row.getAvailabilityStatus() == status)
+                        && title.test(row.getTitle())
+                        && author.test(row.getAuthor())) {
+                    books.add(toBook(row));
+                }
+            }
+            return books;
+        });
+    }
+    
+    @Override
+    public Stream<Long> streamIdsByAvailabilityStatus(BookAvailabilityStatus status) {
+        return streamRows(true, (tables, id) -> {
+            BookRow row = tables.book(id);
+            return row != null && row.getAvailabilityStatus() == status ? id : null;
+        });
+    }
+    
+    @Override
+    public Stream<IndexedBook> streamIndexedBooks() {
+        return streamRows(true, (tables, id) -> {
+            BookRow row = tables.book(id);
+            return row != null ? new IndexedBook(id, row.getTitle(), row.getAuthor()) : null;
+        });
+    }
+    
+    @Override
+    public Stream<BookResponse> streamBookResponses() {
+        return streamRows(false, (tables, id) -> {
+            BookRow row = tables.book(id);
+            return row != null
+                    ? new BookResponse(id, row.getTitle(), row.getAuthor(), row.getIsbn(), row.getAvailabilityStatus())
+                    : null;
+        });
+    }
+    
+    @Override
+    public void flushAndClear() {
+        // No persistence context: entities are copies and nothing is buffered
+    }
+    
+    @Override
+    protected Book toEntity(JournalTables tables, long id) {
+        BookRow row = tables.book(id);
+        return row != null ? toBook(row) : null;
+    }
+    
+    @Override
+    protected Book persist(JournalTables tables, Book book) {
+        BookRow current = null;
+        if (book.getId() != null) {
+            current = tables.book(book.getId());
+            if (current == null) {
+                throw new OptimisticLockingFailureException("Book with id " + book.getId() + " does not exist");
+            }
+            if (book.getVersion() != null && book.getVersion() != current.getVersion()) {
+                throw new OptimisticLockingFailureException("Book with id " + book.getId() + " was updated concurrently");
+            }
+        }
+        BookRow sameIsbn = tables.bookByIsbn(book.getIsbn());
+        if (sameIsbn != null && sameIsbn != current) {
+            throw new DataIntegrityViolationException("Book with ISBN " + book.getIsbn() + " already exists");
+        }
+        long id = current != null ? current.getId() : tables.maxBookId() + 1;
+        long version = current != null ? current.getVersion() + 1 : 0;
+        store.put(new BookRow(id, version, book.getTitle(), book.getAuthor(), book.getIsbn(),
+                book.getAvailabilityStatus()));
+        book.setId(id);
+        book.setVersion(version);
+        return book;
+    }
+    
+    @Override
+    protected long maxId(JournalTables tables) {
+        return tables.maxBookId();
+    }
+    
+    @Override
+    protected int rowCount(JournalTables tables) {
+        return tables.bookCount();
+    }
+    
+    static Book toBook(BookRow row) {
+        Book book = new Book(row.getTitle(), row.getAuthor(), row.getIsbn());
+        book.setId(row.getId());
+        book.setAvailabilityStatus(row.getAvailabilityStatus());
+        book.setVersion(row.getVersion());
+        return book;
+    }
+    
+    /**
+     * Match lower-cased values against a LIKE pattern escaped with a backslash, as the JPA query does
+     * @param pattern the pattern, or null to match everything
+     * @return the matcher
+     */
+    static Predicate<String> like(String pattern) {
+        if (pattern == null) {
+            return value -> true;
+        }
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\\' && i + 1 < pattern.length()) {
+                regex.append(Pattern.quote(String.valueOf(pattern.charAt(++i))));
+            } else if (c == '%') {
+                regex.append(".*");
+            } else if (c == '_') {
+                regex.append('.');
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        Pattern compiled = Pattern.compile(regex.toString(), Pattern.DOTALL);
+        return value -> compiled.matcher(value.toLowerCase(Locale.ROOT)).matches();
+    }
+}
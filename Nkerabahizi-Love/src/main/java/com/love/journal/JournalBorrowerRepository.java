@@ -0,0 +1,80 @@
+package com.love.journal;
+
+import com.love.entity.Borrower;
+import com.love.repository.BorrowerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * {@link BorrowerRepository} on the journal store. The row lock of the JPA query becomes a lock
+ * on the borrower name, held until the transaction ends.
+ */
+@Repository
+@Profile("journal")
+public class JournalBorrowerRepository extends JournalRepositorySupport<Borrower> implements BorrowerRepository {
+    
+    @Autowired
+    public JournalBorrowerRepository(JournalStore store) {
+        super(store, Borrower.class);
+    }
+    
+    @Override
+    public Optional<Borrower> findByName(String name) {
+        return store.read(tables -> Optional.ofNullable(tables.borrowerByName(name))
+                .map(JournalBorrowerRepository::toBorrower));
+    }
+    
+    @Override
+    public Optional<Borrower> findByNameForUpdate(String name) {
+        // The name is locked even if the borrower does not exist yet, so that registering runs once
+        store.lockBorrowerName(name);
+        return findByName(name);
+    }
+    
+    @Override
+    protected Borrower toEntity(JournalTables tables, long id) {
+        BorrowerRow row = tables.borrower(id);
+        return row != null ? toBorrower(row) : null;
+    }
+    
+    @Override
+    protected Borrower persist(JournalTables tables, Borrower borrower) {
+        BorrowerRow current = null;
+        if (borrower.getId() != null) {
+            current = tables.borrower(borrower.getId());
+            if (current == null) {
+                throw new OptimisticLockingFailureException("Borrower with id " + borrower.getId() + " does not exist");
+            }
+        }
+        BorrowerRow sameName = tables.borrowerByName(borrower.getName());
+        if (sameName != null && sameName != current) {
+            throw new DataIntegrityViolationException("Borrower " + borrower.getName() + " already exists");
+        }
+        long id = current != null ? current.getId() : tables.maxBorrowerId() + 1;
+        long version = current != null ? current.getVersion() + 1 : 0;
+        store.put(new BorrowerRow(id, version, borrower.getName()));
+        borrower.setId(id);
+        return borrower;
+    }
+    
+    @Override
+    protected long maxId(JournalTables tables) {
+        return tables.maxBorrowerId();
+    }
+    
+    @Override
+    protected int rowCount(JournalTables tables) {
+        return tables.borrowerCount();
+    }
+    
+    static Borrower toBorrower(BorrowerRow row) {
+        Borrower borrower = new Borrower(row.getName());
+        borrower.setId(row.getId());
+        return borrower;
+    }
+}
@@ -0,0 +1,277 @@
+package com.love.journal;
+
+import com.love.dto.BorrowingResponse;
+import com.love.entity.Book;
+import com.love.entity.BorrowingTransaction;
+import com.love.enums.BorrowingStatus;
+import com.love.index.IndexedLoan;
+import com.love.overdue.ScheduledLoan;
+import com.love.repository.BorrowingTransactionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * {@link BorrowingTransactionRepository} on the journal store. A book's and a borrower's loans
+ * come from the loan id lists of the store; listings by status walk every loan, like the status
+ * index scans of the JPA queries walk every matching row.
+ */
+@Repository
+@Profile("journal")
+public class JournalBorrowingTransactionRepository extends JournalRepositorySupport<BorrowingTransaction>
+        implements BorrowingTransactionRepository {
+    
+    // Most recent first, as the borrower index is read by the JPA queries
+    private static final Comparator<LoanRow> MOST_RECENT_FIRST = Comparator
+            .comparing(LoanRow::getBorrowDate)
+            .thenComparingLong(LoanRow::getId)
+            .reversed();
+    
+    @Autowired
+    public JournalBorrowingTransactionRepository(JournalStore store) {
+        super(store, BorrowingTransaction.class);
+    }
+    
+    @Override
+    public List<BorrowingTransaction> findByBook(Book book) {
+        return store.read(tables -> bookLoans(tables, book.getId(), loan -> true).stream()
+                .map(loan -> toTransaction(tables, loan))
+                .toList());
+    }
+    
+    @Override
+    public List<BorrowingTransaction> findByStatus(BorrowingStatus status) {
+        return store.read(tables -> loans(tables, loan -> loan.getStatus() == status, loan -> toTransaction(tables, loan)));
+    }
+    
+    @Override
+    public List<BorrowingTransaction> findByBookAndStatus(Book book, BorrowingStatus status) {
+        return store.read(tables -> bookLoans(tables, book.getId(), loan -> loan.getStatus() == status).stream()
+                .map(loan -> toTransaction(tables, loan))
+                .toList());
+    }
+    
+    @Override
+    public Optional<BorrowingTransaction> findFirstByBookAndStatusOrderByBorrowDateDesc(Book book, BorrowingStatus status) {
+        return store.read(tables -> bookLoans(tables, book.getId(), loan -> loan.getStatus() == status).stream()
+                .max(Comparator.comparing(LoanRow::getBorrowDate))
+                .map(loan -> toTransaction(tables, loan)));
+    }
+    
+    @Override
+    public Optional<BorrowingTransaction> findByIdWithBook(Long id) {
+        return findById(id);
+    }
+    
+    @Override
+    public int updateStatusIfCurrent(Long id, Collection<BorrowingStatus> expectedStatuses,
+                                     BorrowingStatus newStatus, LocalDateTime returnDate) {
+        return store.write(tables -> {
+            LoanRow loan = tables.loan(id);
+            if (loan == null || !expectedStatuses.contains(loan.getStatus())) {
+                return 0;
+            }
+            store.put(loan.withStatus(newStatus, returnDate));
+            return 1;
+        });
+    }
+    
+    @Override
+    public List<BorrowingResponse> findAllResponses() {
+        return store.read(tables -> loans(tables, loan -> true, loan -> toResponse(tables, loan)));
+    }
+    
+    @Override
+    public List<BorrowingResponse> findResponsesByStatus(BorrowingStatus status) {
+        return store.read(tables -> loans(tables, loan -> loan.getStatus() == status, loan -> toResponse(tables, loan)));
+    }
+    
+    @Override
+    public Optional<BorrowingResponse> findResponseById(Long id) {
+        return store.read(tables -> Optional.ofNullable(tables.loan(id)).map(loan -> toResponse(tables, loan)));
+    }
+    
+    @Override
+    public Stream<BorrowingResponse> streamAllResponses() {
+        return streamRows(true, (tables, id) -> {
+            LoanRow loan = tables.loan(id);
+            return loan != null ? toResponse(tables, loan) : null;
+        });
+    }
+    
+    @Override
+    public Stream<IndexedLoan> streamIndexedLoans() {
+        return streamRows(true, (tables, id) -> {
+            LoanRow loan = tables.loan(id);
+            return loan != null
+                    ? new IndexedLoan(loan.getId(), loan.getBookId(), loan.getBorrowerName(), loan.getStatus(),
+                            loan.getReturnDate())
+                    : null;
+        });
+    }
+    
+    @Override
+    public Stream<ScheduledLoan> streamPendingLoans() {
+        return streamRows(true, (tables, id) -> {
+            LoanRow loan = tables.loan(id);
+            return loan != null && loan.getStatus() == BorrowingStatus.PENDING
+                    ? new ScheduledLoan(loan.getId(), loan.getDueDate())
+                    : null;
+        });
+    }
+    
+    @Override
+    public int markOverdue(Collection<Long> ids, LocalDateTime now) {
+        return store.write(tables -> {
+            int marked = 0;
+            for (Long id : ids) {
+                LoanRow loan = tables.loan(id);
+                if (loan != null && loan.getStatus() == BorrowingStatus.PENDING && !loan.getDueDate().isAfter(now)) {
+                    store.put(loan.withStatus(BorrowingStatus.OVERDUE, loan.getReturnDate()));
+                    marked++;
+                }
+            }
+            return marked;
+        });
+    }
+    
+    @Override
+    public long countByBorrowerAndStatuses(Long borrowerId, Collection<BorrowingStatus> statuses) {
+        return store.read(tables -> (long) borrowerLoans(tables, borrowerId, statuses).size());
+    }
+    
+    @Override
+    public List<BorrowingResponse> findBorrowerLoans(Long borrowerId, Collection<BorrowingStatus> statuses, Limit limit) {
+        return store.read(tables -> borrowerLoans(tables, borrowerId, statuses).stream()
+                .sorted(MOST_RECENT_FIRST)
+                .limit(maxResults(limit))
+                .map(loan -> toResponse(tables, loan))
+                .toList());
+    }
+    
+    @Override
+    public List<BorrowingResponse> findBorrowerLoansBefore(Long borrowerId, Collection<BorrowingStatus> statuses,
+                                                           LocalDateTime beforeDate, Long beforeId, Limit limit) {
+        return store.read(tables -> borrowerLoans(tables, borrowerId, statuses).stream()
+                .filter(loan -> loan.getBorrowDate().isBefore(beforeDate)
+                        || loan.getBorrowDate().isEqual(beforeDate) && loan.getId() < beforeId)
+                .sorted(MOST_RECENT_FIRST)
+                .limit(maxResults(limit))
+                .map(loan -> toResponse(tables, loan))
+                .toList());
+    }
+    
+    @Override
+    protected BorrowingTransaction toEntity(JournalTables tables, long id) {
+        LoanRow loan = tables.loan(id);
+        return loan != null ? toTransaction(tables, loan) : null;
+    }
+    
+    @Override
+    protected BorrowingTransaction persist(JournalTables tables, BorrowingTransaction transaction) {
+        LoanRow current = null;
+        if (transaction.getId() != null) {
+            current = tables.loan(transaction.getId());
+            if (current == null) {
+                throw new OptimisticLockingFailureException("Borrowing transaction with id " + transaction.getId()
+                        + " does not exist");
+            }
+            if (transaction.getVersion() != null && transaction.getVersion() != current.getVersion()) {
+                throw new OptimisticLockingFailureException("Borrowing transaction with id " + transaction.getId()
+                        + " was updated concurrently");
+            }
+        }
+        // The foreign keys of the borrowing_transactions table
+        long bookId = transaction.getBook().getId();
+        long borrowerId = transaction.getBorrower().getId();
+        if (tables.book(bookId) == null) {
+            throw new DataIntegrityViolationException("Book with id " + bookId + " does not exist");
+        }
+        if (tables.borrower(borrowerId) == null) {
+            throw new DataIntegrityViolationException("Borrower with id " + borrowerId + " does not exist");
+        }
+        long id = current != null ? current.getId() : tables.maxLoanId() + 1;
+        long version = current != null ? current.getVersion() + 1 : 0;
+        store.put(new LoanRow(id, version, bookId, borrowerId, transaction.getBorrowerName(),
+                transaction.getBorrowDate(), transaction.getDueDate(), transaction.getReturnDate(),
+                transaction.getStatus()));
+        transaction.setId(id);
+        transaction.setVersion(version);
+        return transaction;
+    }
+    
+    @Override
+    protected long maxId(JournalTables tables) {
+        return tables.maxLoanId();
+    }
+    
+    @Override
+    protected int rowCount(JournalTables tables) {
+        return tables.loanCount();
+    }
+    
+    private static <R> List<R> loans(JournalTables tables, Predicate<LoanRow> filter, Function<LoanRow, R> mapper) {
+        List<R> results = new ArrayList<>();
+        for (long id = 1; id <= tables.maxLoanId(); id++) {
+            LoanRow loan = tables.loan(id);
+            if (loan != null && filter.test(loan)) {
+                results.add(mapper.apply(loan));
+            }
+        }
+        return results;
+    }
+    
+    private static List<LoanRow> bookLoans(JournalTables tables, long bookId, Predicate<LoanRow> filter) {
+        return select(tables, tables.loansOfBook(bookId), filter);
+    }
+    
+    private static List<LoanRow> borrowerLoans(JournalTables tables, long borrowerId, Collection<BorrowingStatus> statuses) {
+        return select(tables, tables.loansOfBorrower(borrowerId), loan -> statuses.contains(loan.getStatus()));
+    }
+    
+    private static List<LoanRow> select(JournalTables tables, LongList ids, Predicate<LoanRow> filter) {
+        List<LoanRow> loans = new ArrayList<>();
+        if (ids != null) {
+            for (int i = 0; i < ids.size(); i++) {
+                LoanRow loan = tables.loan(ids.get(i));
+                if (filter.test(loan)) {
+                    loans.add(loan);
+                }
+            }
+        }
+        return loans;
+    }
+    
+    private static BorrowingTransaction toTransaction(JournalTables tables, LoanRow loan) {
+        BorrowingTransaction transaction = new BorrowingTransaction();
+        transaction.setId(loan.getId());
+        transaction.setBook(JournalBookRepository.toBook(tables.book(loan.getBookId())));
+        transaction.setBorrower(JournalBorrowerRepository.toBorrower(tables.borrower(loan.getBorrowerId())));
+        transaction.setBorrowerName(loan.getBorrowerName());
+        transaction.setBorrowDate(loan.getBorrowDate());
+        transaction.setDueDate(loan.getDueDate());
+        transaction.setReturnDate(loan.getReturnDate());
+        transaction.setStatus(loan.getStatus());
+        transaction.setVersion(loan.getVersion());
+        return transaction;
+    }
+    
+    private static BorrowingResponse toResponse(JournalTables tables, LoanRow loan) {
+        BookRow book = tables.book(loan.getBookId());
+        return new BorrowingResponse(loan.getId(), book.getTitle(), book.getIsbn(), loan.getBorrowerName(),
+                loan.getBorrowDate(), loan.getDueDate(), loan.getReturnDate(), loan.getStatus());
+    }
+}
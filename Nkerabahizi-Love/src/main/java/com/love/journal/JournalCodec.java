@@ -0,0 +1,115 @@
+package com.love.journal;
+
+import com.love.enums.BookAvailabilityStatus;
+import com.love.enums.BorrowingStatus;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Binary form of a {@link JournalRow}, shared by journal records and snapshots.
+ * <p>
+ * A row is its type byte, id and version followed by its fields. Strings are a length and
+ * UTF-8 bytes, enums are written by name so reordering constants cannot corrupt old files,
+ * and dates are UTC epoch seconds plus nanoseconds.
+ */
+final class JournalCodec {
+    
+    private static final int NULL_LENGTH = -1;
+    private static final long NULL_DATE = Long.MIN_VALUE;
+    
+    private JournalCodec() {
+    }
+    
+    /**
+     * Write a row at the buffer's position
+     * @param row the row
+     * @param buffer the buffer
+     * @throws java.nio.BufferOverflowException if the row does not fit
+     */
+    static void encode(JournalRow row, ByteBuffer buffer) {
+        buffer.put(row.type());
+        buffer.putLong(row.getId());
+        buffer.putLong(row.getVersion());
+        switch (row) {
+            case BookRow book -> {
+                putString(buffer, book.getTitle());
+                putString(buffer, book.getAuthor());
+                putString(buffer, book.getIsbn());
+                putString(buffer, book.getAvailabilityStatus().name());
+            }
+            case LoanRow loan -> {
+                buffer.putLong(loan.getBookId());
+                buffer.putLong(loan.getBorrowerId());
+                putString(buffer, loan.getBorrowerName());
+                putDate(buffer, loan.getBorrowDate());
+                putDate(buffer, loan.getDueDate());
+                putDate(buffer, loan.getReturnDate());
+                putString(buffer, loan.getStatus().name());
+            }
+            case BorrowerRow borrower -> putString(buffer, borrower.getName());
+            case RemovedRow removed -> buffer.put(removed.table());
+            default -> throw new IllegalArgumentException("Unknown row " + row.getClass().getName());
+        }
+    }
+    
+    /**
+     * Read a row from the buffer's position
+     * @param buffer the buffer
+     * @return the row
+     * @throws IllegalArgumentException if the record type is unknown
+     */
+    static JournalRow decode(ByteBuffer buffer) {
+        byte type = buffer.get();
+        long id = buffer.getLong();
+        long version = buffer.getLong();
+        return switch (type) {
+            case JournalRow.BOOK -> new BookRow(id, version, getString(buffer), getString(buffer), getString(buffer),
+                    BookAvailabilityStatus.valueOf(getString(buffer)));
+            case JournalRow.LOAN -> new LoanRow(id, version, buffer.getLong(), buffer.getLong(), getString(buffer),
+                    getDate(buffer), getDate(buffer), getDate(buffer), BorrowingStatus.valueOf(getString(buffer)));
+            case JournalRow.BORROWER -> new BorrowerRow(id, version, getString(buffer));
+            case JournalRow.REMOVED -> new RemovedRow(buffer.get(), id);
+            default -> throw new IllegalArgumentException("Unknown record type " + type);
+        };
+    }
+    
+    private static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putInt(NULL_LENGTH);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+    
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    private static void putDate(ByteBuffer buffer, LocalDateTime value) {
+        if (value == null) {
+            buffer.putLong(NULL_DATE);
+            return;
+        }
+        buffer.putLong(value.toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(value.getNano());
+    }
+    
+    private static LocalDateTime getDate(ByteBuffer buffer) {
+        long seconds = buffer.getLong();
+        if (seconds == NULL_DATE) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(seconds, buffer.getInt(), ZoneOffset.UTC);
+    }
+}
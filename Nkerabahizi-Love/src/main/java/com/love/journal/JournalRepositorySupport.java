@@ -0,0 +1,145 @@
+package com.love.journal;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectRetrievalFailureException;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
+
+/**
+ * The CRUD methods shared by the journal repositories, on top of a lookup by id, a save and the
+ * size of the table. These are the methods the repository interfaces declare; none of them
+ * extends {@code JpaRepository}, so there is nothing left unsupported.
+ * <p>
+ * Like Spring Data's own repositories, every method runs in a transaction of its own unless the
+ * caller already has one.
+ * @param <T> the entity type
+ */
+@Transactional
+abstract class JournalRepositorySupport<T> {
+    
+    /**
+     * Number of rows read per lock acquisition when streaming a table
+     */
+    static final int STREAM_BATCH_SIZE = 1000;
+    
+    protected final JournalStore store;
+    private final Class<T> entityClass;
+    
+    protected JournalRepositorySupport(JournalStore store, Class<T> entityClass) {
+        this.store = store;
+        this.entityClass = entityClass;
+    }
+    
+    /**
+     * Build the entity with the given id from its row
+     * @return the entity, or null if there is no such row
+     */
+    protected abstract T toEntity(JournalTables tables, long id);
+    
+    /**
+     * Insert or update an entity under the write lock, and set its id and version
+     * @return the saved entity
+     */
+    protected abstract T persist(JournalTables tables, T entity);
+    
+    /**
+     * The highest id ever used in the table
+     */
+    protected abstract long maxId(JournalTables tables);
+    
+    /**
+     * The number of rows in the table
+     */
+    protected abstract int rowCount(JournalTables tables);
+    
+    public <S extends T> S save(S entity) {
+        return store.write(tables -> {
+            persist(tables, entity);
+            return entity;
+        });
+    }
+    
+    public <S extends T> List<S> saveAll(Iterable<S> entities) {
+        // One write for all of them, so they share one force of the journal
+        return store.write(tables -> {
+            List<S> saved = new ArrayList<>();
+            for (S entity : entities) {
+                persist(tables, entity);
+                saved.add(entity);
+            }
+            return saved;
+        });
+    }
+    
+    public <S extends T> S saveAndFlush(S entity) {
+        // Nothing is buffered: every write is in the journal already
+        return save(entity);
+    }
+    
+    public Optional<T> findById(Long id) {
+        return store.read(tables -> Optional.ofNullable(toEntity(tables, id)));
+    }
+    
+    public boolean existsById(Long id) {
+        return findById(id).isPresent();
+    }
+    
+    public List<T> findAllById(Iterable<Long> ids) {
+        return store.read(tables -> {
+            List<T> entities = new ArrayList<>();
+            for (Long id : ids) {
+                addIfPresent(entities, toEntity(tables, id));
+            }
+            return entities;
+        });
+    }
+    
+    public long count() {
+        return store.read(this::rowCount);
+    }
+    
+    public T getReferenceById(Long id) {
+        return findById(id).orElseThrow(() -> new ObjectRetrievalFailureException(entityClass, id));
+    }
+    
+    /**
+     * Stream the rows of the table in id order, reading {@link #STREAM_BATCH_SIZE} ids at a time
+     * under the read lock rather than copying the table up front. Like a JDBC cursor at READ
+     * COMMITTED, the stream is not a snapshot: a row changed after it was opened shows its new state
+     * if the stream has not passed it yet, and an ascending stream also reaches rows inserted since.
+     * @param ascending true for ascending ids, false for descending ids from the highest at opening
+     * @param mapper maps the row with the given id to a result, or to null to skip it
+     * @return the lazily read results
+     */
+    protected <R> Stream<R> streamRows(boolean ascending, BiFunction<JournalTables, Long, R> mapper) {
+        Stream<Long> batches = ascending
+                ? Stream.iterate(1L, from -> from <= store.read(this::maxId), from -> from + STREAM_BATCH_SIZE)
+                : Stream.iterate(store.read(this::maxId), from -> from >= 1, from -> from - STREAM_BATCH_SIZE);
+        return batches.flatMap(from -> store.read(tables -> {
+            List<R> rows = new ArrayList<>(STREAM_BATCH_SIZE);
+            for (int i = 0; i < STREAM_BATCH_SIZE; i++) {
+                long id = ascending ? from + i : from - i;
+                if (id < 1 || id > maxId(tables)) {
+                    break;
+                }
+                addIfPresent(rows, mapper.apply(tables, id));
+            }
+            return rows;
+        }).stream());
+    }
+    
+    protected static <E> void addIfPresent(List<E> list, E element) {
+        if (element != null) {
+            list.add(element);
+        }
+    }
+    
+    protected static int maxResults(Limit limit) {
+        return limit.isLimited() ? limit.max() : Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,41 @@
+package com.love.journal;
+
+/**
+ * An immutable row of the journal store. Every change writes a whole new row, which is also
+ * the journal record, so a row can be read without a lock once it has been looked up.
+ */
+abstract class JournalRow {
+    
+    static final byte BOOK = 1;
+    static final byte LOAN = 2;
+    static final byte BORROWER = 3;
+    static final byte REMOVED = 4;
+    
+    private final long id;
+    private final long version;
+    
+    JournalRow(long id, long version) {
+        this.id = id;
+        this.version = version;
+    }
+    
+    long getId() {
+        return id;
+    }
+    
+    long getVersion() {
+        return version;
+    }
+    
+    /**
+     * The record type, one of the constants above
+     */
+    abstract byte type();
+    
+    /**
+     * The type of the table this row belongs to; a removal belongs to the table of the removed row
+     */
+    byte table() {
+        return type();
+    }
+}
@@ -0,0 +1,196 @@
+package com.love.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * A compacted copy of every row as of one journal sequence, in {@code snapshot-<sequence>.bin}.
+ * <p>
+ * The file holds a header with the sequence and the highest id of each table, then one
+ * length-prefixed {@link JournalCodec} record per row, then a CRC32 of all of it. It is written
+ * to a temporary file, forced and atomically renamed, so a snapshot is either complete or absent.
+ */
+final class JournalSnapshot {
+    
+    private static final Logger log = LoggerFactory.getLogger(JournalSnapshot.class);
+    
+    private static final int MAGIC = 0x4c4a534e;
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".bin";
+    
+    private final long sequence;
+    private final long maxBookId;
+    private final long maxLoanId;
+    private final long maxBorrowerId;
+    private final List<JournalRow> rows;
+    
+    JournalSnapshot(long sequence, long maxBookId, long maxLoanId, long maxBorrowerId, List<JournalRow> rows) {
+        this.sequence = sequence;
+        this.maxBookId = maxBookId;
+        this.maxLoanId = maxLoanId;
+        this.maxBorrowerId = maxBorrowerId;
+        this.rows = rows;
+    }
+    
+    long getSequence() {
+        return sequence;
+    }
+    
+    List<JournalRow> getRows() {
+        return rows;
+    }
+    
+    /**
+     * Apply the snapshot to empty tables
+     * @param tables the tables
+     */
+    void restore(JournalTables tables) {
+        rows.forEach(tables::apply);
+        tables.restoreMaxIds(maxBookId, maxLoanId, maxBorrowerId);
+    }
+    
+    /**
+     * Write the snapshot durably, then delete the older ones
+     * @param directory the journal directory
+     * @throws IOException if the snapshot cannot be written
+     */
+    void write(Path directory) throws IOException {
+        Path target = directory.resolve(fileName(sequence));
+        Path temporary = directory.resolve(fileName(sequence) + ".tmp");
+        CRC32 crc = new CRC32();
+        try (FileOutputStream file = new FileOutputStream(temporary.toFile())) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(file, crc), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeLong(sequence);
+            out.writeLong(maxBookId);
+            out.writeLong(maxLoanId);
+            out.writeLong(maxBorrowerId);
+            out.writeInt(rows.size());
+            ByteBuffer buffer = ByteBuffer.allocate(512);
+            for (JournalRow row : rows) {
+                buffer = encode(row, buffer);
+                out.writeInt(buffer.remaining());
+                out.write(buffer.array(), 0, buffer.remaining());
+            }
+            out.flush();
+            // The checksum goes straight to the file so that it does not checksum itself
+            new DataOutputStream(file).writeLong(crc.getValue());
+            file.getFD().sync();
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(directory);
+        
+        try (Stream<Path> files = Files.list(directory)) {
+            // Older snapshots, and temporary files of snapshots that were never completed
+            for (Path older : files.filter(path -> isSnapshot(path) && sequenceOf(path) < sequence
+                    || path.getFileName().toString().endsWith(".tmp") && !path.equals(temporary)).toList()) {
+                Files.deleteIfExists(older);
+            }
+        }
+    }
+    
+    /**
+     * Read the latest snapshot of a directory
+     * @param directory the journal directory
+     * @return the snapshot, or null if there is none
+     * @throws IOException if the snapshot cannot be read
+     * @throws IllegalStateException if the snapshot is corrupt
+     */
+    static JournalSnapshot readLatest(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return null;
+        }
+        Path latest;
+        try (Stream<Path> files = Files.list(directory)) {
+            latest = files.filter(JournalSnapshot::isSnapshot)
+                    .max((a, b) -> Long.compare(sequenceOf(a), sequenceOf(b)))
+                    .orElse(null);
+        }
+        if (latest == null) {
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        try (InputStream file = new BufferedInputStream(Files.newInputStream(latest), 1 << 16)) {
+            DataInputStream in = new DataInputStream(new CheckedInputStream(file, crc));
+            if (in.readInt() != MAGIC) {
+                throw new IllegalStateException("Not a journal snapshot: " + latest);
+            }
+            long sequence = in.readLong();
+            long maxBookId = in.readLong();
+            long maxLoanId = in.readLong();
+            long maxBorrowerId = in.readLong();
+            int count = in.readInt();
+            JournalRow[] rows = new JournalRow[count];
+            byte[] bytes = new byte[512];
+            for (int i = 0; i < count; i++) {
+                int length = in.readInt();
+                if (length > bytes.length) {
+                    bytes = new byte[Math.max(length, bytes.length * 2)];
+                }
+                in.readFully(bytes, 0, length);
+                rows[i] = JournalCodec.decode(ByteBuffer.wrap(bytes, 0, length));
+            }
+            long computed = crc.getValue();
+            if (new DataInputStream(file).readLong() != computed) {
+                throw new IllegalStateException("Journal snapshot " + latest + " is corrupt");
+            }
+            log.info("Read journal snapshot {} with {} rows", latest.getFileName(), count);
+            return new JournalSnapshot(sequence, maxBookId, maxLoanId, maxBorrowerId, List.of(rows));
+        }
+    }
+    
+    private static ByteBuffer encode(JournalRow row, ByteBuffer buffer) {
+        while (true) {
+            try {
+                buffer.clear();
+                JournalCodec.encode(row, buffer);
+                return buffer.flip();
+            } catch (BufferOverflowException e) {
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+            }
+        }
+    }
+    
+    private static void syncDirectory(Path directory) {
+        // Makes the rename itself durable; not every platform can open a directory
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            log.debug("Could not force directory {}", directory, e);
+        }
+    }
+    
+    private static boolean isSnapshot(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+    }
+    
+    private static long sequenceOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+    
+    private static String fileName(long sequence) {
+        return PREFIX + String.format("%020d", sequence) + SUFFIX;
+    }
+}
@@ -0,0 +1,378 @@
+package com.love.journal;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * In-memory store of books, loans and borrowers behind the journal repositories, made durable by
+ * a {@link MappedJournal} of every change plus periodic {@link JournalSnapshot}s.
+ * <p>
+ * Reads share a read lock; each repository write runs under the write lock, appends the new
+ * rows to the journal and applies them to the {@link JournalTables}. A write never waits for the
+ * disk while holding the lock: the surrounding transaction waits for its last record at commit,
+ * so concurrent commits share one force of the journal. A rollback writes back the rows the
+ * transaction replaced, unless another transaction has changed them since.
+ * <p>
+ * On startup the latest snapshot is loaded and the journal records after it are replayed.
+ * Once {@code library.journal.snapshot-every} records have been appended, a background thread
+ * rolls the journal, writes a snapshot and deletes the segments it covers. A final snapshot is
+ * taken on shutdown, so a clean restart replays nothing.
+ */
+@Component
+@Profile("journal")
+public class JournalStore implements SmartLifecycle {
+    
+    private static final Logger log = LoggerFactory.getLogger(JournalStore.class);
+    
+    private static final int BORROWER_LOCK_STRIPES = 64;
+    
+    private final Path directory;
+    private final long snapshotEvery;
+    private final long snapshotCheckMs;
+    private final JournalTables tables = new JournalTables();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock[] borrowerLocks = new ReentrantLock[BORROWER_LOCK_STRIPES];
+    private final MappedJournal journal;
+    private final Timer snapshotTimer;
+    private final Object snapshotMonitor = new Object();
+    private volatile long snapshotSequence;
+    // The transaction of the thread holding the write lock, if any
+    private JournalTransaction writer;
+    private ScheduledExecutorService executor;
+    
+    @Autowired
+    public JournalStore(@Value("${library.journal.directory:./journal}") String directory,
+                        @Value("${library.journal.segment-size-mb:64}") int segmentSizeMb,
+                        @Value("${library.journal.fsync:true}") boolean fsync,
+                        @Value("${library.journal.snapshot-every:100000}") long snapshotEvery,
+                        @Value("${library.journal.snapshot-check-ms:1000}") long snapshotCheckMs,
+                        MeterRegistry meterRegistry) {
+        this.directory = Path.of(directory);
+        this.snapshotEvery = snapshotEvery;
+        this.snapshotCheckMs = snapshotCheckMs;
+        for (int i = 0; i < BORROWER_LOCK_STRIPES; i++) {
+            borrowerLocks[i] = new ReentrantLock();
+        }
+        
+        long started = System.nanoTime();
+        JournalSnapshot snapshot;
+        try {
+            snapshot = JournalSnapshot.readLatest(this.directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the journal snapshot in " + directory, e);
+        }
+        if (snapshot != null) {
+            snapshot.restore(tables);
+            snapshotSequence = snapshot.getSequence();
+        }
+        this.journal = new MappedJournal(this.directory, segmentSizeMb << 20, fsync, snapshotSequence, tables::apply);
+        log.info("Recovered {} books, {} borrowers and {} loans from {} in {} ms ({} journal records replayed)",
+                tables.bookCount(), tables.borrowerCount(), tables.loanCount(), this.directory.toAbsolutePath(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), journal.lastSequence() - snapshotSequence);
+        
+        FunctionCounter.builder("library.journal.records", journal, MappedJournal::lastSequence)
+                .description("Records appended to the journal")
+                .register(meterRegistry);
+        FunctionCounter.builder("library.journal.syncs", journal, MappedJournal::syncCount)
+                .description("Forces of the journal to disk; commits that arrive during a force share the next one")
+                .register(meterRegistry);
+        Gauge.builder("library.journal.records.since.snapshot", this, store -> store.journal.lastSequence() - store.snapshotSequence)
+                .description("Journal records a recovery would replay")
+                .register(meterRegistry);
+        this.snapshotTimer = Timer.builder("library.journal.snapshot")
+                .description("Time to write a snapshot of the journal store")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Run a query under the read lock
+     * @param query the query
+     * @return the result of the query
+     */
+    <R> R read(Function<JournalTables, R> query) {
+        lock.readLock().lock();
+        try {
+            return query.apply(tables);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Run a change under the write lock. The change reads the tables and writes rows with
+     * {@link #put(JournalRow)}. Inside a transaction the commit waits for the records to reach the
+     * disk; outside of one, this method does.
+     * @param change the change
+     * @return the result of the change
+     */
+    <R> R write(Function<JournalTables, R> change) {
+        JournalTransaction transaction = currentTransaction();
+        R result;
+        long before;
+        long after;
+        lock.writeLock().lock();
+        try {
+            writer = transaction;
+            before = journal.lastSequence();
+            result = change.apply(tables);
+            after = journal.lastSequence();
+        } finally {
+            writer = null;
+            lock.writeLock().unlock();
+        }
+        if (after > before && transaction == null) {
+            journal.awaitDurable(after);
+        }
+        return result;
+    }
+    
+    /**
+     * Write a row: append it to the journal and apply it. Only valid inside {@link #write(Function)}.
+     * @param row the new row
+     */
+    void put(JournalRow row) {
+        if (!lock.isWriteLockedByCurrentThread()) {
+            throw new IllegalStateException("Rows can only be written inside JournalStore.write");
+        }
+        JournalRow previous = tables.get(row.table(), row.getId());
+        long sequence = journal.append(row);
+        tables.apply(row);
+        if (writer != null) {
+            writer.wrote(row, previous, sequence);
+        }
+    }
+    
+    /**
+     * Lock a borrower name until the current transaction ends, so that the borrows of one
+     * borrower run one at a time. Names share a fixed set of lock stripes.
+     * @param name the borrower name
+     * @throws IllegalStateException if no transaction is active
+     */
+    void lockBorrowerName(String name) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Locking a borrower requires a transaction");
+        }
+        ReentrantLock stripe = borrowerLocks[Math.floorMod(name.hashCode(), BORROWER_LOCK_STRIPES)];
+        stripe.lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                stripe.unlock();
+            }
+        });
+    }
+    
+    /**
+     * Wait until the records of a transaction are on disk
+     * @param transaction the committing transaction
+     */
+    void commit(JournalTransaction transaction) {
+        if (transaction.getLastSequence() > 0) {
+            journal.awaitDurable(transaction.getLastSequence());
+        }
+    }
+    
+    /**
+     * Undo the writes of a transaction, newest first, by writing back the rows they replaced.
+     * A row that another transaction has changed since is left as it is.
+     * @param transaction the transaction to roll back
+     */
+    void rollback(JournalTransaction transaction) {
+        List<JournalRow> written = transaction.getWritten();
+        if (written.isEmpty()) {
+            return;
+        }
+        long last;
+        lock.writeLock().lock();
+        try {
+            for (int i = written.size() - 1; i >= 0; i--) {
+                JournalRow row = written.get(i);
+                if (tables.get(row.table(), row.getId()) != row) {
+                    log.warn("Not rolling back row {} of table {}: it was changed by another transaction",
+                            row.getId(), row.table());
+                    continue;
+                }
+                JournalRow previous = transaction.getReplaced().get(i);
+                JournalRow restored = previous != null ? previous : new RemovedRow(row.table(), row.getId());
+                journal.append(restored);
+                tables.apply(restored);
+            }
+            last = journal.lastSequence();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        // Other commits may already have forced the undone rows, so the undo must be durable too
+        journal.awaitDurable(last);
+    }
+    
+    /**
+     * Get the transaction bound to the current thread by the {@link JournalTransactionManager}
+     * @return the transaction, or null outside of one
+     */
+    JournalTransaction currentTransaction() {
+        return (JournalTransaction) TransactionSynchronizationManager.getResource(this);
+    }
+    
+    /**
+     * Write a snapshot of every row and delete the journal segments it covers.
+     * Rows are only collected under the write lock; the file is written without it.
+     */
+    public void snapshot() {
+        synchronized (snapshotMonitor) {
+            JournalSnapshot snapshot;
+            lock.writeLock().lock();
+            try {
+                if (journal.lastSequence() == snapshotSequence) {
+                    return;
+                }
+                journal.roll();
+                snapshot = capture();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            writeSnapshot(snapshot);
+        }
+    }
+    
+    /**
+     * Get the sequence of the last journal record
+     * @return the sequence
+     */
+    public long lastSequence() {
+        return journal.lastSequence();
+    }
+    
+    /**
+     * Get the sequence the latest snapshot was taken at
+     * @return the sequence, 0 if no snapshot was taken
+     */
+    public long snapshotSequence() {
+        return snapshotSequence;
+    }
+    
+    private JournalSnapshot capture() {
+        List<JournalRow> rows = new ArrayList<>(tables.bookCount() + tables.borrowerCount() + tables.loanCount());
+        for (long id = 1; id <= tables.maxBookId(); id++) {
+            addIfPresent(rows, tables.book(id));
+        }
+        for (long id = 1; id <= tables.maxBorrowerId(); id++) {
+            addIfPresent(rows, tables.borrower(id));
+        }
+        for (long id = 1; id <= tables.maxLoanId(); id++) {
+            addIfPresent(rows, tables.loan(id));
+        }
+        return new JournalSnapshot(journal.lastSequence(), tables.maxBookId(), tables.maxLoanId(),
+                tables.maxBorrowerId(), rows);
+    }
+    
+    private void writeSnapshot(JournalSnapshot snapshot) {
+        long started = System.nanoTime();
+        try {
+            snapshot.write(directory);
+        } catch (IOException e) {
+            // The journal still holds every record, so nothing is lost; the next attempt retries
+            throw new UncheckedIOException("Could not write a journal snapshot in " + directory, e);
+        }
+        snapshotTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        snapshotSequence = snapshot.getSequence();
+        int deleted = journal.deleteSegmentsThrough(snapshot.getSequence());
+        log.info("Wrote journal snapshot at record {} with {} rows in {} ms, deleted {} journal segments",
+                snapshot.getSequence(), snapshot.getRows().size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), deleted);
+    }
+    
+    private static void addIfPresent(List<JournalRow> rows, JournalRow row) {
+        if (row != null) {
+            rows.add(row);
+        }
+    }
+    
+    @Override
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("journal-snapshot").daemon(true).factory());
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                if (journal.lastSequence() - snapshotSequence >= snapshotEvery) {
+                    snapshot();
+                }
+            } catch (RuntimeException e) {
+                log.warn("Journal snapshot failed", e);
+            }
+        }, snapshotCheckMs, snapshotCheckMs, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Stop the snapshot thread, close the journal and take a final snapshot of everything
+     */
+    @Override
+    public synchronized void stop() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executor = null;
+        
+        synchronized (snapshotMonitor) {
+            JournalSnapshot snapshot = null;
+            lock.writeLock().lock();
+            try {
+                journal.close();
+                if (journal.lastSequence() > snapshotSequence) {
+                    snapshot = capture();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (snapshot != null) {
+                writeSnapshot(snapshot);
+            } else {
+                journal.deleteSegmentsThrough(snapshotSequence);
+            }
+        }
+    }
+    
+    @Override
+    public synchronized boolean isRunning() {
+        return executor != null;
+    }
+    
+    /**
+     * Start before and stop after the web server and every component that writes, so the final
+     * snapshot sees all of their changes
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
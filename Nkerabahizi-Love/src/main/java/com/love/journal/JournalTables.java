@@ -0,0 +1,171 @@
+package com.love.journal;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The rows of the journal store with their secondary indexes: books by ISBN, borrowers by name,
+ * and loan ids by book and by borrower. Every change goes through {@link #apply(JournalRow)},
+ * both for live writes and for recovery, so the indexes cannot drift from the rows.
+ * <p>
+ * Not thread-safe: the {@link JournalStore} lock guards every access.
+ */
+final class JournalTables {
+    
+    private final LongObjectMap<BookRow> books = new LongObjectMap<>();
+    private final Map<String, BookRow> booksByIsbn = new HashMap<>();
+    private final LongObjectMap<LoanRow> loans = new LongObjectMap<>();
+    private final LongObjectMap<LongList> loansByBook = new LongObjectMap<>();
+    private final LongObjectMap<LongList> loansByBorrower = new LongObjectMap<>();
+    private final LongObjectMap<BorrowerRow> borrowers = new LongObjectMap<>();
+    private final Map<String, BorrowerRow> borrowersByName = new HashMap<>();
+    
+    // Highest id ever used per table, including removed rows, so ids are never reused
+    private long maxBookId;
+    private long maxLoanId;
+    private long maxBorrowerId;
+    
+    /**
+     * Insert, replace or remove a row
+     * @param row the new row, or a {@link RemovedRow}
+     */
+    void apply(JournalRow row) {
+        long id = row.getId();
+        switch (row.table()) {
+            case JournalRow.BOOK -> {
+                maxBookId = Math.max(maxBookId, id);
+                BookRow previous = row instanceof BookRow book ? books.put(id, book) : books.remove(id);
+                if (previous != null) {
+                    booksByIsbn.remove(previous.getIsbn());
+                }
+                if (row instanceof BookRow book) {
+                    booksByIsbn.put(book.getIsbn(), book);
+                }
+            }
+            case JournalRow.LOAN -> {
+                maxLoanId = Math.max(maxLoanId, id);
+                if (row instanceof LoanRow loan) {
+                    // A loan never moves to another book or borrower, so only an insert touches the lists
+                    if (loans.put(id, loan) == null) {
+                        listFor(loansByBook, loan.getBookId()).add(id);
+                        listFor(loansByBorrower, loan.getBorrowerId()).add(id);
+                    }
+                } else {
+                    LoanRow previous = loans.remove(id);
+                    if (previous != null) {
+                        loansByBook.get(previous.getBookId()).remove(id);
+                        loansByBorrower.get(previous.getBorrowerId()).remove(id);
+                    }
+                }
+            }
+            case JournalRow.BORROWER -> {
+                maxBorrowerId = Math.max(maxBorrowerId, id);
+                BorrowerRow previous = row instanceof BorrowerRow borrower
+                        ? borrowers.put(id, borrower)
+                        : borrowers.remove(id);
+                if (previous != null) {
+                    borrowersByName.remove(previous.getName());
+                }
+                if (row instanceof BorrowerRow borrower) {
+                    borrowersByName.put(borrower.getName(), borrower);
+                }
+            }
+            default -> throw new IllegalArgumentException("Unknown table " + row.table());
+        }
+    }
+    
+    /**
+     * Get the current row with the given table and id
+     * @param table the table, one of the {@link JournalRow} types
+     * @param id the row id
+     * @return the row, or null if there is none
+     */
+    JournalRow get(byte table, long id) {
+        return switch (table) {
+            case JournalRow.BOOK -> books.get(id);
+            case JournalRow.LOAN -> loans.get(id);
+            case JournalRow.BORROWER -> borrowers.get(id);
+            default -> throw new IllegalArgumentException("Unknown table " + table);
+        };
+    }
+    
+    /**
+     * Restore the highest ids from a snapshot, which no longer holds the removed rows
+     */
+    void restoreMaxIds(long maxBookId, long maxLoanId, long maxBorrowerId) {
+        this.maxBookId = Math.max(this.maxBookId, maxBookId);
+        this.maxLoanId = Math.max(this.maxLoanId, maxLoanId);
+        this.maxBorrowerId = Math.max(this.maxBorrowerId, maxBorrowerId);
+    }
+    
+    BookRow book(long id) {
+        return books.get(id);
+    }
+    
+    BookRow bookByIsbn(String isbn) {
+        return booksByIsbn.get(isbn);
+    }
+    
+    int bookCount() {
+        return books.size();
+    }
+    
+    long maxBookId() {
+        return maxBookId;
+    }
+    
+    LoanRow loan(long id) {
+        return loans.get(id);
+    }
+    
+    /**
+     * Get the ids of a book's loans in id order
+     * @param bookId the book id
+     * @return the loan ids, or null if the book has no loans
+     */
+    LongList loansOfBook(long bookId) {
+        return loansByBook.get(bookId);
+    }
+    
+    /**
+     * Get the ids of a borrower's loans in id order
+     * @param borrowerId the borrower id
+     * @return the loan ids, or null if the borrower has no loans
+     */
+    LongList loansOfBorrower(long borrowerId) {
+        return loansByBorrower.get(borrowerId);
+    }
+    
+    int loanCount() {
+        return loans.size();
+    }
+    
+    long maxLoanId() {
+        return maxLoanId;
+    }
+    
+    BorrowerRow borrower(long id) {
+        return borrowers.get(id);
+    }
+    
+    BorrowerRow borrowerByName(String name) {
+        return borrowersByName.get(name);
+    }
+    
+    int borrowerCount() {
+        return borrowers.size();
+    }
+    
+    long maxBorrowerId() {
+        return maxBorrowerId;
+    }
+    
+    private static LongList listFor(LongObjectMap<LongList> lists, long key) {
+        LongList list = lists.get(key);
+        if (list == null) {
+            list = new LongList();
+            lists.put(key, list);
+        }
+        return list;
+    }
+}
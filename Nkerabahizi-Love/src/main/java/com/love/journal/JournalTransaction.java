@@ -0,0 +1,48 @@
+package com.love.journal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The writes of one transaction on the journal store: the sequence its commit must wait for,
+ * and the rows it replaced so that a rollback can restore them.
+ */
+final class JournalTransaction {
+    
+    private final List<JournalRow> written = new ArrayList<>();
+    private final List<JournalRow> replaced = new ArrayList<>();
+    private long lastSequence;
+    private boolean rollbackOnly;
+    
+    /**
+     * Record a write
+     * @param row the row written
+     * @param previous the row it replaced, or null for an insert
+     * @param sequence the journal sequence of the write
+     */
+    void wrote(JournalRow row, JournalRow previous, long sequence) {
+        written.add(row);
+        replaced.add(previous);
+        lastSequence = sequence;
+    }
+    
+    List<JournalRow> getWritten() {
+        return written;
+    }
+    
+    List<JournalRow> getReplaced() {
+        return replaced;
+    }
+    
+    long getLastSequence() {
+        return lastSequence;
+    }
+    
+    boolean isRollbackOnly() {
+        return rollbackOnly;
+    }
+    
+    void setRollbackOnly() {
+        this.rollbackOnly = true;
+    }
+}
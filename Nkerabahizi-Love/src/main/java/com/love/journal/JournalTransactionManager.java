@@ -0,0 +1,98 @@
+package com.love.journal;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.SmartTransactionObject;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Transaction manager of the journal backend, replacing the JPA one under the journal profile.
+ * <p>
+ * A transaction collects the journal records of its repository writes. Commit waits until the
+ * last of them is forced to disk, which is where group commit happens: every transaction that
+ * commits while a force is running is covered by the next one. Rollback writes back the rows
+ * the transaction replaced. Writes are visible to other transactions as soon as they are made,
+ * as the conditional updates of the borrow and return paths expect.
+ */
+@Component("transactionManager")
+@Profile("journal")
+public class JournalTransactionManager extends AbstractPlatformTransactionManager {
+    
+    private final JournalStore store;
+    
+    @Autowired
+    public JournalTransactionManager(JournalStore store) {
+        this.store = store;
+    }
+    
+    @Override
+    protected Object doGetTransaction() {
+        return new TransactionObject(store.currentTransaction());
+    }
+    
+    @Override
+    protected boolean isExistingTransaction(Object transaction) {
+        return ((TransactionObject) transaction).transaction != null;
+    }
+    
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        JournalTransaction journalTransaction = new JournalTransaction();
+        ((TransactionObject) transaction).transaction = journalTransaction;
+        TransactionSynchronizationManager.bindResource(store, journalTransaction);
+    }
+    
+    @Override
+    protected Object doSuspend(Object transaction) {
+        ((TransactionObject) transaction).transaction = null;
+        return TransactionSynchronizationManager.unbindResource(store);
+    }
+    
+    @Override
+    protected void doResume(Object transaction, Object suspendedResources) {
+        TransactionSynchronizationManager.bindResource(store, suspendedResources);
+    }
+    
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+        store.commit(((TransactionObject) status.getTransaction()).transaction);
+    }
+    
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {
+        store.rollback(((TransactionObject) status.getTransaction()).transaction);
+    }
+    
+    @Override
+    protected void doSetRollbackOnly(DefaultTransactionStatus status) {
+        ((TransactionObject) status.getTransaction()).transaction.setRollbackOnly();
+    }
+    
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        TransactionSynchronizationManager.unbindResource(store);
+    }
+    
+    private static final class TransactionObject implements SmartTransactionObject {
+        
+        private JournalTransaction transaction;
+        
+        private TransactionObject(JournalTransaction transaction) {
+            this.transaction = transaction;
+        }
+        
+        @Override
+        public boolean isRollbackOnly() {
+            return transaction.isRollbackOnly();
+        }
+        
+        @Override
+        public void flush() {
+            // Nothing is buffered: every write is in the journal already
+        }
+    }
+}
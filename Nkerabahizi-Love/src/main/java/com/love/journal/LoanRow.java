@@ -0,0 +1,66 @@
+package com.love.journal;
+
+import com.love.enums.BorrowingStatus;
+
+import java.time.LocalDateTime;
+
+final class LoanRow extends JournalRow {
+    
+    private final long bookId;
+    private final long borrowerId;
+    private final String borrowerName;
+    private final LocalDateTime borrowDate;
+    private final LocalDateTime dueDate;
+    private final LocalDateTime returnDate;
+    private final BorrowingStatus status;
+    
+    LoanRow(long id, long version, long bookId, long borrowerId, String borrowerName,
+            LocalDateTime borrowDate, LocalDateTime dueDate, LocalDateTime returnDate, BorrowingStatus status) {
+        super(id, version);
+        this.bookId = bookId;
+        this.borrowerId = borrowerId;
+        this.borrowerName = borrowerName;
+        this.borrowDate = borrowDate;
+        this.dueDate = dueDate;
+        this.returnDate = returnDate;
+        this.status = status;
+    }
+    
+    LoanRow withStatus(BorrowingStatus newStatus, LocalDateTime newReturnDate) {
+        return new LoanRow(getId(), getVersion() + 1, bookId, borrowerId, borrowerName,
+                borrowDate, dueDate, newReturnDate, newStatus);
+    }
+    
+    @Override
+    byte type() {
+        return LOAN;
+    }
+    
+    long getBookId() {
+        return bookId;
+    }
+    
+    long getBorrowerId() {
+        return borrowerId;
+    }
+    
+    String getBorrowerName() {
+        return borrowerName;
+    }
+    
+    LocalDateTime getBorrowDate() {
+        return borrowDate;
+    }
+    
+    LocalDateTime getDueDate() {
+        return dueDate;
+    }
+    
+    LocalDateTime getReturnDate() {
+        return returnDate;
+    }
+    
+    BorrowingStatus getStatus() {
+        return status;
+    }
+}
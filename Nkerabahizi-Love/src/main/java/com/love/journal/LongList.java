@@ -0,0 +1,38 @@
+package com.love.journal;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of {@code long} values, used for the loan ids of a book or a borrower.
+ * Loans are added in id order, so each list stays sorted without any work.
+ */
+class LongList {
+    
+    private long[] values = new long[4];
+    private int size;
+    
+    void add(long value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+    
+    void remove(long value) {
+        for (int i = size - 1; i >= 0; i--) {
+            if (values[i] == value) {
+                System.arraycopy(values, i + 1, values, i, size - i - 1);
+                size--;
+                return;
+            }
+        }
+    }
+    
+    long get(int index) {
+        return values[index];
+    }
+    
+    int size() {
+        return size;
+    }
+}
@@ -0,0 +1,141 @@
+package com.love.journal;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from {@code long} keys to objects, without boxing the keys.
+ * <p>
+ * Not thread-safe: the {@link JournalStore} lock guards every access. Removal shifts the
+ * following entries back instead of leaving tombstones, so lookups never slow down over time.
+ * @param <V> the value type
+ */
+class LongObjectMap<V> {
+    
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int MIN_CAPACITY = 16;
+    
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+    
+    LongObjectMap() {
+        allocate(MIN_CAPACITY);
+    }
+    
+    /**
+     * Get the value of a key
+     * @param key the key
+     * @return the value, or null if the key is absent
+     */
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        int slot = find(key);
+        return keys[slot] == key ? (V) values[slot] : null;
+    }
+    
+    /**
+     * Set the value of a key
+     * @param key the key, anything but {@link Long#MIN_VALUE}
+     * @param value the value, not null
+     * @return the previous value, or null if the key was absent
+     */
+    @SuppressWarnings("unchecked")
+    V put(long key, V value) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Key " + key + " is reserved");
+        }
+        int slot = find(key);
+        if (keys[slot] == key) {
+            V previous = (V) values[slot];
+            values[slot] = value;
+            return previous;
+        }
+        // Keep the load factor at or below one half
+        if ((size + 1) * 2 > keys.length) {
+            resize();
+            slot = find(key);
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        return null;
+    }
+    
+    /**
+     * Remove a key
+     * @param key the key
+     * @return the removed value, or null if the key was absent
+     */
+    @SuppressWarnings("unchecked")
+    V remove(long key) {
+        int slot = find(key);
+        if (keys[slot] != key) {
+            return null;
+        }
+        V previous = (V) values[slot];
+        // Backward shift: move up every following entry whose home slot is at or before the gap
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int home = (int) mix(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = EMPTY;
+        values[gap] = null;
+        size--;
+        return previous;
+    }
+    
+    /**
+     * Get the number of keys
+     * @return the number of keys
+     */
+    int size() {
+        return size;
+    }
+    
+    private void resize() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+    
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+    
+    /**
+     * Linear probing from the key's hash to the slot holding the key or the first empty slot
+     */
+    private int find(long key) {
+        int slot = (int) mix(key) & mask;
+        while (keys[slot] != key && keys[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+    
+    private static long mix(long key) {
+        // Finalizer of MurmurHash3, as in LongCounterMap
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return key;
+    }
+}
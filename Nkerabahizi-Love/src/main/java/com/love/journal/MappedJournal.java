@@ -0,0 +1,438 @@
+package com.love.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of {@link JournalRow} records in fixed-size memory-mapped segment files.
+ * <p>
+ * A record is a frame of {@code [int length][int crc32][long sequence][row]}. The length is
+ * written last, and a mapped file reads as zeros past its end, so a reader stops cleanly at the
+ * first frame that is absent, torn or fails its checksum. Each open starts a new segment; older
+ * segments are only read back during recovery and deleted once a snapshot covers them.
+ * <p>
+ * Appends only copy into the mapped segment and never wait for the disk. Durability is a
+ * separate step: {@link #awaitDurable(long)} asks the flusher thread for a sequence and waits.
+ * The flusher forces everything appended so far with one {@code msync}, so transactions that
+ * commit while a force is running share the next one (group commit).
+ * <p>
+ * One writer at a time (the store's write lock); any thread may wait for durability. Waiters
+ * block on a {@link ReentrantLock} condition rather than a monitor, so a virtual thread waiting
+ * for a force does not pin its carrier thread.
+ */
+class MappedJournal implements Closeable {
+    
+    private static final Logger log = LoggerFactory.getLogger(MappedJournal.class);
+    
+    static final int FRAME_HEADER = Integer.BYTES + Integer.BYTES + Long.BYTES;
+    
+    private static final String PREFIX = "journal-";
+    private static final String SUFFIX = ".log";
+    
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean fsync;
+    private final List<Segment> closedSegments = new ArrayList<>();
+    private final CRC32 crc = new CRC32();
+    private ByteBuffer scratch = ByteBuffer.allocate(512);
+    private Segment current;
+    private volatile long lastSequence;
+    
+    // Guarded by stateLock: what has been appended, requested and forced
+    private final ReentrantLock stateLock = new ReentrantLock();
+    private final Condition requested = stateLock.newCondition();
+    private final Condition durable = stateLock.newCondition();
+    private long appendedSequence;
+    private long requestedSequence;
+    private long durableSequence;
+    private long syncs;
+    private volatile boolean stopped;
+    private boolean closed;
+    private Thread flusher;
+    
+    /**
+     * Open the journal, replay the records after a snapshot and start a new segment
+     * @param directory the directory holding the segment files
+     * @param segmentSize the size of each segment file in bytes
+     * @param fsync whether {@link #awaitDurable(long)} forces the segment to disk
+     * @param afterSequence the sequence of the last record already in the snapshot
+     * @param replay receives every later record, in order
+     * @throws UncheckedIOException if the directory or a segment cannot be read or created
+     */
+    MappedJournal(Path directory, int segmentSize, boolean fsync, long afterSequence, Consumer<JournalRow> replay) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsync = fsync;
+        try {
+            Files.createDirectories(directory);
+            lastSequence = replaySegments(afterSequence, replay);
+            appendedSequence = lastSequence;
+            durableSequence = lastSequence;
+            // A segment left empty by the previous run would have the same name as the new one
+            Path path = directory.resolve(fileName(lastSequence + 1));
+            if (Files.deleteIfExists(path)) {
+                closedSegments.removeIf(segment -> segment.path.equals(path));
+            }
+            current = Segment.create(path, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the journal in " + directory, e);
+        }
+        if (fsync) {
+            flusher = Thread.ofPlatform().name("journal-flusher").daemon(true).start(this::flushLoop);
+        }
+    }
+    
+    /**
+     * Append a record
+     * @param row the row
+     * @return the sequence of the record
+     * @throws UncheckedIOException if a new segment cannot be created
+     */
+    long append(JournalRow row) {
+        if (stopped) {
+            throw new IllegalStateException("Journal is closed");
+        }
+        ByteBuffer payload = encode(row);
+        int frameLength = FRAME_HEADER + payload.remaining();
+        if (frameLength > segmentSize) {
+            throw new IllegalArgumentException("Record of " + frameLength + " bytes exceeds the segment size");
+        }
+        if (current.position + frameLength > segmentSize) {
+            roll();
+        }
+        long sequence = lastSequence + 1;
+        crc.reset();
+        crc.update(payload.duplicate());
+        
+        MappedByteBuffer buffer = current.buffer;
+        int start = current.position;
+        buffer.putLong(start + 8, sequence);
+        buffer.put(start + FRAME_HEADER, payload, payload.position(), payload.remaining());
+        buffer.putInt(start + 4, (int) crc.getValue());
+        buffer.putInt(start, payload.remaining());
+        
+        lastSequence = sequence;
+        current.lastSequence = sequence;
+        stateLock.lock();
+        try {
+            current.position = start + frameLength;
+            appendedSequence = sequence;
+        } finally {
+            stateLock.unlock();
+        }
+        return sequence;
+    }
+    
+    /**
+     * Get the sequence of the last appended record
+     * @return the sequence, 0 if nothing was ever appended
+     */
+    long lastSequence() {
+        return lastSequence;
+    }
+    
+    /**
+     * Wait until the record with the given sequence, and every record before it, is on disk.
+     * Returns at once when fsync is disabled: the record is then in the page cache, which
+     * survives a crash of the process but not of the machine.
+     * @param sequence the sequence
+     * @throws IllegalStateException if the journal is closed before the record is forced
+     */
+    void awaitDurable(long sequence) {
+        if (!fsync) {
+            return;
+        }
+        stateLock.lock();
+        try {
+            if (sequence > requestedSequence) {
+                requestedSequence = sequence;
+                requested.signal();
+            }
+            // The record is already appended, so an interrupt does not abandon the wait
+            while (durableSequence < sequence) {
+                if (closed) {
+                    throw new IllegalStateException("Journal closed before record " + sequence + " was forced");
+                }
+                durable.awaitUninterruptibly();
+            }
+        } finally {
+            stateLock.unlock();
+        }
+    }
+    
+    /**
+     * Close the current segment and start a new one, so that every record up to now is in closed
+     * segments that a snapshot can cover
+     */
+    void roll() {
+        if (current.position == 0) {
+            return;
+        }
+        Segment full = current;
+        Segment next;
+        try {
+            next = Segment.create(directory.resolve(fileName(lastSequence + 1)), segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create a journal segment in " + directory, e);
+        }
+        if (fsync) {
+            full.buffer.force(0, full.position);
+        }
+        full.close();
+        stateLock.lock();
+        try {
+            closedSegments.add(full);
+            current = next;
+            if (fsync) {
+                durableSequence = Math.max(durableSequence, full.lastSequence);
+                durable.signalAll();
+            }
+        } finally {
+            stateLock.unlock();
+        }
+    }
+    
+    /**
+     * Delete the closed segments whose records are all at or before a snapshot's sequence
+     * @param sequence the sequence of the snapshot
+     * @return the number of deleted segments
+     */
+    int deleteSegmentsThrough(long sequence) {
+        stateLock.lock();
+        try {
+            int deleted = 0;
+            for (var iterator = closedSegments.iterator(); iterator.hasNext(); ) {
+                Segment segment = iterator.next();
+                if (segment.lastSequence <= sequence) {
+                    try {
+                        Files.deleteIfExists(segment.path);
+                        iterator.remove();
+                        deleted++;
+                    } catch (IOException e) {
+                        log.warn("Could not delete journal segment {}", segment.path, e);
+                    }
+                }
+            }
+            return deleted;
+        } finally {
+            stateLock.unlock();
+        }
+    }
+    
+    /**
+     * Get the number of forces of the journal, to compare with the number of records
+     * @return the number of forces
+     */
+    long syncCount() {
+        stateLock.lock();
+        try {
+            return syncs;
+        } finally {
+            stateLock.unlock();
+        }
+    }
+    
+    /**
+     * Stop the flusher, force what was appended and close the current segment.
+     * The current segment stays on disk until a snapshot covers it.
+     */
+    @Override
+    public void close() {
+        Thread stopping;
+        stateLock.lock();
+        try {
+            if (closed || stopped) {
+                return;
+            }
+            stopped = true;
+            stopping = flusher;
+            requested.signal();
+        } finally {
+            stateLock.unlock();
+        }
+        if (stopping != null) {
+            try {
+                stopping.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (fsync) {
+            current.buffer.force(0, current.position);
+        }
+        current.close();
+        stateLock.lock();
+        try {
+            closedSegments.add(current);
+            durableSequence = appendedSequence;
+            closed = true;
+            durable.signalAll();
+        } finally {
+            stateLock.unlock();
+        }
+    }
+    
+    private void flushLoop() {
+        while (true) {
+            Segment segment;
+            int from;
+            int to;
+            long target;
+            stateLock.lock();
+            try {
+                while (!stopped && requestedSequence <= durableSequence) {
+                    try {
+                        requested.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (stopped) {
+                    return;
+                }
+                // Everything appended so far goes in this force, not only what was requested
+                segment = current;
+                from = segment.forcedPosition;
+                to = segment.position;
+                target = appendedSequence;
+            } finally {
+                stateLock.unlock();
+            }
+            segment.buffer.force(from, to - from);
+            stateLock.lock();
+            try {
+                segment.forcedPosition = Math.max(segment.forcedPosition, to);
+                durableSequence = Math.max(durableSequence, target);
+                syncs++;
+                durable.signalAll();
+            } finally {
+                stateLock.unlock();
+            }
+        }
+    }
+    
+    private ByteBuffer encode(JournalRow row) {
+        while (true) {
+            try {
+                scratch.clear();
+                JournalCodec.encode(row, scratch);
+                return scratch.flip();
+            } catch (BufferOverflowException e) {
+                scratch = ByteBuffer.allocate(scratch.capacity() * 2);
+            }
+        }
+    }
+    
+    private long replaySegments(long afterSequence, Consumer<JournalRow> replay) throws IOException {
+        List<Path> paths;
+        try (Stream<Path> files = Files.list(directory)) {
+            paths = files.filter(path -> path.getFileName().toString().startsWith(PREFIX))
+                    .sorted()
+                    .toList();
+        }
+        long last = afterSequence;
+        for (Path path : paths) {
+            Segment segment = Segment.open(path);
+            try {
+                last = replaySegment(segment, last, replay);
+            } finally {
+                segment.close();
+            }
+            closedSegments.add(segment);
+        }
+        return last;
+    }
+    
+    /**
+     * Replay the records of one segment up to its end or its first torn record. Records already
+     * in the snapshot are skipped; a record further ahead than the next one means records were lost.
+     */
+    private long replaySegment(Segment segment, long last, Consumer<JournalRow> replay) {
+        MappedByteBuffer buffer = segment.buffer;
+        CRC32 check = new CRC32();
+        int position = 0;
+        while (position + FRAME_HEADER <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + FRAME_HEADER + length > buffer.capacity()) {
+                break;
+            }
+            ByteBuffer payload = buffer.slice(position + FRAME_HEADER, length);
+            check.reset();
+            check.update(payload.duplicate());
+            if ((int) check.getValue() != buffer.getInt(position + 4)) {
+                log.warn("Journal segment {} has a torn record at offset {}; its replay stops there", segment.path, position);
+                break;
+            }
+            long sequence = buffer.getLong(position + 8);
+            if (sequence > last + 1) {
+                throw new IllegalStateException("Journal records " + (last + 1) + " to " + (sequence - 1)
+                        + " are missing before " + segment.path);
+            }
+            if (sequence == last + 1) {
+                replay.accept(JournalCodec.decode(payload));
+                last = sequence;
+            }
+            segment.lastSequence = Math.max(segment.lastSequence, sequence);
+            position += FRAME_HEADER + length;
+        }
+        return last;
+    }
+    
+    private static String fileName(long firstSequence) {
+        return PREFIX + String.format("%020d", firstSequence) + SUFFIX;
+    }
+    
+    private static final class Segment {
+        
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private long lastSequence;
+        private int position;
+        private int forcedPosition;
+        
+        private Segment(Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+        
+        static Segment create(Path path, int size) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new Segment(path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+        
+        static Segment open(Path path) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+            return new Segment(path, channel, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+        
+        void close() {
+            // The mapping stays valid until the buffer is collected; only the descriptor is released
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Could not close journal segment {}", path, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.love.journal;
+
+/**
+ * Removal of a row. Only written when a rolled back transaction undoes an insert.
+ */
+final class RemovedRow extends JournalRow {
+    
+    private final byte table;
+    
+    RemovedRow(byte table, long id) {
+        super(id, 0);
+        this.table = table;
+    }
+    
+    @Override
+    byte type() {
+        return REMOVED;
+    }
+    
+    @Override
+    byte table() {
+        return table;
+    }
+}
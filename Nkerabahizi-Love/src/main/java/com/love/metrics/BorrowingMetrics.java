@@ -0,0 +1,60 @@
+package com.love.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Business counters of the circulation: completed borrows and returns, and requests rejected
+ * by the service, tagged with the operation and the reason. Write conflicts that exhausted their
+ * retries are counted separately as {@code library.conflicts.exhausted}.
+ */
+@Component
+public class BorrowingMetrics {
+    
+    public static final String REASON_NOT_FOUND = "not_found";
+    public static final String REASON_NOT_AVAILABLE = "not_available";
+    public static final String REASON_ALREADY_RETURNED = "already_returned";
+    public static final String REASON_LOAN_LIMIT = "loan_limit";
+    
+    private final MeterRegistry meterRegistry;
+    private final Counter borrows;
+    private final Counter returns;
+    private final Map<String, Counter> rejections = new ConcurrentHashMap<>();
+    
+    @Autowired
+    public BorrowingMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.borrows = Counter.builder("library.borrowings.borrowed")
+                .description("Books borrowed")
+                .register(meterRegistry);
+        this.returns = Counter.builder("library.borrowings.returned")
+                .description("Books returned")
+                .register(meterRegistry);
+    }
+    
+    public void borrowed() {
+        borrows.increment();
+    }
+    
+    public void returned() {
+        returns.increment();
+    }
+    
+    /**
+     * Count a rejected borrow or return
+     * @param operation "borrow" or "return"
+     * @param reason one of the REASON_* constants
+     */
+    public void rejected(String operation, String reason) {
+        rejections.computeIfAbsent(operation + ':' + reason, key -> Counter.builder("library.borrowings.rejected")
+                .description("Borrow and return requests rejected by a business rule")
+                .tag("operation", operation)
+                .tag("reason", reason)
+                .register(meterRegistry)).increment();
+    }
+}
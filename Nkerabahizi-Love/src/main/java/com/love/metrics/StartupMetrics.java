@@ -0,0 +1,84 @@
+package com.love.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how long after JVM start the application became ready, that is after every index and cache
+ * was warmed from the database, and when the first API request was answered. Both are published as
+ * gauges ({@code library.startup.ready} and {@code library.startup.first.request}) and logged once,
+ * so restart times can be tracked across releases and database sizes.
+ */
+@Component
+public class StartupMetrics extends OncePerRequestFilter {
+    
+    private static final Logger log = LoggerFactory.getLogger(StartupMetrics.class);
+    private static final String API_PREFIX = "/api/";
+    
+    private volatile long readyMs = -1;
+    private volatile long firstRequestMs = -1;
+    
+    @Autowired
+    public StartupMetrics(MeterRegistry meterRegistry) {
+        TimeGauge.builder("library.startup.ready", this, TimeUnit.MILLISECONDS, metrics -> metrics.readyMs)
+                .description("Time from JVM start until the application accepted traffic, -1 before that")
+                .register(meterRegistry);
+        TimeGauge.builder("library.startup.first.request", this, TimeUnit.MILLISECONDS, metrics -> metrics.firstRequestMs)
+                .description("Time from JVM start until the first API response, -1 before that")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Record readiness, which Spring Boot signals after all ApplicationReadyEvent listeners have run
+     * @param event the readiness change
+     */
+    @EventListener
+    public void onReadinessChanged(AvailabilityChangeEvent<ReadinessState> event) {
+        if (event.getState() == ReadinessState.ACCEPTING_TRAFFIC && readyMs < 0) {
+            readyMs = uptimeMs();
+            log.info("Ready to accept traffic {} ms after JVM start", readyMs);
+        }
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return firstRequestMs >= 0 || !request.getRequestURI().startsWith(API_PREFIX);
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            recordFirstRequest();
+        }
+    }
+    
+    private synchronized void recordFirstRequest() {
+        if (firstRequestMs < 0) {
+            firstRequestMs = uptimeMs();
+            log.info("First API request answered {} ms after JVM start", firstRequestMs);
+        }
+    }
+    
+    private static long uptimeMs() {
+        return ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+}
@@ -0,0 +1,158 @@
+package com.love.overdue;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Hierarchical timing wheel of {@code long} ids with deadlines, after Varghese and Lauck.
+ * <p>
+ * Time advances in ticks. Level {@code L} has 64 buckets, each spanning {@code 64^L} ticks, so
+ * eleven levels cover any deadline. An entry is placed at the highest level in which its deadline
+ * tick differs from the current tick. When the current tick reaches the start of a bucket on a
+ * higher level, its entries cascade down one or more levels. They expire from level 0 on their
+ * deadline tick. Scheduling is O(1), and each entry moves at most once per level. An advance
+ * touches only the buckets whose time has come, however many entries are scheduled.
+ * <p>
+ * Entries are stored as pairs of longs in growable per-bucket arrays, without boxing.
+ * Not thread-safe: callers serialize access.
+ */
+public class HierarchicalTimingWheel {
+    
+    private static final int BITS_PER_LEVEL = 6;
+    private static final int BUCKETS_PER_LEVEL = 1 << BITS_PER_LEVEL;
+    private static final int BUCKET_MASK = BUCKETS_PER_LEVEL - 1;
+    private static final int LEVELS = (Long.SIZE + BITS_PER_LEVEL - 1) / BITS_PER_LEVEL;
+    
+    private final long tickMs;
+    private final Bucket[][] levels = new Bucket[LEVELS][BUCKETS_PER_LEVEL];
+    private final Bucket due = new Bucket();
+    private long currentTick;
+    private long size;
+    
+    /**
+     * Create a wheel
+     * @param tickMs the length of a tick in milliseconds
+     * @param startMs the current time in milliseconds
+     */
+    public HierarchicalTimingWheel(long tickMs, long startMs) {
+        if (tickMs <= 0) {
+            throw new IllegalArgumentException("Tick must be positive, got " + tickMs);
+        }
+        this.tickMs = tickMs;
+        this.currentTick = startMs / tickMs;
+    }
+    
+    /**
+     * Schedule an id. An id whose deadline has already passed expires on the next advance.
+     * @param id the id
+     * @param deadlineMs the deadline in milliseconds
+     */
+    public void schedule(long id, long deadlineMs) {
+        // Round up so an entry never expires before its deadline
+        place(id, Math.floorDiv(deadlineMs + tickMs - 1, tickMs));
+        size++;
+    }
+    
+    /**
+     * Advance the wheel to the given time, handing every id whose deadline has passed to the consumer
+     * @param nowMs the current time in milliseconds
+     * @param expired receives the expired ids
+     * @return the number of expired ids
+     */
+    public int advance(long nowMs, LongConsumer expired) {
+        int count = drain(due, expired);
+        long targetTick = nowMs / tickMs;
+        while (currentTick < targetTick) {
+            currentTick++;
+            // Cascade higher levels first, so entries land in lower buckets before those are processed
+            for (int level = highestStartingLevel(currentTick); level > 0; level--) {
+                Bucket bucket = levels[level][(int) (currentTick >>> (level * BITS_PER_LEVEL)) & BUCKET_MASK];
+                if (bucket != null && bucket.size > 0) {
+                    cascade(bucket);
+                }
+            }
+            Bucket bucket = levels[0][(int) currentTick & BUCKET_MASK];
+            if (bucket != null) {
+                count += drain(bucket, expired);
+            }
+            count += drain(due, expired);
+        }
+        return count;
+    }
+    
+    /**
+     * Get the number of scheduled ids
+     * @return the number of ids not yet expired
+     */
+    public long size() {
+        return size;
+    }
+    
+    private void place(long id, long deadlineTick) {
+        if (deadlineTick <= currentTick) {
+            due.add(id, deadlineTick);
+            return;
+        }
+        int level = (Long.SIZE - 1 - Long.numberOfLeadingZeros(deadlineTick ^ currentTick)) / BITS_PER_LEVEL;
+        int index = (int) (deadlineTick >>> (level * BITS_PER_LEVEL)) & BUCKET_MASK;
+        Bucket bucket = levels[level][index];
+        if (bucket == null) {
+            bucket = new Bucket();
+            levels[level][index] = bucket;
+        }
+        bucket.add(id, deadlineTick);
+    }
+    
+    private void cascade(Bucket bucket) {
+        long[] entries = bucket.entries;
+        int length = bucket.size;
+        bucket.clear();
+        for (int i = 0; i < length; i += 2) {
+            place(entries[i], entries[i + 1]);
+        }
+    }
+    
+    private int drain(Bucket bucket, LongConsumer expired) {
+        int count = bucket.size / 2;
+        for (int i = 0; i < bucket.size; i += 2) {
+            expired.accept(bucket.entries[i]);
+        }
+        bucket.clear();
+        size -= count;
+        return count;
+    }
+    
+    /**
+     * The highest level whose bucket boundary the tick falls on
+     */
+    private static int highestStartingLevel(long tick) {
+        return Math.min(LEVELS - 1, Long.numberOfTrailingZeros(tick) / BITS_PER_LEVEL);
+    }
+    
+    /**
+     * Growable array of (id, deadline tick) pairs
+     */
+    private static final class Bucket {
+        
+        private static final int INITIAL_ENTRIES = 8;
+        
+        private long[] entries = new long[INITIAL_ENTRIES];
+        private int size;
+        
+        private void add(long id, long deadlineTick) {
+            if (size == entries.length) {
+                entries = Arrays.copyOf(entries, entries.length * 2);
+            }
+            entries[size++] = id;
+            entries[size++] = deadlineTick;
+        }
+        
+        private void clear() {
+            // Give the memory of a large bucket back once it has been emptied
+            if (entries.length > INITIAL_ENTRIES * 64) {
+                entries = new long[INITIAL_ENTRIES];
+            }
+            size = 0;
+        }
+    }
+}
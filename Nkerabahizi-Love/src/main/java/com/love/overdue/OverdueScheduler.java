@@ -0,0 +1,167 @@
+package com.love.overdue;
+
+import com.love.service.OverdueService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Flips loans to OVERDUE as their due dates pass, without scanning the transactions table.
+ * <p>
+ * Every PENDING loan sits in a {@link HierarchicalTimingWheel}, keyed by its due date. The wheel
+ * is loaded once at startup. After that, the borrow path adds each new loan once it commits,
+ * directly rather than through the circulation pipeline, whose DROP policy may discard events.
+ * A single thread advances the wheel every tick. It marks the loans that fell due in batched
+ * conditional UPDATEs, which skip loans that have been returned meanwhile. Returned loans are
+ * therefore not removed from the wheel; they drop out when their due date passes.
+ */
+@Component
+public class OverdueScheduler implements SmartLifecycle {
+    
+    private static final Logger log = LoggerFactory.getLogger(OverdueScheduler.class);
+    
+    private final OverdueService overdueService;
+    private final long tickMs;
+    private final int batchSize;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final HierarchicalTimingWheel wheel;
+    private final Counter marked;
+    private ScheduledExecutorService executor;
+    
+    @Autowired
+    public OverdueScheduler(OverdueService overdueService,
+                            @Value("${library.overdue.tick-ms:1000}") long tickMs,
+                            @Value("${library.overdue.batch-size:500}") int batchSize,
+                            MeterRegistry meterRegistry) {
+        this.overdueService = overdueService;
+        this.tickMs = tickMs;
+        this.batchSize = batchSize;
+        this.wheel = new HierarchicalTimingWheel(tickMs, System.currentTimeMillis());
+        this.marked = Counter.builder("library.overdue.marked")
+                .description("Loans marked as overdue")
+                .register(meterRegistry);
+        Gauge.builder("library.overdue.scheduled", this, OverdueScheduler::scheduledCount)
+                .description("Loans waiting in the overdue timing wheel")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Schedule every PENDING loan, once at startup
+     * @return the number of loans scheduled
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public long loadPendingLoans() {
+        return overdueService.forEachPendingLoan(loan -> schedule(loan.getId(), loan.getDueDate()));
+    }
+    
+    /**
+     * Schedule a loan to be marked as overdue once its due date has passed
+     * @param transactionId the transaction id
+     * @param dueDate the due date
+     */
+    public void schedule(long transactionId, LocalDateTime dueDate) {
+        long deadlineMs = dueDate.atZone(zone).toInstant().toEpochMilli();
+        synchronized (wheel) {
+            wheel.schedule(transactionId, deadlineMs);
+        }
+    }
+    
+    /**
+     * Schedule a new loan once the current transaction commits, or right away without a transaction
+     * @param transactionId the transaction id
+     * @param dueDate the due date
+     */
+    public void scheduleAfterCommit(long transactionId, LocalDateTime dueDate) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            schedule(transactionId, dueDate);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                schedule(transactionId, dueDate);
+            }
+        });
+    }
+    
+    /**
+     * Advance the wheel to now and mark the loans that fell due, a batch at a time
+     * @return the number of loans marked as overdue
+     */
+    public int markDueLoans() {
+        List<Long> due = new ArrayList<>();
+        synchronized (wheel) {
+            wheel.advance(System.currentTimeMillis(), due::add);
+        }
+        int count = 0;
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<Long> batch = due.subList(from, Math.min(from + batchSize, due.size()));
+            try {
+                count += overdueService.markOverdue(batch);
+            } catch (RuntimeException e) {
+                // Try again on the next tick rather than lose the loans
+                log.warn("Could not mark {} loans as overdue, retrying", batch.size(), e);
+                LocalDateTime retryAt = LocalDateTime.now();
+                batch.forEach(id -> schedule(id, retryAt));
+            }
+        }
+        marked.increment(count);
+        return count;
+    }
+    
+    /**
+     * Get the number of loans in the wheel, including returned loans not yet due
+     * @return the number of scheduled loans
+     */
+    public long scheduledCount() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+    
+    @Override
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("overdue-wheel").daemon(true).factory());
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                markDueLoans();
+            } catch (RuntimeException e) {
+                log.warn("Overdue detection failed", e);
+            }
+        }, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+    
+    @Override
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+    
+    @Override
+    public synchronized boolean isRunning() {
+        return executor != null;
+    }
+}
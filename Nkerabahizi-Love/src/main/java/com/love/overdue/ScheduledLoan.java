@@ -0,0 +1,25 @@
+package com.love.overdue;
+
+import java.time.LocalDateTime;
+
+/**
+ * The id and due date of an open loan, loaded with a constructor expression at startup
+ */
+public class ScheduledLoan {
+    
+    private final Long id;
+    private final LocalDateTime dueDate;
+    
+    public ScheduledLoan(Long id, LocalDateTime dueDate) {
+        this.id = id;
+        this.dueDate = dueDate;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public LocalDateTime getDueDate() {
+        return dueDate;
+    }
+}
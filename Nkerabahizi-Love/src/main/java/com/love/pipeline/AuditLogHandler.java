@@ -0,0 +1,22 @@
+package com.love.pipeline;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes an audit line for every committed borrow and return
+ */
+@Component
+public class AuditLogHandler implements CirculationEventHandler {
+    
+    private static final Logger log = LoggerFactory.getLogger(AuditLogHandler.class);
+    
+    @Override
+    public void onEvent(CirculationEvent event, long sequence, boolean endOfBatch) {
+        if (log.isDebugEnabled()) {
+            log.debug("#{} {} transaction={} book={} borrower={} at={}", sequence, event.getType(),
+                    event.getTransactionId(), event.getBookId(), event.getBorrowerName(), event.getOccurredAt());
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.love.pipeline;
+
+import com.love.enums.CirculationEventType;
+
+import java.time.LocalDateTime;
+
+/**
+ * A borrow or a return, as carried by the circulation event ring. Instances are the ring's
+ * preallocated slots and are overwritten in place once every consumer has moved past them:
+ * handlers must copy what they need and never keep a reference to the event.
+ */
+public class CirculationEvent {
+    
+    private CirculationEventType type;
+    private long transactionId;
+    private long bookId;
+    private String borrowerName;
+    private LocalDateTime occurredAt;
+    private LocalDateTime dueDate;
+    
+    /**
+     * Fill the slot for a new event
+     */
+    void set(CirculationEventType type, long transactionId, long bookId, String borrowerName,
+             LocalDateTime occurredAt, LocalDateTime dueDate) {
+        this.type = type;
+        this.transactionId = transactionId;
+        this.bookId = bookId;
+        this.borrowerName = borrowerName;
+        this.occurredAt = occurredAt;
+        this.dueDate = dueDate;
+    }
+    
+    public CirculationEventType getType() {
+        return type;
+    }
+    
+    public long getTransactionId() {
+        return transactionId;
+    }
+    
+    public long getBookId() {
+        return bookId;
+    }
+    
+    public String getBorrowerName() {
+        return borrowerName;
+    }
+    
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+    
+    public LocalDateTime getDueDate() {
+        return dueDate;
+    }
+}
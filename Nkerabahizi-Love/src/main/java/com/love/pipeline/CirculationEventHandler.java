@@ -0,0 +1,25 @@
+package com.love.pipeline;
+
+/**
+ * A consumer of committed borrows and returns. Every handler bean gets its own consumer thread
+ * and sees every event in publication order, in batches of whatever has accumulated since its
+ * previous batch. A slow handler only delays itself, until the ring fills up.
+ */
+public interface CirculationEventHandler {
+    
+    /**
+     * Handle one event
+     * @param event the event; only valid for the duration of the call
+     * @param sequence the position of the event in the ring, increasing by one per event
+     * @param endOfBatch true for the last event of the current batch, a good point to flush
+     */
+    void onEvent(CirculationEvent event, long sequence, boolean endOfBatch);
+    
+    /**
+     * Name of the handler, used for its thread and in lag metrics
+     * @return the handler name
+     */
+    default String getName() {
+        return getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,149 @@
+package com.love.pipeline;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded lock-free ring of preallocated circulation events for many producers and a few consumers,
+ * built like the LMAX Disruptor.
+ * <p>
+ * A producer claims the next sequence with a CAS on the claim cursor, fills the slot of that
+ * sequence in place and publishes it by storing the sequence's lap number in the slot's flag.
+ * Consumers read the slots whose flag matches the lap they expect, so events claimed
+ * concurrently may be published out of order without a consumer ever seeing a half-written slot.
+ * Each consumer owns a sequence: the last event it has processed. A sequence can only be claimed
+ * once every consumer has moved past the event one lap earlier, so unread events are never
+ * overwritten and a full ring is reported to the producer instead.
+ */
+public class CirculationEventRing {
+    
+    private final CirculationEvent[] slots;
+    private final AtomicIntegerArray publishedLaps;
+    private final int mask;
+    private final int lapShift;
+    private final AtomicLong claimCursor = new AtomicLong(-1);
+    private final List<AtomicLong> consumerSequences = new CopyOnWriteArrayList<>();
+    // Lower bound of the slowest consumer's sequence, refreshed only when the ring looks full
+    private volatile long cachedMinimumConsumed = -1;
+    
+    /**
+     * Create a ring
+     * @param capacity the number of slots, a power of two
+     * @throws IllegalArgumentException if the capacity is not a power of two
+     */
+    public CirculationEventRing(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring capacity must be a power of two, got " + capacity);
+        }
+        this.slots = new CirculationEvent[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new CirculationEvent();
+        }
+        this.publishedLaps = new AtomicIntegerArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            publishedLaps.set(i, -1);
+        }
+        this.mask = capacity - 1;
+        this.lapShift = Integer.numberOfTrailingZeros(capacity);
+    }
+    
+    /**
+     * Register a consumer. It starts after the last claimed event and gates producers from then on.
+     * @return the consumer's sequence, to be advanced by the consumer after processing events
+     */
+    public AtomicLong addConsumer() {
+        AtomicLong sequence = new AtomicLong(claimCursor.get());
+        consumerSequences.add(sequence);
+        return sequence;
+    }
+    
+    /**
+     * Remove a stopped consumer so it no longer gates producers
+     * @param sequence the sequence returned by {@link #addConsumer()}
+     */
+    public void removeConsumer(AtomicLong sequence) {
+        consumerSequences.remove(sequence);
+    }
+    
+    /**
+     * Claim the next sequence if its slot is free
+     * @return the claimed sequence, or -1 if the ring is full
+     */
+    public long tryClaim() {
+        while (true) {
+            long current = claimCursor.get();
+            long next = current + 1;
+            long wrapPoint = next - slots.length;
+            if (wrapPoint > cachedMinimumConsumed) {
+                long minimum = minimumConsumed(current);
+                cachedMinimumConsumed = minimum;
+                if (wrapPoint > minimum) {
+                    return -1;
+                }
+            }
+            if (claimCursor.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+    
+    /**
+     * Get the slot of a claimed or published sequence
+     * @param sequence the sequence
+     * @return the event slot
+     */
+    public CirculationEvent slot(long sequence) {
+        return slots[(int) sequence & mask];
+    }
+    
+    /**
+     * Make a claimed and filled slot visible to consumers
+     * @param sequence the claimed sequence
+     */
+    public void publish(long sequence) {
+        publishedLaps.lazySet((int) sequence & mask, (int) (sequence >>> lapShift));
+    }
+    
+    /**
+     * Find the end of the contiguous run of published events starting at a sequence
+     * @param from the first sequence to check
+     * @return the highest sequence such that every event from {@code from} to it is published,
+     *         or {@code from - 1} if {@code from} itself is not published yet
+     */
+    public long highestPublished(long from) {
+        long upTo = claimCursor.get();
+        for (long sequence = from; sequence <= upTo; sequence++) {
+            if (publishedLaps.get((int) sequence & mask) != (int) (sequence >>> lapShift)) {
+                return sequence - 1;
+            }
+        }
+        return upTo;
+    }
+    
+    /**
+     * Get the highest claimed sequence
+     * @return the claim cursor, -1 before the first claim
+     */
+    public long getClaimCursor() {
+        return claimCursor.get();
+    }
+    
+    /**
+     * Get the sequence of the slowest consumer
+     * @param whenNone the value to return if there are no consumers
+     * @return the lowest consumer sequence
+     */
+    public long minimumConsumed(long whenNone) {
+        long minimum = Long.MAX_VALUE;
+        for (AtomicLong sequence : consumerSequences) {
+            minimum = Math.min(minimum, sequence.get());
+        }
+        return minimum == Long.MAX_VALUE ? whenNone : minimum;
+    }
+    
+    public int getCapacity() {
+        return slots.length;
+    }
+}
@@ -0,0 +1,258 @@
+package com.love.pipeline;
+
+import com.love.dto.PipelineStatsResponse;
+import com.love.enums.CirculationEventType;
+import com.love.enums.PipelineOverflowPolicy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous pipeline of committed borrows and returns. The request thread does a single
+ * publish into a {@link CirculationEventRing} once its transaction has committed; every
+ * {@link CirculationEventHandler} bean drains the ring in batches on its own consumer thread, so
+ * side effects such as auditing or statistics add no latency to the request.
+ * <p>
+ * When the slowest handler falls a full ring behind, the configured overflow policy applies:
+ * BLOCK makes the publisher wait for a free slot (backpressure), DROP discards the event and
+ * counts it. Lag per handler, drops and free capacity are published as metrics.
+ */
+@Component
+public class CirculationPipeline implements SmartLifecycle {
+    
+    private static final int SPIN_TRIES = 100;
+    private static final long MAX_IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long BLOCKED_PUBLISH_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long STOP_TIMEOUT_MS = 5000;
+    
+    private final CirculationEventRing ring;
+    private final PipelineOverflowPolicy overflowPolicy;
+    private final List<CirculationEventHandler> handlers;
+    private final MeterRegistry meterRegistry;
+    private final Counter published;
+    private final Counter dropped;
+    private final List<Consumer> consumers = new ArrayList<>();
+    private volatile boolean running;
+    
+    @Autowired
+    public CirculationPipeline(@Value("${library.pipeline.buffer-size:8192}") int bufferSize,
+                               @Value("${library.pipeline.overflow-policy:BLOCK}") PipelineOverflowPolicy overflowPolicy,
+                               List<CirculationEventHandler> handlers,
+                               MeterRegistry meterRegistry) {
+        this.ring = new CirculationEventRing(bufferSize);
+        this.overflowPolicy = overflowPolicy;
+        this.handlers = handlers;
+        this.meterRegistry = meterRegistry;
+        this.published = Counter.builder("library.pipeline.published")
+                .description("Circulation events published to the pipeline")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("library.pipeline.dropped")
+                .description("Circulation events dropped because the ring was full")
+                .register(meterRegistry);
+        Gauge.builder("library.pipeline.remaining.capacity", this, CirculationPipeline::remainingCapacity)
+                .description("Free slots in the circulation event ring")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Publish an event once the current transaction commits, or right away without a transaction.
+     * Nothing is published if the transaction rolls back.
+     * @param type borrow or return
+     * @param transactionId the borrowing transaction id
+     * @param bookId the book id
+     * @param borrowerName the borrower
+     * @param occurredAt the borrow or return date
+     * @param dueDate the due date of the loan
+     */
+    public void publishAfterCommit(CirculationEventType type, long transactionId, long bookId,
+                                   String borrowerName, LocalDateTime occurredAt, LocalDateTime dueDate) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(type, transactionId, bookId, borrowerName, occurredAt, dueDate);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(type, transactionId, bookId, borrowerName, occurredAt, dueDate);
+            }
+        });
+    }
+    
+    /**
+     * Publish an event now
+     * @return false if the event was dropped because the ring was full
+     */
+    public boolean publish(CirculationEventType type, long transactionId, long bookId,
+                           String borrowerName, LocalDateTime occurredAt, LocalDateTime dueDate) {
+        long sequence = ring.tryClaim();
+        while (sequence < 0) {
+            if (overflowPolicy == PipelineOverflowPolicy.DROP) {
+                dropped.increment();
+                return false;
+            }
+            LockSupport.parkNanos(BLOCKED_PUBLISH_PARK_NANOS);
+            sequence = ring.tryClaim();
+        }
+        ring.slot(sequence).set(type, transactionId, bookId, borrowerName, occurredAt, dueDate);
+        ring.publish(sequence);
+        published.increment();
+        return true;
+    }
+    
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        for (CirculationEventHandler handler : handlers) {
+            Consumer consumer = new Consumer(handler, ring.addConsumer());
+            Gauge.builder("library.pipeline.lag", consumer, Consumer::lag)
+                    .description("Circulation events published but not yet handled")
+                    .tag("handler", handler.getName())
+                    .register(meterRegistry);
+            consumer.thread = Thread.ofPlatform()
+                    .name("circulation-" + handler.getName())
+                    .daemon(true)
+                    .start(consumer);
+            consumers.add(consumer);
+        }
+    }
+    
+    @Override
+    public synchronized void stop() {
+        // Consumers drain what was published before they exit
+        running = false;
+        for (Consumer consumer : consumers) {
+            LockSupport.unpark(consumer.thread);
+            try {
+                consumer.thread.join(STOP_TIMEOUT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            ring.removeConsumer(consumer.sequence);
+        }
+        consumers.clear();
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    /**
+     * Get the ring size, throughput counters and per-handler lag of the pipeline
+     * @return the pipeline statistics
+     */
+    public PipelineStatsResponse getStatistics() {
+        Map<String, Long> lagByHandler = new LinkedHashMap<>();
+        for (Consumer consumer : consumers) {
+            lagByHandler.put(consumer.handler.getName(), consumer.lag());
+        }
+        return new PipelineStatsResponse(
+                ring.getCapacity(),
+                overflowPolicy,
+                (long) published.count(),
+                (long) dropped.count(),
+                remainingCapacity(),
+                lagByHandler);
+    }
+    
+    /**
+     * Get the number of events a handler has not processed yet
+     * @param handlerName the handler name
+     * @return the lag, or -1 if there is no running handler with that name
+     */
+    public long getLag(String handlerName) {
+        for (Consumer consumer : consumers) {
+            if (consumer.handler.getName().equals(handlerName)) {
+                return consumer.lag();
+            }
+        }
+        return -1;
+    }
+    
+    private long remainingCapacity() {
+        long claimed = ring.getClaimCursor();
+        return ring.getCapacity() - (claimed - ring.minimumConsumed(claimed));
+    }
+    
+    /**
+     * Drains the ring for one handler, a batch at a time
+     */
+    private final class Consumer implements Runnable {
+        
+        private final CirculationEventHandler handler;
+        private final AtomicLong sequence;
+        private final Counter errors;
+        private Thread thread;
+        
+        private Consumer(CirculationEventHandler handler, AtomicLong sequence) {
+            this.handler = handler;
+            this.sequence = sequence;
+            this.errors = Counter.builder("library.pipeline.handler.errors")
+                    .description("Circulation events whose handler threw an exception")
+                    .tag("handler", handler.getName())
+                    .register(meterRegistry);
+        }
+        
+        @Override
+        public void run() {
+            long next = sequence.get() + 1;
+            int idle = 0;
+            while (true) {
+                long available = ring.highestPublished(next);
+                if (available < next) {
+                    // Exit only once everything claimed before the stop has been handled
+                    if (!running && ring.getClaimCursor() < next) {
+                        return;
+                    }
+                    idle = idleWait(idle);
+                    continue;
+                }
+                for (long current = next; current <= available; current++) {
+                    try {
+                        handler.onEvent(ring.slot(current), current, current == available);
+                    } catch (RuntimeException e) {
+                        errors.increment();
+                    }
+                }
+                // Frees the slots for producers
+                sequence.lazySet(available);
+                next = available + 1;
+                idle = 0;
+            }
+        }
+        
+        private int idleWait(int idle) {
+            if (idle < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else if (idle < 2 * SPIN_TRIES) {
+                Thread.yield();
+            } else {
+                long parkNanos = Math.min(MAX_IDLE_PARK_NANOS, 1000L << Math.min(20, idle - 2 * SPIN_TRIES));
+                LockSupport.parkNanos(parkNanos);
+            }
+            return idle + 1;
+        }
+        
+        private long lag() {
+            return ring.getClaimCursor() - sequence.get();
+        }
+    }
+}
@@ -1,28 +1,96 @@
 package com.love.repository;
 
+import com.love.dto.BookResponse;
 import com.love.entity.Book;
 import com.love.enums.BookAvailabilityStatus;
-import org.springframework.data.jpa.repository.JpaRepository;
+import com.love.index.IndexedBook;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.RepositoryDefinition;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_CACHE_REGION;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+/**
+ * Books repository. Only the CRUD methods the application uses are declared, so every storage
+ * backend implements all of it.
+ */
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> {
+@RepositoryDefinition(domainClass = Book.class, idClass = Long.class)
+public interface BookRepository extends BookRepositoryCustom {
+    
+    /**
+     * Number of rows fetched per JDBC round trip when streaming book ids
+     */
+    int ID_STREAM_FETCH_SIZE = 1000;
     
     /**
-     * Find a book by its ISBN
-     * @param isbn the ISBN to search for
+     * Query cache region of {@link #findByAvailabilityStatus}, evicted whenever a status changes
+     */
+    String AVAILABILITY_QUERY_CACHE_REGION = "book-by-status";
+    
+    /**
+     * Save a book, inserting it if it has no id yet
+     * @param book the book to save
+     * @return the saved book
+     */
+    <S extends Book> S save(S book);
+    
+    /**
+     * Save many books in JDBC batches
+     * @param books the books to save
+     * @return the saved books
+     */
+    <S extends Book> List<S> saveAll(Iterable<S> books);
+    
+    /**
+     * Find a book by id
+     * @param id the book id
      * @return Optional containing the book if found
      */
-    Optional<Book> findByIsbn(String isbn);
+    Optional<Book> findById(Long id);
+    
+    /**
+     * Find the books with the given ids, in no particular order
+     * @param ids the book ids
+     * @return List of the books that exist
+     */
+    List<Book> findAllById(Iterable<Long> ids);
+    
+    /**
+     * Count all books
+     * @return the number of books
+     */
+    long count();
+    
+    /**
+     * Get a reference to a book that is known to exist, without loading it where the backend allows
+     * @param id the book id
+     * @return the book reference
+     */
+    Book getReferenceById(Long id);
     
     /**
      * Find all books by availability status
      * @param status the availability status to filter by
      * @return List of books with the specified status
      */
+    @QueryHints({
+            @QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = AVAILABILITY_QUERY_CACHE_REGION)
+    })
     List<Book> findByAvailabilityStatus(BookAvailabilityStatus status);
     
     /**
@@ -31,4 +99,73 @@ public interface BookRepository extends JpaRepository<Book, Long> {
      * @return true if book exists, false otherwise
      */
     boolean existsByIsbn(String isbn);
-} 
\ No newline at end of file
+    
+    /**
+     * Find which of the given ISBNs already exist
+     * @param isbns the ISBNs to check
+     * @return Set of the ISBNs that are already in the catalog
+     */
+    @Query("SELECT b.isbn FROM Book b WHERE b.isbn IN :isbns")
+    Set<String> findExistingIsbns(@Param("isbns") Collection<String> isbns);
+    
+    /**
+     * Find which of the given books currently have the given status, bypassing the caches
+     * @param ids the book ids to check
+     * @param status the availability status to filter by
+     * @return List of the ids whose book has the status
+     */
+    @Query("SELECT b.id FROM Book b WHERE b.id IN :ids AND b.availabilityStatus = :status")
+    List<Long> findIdsWithStatusAmong(@Param("ids") Collection<Long> ids, @Param("status") BookAvailabilityStatus status);
+    
+    /**
+     * Find the next page of books after the given id (keyset pagination), ordered by id.
+     * Null filters are ignored; title and author patterns are lower-case LIKE patterns
+     * escaped with a backslash.
+     * @param afterId only books with an id greater than this are returned
+     * @param titlePattern the title LIKE pattern, or null
+     * @param authorPattern the author LIKE pattern, or null
+     * @param status the availability status to filter by, or null
+     * @param limit the maximum number of books to return
+     * @return List of at most {@code limit} books ordered by id
+     */
+    @Query("SELECT b FROM Book b WHERE b.id > :afterId " +
+           "AND (:titlePattern IS NULL OR LOWER(b.title) LIKE :titlePattern ESCAPE '\\') " +
+           "AND (:authorPattern IS NULL OR LOWER(b.author) LIKE :authorPattern ESCAPE '\\') " +
+           "AND (:status IS NULL OR b.availabilityStatus = :status) " +
+           "ORDER BY b.id")
+    @QueryHints(@QueryHint(name = HINT_READ_ONLY, value = "true"))
+    List<Book> findPageAfterId(@Param("afterId") Long afterId,
+                               @Param("titlePattern") String titlePattern,
+                               @Param("authorPattern") String authorPattern,
+                               @Param("status") BookAvailabilityStatus status,
+                               Limit limit);
+    
+    /**
+     * Stream the ids of all books with the given status in id order, without loading the entities.
+     * Must be consumed inside a transaction and closed afterwards.
+     * @param status the availability status to filter by
+     * @return Stream of book ids
+     */
+    @Query("SELECT b.id FROM Book b WHERE b.availabilityStatus = :status ORDER BY b.id")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "" + ID_STREAM_FETCH_SIZE))
+    Stream<Long> streamIdsByAvailabilityStatus(@Param("status") BookAvailabilityStatus status);
+    
+    /**
+     * Stream the id, title and author of every book in id order, for building the text indexes.
+     * Must be consumed inside a transaction and closed afterwards.
+     * @return Stream of indexed book projections
+     */
+    @Query("SELECT new com.love.index.IndexedBook(b.id, b.title, b.author) FROM Book b ORDER BY b.id")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "" + ID_STREAM_FETCH_SIZE))
+    Stream<IndexedBook> streamIndexedBooks();
+    
+    /**
+     * Stream every book as a response, newest first, for warming the ISBN cache without hydrating entities.
+     * Must be consumed inside a transaction and closed afterwards.
+     * @return Stream of book responses
+     */
+    @Query("SELECT new com.love.dto.BookResponse(b.id, b.title, b.author, b.isbn, b.availabilityStatus) " +
+           "FROM Book b ORDER BY b.id DESC")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "" + ID_STREAM_FETCH_SIZE))
+    Stream<BookResponse> streamBookResponses();
+}
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.love.repository;
+
+import com.love.entity.Book;
+import com.love.enums.BookAvailabilityStatus;
+
+import java.util.Optional;
+
+/**
+ * Persistence-context and second-level cache operations of {@link BookRepository}, kept behind the
+ * repository so that services do not depend on JPA directly
+ */
+public interface BookRepositoryCustom {
+    
+    /**
+     * Find a book by its ISBN, through the natural id and book caches
+     * @param isbn the ISBN to search for
+     * @return Optional containing the book if found
+     */
+    Optional<Book> findByIsbn(String isbn);
+    
+    /**
+     * Atomically change the availability status of a book, but only if it currently has the expected status.
+     * The check and the write happen in one statement, so concurrent callers cannot both succeed.
+     * The version is incremented so concurrent optimistic writers of the same book detect the change.
+     * The cached row of this book is soft-locked until the transaction completes and the cached status
+     * listings are evicted; the rest of the book cache is left alone.
+     * @param isbn the ISBN of the book to update
+     * @param expectedStatus the status the book must currently have
+     * @param newStatus the status to set
+     * @return the number of updated rows: 1 if the status was changed, 0 otherwise
+     */
+    int updateAvailabilityIfCurrent(String isbn, BookAvailabilityStatus expectedStatus, BookAvailabilityStatus newStatus);
+    
+    /**
+     * Write pending changes to the database and detach every loaded entity, so that a long
+     * import does not accumulate managed books
+     */
+    void flushAndClear();
+}
@@ -0,0 +1,117 @@
+package com.love.repository;
+
+import com.love.entity.Book;
+import com.love.enums.BookAvailabilityStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Cache;
+import org.hibernate.Session;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.query.NativeQuery;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+
+/**
+ * JPA implementation of {@link BookRepositoryCustom}, picked up by Spring Data by its name.
+ * Transactional like the derived methods, since the Hibernate session is only open inside one.
+ */
+@Transactional
+public class BookRepositoryCustomImpl implements BookRepositoryCustom {
+    
+    private static final String UPDATE_AVAILABILITY_SQL = "UPDATE books SET availability_status = ?, version = version + 1 "
+            + "WHERE isbn = ? AND availability_status = ?";
+    
+    /**
+     * Query space of the availability update. No entity maps to it, so Hibernate does not treat the
+     * statement as touching every table and empty the whole book region; the one book is locked below.
+     */
+    private static final String AVAILABILITY_QUERY_SPACE = "book_availability";
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Book> findByIsbn(String isbn) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Book.class)
+                .loadOptional(isbn);
+    }
+    
+    @Override
+    public int updateAvailabilityIfCurrent(String isbn, BookAvailabilityStatus expectedStatus, BookAvailabilityStatus newStatus) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        session.flush();
+        
+        // The ISBN to id mapping never changes, so it resolves from the natural id cache
+        Book reference = session.bySimpleNaturalId(Book.class).getReference(isbn);
+        if (reference == null) {
+            return 0;
+        }
+        lockCachedBook(session, entityManager.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(reference));
+        
+        int updated = entityManager.createNativeQuery(UPDATE_AVAILABILITY_SQL)
+                .setParameter(1, newStatus.name())
+                .setParameter(2, isbn)
+                .setParameter(3, expectedStatus.name())
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(AVAILABILITY_QUERY_SPACE)
+                .executeUpdate();
+        session.clear();
+        
+        if (updated > 0) {
+            evictAvailabilityListings(session);
+        }
+        return updated;
+    }
+    
+    @Override
+    public void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+    
+    /**
+     * Soft-lock the cached row of a book until the transaction completes, as Hibernate does for its
+     * own updates. While locked the row is read from the database and not cached; once unlocked, only
+     * sessions that started after the transaction completed can cache it again.
+     */
+    private static void lockCachedBook(SessionImplementor session, Object id) {
+        EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(Book.class);
+        EntityDataAccess cacheAccess = persister.getCacheAccessStrategy();
+        if (cacheAccess == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Object key = cacheAccess.generateCacheKey(id, persister, session.getFactory(), session.getTenantIdentifier());
+        SoftLock lock = cacheAccess.lockItem(session, key, null);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                cacheAccess.unlockItem(session, key, lock);
+            }
+        });
+    }
+    
+    /**
+     * Evict the cached status listings now, and again once the transaction completes, in case a
+     * concurrent reader cached the old listing in between
+     */
+    private static void evictAvailabilityListings(Session session) {
+        Cache cache = session.getSessionFactory().getCache();
+        cache.evictQueryRegion(BookRepository.AVAILABILITY_QUERY_CACHE_REGION);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.evictQueryRegion(BookRepository.AVAILABILITY_QUERY_CACHE_REGION);
+                }
+            });
+        }
+    }
+}
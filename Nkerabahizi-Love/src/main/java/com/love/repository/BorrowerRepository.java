@@ -0,0 +1,61 @@
+package com.love.repository;
+
+import com.love.entity.Borrower;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.RepositoryDefinition;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+@RepositoryDefinition(domainClass = Borrower.class, idClass = Long.class)
+public interface BorrowerRepository {
+    
+    /**
+     * Save a borrower, inserting it if it has no id yet
+     * @param borrower the borrower to save
+     * @return the saved borrower
+     */
+    <S extends Borrower> S save(S borrower);
+    
+    /**
+     * Save a borrower and write it to the database right away, so a unique name conflict surfaces here
+     * @param borrower the borrower to save
+     * @return the saved borrower
+     */
+    <S extends Borrower> S saveAndFlush(S borrower);
+    
+    /**
+     * Find a borrower by id
+     * @param id the borrower id
+     * @return Optional containing the borrower if found
+     */
+    Optional<Borrower> findById(Long id);
+    
+    /**
+     * Check if a borrower exists by id
+     * @param id the borrower id
+     * @return true if the borrower exists
+     */
+    boolean existsById(Long id);
+    
+    /**
+     * Find a borrower by name
+     * @param name the borrower name
+     * @return Optional containing the borrower if found
+     */
+    Optional<Borrower> findByName(String name);
+    
+    /**
+     * Find a borrower by name and lock the row until the transaction ends, so that borrows by
+     * the same borrower run one at a time
+     * @param name the borrower name
+     * @return Optional containing the locked borrower if found
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Borrower b WHERE b.name = :name")
+    Optional<Borrower> findByNameForUpdate(@Param("name") String name);
+}
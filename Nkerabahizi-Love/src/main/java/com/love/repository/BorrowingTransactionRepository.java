@@ -1,16 +1,64 @@
 package com.love.repository;
 
+import com.love.dto.BorrowingResponse;
 import com.love.entity.Book;
 import com.love.entity.BorrowingTransaction;
 import com.love.enums.BorrowingStatus;
-import org.springframework.data.jpa.repository.JpaRepository;
+import com.love.index.IndexedLoan;
+import com.love.overdue.ScheduledLoan;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.RepositoryDefinition;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
-public interface BorrowingTransactionRepository extends JpaRepository<BorrowingTransaction, Long> {
+@RepositoryDefinition(domainClass = BorrowingTransaction.class, idClass = Long.class)
+public interface BorrowingTransactionRepository {
+    
+    /**
+     * Number of rows fetched per JDBC round trip when streaming transactions
+     */
+    int STREAM_FETCH_SIZE = 500;
+    
+    /**
+     * Builds BorrowingResponse rows straight from one join with books; no entity is hydrated
+     */
+    String BORROWING_RESPONSE_QUERY = "SELECT new com.love.dto.BorrowingResponse(" +
+            "t.id, b.title, b.isbn, t.borrowerName, t.borrowDate, t.dueDate, t.returnDate, t.status) " +
+            "FROM BorrowingTransaction t JOIN t.book b";
+    
+    /**
+     * Save a borrowing transaction, inserting it if it has no id yet
+     * @param transaction the transaction to save
+     * @return the saved transaction
+     */
+    <S extends BorrowingTransaction> S save(S transaction);
+    
+    /**
+     * Find a borrowing transaction by id
+     * @param id the transaction id
+     * @return Optional containing the transaction if found
+     */
+    Optional<BorrowingTransaction> findById(Long id);
+    
+    /**
+     * Check if a borrowing transaction exists by id
+     * @param id the transaction id
+     * @return true if the transaction exists
+     */
+    boolean existsById(Long id);
     
     /**
      * Find all transactions for a specific book
@@ -40,4 +88,138 @@ public interface BorrowingTransactionRepository extends JpaRepository<BorrowingT
      * @return Optional containing the most recent pending transaction if found
      */
     Optional<BorrowingTransaction> findFirstByBookAndStatusOrderByBorrowDateDesc(Book book, BorrowingStatus status);
-} 
\ No newline at end of file
+    
+    /**
+     * Find a transaction by id together with its book
+     * @param id the transaction id
+     * @return Optional containing the transaction with its book loaded if found
+     */
+    @Query("SELECT t FROM BorrowingTransaction t JOIN FETCH t.book WHERE t.id = :id")
+    Optional<BorrowingTransaction> findByIdWithBook(@Param("id") Long id);
+    
+    /**
+     * Atomically move a transaction to a new status, but only if it currently has one of the expected statuses
+     * @param id the transaction id
+     * @param expectedStatuses the statuses the transaction may currently have
+     * @param newStatus the status to set
+     * @param returnDate the return date to set
+     * @return the number of updated rows: 1 if the status was changed, 0 otherwise
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BorrowingTransaction t SET t.status = :newStatus, t.returnDate = :returnDate, " +
+           "t.version = t.version + 1 " +
+           "WHERE t.id = :id AND t.status IN :expectedStatuses")
+    int updateStatusIfCurrent(@Param("id") Long id,
+                              @Param("expectedStatuses") Collection<BorrowingStatus> expectedStatuses,
+                              @Param("newStatus") BorrowingStatus newStatus,
+                              @Param("returnDate") LocalDateTime returnDate);
+    
+    /**
+     * Find all transactions as responses, ordered by id
+     * @return List of borrowing responses
+     */
+    @Query(BORROWING_RESPONSE_QUERY + " ORDER BY t.id")
+    List<BorrowingResponse> findAllResponses();
+    
+    /**
+     * Find the transactions with a given status as responses, ordered by id
+     * @param status the status to filter by
+     * @return List of borrowing responses with the specified status
+     */
+    @Query(BORROWING_RESPONSE_QUERY + " WHERE t.status = :status ORDER BY t.id")
+    List<BorrowingResponse> findResponsesByStatus(@Param("status") BorrowingStatus status);
+    
+    /**
+     * Find a transaction by id as a response
+     * @param id the transaction id
+     * @return Optional containing the borrowing response if found
+     */
+    @Query(BORROWING_RESPONSE_QUERY + " WHERE t.id = :id")
+    Optional<BorrowingResponse> findResponseById(@Param("id") Long id);
+    
+    /**
+     * Stream all transactions as responses, ordered by id.
+     * Rows are fetched from the JDBC cursor in chunks of {@value #STREAM_FETCH_SIZE}; since no
+     * entity is hydrated, nothing accumulates in the persistence context while streaming.
+     * The stream must be consumed inside a transaction and closed afterwards.
+     * @return Stream of all borrowing responses
+     */
+    @Query(BORROWING_RESPONSE_QUERY + " ORDER BY t.id")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE))
+    Stream<BorrowingResponse> streamAllResponses();
+    
+    /**
+     * Stream the fields the circulation statistics are built from, for every transaction.
+     * Reads only the transactions table. Must be consumed inside a transaction and closed afterwards.
+     * @return Stream of indexed loan projections
+     */
+    @Query("SELECT new com.love.index.IndexedLoan(t.id, t.book.id, t.borrowerName, t.status, t.returnDate) " +
+           "FROM BorrowingTransaction t")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE))
+    Stream<IndexedLoan> streamIndexedLoans();
+    
+    /**
+     * Stream the id and due date of every PENDING transaction, to schedule overdue detection.
+     * Must be consumed inside a transaction and closed afterwards.
+     * @return Stream of scheduled loan projections
+     */
+    @Query("SELECT new com.love.overdue.ScheduledLoan(t.id, t.dueDate) FROM BorrowingTransaction t " +
+           "WHERE t.status = com.love.enums.BorrowingStatus.PENDING")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE))
+    Stream<ScheduledLoan> streamPendingLoans();
+    
+    /**
+     * Mark PENDING transactions as OVERDUE in one statement. Transactions that were returned
+     * meanwhile or are not yet due are left untouched.
+     * @param ids the transaction ids
+     * @param now the current time
+     * @return the number of transactions marked as overdue
+     */
+    @Modifying
+    @Query("UPDATE BorrowingTransaction t SET t.status = com.love.enums.BorrowingStatus.OVERDUE, " +
+           "t.version = t.version + 1 " +
+           "WHERE t.id IN :ids AND t.status = com.love.enums.BorrowingStatus.PENDING AND t.dueDate <= :now")
+    int markOverdue(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+    
+    /**
+     * Count a borrower's loans with the given statuses, from the borrower index alone
+     * @param borrowerId the borrower id
+     * @param statuses the statuses to count
+     * @return the number of matching loans
+     */
+    @Query("SELECT COUNT(t) FROM BorrowingTransaction t WHERE t.borrower.id = :borrowerId AND t.status IN :statuses")
+    long countByBorrowerAndStatuses(@Param("borrowerId") Long borrowerId,
+                                    @Param("statuses") Collection<BorrowingStatus> statuses);
+    
+    /**
+     * Find the first page of a borrower's loans as responses, most recent first
+     * @param borrowerId the borrower id
+     * @param statuses the statuses to include
+     * @param limit the maximum number of loans to return
+     * @return List of at most {@code limit} borrowing responses ordered by borrow date and id, descending
+     */
+    @Query(BORROWING_RESPONSE_QUERY + " WHERE t.borrower.id = :borrowerId AND t.status IN :statuses " +
+           "ORDER BY t.borrowDate DESC, t.id DESC")
+    List<BorrowingResponse> findBorrowerLoans(@Param("borrowerId") Long borrowerId,
+                                              @Param("statuses") Collection<BorrowingStatus> statuses,
+                                              Limit limit);
+    
+    /**
+     * Find the next page of a borrower's loans as responses, using keyset pagination on
+     * (borrow date, id) so that no row before the cursor is read or skipped
+     * @param borrowerId the borrower id
+     * @param statuses the statuses to include
+     * @param beforeDate the borrow date of the last loan of the previous page
+     * @param beforeId the id of the last loan of the previous page
+     * @param limit the maximum number of loans to return
+     * @return List of at most {@code limit} borrowing responses ordered by borrow date and id, descending
+     */
+    @Query(BORROWING_RESPONSE_QUERY + " WHERE t.borrower.id = :borrowerId AND t.status IN :statuses " +
+           "AND (t.borrowDate < :beforeDate OR (t.borrowDate = :beforeDate AND t.id < :beforeId)) " +
+           "ORDER BY t.borrowDate DESC, t.id DESC")
+    List<BorrowingResponse> findBorrowerLoansBefore(@Param("borrowerId") Long borrowerId,
+                                                    @Param("statuses") Collection<BorrowingStatus> statuses,
+                                                    @Param("beforeDate") LocalDateTime beforeDate,
+                                                    @Param("beforeId") Long beforeId,
+                                                    Limit limit);
+}
@@ -0,0 +1,134 @@
+package com.love.service;
+
+import com.love.cache.CatalogVersions;
+import com.love.dto.BookResponse;
+import com.love.dto.IndexConsistencyResponse;
+import com.love.enums.BookAvailabilityStatus;
+import com.love.event.BookAvailabilityChangedEvent;
+import com.love.event.BookCreatedEvent;
+import com.love.event.BooksImportedEvent;
+import com.love.index.AvailabilityIndex;
+import com.love.repository.BookRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the {@link AvailabilityIndex} in line with the database. Committed changes are applied by
+ * reading the status of the changed books again, so listeners running out of order cannot leave
+ * an older status behind. The listeners are not transactional: after a commit, their reads join
+ * the finished transaction's connection.
+ */
+@Service
+public class AvailabilityIndexService {
+    
+    private static final int MAX_SAMPLE_MISMATCHES = 20;
+    
+    private final BookRepository bookRepository;
+    private final AvailabilityIndex availabilityIndex;
+    
+    @Autowired
+    public AvailabilityIndexService(BookRepository bookRepository, AvailabilityIndex availabilityIndex) {
+        this.bookRepository = bookRepository;
+        this.availabilityIndex = availabilityIndex;
+    }
+    
+    /**
+     * Rebuild the availability index from the database, once at startup and on demand
+     * @return the number of available books indexed
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public long rebuildIndex() {
+        availabilityIndex.rebuild(() -> bookRepository.streamIdsByAvailabilityStatus(BookAvailabilityStatus.AVAILABLE),
+                this::findAvailableAmong);
+        return availabilityIndex.availableCount();
+    }
+    
+    /**
+     * Compare the availability index with the database, word by word.
+     * A change committed while the check runs may show up as a transient mismatch.
+     * @return the number of books that differ, with a sample of their ids
+     */
+    @Transactional(readOnly = true)
+    public IndexConsistencyResponse checkConsistency() {
+        long[] indexed = availabilityIndex.snapshot();
+        long indexedCount = Arrays.stream(indexed).map(Long::bitCount).sum();
+        
+        long[] stored = new long[indexed.length];
+        long storedCount = 0;
+        try (Stream<Long> ids = bookRepository.streamIdsByAvailabilityStatus(BookAvailabilityStatus.AVAILABLE)) {
+            for (Long id : (Iterable<Long>) ids::iterator) {
+                int wordIndex = (int) (id >>> 6);
+                if (wordIndex >= stored.length) {
+                    stored = Arrays.copyOf(stored, Math.max(wordIndex + 1, stored.length * 2));
+                }
+                stored[wordIndex] |= 1L << id;
+                storedCount++;
+            }
+        }
+        
+        long missing = 0;
+        long unexpected = 0;
+        List<Long> sample = new ArrayList<>();
+        for (int i = 0; i < Math.max(indexed.length, stored.length); i++) {
+            long indexedWord = i < indexed.length ? indexed[i] : 0L;
+            long storedWord = i < stored.length ? stored[i] : 0L;
+            long diff = indexedWord ^ storedWord;
+            if (diff == 0) {
+                continue;
+            }
+            missing += Long.bitCount(diff & storedWord);
+            unexpected += Long.bitCount(diff & indexedWord);
+            while (diff != 0 && sample.size() < MAX_SAMPLE_MISMATCHES) {
+                sample.add(((long) i << 6) + Long.numberOfTrailingZeros(diff));
+                diff &= diff - 1;
+            }
+        }
+        return new IndexConsistencyResponse(indexedCount, storedCount, missing, unexpected, sample);
+    }
+    
+    /**
+     * Index a newly created book once its transaction commits
+     * @param event the book created event
+     */
+    @Order(CatalogVersions.CONTENT_LISTENER_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookCreated(BookCreatedEvent event) {
+        availabilityIndex.refresh(List.of(event.getBook().getId()), this::findAvailableAmong);
+    }
+    
+    /**
+     * Index imported books once their transaction commits
+     * @param event the books imported event
+     */
+    @Order(CatalogVersions.CONTENT_LISTENER_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksImported(BooksImportedEvent event) {
+        availabilityIndex.refresh(event.getBooks().stream().map(BookResponse::getId).toList(), this::findAvailableAmong);
+    }
+    
+    /**
+     * Refresh the bit of a book whose availability change has committed
+     * @param event the availability changed event
+     */
+    @Order(CatalogVersions.CONTENT_LISTENER_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAvailabilityChanged(BookAvailabilityChangedEvent event) {
+        availabilityIndex.refresh(List.of(event.getBookId()), this::findAvailableAmong);
+    }
+    
+    private List<Long> findAvailableAmong(Collection<Long> bookIds) {
+        return bookRepository.findIdsWithStatusAmong(bookIds, BookAvailabilityStatus.AVAILABLE);
+    }
+}
@@ -0,0 +1,41 @@
+package com.love.service;
+
+import com.love.cache.BookCache;
+import com.love.repository.BookRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@Transactional(readOnly = true)
+public class BookCacheWarmupService {
+    
+    private final BookRepository bookRepository;
+    private final BookCache bookCache;
+    private final boolean enabled;
+    
+    @Autowired
+    public BookCacheWarmupService(BookRepository bookRepository,
+                                  BookCache bookCache,
+                                  @Value("${library.cache.books.warm-up:false}") boolean enabled) {
+        this.bookRepository = bookRepository;
+        this.bookCache = bookCache;
+        this.enabled = enabled;
+    }
+    
+    /**
+     * Load the newest books into the ISBN cache in one streamed query at startup, so that the first
+     * lookups after a restart do not each go to disk. The application reports ready only afterwards.
+     * @return the number of books cached
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public long warmUp() {
+        if (!enabled) {
+            return 0;
+        }
+        return bookCache.warm(bookRepository::streamBookResponses);
+    }
+}
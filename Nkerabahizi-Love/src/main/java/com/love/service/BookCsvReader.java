@@ -0,0 +1,118 @@
+package com.love.service;
+
+import com.love.dto.BookRequest;
+import com.love.enums.BookAvailabilityStatus;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads book rows from CSV input (RFC 4180 quoting, comma separated).
+ * Columns are title, author, isbn and an optional availability status that defaults to AVAILABLE.
+ * Blank lines are skipped, as is a leading header row whose first cell is "title".
+ */
+class BookCsvReader {
+    
+    private final BufferedReader reader;
+    private boolean firstRecord = true;
+    
+    BookCsvReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+    }
+    
+    /**
+     * Read the next non-blank data record
+     * @return the cells of the record, or null at the end of the input
+     * @throws IOException if reading fails
+     */
+    List<String> nextRecord() throws IOException {
+        List<String> record;
+        while ((record = readRecord()) != null) {
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            if (firstRecord) {
+                firstRecord = false;
+                if ("title".equalsIgnoreCase(record.get(0).trim())) {
+                    continue;
+                }
+            }
+            return record;
+        }
+        return null;
+    }
+    
+    /**
+     * Convert a CSV record to a book request
+     * @param record the cells of the record
+     * @return the book request
+     * @throws IllegalArgumentException if the record has the wrong shape or an unknown status
+     */
+    static BookRequest toBookRequest(List<String> record) {
+        if (record.size() < 3 || record.size() > 4) {
+            throw new IllegalArgumentException("Expected 3 or 4 columns (title,author,isbn[,availabilityStatus]) but got " + record.size());
+        }
+        
+        BookAvailabilityStatus status = BookAvailabilityStatus.AVAILABLE;
+        if (record.size() == 4 && !record.get(3).isBlank()) {
+            try {
+                status = BookAvailabilityStatus.valueOf(record.get(3).trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown availability status " + record.get(3).trim());
+            }
+        }
+        return new BookRequest(record.get(0).trim(), record.get(1).trim(), record.get(2).trim(), status);
+    }
+    
+    /**
+     * Read one physical record, honouring quoted cells that contain commas, quotes or line breaks
+     * @return the cells of the record, or null at the end of the input
+     * @throws IOException if reading fails
+     */
+    private List<String> readRecord() throws IOException {
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        boolean read = false;
+        int c;
+        
+        while ((c = reader.read()) != -1) {
+            read = true;
+            char ch = (char) c;
+            if (quoted) {
+                if (ch != '"') {
+                    cell.append(ch);
+                    continue;
+                }
+                // A doubled quote is an escaped quote, anything else closes the quoted cell
+                reader.mark(1);
+                if (reader.read() == '"') {
+                    cell.append('"');
+                } else {
+                    quoted = false;
+                    reader.reset();
+                }
+            } else if (ch == '"' && cell.length() == 0) {
+                quoted = true;
+            } else if (ch == ',') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+            } else if (ch == '\n') {
+                cells.add(cell.toString());
+                return cells;
+            } else if (ch != '\r') {
+                cell.append(ch);
+            }
+        }
+        
+        if (!read) {
+            return null;
+        }
+        cells.add(cell.toString());
+        return cells;
+    }
+}
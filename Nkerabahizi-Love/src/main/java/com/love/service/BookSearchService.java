@@ -0,0 +1,133 @@
+package com.love.service;
+
+import com.love.dto.BookResponse;
+import com.love.dto.SearchPageResponse;
+import com.love.dto.SuggestionResponse;
+import com.love.entity.Book;
+import com.love.index.BookSearchIndex;
+import com.love.index.BookSuggestionIndex;
+import com.love.index.IndexedBook;
+import com.love.repository.BookRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+@Transactional(readOnly = true)
+public class BookSearchService {
+    
+    /**
+     * Deepest ranked hit that can be paged to; deeper pages would need a larger top-k heap per query
+     */
+    public static final int MAX_RESULT_WINDOW = 1000;
+    public static final int DEFAULT_SUGGESTIONS = 10;
+    public static final int MAX_SUGGESTIONS = 20;
+    
+    private final BookRepository bookRepository;
+    private final BookSearchIndex searchIndex;
+    private final BookSuggestionIndex suggestionIndex;
+    
+    @Autowired
+    public BookSearchService(BookRepository bookRepository,
+                             BookSearchIndex searchIndex,
+                             BookSuggestionIndex suggestionIndex) {
+        this.bookRepository = bookRepository;
+        this.searchIndex = searchIndex;
+        this.suggestionIndex = suggestionIndex;
+    }
+    
+    /**
+     * Rebuild the search and suggestion indexes from the database, once at startup and on demand
+     * @return the number of books indexed
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public int rebuildIndex() {
+        // Started before the stream opens, so books committed while it is read are not lost
+        BookSuggestionIndex.Rebuild suggestions = suggestionIndex.startRebuild();
+        BookSearchIndex.Rebuild search;
+        try {
+            search = searchIndex.startRebuild();
+        } catch (RuntimeException e) {
+            suggestions.abort();
+            throw e;
+        }
+        
+        // One pass over the books table feeds both indexes
+        try (Stream<IndexedBook> books = bookRepository.streamIndexedBooks()) {
+            books.forEach(book -> {
+                suggestions.add(book);
+                search.add(book);
+            });
+        } catch (RuntimeException e) {
+            suggestions.abort();
+            search.abort();
+            throw e;
+        }
+        suggestions.finish();
+        return search.finish();
+    }
+    
+    /**
+     * Search books by title and author. Ranking happens in the search index;
+     * only the books on the requested page are loaded from the database.
+     * @param query the free text query; every term must match the title or the author
+     * @param page the zero-based page number
+     * @param size the requested page size, clamped to [1, MAX_PAGE_SIZE]
+     * @return the page of ranked book responses
+     * @throws RuntimeException if the query is blank or the page is beyond the result window
+     */
+    public SearchPageResponse<BookResponse> searchBooks(String query, Integer page, Integer size) {
+        if (query == null || query.isBlank()) {
+            throw new RuntimeException("Search query is required");
+        }
+        int pageNumber = page != null ? page : 0;
+        int pageSize = size != null ? Math.max(1, Math.min(size, BookService.MAX_PAGE_SIZE)) : BookService.DEFAULT_PAGE_SIZE;
+        if (pageNumber < 0) {
+            throw new RuntimeException("Page must not be negative");
+        }
+        if ((long) (pageNumber + 1) * pageSize > MAX_RESULT_WINDOW) {
+            throw new RuntimeException("Search results are limited to the first " + MAX_RESULT_WINDOW + " hits");
+        }
+        
+        BookSearchIndex.SearchResult result = searchIndex.search(query, pageNumber * pageSize, pageSize);
+        List<Long> ids = Arrays.stream(result.getBookIds()).boxed().collect(Collectors.toList());
+        Map<Long, Book> books = bookRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        
+        // Keep the index ranking; skip any hit whose row is gone
+        List<BookResponse> content = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Book book = books.get(id);
+            if (book != null) {
+                content.add(ResponseMapper.toBookResponse(book));
+            }
+        }
+        
+        boolean hasNext = result.getTotalHits() > (long) (pageNumber + 1) * pageSize;
+        return new SearchPageResponse<>(query, content, pageNumber, content.size(), result.getTotalHits(), hasNext);
+    }
+    
+    /**
+     * Suggest titles and authors starting with what the user has typed, served entirely from memory
+     * @param prefix the text typed so far
+     * @param limit the maximum number of suggestions, clamped to [1, MAX_SUGGESTIONS]
+     * @param availableOnly only suggest titles and authors with at least one available book
+     * @return the suggestions, those shared by the most books first
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<SuggestionResponse> suggest(String prefix, Integer limit, boolean availableOnly) {
+        int count = limit != null ? Math.max(1, Math.min(limit, MAX_SUGGESTIONS)) : DEFAULT_SUGGESTIONS;
+        return suggestionIndex.suggest(prefix, count, availableOnly);
+    }
+}
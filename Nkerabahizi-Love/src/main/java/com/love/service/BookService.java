@@ -1,27 +1,76 @@
 package com.love.service;
 
+import com.love.cache.BookCache;
 import com.love.dto.BookRequest;
 import com.love.dto.BookResponse;
+import com.love.dto.BulkImportError;
+import com.love.dto.BulkImportResponse;
+import com.love.dto.CursorPageResponse;
 import com.love.entity.Book;
 import com.love.enums.BookAvailabilityStatus;
+import com.love.event.BookAvailabilityChangedEvent;
+import com.love.event.BookCreatedEvent;
+import com.love.event.BooksImportedEvent;
+import com.love.index.AvailabilityIndex;
 import com.love.repository.BookRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class BookService {
     
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int IMPORT_CHUNK_SIZE = 1000;
+    
     private final BookRepository bookRepository;
+    private final BookCache bookCache;
+    private final AvailabilityIndex availabilityIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Validator validator;
+    private final TransactionTemplate chunkTransaction;
     
     @Autowired
-    public BookService(BookRepository bookRepository) {
+    public BookService(BookRepository bookRepository,
+                       BookCache bookCache,
+                       AvailabilityIndex availabilityIndex,
+                       ApplicationEventPublisher eventPublisher,
+                       Validator validator,
+                       PlatformTransactionManager transactionManager) {
         this.bookRepository = bookRepository;
+        this.bookCache = bookCache;
+        this.availabilityIndex = availabilityIndex;
+        this.eventPublisher = eventPublisher;
+        this.validator = validator;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
     }
     
     /**
@@ -36,36 +85,191 @@ public class BookService {
             throw new RuntimeException("Book with ISBN " + bookRequest.getIsbn() + " already exists");
         }
         
-        Book book = new Book();
-        book.setTitle(bookRequest.getTitle());
-        book.setAuthor(bookRequest.getAuthor());
-        book.setIsbn(bookRequest.getIsbn());
-        book.setAvailabilityStatus(bookRequest.getAvailabilityStatus());
+        Book savedBook = bookRepository.save(convertToBook(bookRequest));
+        BookResponse bookResponse = ResponseMapper.toBookResponse(savedBook);
+        
+        eventPublisher.publishEvent(new BookCreatedEvent(bookResponse));
+        return bookResponse;
+    }
+    
+    /**
+     * Import many books at once. Invalid rows and duplicate ISBNs (within the import or
+     * already in the catalog) are reported per row and skipped; the other rows are inserted
+     * in JDBC batches. Each chunk commits in its own transaction; if one fails, its rows are
+     * reported as errors and the other chunks are still imported.
+     * @param bookRequests the books to import, in row order
+     * @return the import summary with per-row errors
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkImportResponse importBooks(List<BookRequest> bookRequests) {
+        BulkImportResponse result = new BulkImportResponse();
+        Set<String> seenIsbns = new HashSet<>();
+        Map<Integer, BookRequest> chunk = new LinkedHashMap<>();
+        
+        for (int i = 0; i < bookRequests.size(); i++) {
+            chunk.put(i + 1, bookRequests.get(i));
+            if (chunk.size() == IMPORT_CHUNK_SIZE) {
+                importChunk(chunk, seenIsbns, result);
+            }
+        }
+        importChunk(chunk, seenIsbns, result);
+        
+        result.setReceived(bookRequests.size());
+        return result;
+    }
+    
+    /**
+     * Import books from CSV with the columns title,author,isbn[,availabilityStatus].
+     * Rows are parsed and inserted chunk by chunk, so the input is never held in memory.
+     * Each chunk commits in its own transaction, as in {@link #importBooks}.
+     * @param csv the CSV input
+     * @return the import summary with per-row errors
+     * @throws UncheckedIOException if the input cannot be read
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkImportResponse importBooksFromCsv(Reader csv) {
+        BulkImportResponse result = new BulkImportResponse();
+        Set<String> seenIsbns = new HashSet<>();
+        Map<Integer, BookRequest> chunk = new LinkedHashMap<>();
+        BookCsvReader reader = new BookCsvReader(csv);
+        int row = 0;
+        
+        try {
+            List<String> record;
+            while ((record = reader.nextRecord()) != null) {
+                row++;
+                try {
+                    chunk.put(row, BookCsvReader.toBookRequest(record));
+                } catch (IllegalArgumentException e) {
+                    String isbn = record.size() >= 3 ? record.get(2).trim() : null;
+                    result.getErrors().add(new BulkImportError(row, isbn, e.getMessage()));
+                }
+                if (chunk.size() == IMPORT_CHUNK_SIZE) {
+                    importChunk(chunk, seenIsbns, result);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read CSV input", e);
+        }
+        importChunk(chunk, seenIsbns, result);
         
-        Book savedBook = bookRepository.save(book);
-        return convertToBookResponse(savedBook);
+        // Parse errors are reported as rows are read, validation errors per chunk
+        result.getErrors().sort(Comparator.comparingInt(BulkImportError::getRow));
+        result.setReceived(row);
+        return result;
     }
     
     /**
-     * Find a book by ISBN
+     * Validate a chunk of import rows, then check their ISBNs with one query and insert the valid
+     * ones in a new transaction. If that transaction fails, every row it would have inserted is
+     * reported as an error.
+     * @param chunk the rows to import keyed by row number; cleared on return
+     * @param seenIsbns the ISBNs already seen earlier in this import
+     * @param result the summary to add imported counts and errors to
+     */
+    private void importChunk(Map<Integer, BookRequest> chunk, Set<String> seenIsbns, BulkImportResponse result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        
+        Map<Integer, BookRequest> candidates = new LinkedHashMap<>();
+        for (Map.Entry<Integer, BookRequest> entry : chunk.entrySet()) {
+            BookRequest request = entry.getValue();
+            if (request == null) {
+                result.getErrors().add(new BulkImportError(entry.getKey(), null, "Book is required"));
+                continue;
+            }
+            
+            Set<ConstraintViolation<BookRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                String message = violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining(", "));
+                result.getErrors().add(new BulkImportError(entry.getKey(), request.getIsbn(), message));
+            } else if (!seenIsbns.add(request.getIsbn())) {
+                result.getErrors().add(new BulkImportError(entry.getKey(), request.getIsbn(),
+                        "Duplicate ISBN " + request.getIsbn() + " in import"));
+            } else {
+                candidates.put(entry.getKey(), request);
+            }
+        }
+        chunk.clear();
+        if (candidates.isEmpty()) {
+            return;
+        }
+        
+        List<BulkImportError> errors = new ArrayList<>();
+        try {
+            Integer imported = chunkTransaction.execute(status -> saveChunk(candidates, errors));
+            result.getErrors().addAll(errors);
+            result.setImported(result.getImported() + imported);
+        } catch (DataAccessException e) {
+            // Only this chunk is rolled back; the chunks before it stay committed
+            String message = "Chunk rolled back: " + e.getMostSpecificCause().getMessage();
+            candidates.forEach((row, request) -> result.getErrors().add(new BulkImportError(row, request.getIsbn(), message)));
+        }
+    }
+    
+    /**
+     * Insert the books of a validated chunk whose ISBNs are not in the catalog yet.
+     * The persistence context is flushed and cleared afterwards so it does not grow with the import.
+     * @param candidates the valid rows keyed by row number
+     * @param errors the list to add rows with an existing ISBN to
+     * @return the number of books inserted
+     */
+    private int saveChunk(Map<Integer, BookRequest> candidates, List<BulkImportError> errors) {
+        // One query for the whole chunk instead of one existsByIsbn per book
+        Set<String> existingIsbns = bookRepository.findExistingIsbns(candidates.values().stream()
+                .map(BookRequest::getIsbn)
+                .collect(Collectors.toList()));
+        
+        List<Book> books = new ArrayList<>(candidates.size());
+        for (Map.Entry<Integer, BookRequest> entry : candidates.entrySet()) {
+            String isbn = entry.getValue().getIsbn();
+            if (existingIsbns.contains(isbn)) {
+                errors.add(new BulkImportError(entry.getKey(), isbn, "Book with ISBN " + isbn + " already exists"));
+            } else {
+                books.add(convertToBook(entry.getValue()));
+            }
+        }
+        
+        bookRepository.saveAll(books);
+        bookRepository.flushAndClear();
+        
+        if (!books.isEmpty()) {
+            eventPublisher.publishEvent(new BooksImportedEvent(books.stream()
+                    .map(ResponseMapper::toBookResponse)
+                    .collect(Collectors.toList())));
+        }
+        return books.size();
+    }
+    
+    /**
+     * Find a book by ISBN. Served from the book cache; only a miss reaches the database.
+     * Inside a read-write transaction the book is read from the database and not cached,
+     * since it may carry changes other threads must not see before they commit.
      * @param isbn the ISBN to search for
      * @return Optional containing the book response if found
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Optional<BookResponse> findBookByIsbn(String isbn) {
-        return bookRepository.findByIsbn(isbn)
-                .map(this::convertToBookResponse);
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return loadBookByIsbn(isbn);
+        }
+        return bookCache.get(isbn, this::loadBookByIsbn);
     }
     
     /**
-     * Get book availability status by ISBN
+     * Get book availability status by ISBN. Served from the book cache; only a miss reaches the database.
      * @param isbn the ISBN to check
      * @return the availability status as string
      * @throws RuntimeException if book not found
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public String getBookAvailability(String isbn) {
-        Book book = bookRepository.findByIsbn(isbn)
+        BookResponse book = findBookByIsbn(isbn)
                 .orElseThrow(() -> new RuntimeException("Book with ISBN " + isbn + " not found"));
         
         return book.getAvailabilityStatus().toString();
@@ -78,49 +282,147 @@ public class BookService {
      * @return the updated book response
      * @throws RuntimeException if book not found
      */
+    @RetryOnConflict
     public BookResponse updateBookAvailability(String isbn, BookAvailabilityStatus status) {
         Book book = bookRepository.findByIsbn(isbn)
                 .orElseThrow(() -> new RuntimeException("Book with ISBN " + isbn + " not found"));
         
         book.setAvailabilityStatus(status);
         Book updatedBook = bookRepository.save(book);
-        return convertToBookResponse(updatedBook);
+        
+        eventPublisher.publishEvent(new BookAvailabilityChangedEvent(updatedBook.getId(), isbn, status));
+        return ResponseMapper.toBookResponse(updatedBook);
     }
     
     /**
-     * Get all books
-     * @return list of all book responses
+     * Get a page of books using keyset pagination on the book id
+     * @param cursor the id of the last book of the previous page, or null for the first page
+     * @param size the requested page size, clamped to [1, MAX_PAGE_SIZE]
+     * @param title optional case-insensitive title fragment
+     * @param author optional case-insensitive author fragment
+     * @param status optional availability status
+     * @return the page of book responses with the cursor of the next page
      */
     @Transactional(readOnly = true)
-    public List<BookResponse> getAllBooks() {
-        return bookRepository.findAll().stream()
-                .map(this::convertToBookResponse)
+    public CursorPageResponse<BookResponse> getBooks(Long cursor, Integer size, String title,
+                                                     String author, BookAvailabilityStatus status) {
+        int pageSize = resolvePageSize(size);
+        
+        // Fetch one extra row to know whether another page follows
+        List<Book> books = bookRepository.findPageAfterId(
+                cursor != null ? cursor : 0L,
+                containsPattern(title),
+                containsPattern(author),
+                status,
+                Limit.of(pageSize + 1));
+        
+        boolean hasNext = books.size() > pageSize;
+        List<BookResponse> content = books.stream()
+                .limit(pageSize)
+                .map(ResponseMapper::toBookResponse)
                 .collect(Collectors.toList());
+        
+        String nextCursor = hasNext ? String.valueOf(content.get(content.size() - 1).getId()) : null;
+        return new CursorPageResponse<>(content, nextCursor);
     }
     
     /**
-     * Get all available books
-     * @return list of available book responses
+     * Get a page of available books using keyset pagination on the book id
+     * @param cursor the id of the last book of the previous page, or null for the first page
+     * @param size the requested page size, clamped to [1, MAX_PAGE_SIZE]
+     * @param title optional case-insensitive title fragment
+     * @param author optional case-insensitive author fragment
+     * @return the page of available book responses with the cursor of the next page
      */
     @Transactional(readOnly = true)
-    public List<BookResponse> getAvailableBooks() {
-        return bookRepository.findByAvailabilityStatus(BookAvailabilityStatus.AVAILABLE).stream()
-                .map(this::convertToBookResponse)
+    public CursorPageResponse<BookResponse> getAvailableBooks(Long cursor, Integer size, String title, String author) {
+        if (containsPattern(title) != null || containsPattern(author) != null) {
+            return getBooks(cursor, size, title, author, BookAvailabilityStatus.AVAILABLE);
+        }
+        
+        // Without filters the page of ids comes from the availability index; only those rows are loaded
+        int pageSize = resolvePageSize(size);
+        long[] ids = availabilityIndex.availableIdsAfter(cursor != null ? cursor : 0L, pageSize + 1);
+        boolean hasNext = ids.length > pageSize;
+        List<Long> pageIds = Arrays.stream(ids)
+                .limit(pageSize)
+                .boxed()
                 .collect(Collectors.toList());
+        
+        // A book borrowed since the index was read is left out rather than shown as available
+        List<BookResponse> content = bookRepository.findAllById(pageIds).stream()
+                .filter(book -> book.getAvailabilityStatus() == BookAvailabilityStatus.AVAILABLE)
+                .sorted(Comparator.comparing(Book::getId))
+                .map(ResponseMapper::toBookResponse)
+                .collect(Collectors.toList());
+        
+        String nextCursor = hasNext ? String.valueOf(pageIds.get(pageIds.size() - 1)) : null;
+        return new CursorPageResponse<>(content, nextCursor);
+    }
+    
+    /**
+     * Count available books from the availability index, optionally within an id range
+     * @param fromId optional lowest book id to count
+     * @param toId optional highest book id to count
+     * @return the number of available books
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public long countAvailableBooks(Long fromId, Long toId) {
+        if (fromId == null && toId == null) {
+            return availabilityIndex.availableCount();
+        }
+        return availabilityIndex.countAvailable(fromId != null ? fromId : 0L, toId != null ? toId : Long.MAX_VALUE);
+    }
+    
+    /**
+     * Clamp a requested page size to the supported range
+     * @param size the requested page size, may be null
+     * @return the page size to use
+     */
+    private int resolvePageSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+    
+    /**
+     * Build a lower-case "contains" LIKE pattern, escaping LIKE wildcards in the input
+     * @param value the user supplied fragment
+     * @return the LIKE pattern, or null if the fragment is blank
+     */
+    private String containsPattern(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String escaped = value.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+    
+    /**
+     * Load a book by ISBN from the database
+     * @param isbn the ISBN to search for
+     * @return Optional containing the book response if found
+     */
+    private Optional<BookResponse> loadBookByIsbn(String isbn) {
+        return bookRepository.findByIsbn(isbn)
+                .map(ResponseMapper::toBookResponse);
     }
     
     /**
-     * Convert Book entity to BookResponse DTO
-     * @param book the book entity
-     * @return the book response DTO
+     * Convert BookRequest DTO to a new Book entity
+     * @param bookRequest the book request
+     * @return the unsaved book entity
      */
-    private BookResponse convertToBookResponse(Book book) {
-        return new BookResponse(
-                book.getId(),
-                book.getTitle(),
-                book.getAuthor(),
-                book.getIsbn(),
-                book.getAvailabilityStatus()
-        );
+    private Book convertToBook(BookRequest bookRequest) {
+        Book book = new Book();
+        book.setTitle(bookRequest.getTitle());
+        book.setAuthor(bookRequest.getAuthor());
+        book.setIsbn(bookRequest.getIsbn());
+        book.setAvailabilityStatus(bookRequest.getAvailabilityStatus());
+        return book;
     }
 } 
\ No newline at end of file
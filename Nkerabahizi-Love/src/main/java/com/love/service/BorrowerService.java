@@ -0,0 +1,144 @@
+package com.love.service;
+
+import com.love.dto.BorrowerResponse;
+import com.love.dto.BorrowingResponse;
+import com.love.dto.CursorPageResponse;
+import com.love.entity.Borrower;
+import com.love.enums.BorrowingStatus;
+import com.love.repository.BorrowerRepository;
+import com.love.repository.BorrowingTransactionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+@Transactional
+public class BorrowerService {
+    
+    private static final List<BorrowingStatus> ALL_STATUSES = Arrays.asList(BorrowingStatus.values());
+    private static final char CURSOR_SEPARATOR = '_';
+    
+    private final BorrowerRepository borrowerRepository;
+    private final BorrowingTransactionRepository borrowingTransactionRepository;
+    private final LoanPolicy loanPolicy;
+    
+    @Autowired
+    public BorrowerService(BorrowerRepository borrowerRepository,
+                           BorrowingTransactionRepository borrowingTransactionRepository,
+                           LoanPolicy loanPolicy) {
+        this.borrowerRepository = borrowerRepository;
+        this.borrowingTransactionRepository = borrowingTransactionRepository;
+        this.loanPolicy = loanPolicy;
+    }
+    
+    /**
+     * Find a borrower by name, registering them on their first borrow, and lock the borrower
+     * until the current transaction ends
+     * @param name the borrower name
+     * @return the locked borrower
+     * @throws OptimisticLockingFailureException if the same borrower was registered concurrently; a retry finds them
+     */
+    public Borrower lockBorrower(String name) {
+        Optional<Borrower> existing = borrowerRepository.findByNameForUpdate(name);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        try {
+            // The new row stays locked by this transaction until it commits
+            return borrowerRepository.saveAndFlush(new Borrower(name));
+        } catch (DataIntegrityViolationException e) {
+            throw new OptimisticLockingFailureException("Borrower " + name + " was registered concurrently", e);
+        }
+    }
+    
+    /**
+     * Count a borrower's PENDING and OVERDUE loans with one indexed query
+     * @param borrowerId the borrower id
+     * @return the number of open loans
+     */
+    public long countOpenLoans(Long borrowerId) {
+        return borrowingTransactionRepository.countByBorrowerAndStatuses(borrowerId, BorrowingService.OPEN_STATUSES);
+    }
+    
+    /**
+     * Get a borrower with their number of open loans
+     * @param borrowerId the borrower id
+     * @return Optional containing the borrower response if found
+     */
+    @Transactional(readOnly = true)
+    public Optional<BorrowerResponse> getBorrower(Long borrowerId) {
+        return borrowerRepository.findById(borrowerId).map(this::convertToBorrowerResponse);
+    }
+    
+    /**
+     * Get a borrower by name with their number of open loans
+     * @param name the borrower name
+     * @return Optional containing the borrower response if found
+     */
+    @Transactional(readOnly = true)
+    public Optional<BorrowerResponse> getBorrowerByName(String name) {
+        return borrowerRepository.findByName(name).map(this::convertToBorrowerResponse);
+    }
+    
+    /**
+     * Get a page of a borrower's loans, most recent first, using keyset pagination on (borrow date, id)
+     * @param borrowerId the borrower id
+     * @param status optional status to filter by
+     * @param cursor the nextCursor of the previous page, or null for the first page
+     * @param size the requested page size, clamped to [1, BookService.MAX_PAGE_SIZE]
+     * @return Optional containing the page of loans with the cursor of the next page, empty if the borrower does not exist
+     * @throws RuntimeException if the cursor is malformed
+     */
+    @Transactional(readOnly = true)
+    public Optional<CursorPageResponse<BorrowingResponse>> getLoans(Long borrowerId, BorrowingStatus status,
+                                                                    String cursor, Integer size) {
+        if (!borrowerRepository.existsById(borrowerId)) {
+            return Optional.empty();
+        }
+        int pageSize = size == null ? BookService.DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, BookService.MAX_PAGE_SIZE));
+        List<BorrowingStatus> statuses = status != null ? List.of(status) : ALL_STATUSES;
+        
+        // Fetch one extra row to know whether another page follows
+        List<BorrowingResponse> loans;
+        if (cursor == null) {
+            loans = borrowingTransactionRepository.findBorrowerLoans(borrowerId, statuses, Limit.of(pageSize + 1));
+        } else {
+            int separator = cursor.lastIndexOf(CURSOR_SEPARATOR);
+            LocalDateTime beforeDate;
+            long beforeId;
+            try {
+                beforeDate = LocalDateTime.parse(cursor.substring(0, Math.max(separator, 0)));
+                beforeId = Long.parseLong(cursor.substring(separator + 1));
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new RuntimeException("Invalid cursor " + cursor);
+            }
+            loans = borrowingTransactionRepository.findBorrowerLoansBefore(borrowerId, statuses,
+                    beforeDate, beforeId, Limit.of(pageSize + 1));
+        }
+        
+        boolean hasNext = loans.size() > pageSize;
+        List<BorrowingResponse> content = hasNext ? loans.subList(0, pageSize) : loans;
+        BorrowingResponse last = hasNext ? content.get(content.size() - 1) : null;
+        String nextCursor = last != null ? last.getBorrowDate().toString() + CURSOR_SEPARATOR + last.getId() : null;
+        return Optional.of(new CursorPageResponse<>(content, nextCursor));
+    }
+    
+    /**
+     * Convert Borrower entity to BorrowerResponse DTO, counting the borrower's open loans
+     * @param borrower the borrower entity
+     * @return the borrower response DTO
+     */
+    private BorrowerResponse convertToBorrowerResponse(Borrower borrower) {
+        return new BorrowerResponse(borrower.getId(), borrower.getName(),
+                countOpenLoans(borrower.getId()), loanPolicy.getMaxOpenLoans());
+    }
+}
@@ -1,72 +1,126 @@
 package com.love.service;
 
+import com.love.dto.BookResponse;
 import com.love.dto.BorrowingRequest;
 import com.love.dto.BorrowingResponse;
 import com.love.entity.Book;
+import com.love.entity.Borrower;
 import com.love.entity.BorrowingTransaction;
 import com.love.enums.BookAvailabilityStatus;
 import com.love.enums.BorrowingStatus;
+import com.love.enums.CirculationEventType;
+import com.love.event.BookAvailabilityChangedEvent;
+import com.love.metrics.BorrowingMetrics;
+import com.love.overdue.OverdueScheduler;
+import com.love.pipeline.CirculationPipeline;
 import com.love.repository.BookRepository;
 import com.love.repository.BorrowingTransactionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class BorrowingService {
     
+    // A loan can be returned whether or not it has become overdue
+    static final List<BorrowingStatus> OPEN_STATUSES = List.of(BorrowingStatus.PENDING, BorrowingStatus.OVERDUE);
+    
     private final BorrowingTransactionRepository borrowingTransactionRepository;
     private final BookRepository bookRepository;
     private final BookService bookService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BorrowingMetrics borrowingMetrics;
+    private final CirculationPipeline circulationPipeline;
+    private final LoanPolicy loanPolicy;
+    private final BorrowerService borrowerService;
+    private final OverdueScheduler overdueScheduler;
     
     @Autowired
     public BorrowingService(BorrowingTransactionRepository borrowingTransactionRepository, 
                           BookRepository bookRepository,
-                          BookService bookService) {
+                          BookService bookService,
+                          ApplicationEventPublisher eventPublisher,
+                          BorrowingMetrics borrowingMetrics,
+                          CirculationPipeline circulationPipeline,
+                          LoanPolicy loanPolicy,
+                          BorrowerService borrowerService,
+                          OverdueScheduler overdueScheduler) {
         this.borrowingTransactionRepository = borrowingTransactionRepository;
         this.bookRepository = bookRepository;
         this.bookService = bookService;
+        this.eventPublisher = eventPublisher;
+        this.borrowingMetrics = borrowingMetrics;
+        this.circulationPipeline = circulationPipeline;
+        this.loanPolicy = loanPolicy;
+        this.borrowerService = borrowerService;
+        this.overdueScheduler = overdueScheduler;
     }
     
     /**
      * Create a new borrowing transaction
      * @param borrowingRequest the borrowing request containing transaction details
      * @return the created borrowing response
-     * @throws RuntimeException if book is not available or not found
+     * @throws RuntimeException if book is not available or not found, the due date is before the borrow date,
+     *         or the borrower has reached the open loan limit
      */
+    @RetryOnConflict
     public BorrowingResponse createBorrowingTransaction(BorrowingRequest borrowingRequest) {
-        // Check if book exists and is available
-        String availability = bookService.getBookAvailability(borrowingRequest.getIsbn());
+        String isbn = borrowingRequest.getIsbn();
+        LocalDateTime dueDate = loanPolicy.dueDateFor(borrowingRequest.getBorrowDate(), borrowingRequest.getDueDate());
         
-        if (!BookAvailabilityStatus.AVAILABLE.toString().equals(availability)) {
-            throw new RuntimeException("Book with ISBN " + borrowingRequest.getIsbn() + " is not available for borrowing");
+        // The borrower row stays locked until commit, so concurrent borrows by the same borrower
+        // see each other's loans and cannot both slip under the limit
+        Borrower borrower = borrowerService.lockBorrower(borrowingRequest.getBorrowerName());
+        if (borrowerService.countOpenLoans(borrower.getId()) >= loanPolicy.getMaxOpenLoans()) {
+            borrowingMetrics.rejected("borrow", BorrowingMetrics.REASON_LOAN_LIMIT);
+            throw new RuntimeException("Borrower " + borrower.getName() + " has reached the limit of "
+                    + loanPolicy.getMaxOpenLoans() + " open loans");
         }
         
-        // Get the book entity
-        Book book = bookRepository.findByIsbn(borrowingRequest.getIsbn())
-                .orElseThrow(() -> new RuntimeException("Book with ISBN " + borrowingRequest.getIsbn() + " not found"));
+        // Claim the book with a single conditional UPDATE; the affected row count decides the outcome
+        int claimed = bookRepository.updateAvailabilityIfCurrent(isbn,
+                BookAvailabilityStatus.AVAILABLE, BookAvailabilityStatus.BORROWED);
+        
+        if (claimed == 0) {
+            if (!bookRepository.existsByIsbn(isbn)) {
+                borrowingMetrics.rejected("borrow", BorrowingMetrics.REASON_NOT_FOUND);
+                throw new RuntimeException("Book with ISBN " + isbn + " not found");
+            }
+            borrowingMetrics.rejected("borrow", BorrowingMetrics.REASON_NOT_AVAILABLE);
+            throw new RuntimeException("Book with ISBN " + isbn + " is not available for borrowing");
+        }
+        
+        // Read in this transaction and kept out of the book cache until the claim commits;
+        // the loan only needs a reference to the row
+        BookResponse book = bookService.findBookByIsbn(isbn)
+                .orElseThrow(() -> new RuntimeException("Book with ISBN " + isbn + " not found"));
+        eventPublisher.publishEvent(new BookAvailabilityChangedEvent(book.getId(), isbn, BookAvailabilityStatus.BORROWED));
         
         // Create borrowing transaction
         BorrowingTransaction transaction = new BorrowingTransaction();
-        transaction.setBook(book);
-        transaction.setBorrowerName(borrowingRequest.getBorrowerName());
+        transaction.setBook(bookRepository.getReferenceById(book.getId()));
+        transaction.setBorrower(borrower);
+        transaction.setBorrowerName(borrower.getName());
         transaction.setBorrowDate(borrowingRequest.getBorrowDate());
+        transaction.setDueDate(dueDate);
         transaction.setStatus(BorrowingStatus.PENDING);
         
         // Save the transaction
         BorrowingTransaction savedTransaction = borrowingTransactionRepository.save(transaction);
-        
-        // Update book availability to BORROWED
-        book.setAvailabilityStatus(BookAvailabilityStatus.BORROWED);
-        bookRepository.save(book);
-        
-        return convertToBorrowingResponse(savedTransaction);
+        borrowingMetrics.borrowed();
+        overdueScheduler.scheduleAfterCommit(savedTransaction.getId(), dueDate);
+        circulationPipeline.publishAfterCommit(CirculationEventType.BORROWED, savedTransaction.getId(), book.getId(),
+                savedTransaction.getBorrowerName(), savedTransaction.getBorrowDate(), dueDate);
+        return ResponseMapper.toBorrowingResponse(savedTransaction, book);
     }
     
     /**
@@ -75,73 +129,84 @@ public class BorrowingService {
      * @return the updated borrowing response
      * @throws RuntimeException if transaction not found or already returned
      */
+    @RetryOnConflict
     public BorrowingResponse returnBook(Long transactionId) {
-        BorrowingTransaction transaction = borrowingTransactionRepository.findById(transactionId)
-                .orElseThrow(() -> new RuntimeException("Borrowing transaction with ID " + transactionId + " not found"));
+        // Close the transaction with a single conditional UPDATE so a loan can only be returned once
+        LocalDateTime returnDate = LocalDateTime.now();
+        int returned = borrowingTransactionRepository.updateStatusIfCurrent(transactionId,
+                OPEN_STATUSES, BorrowingStatus.RETURNED, returnDate);
         
-        if (BorrowingStatus.RETURNED.equals(transaction.getStatus())) {
+        if (returned == 0) {
+            if (!borrowingTransactionRepository.existsById(transactionId)) {
+                borrowingMetrics.rejected("return", BorrowingMetrics.REASON_NOT_FOUND);
+                throw new RuntimeException("Borrowing transaction with ID " + transactionId + " not found");
+            }
+            borrowingMetrics.rejected("return", BorrowingMetrics.REASON_ALREADY_RETURNED);
             throw new RuntimeException("Book has already been returned");
         }
         
-        // Update transaction status
-        transaction.setStatus(BorrowingStatus.RETURNED);
-        transaction.setReturnDate(LocalDateTime.now());
+        BorrowingTransaction transaction = borrowingTransactionRepository.findByIdWithBook(transactionId)
+                .orElseThrow(() -> new RuntimeException("Borrowing transaction with ID " + transactionId + " not found"));
         
         // Update book availability
-        bookService.updateBookAvailability(transaction.getBook().getIsbn(), BookAvailabilityStatus.AVAILABLE);
+        Book book = transaction.getBook();
+        int released = bookRepository.updateAvailabilityIfCurrent(book.getIsbn(),
+                BookAvailabilityStatus.BORROWED, BookAvailabilityStatus.AVAILABLE);
+        if (released == 1) {
+            eventPublisher.publishEvent(new BookAvailabilityChangedEvent(book.getId(), book.getIsbn(), BookAvailabilityStatus.AVAILABLE));
+        }
+        borrowingMetrics.returned();
+        circulationPipeline.publishAfterCommit(CirculationEventType.RETURNED, transactionId, book.getId(),
+                transaction.getBorrowerName(), returnDate, transaction.getDueDate());
         
-        BorrowingTransaction savedTransaction = borrowingTransactionRepository.save(transaction);
-        return convertToBorrowingResponse(savedTransaction);
+        return ResponseMapper.toBorrowingResponse(transaction);
     }
     
     /**
-     * Get all borrowing transactions
+     * Get all borrowing transactions, read with the book details in one query
      * @return list of all borrowing responses
      */
     @Transactional(readOnly = true)
     public List<BorrowingResponse> getAllBorrowingTransactions() {
-        return borrowingTransactionRepository.findAll().stream()
-                .map(this::convertToBorrowingResponse)
-                .collect(Collectors.toList());
+        return borrowingTransactionRepository.findAllResponses();
     }
     
     /**
-     * Get borrowing transactions by status
+     * Stream every borrowing transaction to the given consumer, ordered by id.
+     * Rows are mapped straight to responses, so memory use stays bounded regardless of the table size.
+     * @param consumer receives one borrowing response per transaction
+     * @return the number of transactions streamed
+     */
+    @Transactional(readOnly = true)
+    public long exportBorrowingTransactions(Consumer<BorrowingResponse> consumer) {
+        long count = 0;
+        try (Stream<BorrowingResponse> transactions = borrowingTransactionRepository.streamAllResponses()) {
+            Iterator<BorrowingResponse> iterator = transactions.iterator();
+            while (iterator.hasNext()) {
+                consumer.accept(iterator.next());
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Get borrowing transactions by status, read with the book details in one query
      * @param status the status to filter by
      * @return list of borrowing responses with the specified status
      */
     @Transactional(readOnly = true)
     public List<BorrowingResponse> getBorrowingTransactionsByStatus(BorrowingStatus status) {
-        return borrowingTransactionRepository.findByStatus(status).stream()
-                .map(this::convertToBorrowingResponse)
-                .collect(Collectors.toList());
+        return borrowingTransactionRepository.findResponsesByStatus(status);
     }
     
     /**
-     * Get borrowing transaction by ID
+     * Get borrowing transaction by ID, read with the book details in one query
      * @param transactionId the ID of the transaction
      * @return Optional containing the borrowing response if found
      */
     @Transactional(readOnly = true)
     public Optional<BorrowingResponse> getBorrowingTransactionById(Long transactionId) {
-        return borrowingTransactionRepository.findById(transactionId)
-                .map(this::convertToBorrowingResponse);
-    }
-    
-    /**
-     * Convert BorrowingTransaction entity to BorrowingResponse DTO
-     * @param transaction the borrowing transaction entity
-     * @return the borrowing response DTO
-     */
-    private BorrowingResponse convertToBorrowingResponse(BorrowingTransaction transaction) {
-        return new BorrowingResponse(
-                transaction.getId(),
-                transaction.getBook().getTitle(),
-                transaction.getBook().getIsbn(),
-                transaction.getBorrowerName(),
-                transaction.getBorrowDate(),
-                transaction.getReturnDate(),
-                transaction.getStatus()
-        );
+        return borrowingTransactionRepository.findResponseById(transactionId);
     }
 } 
\ No newline at end of file
@@ -0,0 +1,86 @@
+package com.love.service;
+
+import com.love.dto.CirculationStatsResponse;
+import com.love.index.CirculationStatistics;
+import com.love.repository.BorrowingTransactionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Service
+@Transactional(readOnly = true)
+public class CirculationStatisticsService {
+    
+    private static final int MAX_DAYS = 366;
+    
+    private final BorrowingTransactionRepository borrowingTransactionRepository;
+    private final CirculationStatistics circulationStatistics;
+    
+    @Autowired
+    public CirculationStatisticsService(BorrowingTransactionRepository borrowingTransactionRepository,
+                                        CirculationStatistics circulationStatistics) {
+        this.borrowingTransactionRepository = borrowingTransactionRepository;
+        this.circulationStatistics = circulationStatistics;
+    }
+    
+    /**
+     * Rebuild the circulation statistics from the borrowing transactions, once at startup.
+     * A borrow or return committed while the rebuild runs is counted once, whether or not the
+     * stream sees it.
+     * @return the number of transactions counted
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public long rebuildStatistics() {
+        circulationStatistics.rebuild(borrowingTransactionRepository::streamIndexedLoans);
+        return circulationStatistics.totalBorrows();
+    }
+    
+    /**
+     * Get the circulation totals and the returns of the most recent days, without reading the database
+     * @param days the number of days of returns to include, ending today (1 to 366)
+     * @return the circulation statistics
+     * @throws RuntimeException if days is out of range
+     */
+    public CirculationStatsResponse getStatistics(int days) {
+        if (days < 1 || days > MAX_DAYS) {
+            throw new RuntimeException("Days must be between 1 and " + MAX_DAYS);
+        }
+        Map<LocalDate, Long> returnsPerDay = new LinkedHashMap<>();
+        LocalDate today = LocalDate.now();
+        for (int i = days - 1; i >= 0; i--) {
+            LocalDate day = today.minusDays(i);
+            returnsPerDay.put(day, circulationStatistics.returnsOn(day));
+        }
+        return new CirculationStatsResponse(
+                circulationStatistics.openLoans(),
+                circulationStatistics.totalBorrows(),
+                circulationStatistics.totalReturns(),
+                circulationStatistics.distinctBooks(),
+                circulationStatistics.distinctBorrowers(),
+                returnsPerDay);
+    }
+    
+    /**
+     * Get the number of times a book has been borrowed
+     * @param bookId the book id
+     * @return the number of borrows of the book
+     */
+    public long countBorrowsOfBook(Long bookId) {
+        return circulationStatistics.borrowsOfBook(bookId);
+    }
+    
+    /**
+     * Get the number of books a borrower has borrowed
+     * @param borrowerName the borrower name
+     * @return the number of borrows by the borrower
+     */
+    public long countBorrowsByBorrower(String borrowerName) {
+        return circulationStatistics.borrowsByBorrower(borrowerName);
+    }
+}
@@ -0,0 +1,107 @@
+package com.love.service;
+
+import com.love.dto.ContentionResponse;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.interceptor.MethodInvocationRetryCallback;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Counts write conflicts per service operation so contention hot spots can be spotted.
+ * A conflict is any failed attempt of a {@link RetryOnConflict} method, a retry is a conflict
+ * that was followed by another attempt, and exhausted counts calls that gave up.
+ * The counters are also published as {@code library.conflicts.*} meters tagged with the operation.
+ */
+@Component("conflictRetryMonitor")
+public class ConflictRetryMonitor implements RetryListener {
+    
+    private final Map<String, Counters> countersByOperation = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    
+    @Autowired
+    public ConflictRetryMonitor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+    
+    @Override
+    public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+        // Business errors (book not available, ...) also end up here but are not conflicts
+        if (throwable instanceof ConcurrencyFailureException) {
+            counters(callback).conflicts.increment();
+        }
+    }
+    
+    @Override
+    public <T, E extends Throwable> void close(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+        // Every failed attempt except a final one was followed by a retry
+        int retries = throwable == null ? context.getRetryCount() : context.getRetryCount() - 1;
+        if (retries > 0) {
+            counters(callback).retries.add(retries);
+        }
+        if (throwable instanceof ConcurrencyFailureException) {
+            counters(callback).exhausted.increment();
+        }
+    }
+    
+    /**
+     * Get the conflict counters of every operation that has seen at least one conflict
+     * @return list of contention statistics ordered by operation name
+     */
+    public List<ContentionResponse> getStatistics() {
+        return countersByOperation.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(entry -> new ContentionResponse(
+                        entry.getKey(),
+                        entry.getValue().conflicts.sum(),
+                        entry.getValue().retries.sum(),
+                        entry.getValue().exhausted.sum()))
+                .collect(Collectors.toList());
+    }
+    
+    private Counters counters(RetryCallback<?, ?> callback) {
+        return countersByOperation.computeIfAbsent(operationName(callback), this::registerCounters);
+    }
+    
+    private Counters registerCounters(String operation) {
+        Counters counters = new Counters();
+        FunctionCounter.builder("library.conflicts", counters.conflicts, LongAdder::sum)
+                .description("Write attempts that lost a locking race")
+                .tag("operation", operation)
+                .register(meterRegistry);
+        FunctionCounter.builder("library.conflicts.retries", counters.retries, LongAdder::sum)
+                .description("Write attempts retried after a conflict")
+                .tag("operation", operation)
+                .register(meterRegistry);
+        FunctionCounter.builder("library.conflicts.exhausted", counters.exhausted, LongAdder::sum)
+                .description("Writes rejected with 409 after exhausting their retries")
+                .tag("operation", operation)
+                .register(meterRegistry);
+        return counters;
+    }
+    
+    private static String operationName(RetryCallback<?, ?> callback) {
+        if (callback instanceof MethodInvocationRetryCallback<?, ?> methodCallback) {
+            Method method = methodCallback.getInvocation().getMethod();
+            return method.getDeclaringClass().getSimpleName() + "." + method.getName();
+        }
+        return callback.getClass().getSimpleName();
+    }
+    
+    private static final class Counters {
+        private final LongAdder conflicts = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder exhausted = new LongAdder();
+    }
+}
@@ -0,0 +1,47 @@
+package com.love.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lending rules that are configured rather than coded
+ */
+@Component
+public class LoanPolicy {
+    
+    private final int loanPeriodDays;
+    private final int maxOpenLoans;
+    
+    public LoanPolicy(@Value("${library.loans.period-days:14}") int loanPeriodDays,
+                      @Value("${library.loans.max-open-per-borrower:10}") int maxOpenLoans) {
+        this.loanPeriodDays = loanPeriodDays;
+        this.maxOpenLoans = maxOpenLoans;
+    }
+    
+    /**
+     * Get the number of loans a borrower may have open at once
+     * @return the maximum number of PENDING and OVERDUE loans per borrower
+     */
+    public int getMaxOpenLoans() {
+        return maxOpenLoans;
+    }
+    
+    /**
+     * Get the due date of a new loan
+     * @param borrowDate the borrow date
+     * @param requestedDueDate the due date asked for, or null for the default loan period
+     * @return the due date
+     * @throws RuntimeException if the requested due date is not after the borrow date
+     */
+    public LocalDateTime dueDateFor(LocalDateTime borrowDate, LocalDateTime requestedDueDate) {
+        if (requestedDueDate == null) {
+            return borrowDate.plusDays(loanPeriodDays);
+        }
+        if (!requestedDueDate.isAfter(borrowDate)) {
+            throw new RuntimeException("Due date must be after the borrow date");
+        }
+        return requestedDueDate;
+    }
+}
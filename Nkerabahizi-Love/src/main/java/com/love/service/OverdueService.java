@@ -0,0 +1,50 @@
+package com.love.service;
+
+import com.love.overdue.ScheduledLoan;
+import com.love.repository.BorrowingTransactionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@Service
+@Transactional
+public class OverdueService {
+    
+    private final BorrowingTransactionRepository borrowingTransactionRepository;
+    
+    @Autowired
+    public OverdueService(BorrowingTransactionRepository borrowingTransactionRepository) {
+        this.borrowingTransactionRepository = borrowingTransactionRepository;
+    }
+    
+    /**
+     * Read the id and due date of every PENDING transaction, streamed from the database
+     * @param consumer receives each open loan
+     * @return the number of open loans read
+     */
+    @Transactional(readOnly = true)
+    public long forEachPendingLoan(Consumer<ScheduledLoan> consumer) {
+        long count = 0;
+        try (Stream<ScheduledLoan> loans = borrowingTransactionRepository.streamPendingLoans()) {
+            for (ScheduledLoan loan : (Iterable<ScheduledLoan>) loans::iterator) {
+                consumer.accept(loan);
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Mark the given transactions as OVERDUE if they are still PENDING and past their due date
+     * @param transactionIds the ids of the transactions whose due date has passed
+     * @return the number of transactions marked as overdue
+     */
+    public int markOverdue(List<Long> transactionIds) {
+        return borrowingTransactionRepository.markOverdue(transactionIds, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,69 @@
+package com.love.service;
+
+import com.love.dto.BookResponse;
+import com.love.dto.BorrowingResponse;
+import com.love.entity.Book;
+import com.love.entity.BorrowingTransaction;
+
+/**
+ * Entity to response DTO conversions shared by the services.
+ * Stateless, so they are static and need no collaborators.
+ */
+final class ResponseMapper {
+    
+    private ResponseMapper() {
+    }
+    
+    /**
+     * Convert Book entity to BookResponse DTO
+     * @param book the book entity
+     * @return the book response DTO
+     */
+    static BookResponse toBookResponse(Book book) {
+        return new BookResponse(
+                book.getId(),
+                book.getTitle(),
+                book.getAuthor(),
+                book.getIsbn(),
+                book.getAvailabilityStatus()
+        );
+    }
+    
+    /**
+     * Convert BorrowingTransaction entity to BorrowingResponse DTO
+     * @param transaction the borrowing transaction entity
+     * @return the borrowing response DTO
+     */
+    static BorrowingResponse toBorrowingResponse(BorrowingTransaction transaction) {
+        return new BorrowingResponse(
+                transaction.getId(),
+                transaction.getBook().getTitle(),
+                transaction.getBook().getIsbn(),
+                transaction.getBorrowerName(),
+                transaction.getBorrowDate(),
+                transaction.getDueDate(),
+                transaction.getReturnDate(),
+                transaction.getStatus()
+        );
+    }
+    
+    /**
+     * Convert a new BorrowingTransaction entity to BorrowingResponse DTO, taking the book details
+     * from an already loaded book instead of the lazy association
+     * @param transaction the borrowing transaction entity
+     * @param book the borrowed book
+     * @return the borrowing response DTO
+     */
+    static BorrowingResponse toBorrowingResponse(BorrowingTransaction transaction, BookResponse book) {
+        return new BorrowingResponse(
+                transaction.getId(),
+                book.getTitle(),
+                book.getIsbn(),
+                transaction.getBorrowerName(),
+                transaction.getBorrowDate(),
+                transaction.getDueDate(),
+                transaction.getReturnDate(),
+                transaction.getStatus()
+        );
+    }
+}
@@ -0,0 +1,32 @@
+package com.love.service;
+
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Retry a transactional service write when it loses an optimistic or pessimistic locking race.
+ * Attempts are separated by an exponential backoff with random jitter; the limits come from the
+ * {@code library.retry.*} properties. Once the attempts are exhausted the
+ * {@link ConcurrencyFailureException} is rethrown and answered with 409 Conflict.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Retryable(
+        retryFor = ConcurrencyFailureException.class,
+        maxAttemptsExpression = "${library.retry.max-attempts:3}",
+        backoff = @Backoff(
+                delayExpression = "${library.retry.initial-delay-ms:10}",
+                maxDelayExpression = "${library.retry.max-delay-ms:200}",
+                multiplierExpression = "${library.retry.multiplier:2}",
+                random = true),
+        listeners = "conflictRetryMonitor")
+public @interface RetryOnConflict {
+}
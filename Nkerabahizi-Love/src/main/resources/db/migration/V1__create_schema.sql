@@ -0,0 +1,42 @@
+-- Schema of the durable profile; must match the entities, which Hibernate validates at startup.
+-- Change it with a new V<n>__*.sql migration, never by editing an applied one.
+
+CREATE SEQUENCE books_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE borrowers_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE borrowing_transactions_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE books (
+    id BIGINT NOT NULL PRIMARY KEY,
+    version BIGINT NOT NULL,
+    title VARCHAR(255) NOT NULL,
+    author VARCHAR(255) NOT NULL,
+    isbn VARCHAR(255) NOT NULL UNIQUE,
+    availability_status ENUM ('AVAILABLE', 'BORROWED') NOT NULL
+);
+
+CREATE TABLE borrowers (
+    id BIGINT NOT NULL PRIMARY KEY,
+    name VARCHAR(255) NOT NULL UNIQUE
+);
+
+CREATE TABLE borrowing_transactions (
+    id BIGINT NOT NULL PRIMARY KEY,
+    version BIGINT NOT NULL,
+    book_id BIGINT NOT NULL,
+    borrower_id BIGINT NOT NULL,
+    borrower_name VARCHAR(255) NOT NULL,
+    borrow_date TIMESTAMP(6) NOT NULL,
+    due_date TIMESTAMP(6) NOT NULL,
+    return_date TIMESTAMP(6),
+    status ENUM ('OVERDUE', 'PENDING', 'RETURNED') NOT NULL
+);
+
+CREATE INDEX idx_books_availability_status ON books (availability_status, id);
+CREATE INDEX idx_borrowing_transactions_book ON borrowing_transactions (book_id, status, borrow_date);
+CREATE INDEX idx_borrowing_transactions_status ON borrowing_transactions (status, due_date);
+CREATE INDEX idx_borrowing_transactions_borrower ON borrowing_transactions (borrower_id, status, borrow_date);
+
+ALTER TABLE borrowing_transactions ADD CONSTRAINT fk_borrowing_transactions_book
+    FOREIGN KEY (book_id) REFERENCES books (id);
+ALTER TABLE borrowing_transactions ADD CONSTRAINT fk_borrowing_transactions_borrower
+    FOREIGN KEY (borrower_id) REFERENCES borrowers (id);
@@ -0,0 +1,52 @@
+package com.love;
+
+import com.love.cache.BookCache;
+import com.love.dto.BookRequest;
+import com.love.enums.BookAvailabilityStatus;
+import com.love.service.BookService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts the durable profile twice on the same database file: the first start migrates an empty file,
+ * the second finds the data written by the first and warms the ISBN cache from it.
+ */
+class DurableRestartTest {
+    
+    @TempDir
+    Path storage;
+    
+    @Test
+    void restartKeepsTheDataAndWarmsTheCache() {
+        String isbn = "978-0000000042";
+        try (ConfigurableApplicationContext first = start()) {
+            first.getBean(BookService.class).createBook(
+                    new BookRequest("Durable", "Author", isbn, BookAvailabilityStatus.AVAILABLE));
+        }
+        
+        try (ConfigurableApplicationContext second = start()) {
+            // The sample books from the first start plus the one created above
+            assertThat(second.getBean(BookCache.class).getStatistics().getSize()).isEqualTo(6);
+            assertThat(second.getBean(BookService.class).findBookByIsbn(isbn)).isPresent();
+            assertThat(second.getBean(BookCache.class).getStatistics().getMissCount()).isZero();
+            assertThat(second.getBean(MeterRegistry.class).get("library.startup.ready").timeGauge()
+                    .value(TimeUnit.MILLISECONDS)).isPositive();
+        }
+    }
+    
+    private ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(NkerabahiziLoveApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("durable")
+                .run("--library.storage.directory=" + storage.toAbsolutePath());
+    }
+}
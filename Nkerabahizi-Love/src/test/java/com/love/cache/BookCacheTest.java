@@ -0,0 +1,99 @@
+package com.love.cache;
+
+import com.love.dto.BookResponse;
+import com.love.enums.BookAvailabilityStatus;
+import com.love.event.BookAvailabilityChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookCacheTest {
+    
+    private static final String ISBN = "978-0000000001";
+    
+    @Test
+    void outOfOrderBorrowAndReturnEventsLeaveTheCommittedStatus() {
+        BookCache cache = new BookCache(100);
+        AtomicReference<BookAvailabilityStatus> stored = new AtomicReference<>(BookAvailabilityStatus.AVAILABLE);
+        assertThat(cache.get(ISBN, isbn -> load(stored.get()))).map(BookResponse::getAvailabilityStatus)
+                .contains(BookAvailabilityStatus.AVAILABLE);
+        
+        // Borrow commits, then return commits; the return's listener runs first
+        stored.set(BookAvailabilityStatus.BORROWED);
+        stored.set(BookAvailabilityStatus.AVAILABLE);
+        cache.onAvailabilityChanged(new BookAvailabilityChangedEvent(1L, ISBN, BookAvailabilityStatus.AVAILABLE));
+        cache.onAvailabilityChanged(new BookAvailabilityChangedEvent(1L, ISBN, BookAvailabilityStatus.BORROWED));
+        assertThat(cache.get(ISBN, isbn -> load(stored.get()))).map(BookResponse::getAvailabilityStatus)
+                .contains(BookAvailabilityStatus.AVAILABLE);
+        
+        // Return commits, then a new borrow commits; the borrow's listener runs first
+        stored.set(BookAvailabilityStatus.BORROWED);
+        cache.onAvailabilityChanged(new BookAvailabilityChangedEvent(1L, ISBN, BookAvailabilityStatus.BORROWED));
+        cache.onAvailabilityChanged(new BookAvailabilityChangedEvent(1L, ISBN, BookAvailabilityStatus.AVAILABLE));
+        assertThat(cache.get(ISBN, isbn -> load(stored.get()))).map(BookResponse::getAvailabilityStatus)
+                .contains(BookAvailabilityStatus.BORROWED);
+    }
+    
+    @Test
+    void loadInFlightWhenTheBookChangesIsNotCached() throws Exception {
+        BookCache cache = new BookCache(100);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch changed = new CountDownLatch(1);
+        CompletableFuture<Optional<BookResponse>> staleLoad = CompletableFuture.supplyAsync(() -> cache.get(ISBN, isbn -> {
+            loading.countDown();
+            await(changed);
+            return load(BookAvailabilityStatus.AVAILABLE);
+        }));
+        
+        loading.await();
+        cache.onAvailabilityChanged(new BookAvailabilityChangedEvent(1L, ISBN, BookAvailabilityStatus.BORROWED));
+        changed.countDown();
+        staleLoad.get();
+        
+        AtomicInteger loads = new AtomicInteger();
+        assertThat(cache.get(ISBN, isbn -> {
+            loads.incrementAndGet();
+            return load(BookAvailabilityStatus.BORROWED);
+        })).map(BookResponse::getAvailabilityStatus).contains(BookAvailabilityStatus.BORROWED);
+        assertThat(loads).hasValue(1);
+    }
+    
+    @Test
+    void warmUpSkipsBooksChangedWhileTheyAreRead() {
+        BookCache cache = new BookCache(100);
+        BookResponse stale = new BookResponse(1L, "Title", "Author", ISBN, BookAvailabilityStatus.AVAILABLE);
+        BookResponse other = new BookResponse(2L, "Other", "Author", "978-0000000002", BookAvailabilityStatus.AVAILABLE);
+        
+        // The borrow commits after the row was read but before the warm-up caches it
+        long added = cache.warm(() -> Stream.of(stale, other).peek(book -> {
+            if (book == stale) {
+                cache.onAvailabilityChanged(new BookAvailabilityChangedEvent(1L, ISBN, BookAvailabilityStatus.BORROWED));
+            }
+        }));
+        
+        assertThat(added).isEqualTo(1);
+        assertThat(cache.get(ISBN, isbn -> load(BookAvailabilityStatus.BORROWED))).map(BookResponse::getAvailabilityStatus)
+                .contains(BookAvailabilityStatus.BORROWED);
+        assertThat(cache.getStatistics().getMissCount()).isEqualTo(1);
+    }
+    
+    private static Optional<BookResponse> load(BookAvailabilityStatus status) {
+        return Optional.of(new BookResponse(1L, "Title", "Author", ISBN, status));
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
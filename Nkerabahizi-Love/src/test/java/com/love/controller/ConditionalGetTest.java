@@ -0,0 +1,170 @@
+package com.love.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.love.cache.BookCache;
+import com.love.dto.BookRequest;
+import com.love.dto.BorrowingRequest;
+import com.love.dto.CacheStatsResponse;
+import com.love.enums.BookAvailabilityStatus;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assumptions.assumeThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs on its own in-memory database so the catalog listing only holds the books seeded here.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=INFO",
+        "spring.datasource.url=jdbc:h2:mem:conditional-get"
+})
+@AutoConfigureMockMvc
+class ConditionalGetTest {
+    
+    private static final int BOOKS = 100;
+    private static final int POLLS = 500;
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private BookCache bookCache;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Test
+    void pollsRevalidateUntilTheBookChanges() throws Exception {
+        String isbn = createBook();
+        MockHttpServletResponse book = mockMvc.perform(get("/api/books/" + isbn))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED))
+                .andReturn().getResponse();
+        String bookTag = book.getHeader(HttpHeaders.ETAG);
+        String availabilityTag = mockMvc.perform(get("/api/books/" + isbn + "/availability"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String catalogTag = mockMvc.perform(get("/api/books/available"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(bookTag).startsWith("\"").endsWith("\"");
+        
+        long bookCacheRequests = bookCacheRequests();
+        mockMvc.perform(get("/api/books/" + isbn).header(HttpHeaders.IF_NONE_MATCH, bookTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, bookTag));
+        mockMvc.perform(get("/api/books/" + isbn + "/availability").header(HttpHeaders.IF_NONE_MATCH, availabilityTag))
+                .andExpect(status().isNotModified());
+        assertThat(bookCacheRequests()).isEqualTo(bookCacheRequests);
+        
+        mockMvc.perform(post("/api/borrowings").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BorrowingRequest(isbn, "Poller", LocalDateTime.now()))))
+                .andExpect(status().isCreated());
+        
+        String borrowed = mockMvc.perform(get("/api/books/" + isbn).header(HttpHeaders.IF_NONE_MATCH, bookTag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(objectMapper.readTree(borrowed).get("availabilityStatus").asText()).isEqualTo("BORROWED");
+        mockMvc.perform(get("/api/books/" + isbn + "/availability").header(HttpHeaders.IF_NONE_MATCH, availabilityTag))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/books/available").header(HttpHeaders.IF_NONE_MATCH, catalogTag))
+                .andExpect(status().isOk());
+    }
+    
+    @Test
+    void conditionalPollingSavesBandwidthAndCpu() throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        assumeThat(threads.isCurrentThreadCpuTimeSupported()).isTrue();
+        List<BookRequest> catalog = IntStream.range(0, BOOKS)
+                .mapToObj(i -> new BookRequest("Polled " + i, "Author " + i,
+                        "978-" + UUID.randomUUID().toString().substring(0, 13), BookAvailabilityStatus.AVAILABLE))
+                .toList();
+        mockMvc.perform(post("/api/books/bulk").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(catalog)))
+                .andExpect(status().isOk());
+        String tag = mockMvc.perform(get("/api/books/available").param("size", "100"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        
+        // Warm up both paths before measuring
+        poll(null);
+        poll(tag);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        
+        statistics.clear();
+        long fullCpu = threads.getCurrentThreadCpuTime();
+        long fullBytes = poll(null);
+        fullCpu = threads.getCurrentThreadCpuTime() - fullCpu;
+        long fullStatements = statistics.getPrepareStatementCount();
+        
+        statistics.clear();
+        long conditionalCpu = threads.getCurrentThreadCpuTime();
+        long conditionalBytes = poll(tag);
+        conditionalCpu = threads.getCurrentThreadCpuTime() - conditionalCpu;
+        
+        assertThat(fullBytes).isGreaterThan(POLLS * 1000L);
+        assertThat(conditionalBytes).isZero();
+        assertThat(fullStatements).isGreaterThanOrEqualTo(POLLS);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(conditionalCpu).isLessThan(fullCpu);
+    }
+    
+    /**
+     * Poll the first page of available books, revalidating with the given ETag if there is one
+     * @return the number of body bytes received
+     */
+    private long poll(String eTag) throws Exception {
+        long bytes = 0;
+        for (int i = 0; i < POLLS; i++) {
+            MockHttpServletRequestBuilder request = get("/api/books/available").param("size", "100");
+            if (eTag != null) {
+                request.header(HttpHeaders.IF_NONE_MATCH, eTag);
+            }
+            MockHttpServletResponse response = mockMvc.perform(request)
+                    .andExpect(status().is(eTag != null ? 304 : 200))
+                    .andReturn().getResponse();
+            bytes += response.getContentAsByteArray().length;
+        }
+        return bytes;
+    }
+    
+    private String createBook() throws Exception {
+        String isbn = "978-" + UUID.randomUUID().toString().substring(0, 13);
+        mockMvc.perform(post("/api/books").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BookRequest("Polled", "Author", isbn, BookAvailabilityStatus.AVAILABLE))))
+                .andExpect(status().isCreated());
+        return isbn;
+    }
+    
+    private long bookCacheRequests() {
+        CacheStatsResponse stats = bookCache.getStatistics();
+        return stats.getHitCount() + stats.getMissCount();
+    }
+}
@@ -0,0 +1,94 @@
+package com.love.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AvailabilityIndexTest {
+    
+    @Test
+    void marksAreCountedOnceAndGrowTheBitset() {
+        AvailabilityIndex index = new AvailabilityIndex();
+        
+        index.markAvailable(3);
+        index.markAvailable(3);
+        index.markAvailable(1_000_000);
+        index.markUnavailable(5);
+        index.markUnavailable(50_000_000);
+        
+        assertThat(index.availableCount()).isEqualTo(2);
+        assertThat(index.isAvailable(3)).isTrue();
+        assertThat(index.isAvailable(1_000_000)).isTrue();
+        assertThat(index.isAvailable(4)).isFalse();
+        
+        index.markUnavailable(3);
+        assertThat(index.availableCount()).isEqualTo(1);
+        assertThat(index.isAvailable(3)).isFalse();
+    }
+    
+    @Test
+    void rangeQueriesRespectWordBoundaries() {
+        AvailabilityIndex index = new AvailabilityIndex();
+        index.rebuild(LongStream.of(1, 63, 64, 65, 127, 128, 200).iterator());
+        
+        assertThat(index.availableCount()).isEqualTo(7);
+        assertThat(index.countAvailable(63, 64)).isEqualTo(2);
+        assertThat(index.countAvailable(64, 127)).isEqualTo(3);
+        assertThat(index.countAvailable(2, 62)).isZero();
+        assertThat(index.countAvailable(0, Long.MAX_VALUE)).isEqualTo(7);
+        
+        assertThat(index.availableIdsAfter(0, 3)).containsExactly(1, 63, 64);
+        assertThat(index.availableIdsAfter(64, 10)).containsExactly(65, 127, 128, 200);
+        assertThat(index.availableIdsAfter(200, 10)).isEmpty();
+    }
+    
+    @Test
+    void refreshReadsTheStatusAgainWhenANewerUpdateOvertakesIt() {
+        AvailabilityIndex index = new AvailabilityIndex();
+        Set<Long> stored = new HashSet<>(Set.of(7L));
+        AtomicBoolean overtaken = new AtomicBoolean();
+        
+        // The return's refresh reads AVAILABLE, then the book is borrowed and that refresh finishes first
+        index.refresh(List.of(7L), ids -> {
+            List<Long> available = availableAmong(stored, ids);
+            if (overtaken.compareAndSet(false, true)) {
+                stored.remove(7L);
+                index.refresh(List.of(7L), borrowed -> availableAmong(stored, borrowed));
+            }
+            return available;
+        });
+        
+        assertThat(index.isAvailable(7)).isFalse();
+        assertThat(index.availableCount()).isZero();
+    }
+    
+    @Test
+    void changesCommittedDuringARebuildAreAppliedAfterIt() {
+        AvailabilityIndex index = new AvailabilityIndex();
+        Set<Long> stored = new HashSet<>(Set.of(1L, 2L, 3L));
+        
+        // Book 2 is borrowed and book 9 created after the stream has passed them
+        index.rebuild(() -> Stream.of(1L, 2L, 3L).peek(id -> {
+            if (id == 3L) {
+                stored.remove(2L);
+                stored.add(9L);
+                index.refresh(List.of(2L, 9L), ids -> availableAmong(stored, ids));
+            }
+        }), ids -> availableAmong(stored, ids));
+        
+        assertThat(index.availableIdsAfter(0, 10)).containsExactly(1, 3, 9);
+        assertThat(index.availableCount()).isEqualTo(3);
+    }
+    
+    private static List<Long> availableAmong(Set<Long> stored, Collection<Long> ids) {
+        return ids.stream().filter(stored::contains).toList();
+    }
+}
@@ -0,0 +1,67 @@
+package com.love.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookSearchIndexTest {
+    
+    @Test
+    void matchesAllTermsAndRanksTitleHitsFirst() {
+        BookSearchIndex index = new BookSearchIndex();
+        index.rebuild(List.of(
+                new IndexedBook(1L, "The Road", "Cormac McCarthy"),
+                new IndexedBook(2L, "Jane Eyre", "Charlotte Brontë"),
+                new IndexedBook(3L, "Notes on Charlotte", "Road Scholar"),
+                new IndexedBook(4L, "Charlotte's Road", "Anonymous")
+        ).iterator());
+        
+        BookSearchIndex.SearchResult result = index.search("ROAD charlotte", 0, 10);
+        
+        assertThat(result.getTotalHits()).isEqualTo(2);
+        assertThat(result.getBookIds()).containsExactly(4L, 3L);
+        assertThat(index.search("bronte", 0, 10).getBookIds()).containsExactly(2L);
+        assertThat(index.search("road missing", 0, 10).getTotalHits()).isZero();
+    }
+    
+    @Test
+    void pagesThroughRankedHitsAndSeesIncrementalAdds() {
+        BookSearchIndex index = new BookSearchIndex();
+        for (long id = 1; id <= 250; id++) {
+            index.add(new IndexedBook(id, id % 2 == 0 ? "Collected Poems " + id : "Poems", "Poet " + id));
+        }
+        
+        BookSearchIndex.SearchResult first = index.search("poems", 0, 100);
+        BookSearchIndex.SearchResult third = index.search("poems", 200, 100);
+        
+        assertThat(first.getTotalHits()).isEqualTo(250);
+        assertThat(first.getBookIds()).hasSize(100).startsWith(1L, 2L, 3L);
+        assertThat(third.getBookIds()).hasSize(50).endsWith(250L);
+        assertThat(index.search("collected poems", 0, 200).getTotalHits()).isEqualTo(125);
+        
+        index.add(new IndexedBook(251L, "Poems", "Late Poet"));
+        assertThat(index.search("late poems", 0, 10).getBookIds()).containsExactly(251L);
+    }
+    
+    @Test
+    void booksAddedDuringRebuildAreIndexedOnce() {
+        BookSearchIndex index = new BookSearchIndex();
+        BookSearchIndex.Rebuild rebuild = index.startRebuild();
+        rebuild.add(new IndexedBook(1L, "Dune", "Frank Herbert"));
+        
+        // Book 2 commits before the stream reaches it, book 3 after the stream has passed
+        index.add(new IndexedBook(2L, "Dune Messiah", "Frank Herbert"));
+        rebuild.add(new IndexedBook(2L, "Dune Messiah", "Frank Herbert"));
+        index.add(new IndexedBook(3L, "Children of Dune", "Frank Herbert"));
+        assertThat(index.search("dune", 0, 10).getBookIds()).containsExactly(2L, 3L);
+        
+        assertThat(rebuild.finish()).isEqualTo(3);
+        assertThat(index.search("dune", 0, 10).getBookIds()).containsExactly(1L, 2L, 3L);
+        
+        // A late event for a book the stream already saw
+        index.add(new IndexedBook(3L, "Children of Dune", "Frank Herbert"));
+        assertThat(index.size()).isEqualTo(3);
+    }
+}
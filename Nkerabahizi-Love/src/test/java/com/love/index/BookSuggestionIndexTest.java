@@ -0,0 +1,91 @@
+package com.love.index;
+
+import com.love.dto.SuggestionResponse;
+import com.love.enums.SuggestionType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookSuggestionIndexTest {
+    
+    @Test
+    void suggestsMostCommonCompletionsOfPrefix() {
+        BookSuggestionIndex index = new BookSuggestionIndex(new AvailabilityIndex());
+        index.rebuild(List.of(
+                new IndexedBook(1L, "Emma", "Jane Austen"),
+                new IndexedBook(2L, "Persuasion", "Jane Austen"),
+                new IndexedBook(3L, "Jane Eyre", "Charlotte Brontë"),
+                new IndexedBook(4L, "Jane  Eyre", "Charlotte Brontë"),
+                new IndexedBook(5L, "Jane Eyre", "Charlotte Brontë"),
+                new IndexedBook(6L, "Janet", "Someone")
+        ).iterator());
+        
+        List<SuggestionResponse> suggestions = index.suggest("JANE", 10, false);
+        
+        assertThat(suggestions).extracting(SuggestionResponse::getText)
+                .containsExactly("Jane Eyre", "Jane Austen", "Janet");
+        assertThat(suggestions.get(0).getBooks()).isEqualTo(3);
+        assertThat(suggestions.get(1).getType()).isEqualTo(SuggestionType.AUTHOR);
+        assertThat(index.suggest("jane e", 1, false)).extracting(SuggestionResponse::getText).containsExactly("Jane Eyre");
+        assertThat(index.suggest("charlotte bronte", 10, false)).hasSize(1);
+        assertThat(index.suggest("x", 10, false)).isEmpty();
+    }
+    
+    @Test
+    void filtersOnAvailabilityAndMergesNewBooks() {
+        AvailabilityIndex availability = new AvailabilityIndex();
+        BookSuggestionIndex index = new BookSuggestionIndex(availability);
+        index.rebuild(List.of(
+                new IndexedBook(1L, "Dune", "Frank Herbert"),
+                new IndexedBook(2L, "Dune Messiah", "Frank Herbert")
+        ).iterator());
+        availability.markAvailable(2L);
+        
+        assertThat(index.suggest("dune", 10, true)).extracting(SuggestionResponse::getText)
+                .containsExactly("Dune Messiah");
+        
+        index.addAll(List.of(new IndexedBook(3L, "Dune", "Frank Herbert")));
+        availability.markAvailable(3L);
+        
+        List<SuggestionResponse> suggestions = index.suggest("dune", 10, true);
+        assertThat(suggestions).extracting(SuggestionResponse::getText).containsExactly("Dune", "Dune Messiah");
+        assertThat(suggestions.get(0).getBooks()).isEqualTo(2);
+        assertThat(index.getStatistics().getPendingEntries()).isEqualTo(2);
+    }
+    
+    @Test
+    void compactsPendingEntriesIntoTheSegment() {
+        BookSuggestionIndex index = new BookSuggestionIndex(new AvailabilityIndex());
+        List<IndexedBook> books = new ArrayList<>();
+        for (long id = 1; id <= 5000; id++) {
+            books.add(new IndexedBook(id, "Volume " + id, id % 10 == 0 ? "Popular Author" : "Author " + id));
+        }
+        index.addAll(books);
+        
+        assertThat(index.getStatistics().getPendingEntries()).isZero();
+        assertThat(index.getStatistics().getEntries()).isEqualTo(5000 + 4500 + 1);
+        assertThat(index.suggest("p", 1, false)).extracting(SuggestionResponse::getBooks).containsExactly(500);
+        assertThat(index.suggest("volume 4999", 5, false)).extracting(SuggestionResponse::getText)
+                .containsExactly("Volume 4999");
+    }
+    
+    @Test
+    void keepsBooksAddedDuringRebuild() {
+        BookSuggestionIndex index = new BookSuggestionIndex(new AvailabilityIndex());
+        BookSuggestionIndex.Rebuild rebuild = index.startRebuild();
+        rebuild.add(new IndexedBook(1L, "Dune", "Frank Herbert"));
+        
+        // Book 2 commits before the stream reaches it, book 3 after the stream has passed
+        index.addAll(List.of(new IndexedBook(2L, "Dune", "Frank Herbert")));
+        rebuild.add(new IndexedBook(2L, "Dune", "Frank Herbert"));
+        index.addAll(List.of(new IndexedBook(3L, "Dune", "Frank Herbert")));
+        
+        rebuild.finish();
+        
+        assertThat(index.suggest("dune", 10, false)).extracting(SuggestionResponse::getBooks).containsExactly(3);
+        assertThat(index.getStatistics().getPendingEntries()).isZero();
+    }
+}
@@ -0,0 +1,109 @@
+package com.love.index;
+
+import com.love.enums.BorrowingStatus;
+import com.love.enums.CirculationEventType;
+import com.love.enums.PipelineOverflowPolicy;
+import com.love.pipeline.CirculationPipeline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CirculationStatisticsTest {
+    
+    @Test
+    void rebuildsFromTransactionsAndFollowsPipelineEvents() {
+        LocalDateTime yesterday = LocalDateTime.now().minusDays(1);
+        CirculationStatistics statistics = new CirculationStatistics();
+        statistics.rebuild(() -> Stream.of(
+                new IndexedLoan(1L, 1L, "Alice", BorrowingStatus.RETURNED, yesterday),
+                new IndexedLoan(2L, 1L, "Bob", BorrowingStatus.PENDING, null),
+                new IndexedLoan(3L, 2L, "Alice", BorrowingStatus.PENDING, null)
+        ));
+        
+        assertThat(statistics.openLoans()).isEqualTo(2);
+        assertThat(statistics.totalBorrows()).isEqualTo(3);
+        assertThat(statistics.returnsOn(yesterday.toLocalDate())).isEqualTo(1);
+        assertThat(statistics.borrowsOfBook(1L)).isEqualTo(2);
+        assertThat(statistics.borrowsByBorrower("Alice")).isEqualTo(2);
+        
+        CirculationPipeline pipeline = pipeline(statistics);
+        LocalDateTime now = LocalDateTime.now();
+        pipeline.publish(CirculationEventType.RETURNED, 2L, 1L, "Bob", now, null);
+        pipeline.publish(CirculationEventType.BORROWED, 4L, 3L, "Carol", now, now.plusDays(14));
+        pipeline.stop();
+        
+        assertThat(statistics.openLoans()).isEqualTo(2);
+        assertThat(statistics.totalBorrows()).isEqualTo(4);
+        assertThat(statistics.totalReturns()).isEqualTo(2);
+        assertThat(statistics.returnsOn(now.toLocalDate())).isEqualTo(1);
+        assertThat(statistics.returnsOn(LocalDate.of(2000, 1, 1))).isZero();
+        assertThat(statistics.borrowsOfBook(3L)).isEqualTo(1);
+        assertThat(statistics.borrowsByBorrower("Carol")).isEqualTo(1);
+        assertThat(statistics.borrowsByBorrower("Nobody")).isZero();
+        assertThat(statistics.distinctBooks()).isEqualTo(3);
+        assertThat(statistics.distinctBorrowers()).isEqualTo(3);
+    }
+    
+    @Test
+    void eventsDeliveredDuringRebuildAreCountedOnce() {
+        LocalDateTime now = LocalDateTime.now();
+        CirculationStatistics statistics = new CirculationStatistics();
+        
+        statistics.rebuild(() -> Stream.of(
+                new IndexedLoan(1L, 1L, "Alice", BorrowingStatus.RETURNED, now),
+                new IndexedLoan(2L, 2L, "Bob", BorrowingStatus.PENDING, null)
+        ).peek(loan -> {
+            if (loan.getTransactionId() == 1L) {
+                // Loan 1 was read already returned; loan 2 is returned after it was read; loan 3 is new
+                CirculationPipeline pipeline = pipeline(statistics);
+                pipeline.publish(CirculationEventType.BORROWED, 1L, 1L, "Alice", now, now.plusDays(14));
+                pipeline.publish(CirculationEventType.RETURNED, 1L, 1L, "Alice", now, null);
+                pipeline.publish(CirculationEventType.RETURNED, 2L, 2L, "Bob", now, null);
+                pipeline.publish(CirculationEventType.BORROWED, 3L, 3L, "Carol", now, now.plusDays(14));
+                pipeline.stop();
+            }
+        }));
+        
+        assertThat(statistics.totalBorrows()).isEqualTo(3);
+        assertThat(statistics.totalReturns()).isEqualTo(2);
+        assertThat(statistics.openLoans()).isEqualTo(1);
+        assertThat(statistics.borrowsByBorrower("Alice")).isEqualTo(1);
+        
+        // Events still in the pipeline when the rebuild finished
+        CirculationPipeline pipeline = pipeline(statistics);
+        pipeline.publish(CirculationEventType.BORROWED, 2L, 2L, "Bob", now, now.plusDays(14));
+        pipeline.publish(CirculationEventType.RETURNED, 3L, 3L, "Carol", now, null);
+        pipeline.stop();
+        
+        assertThat(statistics.totalBorrows()).isEqualTo(3);
+        assertThat(statistics.totalReturns()).isEqualTo(3);
+        assertThat(statistics.openLoans()).isZero();
+    }
+    
+    @Test
+    void counterMapKeepsCountsWhileGrowing() {
+        LongCounterMap map = new LongCounterMap();
+        for (long key = 0; key < 10_000; key++) {
+            map.add(key, key);
+            map.add(key, 1);
+        }
+        
+        assertThat(map.size()).isEqualTo(10_000);
+        assertThat(map.get(0)).isEqualTo(1);
+        assertThat(map.get(9_999)).isEqualTo(10_000);
+        assertThat(map.get(-5)).isZero();
+    }
+    
+    private static CirculationPipeline pipeline(CirculationStatistics statistics) {
+        CirculationPipeline pipeline = new CirculationPipeline(16, PipelineOverflowPolicy.BLOCK,
+                List.of(statistics), new SimpleMeterRegistry());
+        pipeline.start();
+        return pipeline;
+    }
+}
@@ -0,0 +1,135 @@
+package com.love.journal;
+
+import com.love.NkerabahiziLoveApplication;
+import com.love.dto.BookRequest;
+import com.love.dto.BorrowingRequest;
+import com.love.dto.BorrowingResponse;
+import com.love.entity.Book;
+import com.love.enums.BookAvailabilityStatus;
+import com.love.enums.BorrowingStatus;
+import com.love.repository.BorrowerRepository;
+import com.love.service.BookService;
+import com.love.service.BorrowingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JournalStoreTest {
+    
+    @TempDir
+    Path storage;
+    
+    @Test
+    void recoversFromSnapshotAndJournalTailAfterACrash() throws IOException {
+        Path directory = storage.resolve("journal");
+        JournalStore crashed = open(directory);
+        JournalBookRepository books = new JournalBookRepository(crashed);
+        List<Book> saved = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            saved.add(new Book("Title " + i, "Author " + i, "isbn-" + i));
+            if (saved.size() == 1000) {
+                books.saveAll(saved);
+                saved.clear();
+            }
+            if (i == 10_000) {
+                crashed.snapshot();
+            }
+        }
+        books.updateAvailabilityIfCurrent("isbn-42", BookAvailabilityStatus.AVAILABLE, BookAvailabilityStatus.BORROWED);
+        books.updateAvailabilityIfCurrent("isbn-19999", BookAvailabilityStatus.AVAILABLE, BookAvailabilityStatus.BORROWED);
+        long lastSequence = crashed.lastSequence();
+        // The 1 MB segments before the snapshot were dropped; the records after it remain
+        assertThat(crashed.snapshotSequence()).isPositive().isLessThan(lastSequence);
+        assertThat(segments(directory)).isNotEmpty();
+        
+        // No stop(): the second store recovers from the snapshot plus the journal records after it
+        JournalStore recovered = open(directory);
+        try {
+            JournalBookRepository recoveredBooks = new JournalBookRepository(recovered);
+            assertThat(recovered.lastSequence()).isEqualTo(lastSequence);
+            assertThat(recoveredBooks.count()).isEqualTo(20_000);
+            assertThat(recoveredBooks.findByIsbn("isbn-42").orElseThrow().getAvailabilityStatus())
+                    .isEqualTo(BookAvailabilityStatus.BORROWED);
+            assertThat(recoveredBooks.findByIsbn("isbn-19999").orElseThrow().getVersion()).isEqualTo(1);
+            assertThat(recoveredBooks.findAllById(List.of(1L, 10_001L, 20_000L)))
+                    .extracting(Book::getIsbn)
+                    .containsExactly("isbn-0", "isbn-10000", "isbn-19999");
+            
+            // New ids continue after the recovered ones
+            Book next = recoveredBooks.save(new Book("Next", "Author", "isbn-next"));
+            assertThat(next.getId()).isEqualTo(20_001);
+        } finally {
+            recovered.start();
+            recovered.stop();
+        }
+        
+        // A clean stop leaves only a snapshot to read
+        assertThat(segments(directory)).isEmpty();
+        JournalStore restarted = open(directory);
+        assertThat(restarted.snapshotSequence()).isEqualTo(restarted.lastSequence());
+        assertThat(new JournalBookRepository(restarted).count()).isEqualTo(20_001);
+    }
+    
+    @Test
+    void borrowsSurviveARestartAndFailedTransactionsAreRolledBack() {
+        String isbn = "978-0000000077";
+        Long loanId;
+        try (ConfigurableApplicationContext first = start()) {
+            BookService bookService = first.getBean(BookService.class);
+            BorrowingService borrowingService = first.getBean(BorrowingService.class);
+            bookService.createBook(new BookRequest("Journaled", "Author", isbn, BookAvailabilityStatus.AVAILABLE));
+            BorrowingResponse loan = borrowingService.createBorrowingTransaction(
+                    new BorrowingRequest(isbn, "Reader", LocalDateTime.now()));
+            loanId = loan.getId();
+            borrowingService.returnBook(loanId);
+            borrowingService.createBorrowingTransaction(new BorrowingRequest(isbn, "Reader", LocalDateTime.now()));
+            
+            // Registering the new borrower is undone when the borrow fails afterwards
+            assertThatThrownBy(() -> borrowingService.createBorrowingTransaction(
+                    new BorrowingRequest("missing-isbn", "Newcomer", LocalDateTime.now())))
+                    .hasMessageContaining("not found");
+            assertThat(first.getBean(BorrowerRepository.class).findByName("Newcomer")).isEmpty();
+        }
+        
+        try (ConfigurableApplicationContext second = start()) {
+            assertThat(second.getBean(BookService.class).getBookAvailability(isbn)).isEqualTo("BORROWED");
+            BorrowingService borrowingService = second.getBean(BorrowingService.class);
+            assertThat(borrowingService.getBorrowingTransactionById(loanId).orElseThrow().getStatus())
+                    .isEqualTo(BorrowingStatus.RETURNED);
+            assertThat(borrowingService.getBorrowingTransactionsByStatus(BorrowingStatus.PENDING))
+                    .extracting(BorrowingResponse::getBookIsbn)
+                    .containsExactly(isbn);
+        }
+    }
+    
+    private static JournalStore open(Path directory) {
+        return new JournalStore(directory.toString(), 1, true, Long.MAX_VALUE, 1000, new SimpleMeterRegistry());
+    }
+    
+    private static List<Path> segments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("journal-")).toList();
+        }
+    }
+    
+    private ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(NkerabahiziLoveApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("journal")
+                .run("--library.storage.directory=" + storage.toAbsolutePath());
+    }
+}
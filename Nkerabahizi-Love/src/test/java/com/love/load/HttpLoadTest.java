@@ -0,0 +1,368 @@
+package com.love.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end load test: starts the application on a random port, seeds a catalog over HTTP and
+ * drives a weighted mix of catalog reads, borrows and returns from concurrent workers. Latencies
+ * are recorded per operation in HDR histograms. A JSON and a text report, plus one
+ * percentile distribution per operation, are written to {@code load.reportDir}.
+ * <p>
+ * By default workers run closed-loop, each sending its next request as soon as the previous one
+ * completes. With {@code load.rate} set, requests are paced to that total rate and latency is
+ * measured from each request's intended start, so a stalled server is not hidden by
+ * coordinated omission.
+ * <p>
+ * Each simulated client is a virtual thread, so thousands of clients cost little on the client side.
+ * Requests shed by admission control (503) are counted apart from failures.
+ * <p>
+ * Run with {@code mvn -Pload test}; tune with {@code -Dload.books}, {@code -Dload.threads},
+ * {@code -Dload.warmupSeconds}, {@code -Dload.durationSeconds}, {@code -Dload.rate} and
+ * {@code -Dload.mix=list=20,availability=50,borrow=15,return=15}. Add
+ * {@code -Dspring.profiles.active=virtual} to serve the requests on virtual threads; reports go to
+ * a {@code platform} or {@code virtual} subdirectory so both modes can be compared.
+ * <p>
+ * With {@code -Dload.baseUrl=http://host:port} the workload targets an already running server
+ * with the same API instead, such as the reactive variant, and reports under
+ * {@code -Dload.label} (default {@code external}).
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO",
+        "library.loans.max-open-per-borrower=1000000"
+})
+class HttpLoadTest {
+    
+    private static final Logger log = LoggerFactory.getLogger(HttpLoadTest.class);
+    
+    private static final int BOOKS = Integer.getInteger("load.books", 10_000);
+    private static final int THREADS = Integer.getInteger("load.threads", 16);
+    private static final long WARMUP_SECONDS = Long.getLong("load.warmupSeconds", 10);
+    private static final long DURATION_SECONDS = Long.getLong("load.durationSeconds", 30);
+    private static final int RATE = Integer.getInteger("load.rate", 0);
+    private static final String MIX = System.getProperty("load.mix", "list=20,availability=50,borrow=15,return=15");
+    private static final String BASE_URL = System.getProperty("load.baseUrl");
+    private static final String LABEL = System.getProperty("load.label");
+    private static final Path REPORT_ROOT = Path.of(System.getProperty("load.reportDir", "target/load-test"));
+    private static final int SEED_CHUNK_SIZE = 1000;
+    
+    enum Operation {
+        LIST("GET /api/books"),
+        AVAILABILITY("GET /api/books/{isbn}/availability"),
+        BORROW("POST /api/borrowings"),
+        RETURN("PUT /api/borrowings/{id}/return");
+        
+        private final String endpoint;
+        
+        Operation(String endpoint) {
+            this.endpoint = endpoint;
+        }
+    }
+    
+    @LocalServerPort
+    private int port;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+    
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    
+    @Test
+    void mixedWorkload() throws Exception {
+        seedCatalog();
+        Map<Operation, Integer> weights = parseMix(MIX);
+        
+        // Warm-up results are discarded
+        run(TimeUnit.SECONDS.toNanos(WARMUP_SECONDS), weights, newStats());
+        Map<Operation, OperationStats> stats = newStats();
+        long elapsedNanos = run(TimeUnit.SECONDS.toNanos(DURATION_SECONDS), weights, stats);
+        
+        writeReport(stats, elapsedNanos);
+        
+        weights.forEach((operation, weight) -> {
+            if (weight > 0) {
+                assertThat(stats.get(operation).histogram.getTotalCount()).as(operation.endpoint).isPositive();
+            }
+            assertThat(stats.get(operation).failed.sum()).as(operation + " server errors").isZero();
+        });
+    }
+    
+    /**
+     * Drive the workload from THREADS virtual-thread clients until the duration has passed
+     * @return the elapsed time in nanoseconds
+     */
+    private long run(long durationNanos, Map<Operation, Integer> weights, Map<Operation, OperationStats> stats)
+            throws Exception {
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        long start = System.nanoTime();
+        long deadline = start + durationNanos;
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                workers.add(executor.submit(() -> {
+                    work(start, deadline, weights, stats);
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return System.nanoTime() - start;
+    }
+    
+    private void work(long start, long deadline, Map<Operation, Integer> weights, Map<Operation, OperationStats> stats)
+            throws InterruptedException {
+        long intervalNanos = RATE > 0 ? TimeUnit.SECONDS.toNanos(THREADS) / RATE : 0;
+        // Spread the paced workers over one interval instead of firing together
+        long intendedStart = start + (intervalNanos > 0 ? ThreadLocalRandom.current().nextLong(intervalNanos) : 0);
+        Deque<Long> openLoans = new ArrayDeque<>();
+        
+        while (true) {
+            long requestStart;
+            if (intervalNanos > 0) {
+                long wait = intendedStart - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                requestStart = intendedStart;
+                intendedStart += intervalNanos;
+            } else {
+                requestStart = System.nanoTime();
+            }
+            if (requestStart >= deadline || Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            
+            Operation operation = pick(weights);
+            if (operation == Operation.RETURN && openLoans.isEmpty()) {
+                operation = Operation.BORROW;
+            }
+            
+            int status;
+            try {
+                HttpResponse<String> response = client.send(request(operation, openLoans), HttpResponse.BodyHandlers.ofString());
+                status = response.statusCode();
+                if (operation == Operation.BORROW && status == 201) {
+                    openLoans.add(objectMapper.readTree(response.body()).get("id").asLong());
+                }
+            } catch (IOException e) {
+                status = -1;
+            }
+            stats.get(operation).record(System.nanoTime() - requestStart, status);
+        }
+    }
+    
+    private HttpRequest request(Operation operation, Deque<Long> openLoans) throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return switch (operation) {
+            case LIST -> HttpRequest.newBuilder(uri("/api/books?size=20&cursor=" + random.nextInt(BOOKS))).GET().build();
+            case AVAILABILITY -> HttpRequest.newBuilder(uri("/api/books/" + isbn(random.nextInt(BOOKS)) + "/availability"))
+                    .GET().build();
+            case BORROW -> {
+                Map<String, Object> body = new LinkedHashMap<>();
+                body.put("isbn", isbn(random.nextInt(BOOKS)));
+                body.put("borrowerName", "Load Tester " + Thread.currentThread().threadId());
+                body.put("borrowDate", LocalDateTime.now().toString());
+                yield HttpRequest.newBuilder(uri("/api/borrowings"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                        .build();
+            }
+            case RETURN -> HttpRequest.newBuilder(uri("/api/borrowings/" + openLoans.poll() + "/return"))
+                    .PUT(HttpRequest.BodyPublishers.noBody())
+                    .build();
+        };
+    }
+    
+    private void seedCatalog() throws Exception {
+        for (int from = 0; from < BOOKS; from += SEED_CHUNK_SIZE) {
+            List<Map<String, Object>> books = new ArrayList<>();
+            for (int i = from; i < Math.min(BOOKS, from + SEED_CHUNK_SIZE); i++) {
+                Map<String, Object> book = new LinkedHashMap<>();
+                book.put("title", "Load Test Title " + i);
+                book.put("author", "Author " + (i % 500));
+                book.put("isbn", isbn(i));
+                book.put("availabilityStatus", "AVAILABLE");
+                books.add(book);
+            }
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri("/api/books/bulk"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(books)))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            JsonNode result = objectMapper.readTree(response.body());
+            assertThat(result.get("imported").asInt()).isEqualTo(books.size());
+        }
+    }
+    
+    private void writeReport(Map<Operation, OperationStats> stats, long elapsedNanos) throws IOException {
+        String mode = LABEL != null ? LABEL : BASE_URL != null ? "external" : virtualThreads ? "virtual" : "platform";
+        Path reportDir = REPORT_ROOT.resolve(mode);
+        Files.createDirectories(reportDir);
+        double seconds = elapsedNanos / 1e9;
+        
+        List<Map<String, Object>> operations = new ArrayList<>();
+        StringBuilder table = new StringBuilder(String.format(Locale.ROOT,
+                "%-40s %9s %10s %8s %8s %8s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "req/s", "rejected", "shed", "failed", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "mean ms"));
+        long totalRequests = 0;
+        for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+            Histogram histogram = entry.getValue().histogram;
+            long count = histogram.getTotalCount();
+            totalRequests += count;
+            
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("operation", entry.getKey().name());
+            row.put("endpoint", entry.getKey().endpoint);
+            row.put("requests", count);
+            row.put("throughputPerSecond", count / seconds);
+            row.put("ok", entry.getValue().ok.sum());
+            row.put("rejected", entry.getValue().rejected.sum());
+            row.put("shed", entry.getValue().shed.sum());
+            row.put("failed", entry.getValue().failed.sum());
+            row.put("p50Ms", millis(histogram.getValueAtPercentile(50)));
+            row.put("p90Ms", millis(histogram.getValueAtPercentile(90)));
+            row.put("p99Ms", millis(histogram.getValueAtPercentile(99)));
+            row.put("p999Ms", millis(histogram.getValueAtPercentile(99.9)));
+            row.put("maxMs", millis(histogram.getMaxValue()));
+            row.put("meanMs", histogram.getMean() / 1000.0);
+            operations.add(row);
+            
+            table.append(String.format(Locale.ROOT, "%-40s %9d %10.1f %8d %8d %8d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey().endpoint, count, count / seconds, entry.getValue().rejected.sum(),
+                    entry.getValue().shed.sum(), entry.getValue().failed.sum(), row.get("p50Ms"), row.get("p99Ms"), row.get("p999Ms"),
+                    row.get("maxMs"), row.get("meanMs")));
+            
+            try (PrintStream out = new PrintStream(Files.newOutputStream(
+                    reportDir.resolve(entry.getKey().name().toLowerCase(Locale.ROOT) + ".hgrm")))) {
+                histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        table.append(String.format(Locale.ROOT, "%-40s %9d %10.1f%n", "total", totalRequests, totalRequests / seconds));
+        
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("mode", mode);
+        report.put("books", BOOKS);
+        report.put("threads", THREADS);
+        report.put("targetRatePerSecond", RATE > 0 ? RATE : null);
+        report.put("mix", MIX);
+        report.put("durationSeconds", seconds);
+        report.put("throughputPerSecond", totalRequests / seconds);
+        report.put("operations", operations);
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(reportDir.resolve("load-report.json").toFile(), report);
+        Files.writeString(reportDir.resolve("load-report.txt"), table);
+        log.info("Load report written to {}:{}{}", reportDir, System.lineSeparator(), table);
+    }
+    
+    private Map<Operation, OperationStats> newStats() {
+        Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new OperationStats());
+        }
+        return stats;
+    }
+    
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split("=");
+            weights.put(Operation.valueOf(pair[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(pair[1].trim()));
+        }
+        return weights;
+    }
+    
+    private static Operation pick(Map<Operation, Integer> weights) {
+        int total = weights.values().stream().mapToInt(Integer::intValue).sum();
+        int ticket = ThreadLocalRandom.current().nextInt(total);
+        for (Map.Entry<Operation, Integer> entry : weights.entrySet()) {
+            ticket -= entry.getValue();
+            if (ticket < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Empty workload mix");
+    }
+    
+    private URI uri(String path) {
+        return URI.create((BASE_URL != null ? BASE_URL : "http://localhost:" + port) + path);
+    }
+    
+    private static String isbn(int i) {
+        return "load-" + i;
+    }
+    
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+    
+    /**
+     * Latency histogram in microseconds and outcome counters of one operation: rejected counts
+     * 4xx answers, shed counts 503 from admission control, failed counts other 5xx and I/O errors
+     */
+    private static final class OperationStats {
+        
+        private final Histogram histogram = new ConcurrentHistogram(3);
+        private final LongAdder ok = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder shed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        
+        void record(long nanos, int status) {
+            histogram.recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos)));
+            if (status >= 200 && status < 300) {
+                ok.increment();
+            } else if (status >= 400 && status < 500) {
+                rejected.increment();
+            } else if (status == 503) {
+                shed.increment();
+            } else {
+                failed.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.love.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.love.dto.BookRequest;
+import com.love.dto.BorrowingRequest;
+import com.love.enums.BookAvailabilityStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=INFO"
+})
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class MetricsEndpointTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Test
+    void prometheusScrapeCoversEveryLayerAndTheBusinessCounters() throws Exception {
+        String isbn = "978-" + UUID.randomUUID().toString().substring(0, 13);
+        mockMvc.perform(post("/api/books").contentType(MediaType.APPLICATION_JSON)
+                        .content(json(new BookRequest("Metered", "Author", isbn, BookAvailabilityStatus.AVAILABLE))))
+                .andExpect(status().isCreated());
+        String borrow = json(new BorrowingRequest(isbn, "Reader", LocalDateTime.now()));
+        String created = mockMvc.perform(post("/api/borrowings").contentType(MediaType.APPLICATION_JSON).content(borrow))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        mockMvc.perform(post("/api/borrowings").contentType(MediaType.APPLICATION_JSON).content(borrow))
+                .andExpect(status().isBadRequest());
+        long id = objectMapper.readTree(created).get("id").asLong();
+        mockMvc.perform(put("/api/borrowings/" + id + "/return")).andExpect(status().isOk());
+        
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        
+        assertThat(scrape)
+                .contains("http_server_requests_seconds_bucket{", "uri=\"/api/borrowings\"")
+                .contains("library_service_seconds_bucket{", "method=\"createBorrowingTransaction\"", "service=\"BorrowingService\"")
+                .contains("spring_data_repository_invocations_seconds_bucket{", "method=\"updateAvailabilityIfCurrent\"")
+                .contains("hikaricp_connections_active")
+                .containsPattern("library_borrowings_borrowed_total\\{[^}]*} [1-9]")
+                .containsPattern("library_borrowings_returned_total\\{[^}]*} [1-9]")
+                .containsPattern("library_borrowings_rejected_total\\{[^}]*reason=\"not_available\"[^}]*} [1-9]");
+    }
+    
+    private String json(Object value) throws Exception {
+        return objectMapper.writeValueAsString(value);
+    }
+}
@@ -0,0 +1,58 @@
+package com.love.overdue;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HierarchicalTimingWheelTest {
+    
+    @Test
+    void expiresEveryEntryOnItsDeadlineTickAcrossLevels() {
+        long start = 1_000_000L;
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(1, start);
+        Random random = new Random(42);
+        long[] deadlines = new long[5000];
+        for (int id = 0; id < deadlines.length; id++) {
+            // Up to about three levels ahead, so most entries cascade at least once
+            deadlines[id] = start + 1 + random.nextInt(300_000);
+            wheel.schedule(id, deadlines[id]);
+        }
+        
+        long now = start;
+        int expired = 0;
+        while (expired < deadlines.length) {
+            long previous = now;
+            now += 1 + random.nextInt(50);
+            List<Long> ids = new ArrayList<>();
+            wheel.advance(now, ids::add);
+            // Each entry expires on the advance that passes its deadline, never earlier or later
+            for (long id : ids) {
+                assertThat(deadlines[(int) id]).isGreaterThan(previous).isLessThanOrEqualTo(now);
+            }
+            expired += ids.size();
+            assertThat(wheel.size()).isEqualTo(deadlines.length - expired);
+        }
+    }
+    
+    @Test
+    void expiresPastDeadlinesOnNextAdvanceAndRoundsUpToTheTick() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(1000, 10_000);
+        wheel.schedule(1, 5_000);
+        wheel.schedule(2, 11_001);
+        
+        List<Long> ids = new ArrayList<>();
+        wheel.advance(10_000, ids::add);
+        assertThat(ids).containsExactly(1L);
+        
+        // Deadline 11001 rounds up to tick 12, so it is not due at 11999
+        wheel.advance(11_999, ids::add);
+        assertThat(ids).containsExactly(1L);
+        wheel.advance(12_000, ids::add);
+        assertThat(ids).containsExactly(1L, 2L);
+        assertThat(wheel.size()).isZero();
+    }
+}
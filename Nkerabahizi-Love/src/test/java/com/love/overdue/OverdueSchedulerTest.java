@@ -0,0 +1,66 @@
+package com.love.overdue;
+
+import com.love.dto.BookRequest;
+import com.love.dto.BorrowingRequest;
+import com.love.dto.BorrowingResponse;
+import com.love.enums.BookAvailabilityStatus;
+import com.love.enums.BorrowingStatus;
+import com.love.service.BookService;
+import com.love.service.BorrowingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=INFO"
+})
+class OverdueSchedulerTest {
+    
+    @Autowired
+    private BorrowingService borrowingService;
+    
+    @Autowired
+    private BookService bookService;
+    
+    @Autowired
+    private OverdueScheduler overdueScheduler;
+    
+    @Test
+    void marksLoansOverdueOnceDueAndStillAcceptsTheirReturn() throws InterruptedException {
+        LocalDateTime now = LocalDateTime.now();
+        BorrowingResponse late = borrow(now.minusDays(15), now.minusDays(1));
+        BorrowingResponse onTime = borrow(now, null);
+        assertThat(onTime.getDueDate()).isEqualTo(now.plusDays(14));
+        
+        // The wheel thread ticks every second; the loan reaches the wheel when the borrow commits
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (status(late) != BorrowingStatus.OVERDUE && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        
+        assertThat(status(late)).isEqualTo(BorrowingStatus.OVERDUE);
+        assertThat(status(onTime)).isEqualTo(BorrowingStatus.PENDING);
+        assertThat(borrowingService.getBorrowingTransactionsByStatus(BorrowingStatus.OVERDUE))
+                .extracting(BorrowingResponse::getId).contains(late.getId());
+        assertThat(borrowingService.returnBook(late.getId()).getStatus()).isEqualTo(BorrowingStatus.RETURNED);
+        assertThat(overdueScheduler.markDueLoans()).isZero();
+    }
+    
+    private BorrowingResponse borrow(LocalDateTime borrowDate, LocalDateTime dueDate) {
+        String isbn = "overdue-" + UUID.randomUUID();
+        bookService.createBook(new BookRequest("Overdue Book", "Author", isbn, BookAvailabilityStatus.AVAILABLE));
+        BorrowingRequest request = new BorrowingRequest(isbn, "Late Reader", borrowDate);
+        request.setDueDate(dueDate);
+        return borrowingService.createBorrowingTransaction(request);
+    }
+    
+    private BorrowingStatus status(BorrowingResponse loan) {
+        return borrowingService.getBorrowingTransactionById(loan.getId()).orElseThrow().getStatus();
+    }
+}
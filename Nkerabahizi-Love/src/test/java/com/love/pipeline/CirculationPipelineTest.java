@@ -0,0 +1,110 @@
+package com.love.pipeline;
+
+import com.love.dto.PipelineStatsResponse;
+import com.love.enums.CirculationEventType;
+import com.love.enums.PipelineOverflowPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CirculationPipelineTest {
+    
+    @Test
+    void deliversEveryEventInProducerOrderWhenBlocking() throws Exception {
+        int producers = 4;
+        int eventsPerProducer = 5000;
+        RecordingHandler handler = new RecordingHandler(null);
+        CirculationPipeline pipeline = new CirculationPipeline(64, PipelineOverflowPolicy.BLOCK,
+                List.of(handler), new SimpleMeterRegistry());
+        pipeline.start();
+        
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            futures.add(executor.submit(() -> {
+                for (long i = 0; i < eventsPerProducer; i++) {
+                    pipeline.publish(CirculationEventType.BORROWED, i, producer, "Reader", LocalDateTime.now(), null);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        pipeline.stop();
+        
+        // The ring is much smaller than the stream, so producers were held back rather than losing events
+        PipelineStatsResponse statistics = pipeline.getStatistics();
+        assertThat(statistics.getPublished()).isEqualTo(producers * eventsPerProducer);
+        assertThat(statistics.getDropped()).isZero();
+        assertThat(handler.received).hasSize(producers * eventsPerProducer);
+        long[] lastByProducer = {-1, -1, -1, -1};
+        for (long[] event : handler.received) {
+            int producer = (int) event[1];
+            assertThat(event[0]).isEqualTo(lastByProducer[producer] + 1);
+            lastByProducer[producer] = event[0];
+        }
+    }
+    
+    @Test
+    void dropsEventsWhenRingIsFullAndHandlerIsStuck() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingHandler handler = new RecordingHandler(release);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CirculationPipeline pipeline = new CirculationPipeline(8, PipelineOverflowPolicy.DROP,
+                List.of(handler), registry);
+        pipeline.start();
+        
+        int accepted = 0;
+        for (long i = 0; i < 100; i++) {
+            if (pipeline.publish(CirculationEventType.RETURNED, i, 1L, "Reader", LocalDateTime.now(), null)) {
+                accepted++;
+            }
+        }
+        PipelineStatsResponse statistics = pipeline.getStatistics();
+        
+        assertThat(accepted).isLessThanOrEqualTo(8);
+        assertThat(statistics.getPublished() + statistics.getDropped()).isEqualTo(100);
+        assertThat(statistics.getRemainingCapacity()).isZero();
+        assertThat(statistics.getConsumerLag()).containsEntry("RecordingHandler", (long) accepted);
+        assertThat(registry.get("library.pipeline.lag").tag("handler", "RecordingHandler").gauge().value())
+                .isEqualTo(accepted);
+        
+        release.countDown();
+        pipeline.stop();
+        assertThat(handler.received).hasSize(accepted);
+    }
+    
+    private static class RecordingHandler implements CirculationEventHandler {
+        
+        private final CountDownLatch release;
+        private final List<long[]> received = new ArrayList<>();
+        
+        RecordingHandler(CountDownLatch release) {
+            this.release = release;
+        }
+        
+        @Override
+        public void onEvent(CirculationEvent event, long sequence, boolean endOfBatch) {
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            received.add(new long[]{event.getTransactionId(), event.getBookId()});
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.love.repository;
+
+import com.love.dto.BookRequest;
+import com.love.dto.BookResponse;
+import com.love.dto.BorrowingRequest;
+import com.love.entity.Book;
+import com.love.enums.BookAvailabilityStatus;
+import com.love.service.BookService;
+import com.love.service.BorrowingService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs on its own in-memory database: its context recreates the schema when it starts,
+ * which must not reset the tables under the contexts of the other tests.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=INFO",
+        "spring.datasource.url=jdbc:h2:mem:book-cache"
+})
+class BookSecondLevelCacheTest {
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    @Autowired
+    private BookService bookService;
+    
+    @Autowired
+    private BorrowingService borrowingService;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private Statistics statistics;
+    private Cache cache;
+    
+    @BeforeEach
+    void lookUpStatistics() {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        statistics = sessionFactory.getStatistics();
+        cache = sessionFactory.getCache();
+    }
+    
+    @Test
+    void repeatedIsbnReadsRunNoStatements() {
+        BookResponse book = createBook("Cached");
+        bookRepository.findByIsbn(book.getIsbn()).orElseThrow();
+        
+        statistics.clear();
+        for (int i = 0; i < 3; i++) {
+            assertThat(bookRepository.findByIsbn(book.getIsbn())).map(Book::getTitle).contains("Cached");
+            assertThat(bookRepository.findById(book.getId())).isPresent();
+        }
+        
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getNaturalIdCacheHitCount()).isEqualTo(3);
+        assertThat(statistics.getSecondLevelCacheHitCount()).isGreaterThanOrEqualTo(6);
+    }
+    
+    @Test
+    void borrowAndReturnEvictOnlyTheBookThatChanged() {
+        BookResponse borrowed = createBook("Borrowed");
+        BookResponse untouched = createBook("Untouched");
+        bookRepository.findByIsbn(borrowed.getIsbn()).orElseThrow();
+        bookRepository.findByIsbn(untouched.getIsbn()).orElseThrow();
+        bookRepository.findByAvailabilityStatus(BookAvailabilityStatus.AVAILABLE);
+        
+        statistics.clear();
+        assertThat(bookRepository.findByAvailabilityStatus(BookAvailabilityStatus.AVAILABLE))
+                .extracting(Book::getId).contains(borrowed.getId(), untouched.getId());
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+        
+        Long loanId = borrowingService.createBorrowingTransaction(
+                new BorrowingRequest(borrowed.getIsbn(), "Cache reader " + UUID.randomUUID(), LocalDateTime.now())).getId();
+        
+        assertReloadedOnlyTheBookThatChanged(borrowed, untouched);
+        assertThat(bookRepository.findByIsbn(borrowed.getIsbn())).map(Book::getAvailabilityStatus)
+                .contains(BookAvailabilityStatus.BORROWED);
+        assertThat(bookRepository.findByAvailabilityStatus(BookAvailabilityStatus.AVAILABLE))
+                .extracting(Book::getId).doesNotContain(borrowed.getId()).contains(untouched.getId());
+        
+        borrowingService.returnBook(loanId);
+        
+        assertReloadedOnlyTheBookThatChanged(borrowed, untouched);
+        assertThat(bookRepository.findByIsbn(borrowed.getIsbn())).map(Book::getAvailabilityStatus)
+                .contains(BookAvailabilityStatus.AVAILABLE);
+    }
+    
+    /**
+     * The changed book is read from the database once, past its unlocked cache entry, and cached again
+     */
+    private void assertReloadedOnlyTheBookThatChanged(BookResponse changed, BookResponse untouched) {
+        statistics.clear();
+        assertThat(cache.containsEntity(Book.class, untouched.getId())).isTrue();
+        assertThat(bookRepository.findById(untouched.getId())).isPresent();
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        
+        assertThat(bookRepository.findById(changed.getId())).isPresent();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(bookRepository.findById(changed.getId())).isPresent();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+    
+    private BookResponse createBook(String title) {
+        String isbn = "978-" + UUID.randomUUID().toString().substring(0, 13);
+        return bookService.createBook(new BookRequest(title, "Author", isbn, BookAvailabilityStatus.AVAILABLE));
+    }
+}
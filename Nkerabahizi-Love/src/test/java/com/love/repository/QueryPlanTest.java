@@ -0,0 +1,195 @@
+package com.love.repository;
+
+import com.love.dto.BookRequest;
+import com.love.dto.BorrowingRequest;
+import com.love.entity.Book;
+import com.love.enums.BookAvailabilityStatus;
+import com.love.enums.BorrowingStatus;
+import com.love.service.BookService;
+import com.love.service.BorrowingService;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every repository query that selects, counts or updates a subset of rows, captures the SQL
+ * Hibernate generates for it, and checks with H2's {@code EXPLAIN} that no table is scanned.
+ * Whole-table reads (exports, listings of every loan and the startup index rebuilds) are left out
+ * on purpose.
+ * <p>
+ * H2 picks indexes by cost, so the plans are taken on a database of its own, seeded with enough
+ * rows and analyzed for the choice to match a real catalog. The second-level cache is off, so that
+ * every query reaches the database.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:queryplans",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=INFO"
+})
+class QueryPlanTest {
+    
+    private static final List<String> STATEMENTS = Collections.synchronizedList(new ArrayList<>());
+    private static final List<BorrowingStatus> OPEN = List.of(BorrowingStatus.PENDING, BorrowingStatus.OVERDUE);
+    private static final int SEEDED_LOANS = 20_000;
+    
+    private static boolean seeded;
+    
+    @TestConfiguration
+    static class RecordStatements {
+        
+        @Bean
+        HibernatePropertiesCustomizer statementRecorder() {
+            StatementInspector inspector = sql -> {
+                STATEMENTS.add(sql);
+                return sql;
+            };
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+        }
+    }
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    @Autowired
+    private BorrowingTransactionRepository borrowingTransactionRepository;
+    
+    @Autowired
+    private BorrowerRepository borrowerRepository;
+    
+    @Autowired
+    private BookService bookService;
+    
+    @Autowired
+    private BorrowingService borrowingService;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private Book book;
+    private Long borrowerId;
+    private Long loanId;
+    
+    @BeforeEach
+    void borrowABook() {
+        if (!seeded) {
+            seed();
+            seeded = true;
+        }
+        String isbn = "978-" + UUID.randomUUID().toString().substring(0, 13);
+        String borrower = "Planner " + UUID.randomUUID();
+        bookService.createBook(new BookRequest("Planned", "Author", isbn, BookAvailabilityStatus.AVAILABLE));
+        loanId = borrowingService.createBorrowingTransaction(new BorrowingRequest(isbn, borrower, LocalDateTime.now())).getId();
+        book = bookRepository.findByIsbn(isbn).orElseThrow();
+        borrowerId = borrowerRepository.findByName(borrower).orElseThrow().getId();
+    }
+    
+    @Test
+    void bookQueriesUseAnIndex() {
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("findByIsbn", () -> bookRepository.findByIsbn(book.getIsbn()));
+        queries.put("existsByIsbn", () -> bookRepository.existsByIsbn(book.getIsbn()));
+        queries.put("findByAvailabilityStatus", () -> bookRepository.findByAvailabilityStatus(BookAvailabilityStatus.BORROWED));
+        queries.put("findExistingIsbns", () -> bookRepository.findExistingIsbns(List.of(book.getIsbn(), "missing")));
+        queries.put("updateAvailabilityIfCurrent", () -> bookRepository.updateAvailabilityIfCurrent(book.getIsbn(),
+                BookAvailabilityStatus.BORROWED, BookAvailabilityStatus.AVAILABLE));
+        queries.put("findPageAfterId", () -> bookRepository.findPageAfterId(book.getId(), null, null, null, Limit.of(20)));
+        queries.put("streamIdsByAvailabilityStatus", () -> {
+            try (Stream<Long> ids = bookRepository.streamIdsByAvailabilityStatus(BookAvailabilityStatus.BORROWED)) {
+                ids.count();
+            }
+        });
+        assertIndexed(queries);
+    }
+    
+    @Test
+    void loanAndBorrowerQueriesUseAnIndex() {
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("findByBook", () -> borrowingTransactionRepository.findByBook(book));
+        queries.put("findByStatus", () -> borrowingTransactionRepository.findByStatus(BorrowingStatus.OVERDUE));
+        queries.put("findByBookAndStatus", () -> borrowingTransactionRepository.findByBookAndStatus(book, BorrowingStatus.PENDING));
+        queries.put("findFirstByBookAndStatusOrderByBorrowDateDesc", () -> borrowingTransactionRepository
+                .findFirstByBookAndStatusOrderByBorrowDateDesc(book, BorrowingStatus.PENDING));
+        queries.put("findByIdWithBook", () -> borrowingTransactionRepository.findByIdWithBook(loanId));
+        queries.put("updateStatusIfCurrent", () -> borrowingTransactionRepository.updateStatusIfCurrent(loanId,
+                List.of(BorrowingStatus.RETURNED), BorrowingStatus.RETURNED, LocalDateTime.now()));
+        queries.put("findResponsesByStatus", () -> borrowingTransactionRepository.findResponsesByStatus(BorrowingStatus.OVERDUE));
+        queries.put("findResponseById", () -> borrowingTransactionRepository.findResponseById(loanId));
+        queries.put("streamPendingLoans", () -> {
+            try (Stream<?> loans = borrowingTransactionRepository.streamPendingLoans()) {
+                loans.count();
+            }
+        });
+        queries.put("markOverdue", () -> borrowingTransactionRepository.markOverdue(List.of(loanId), LocalDateTime.MIN));
+        queries.put("countByBorrowerAndStatuses", () -> borrowingTransactionRepository.countByBorrowerAndStatuses(borrowerId, OPEN));
+        queries.put("findBorrowerLoans", () -> borrowingTransactionRepository.findBorrowerLoans(borrowerId, OPEN, Limit.of(20)));
+        queries.put("findBorrowerLoansBefore", () -> borrowingTransactionRepository.findBorrowerLoansBefore(borrowerId, OPEN,
+                LocalDateTime.now(), Long.MAX_VALUE, Limit.of(20)));
+        queries.put("findByName", () -> borrowerRepository.findByName("Nobody"));
+        queries.put("findByNameForUpdate", () -> borrowerRepository.findByNameForUpdate("Nobody"));
+        assertIndexed(queries);
+    }
+    
+    /**
+     * Insert books, borrowers and mostly returned loans in an id range the application never reaches, then analyze
+     */
+    private void seed() {
+        jdbcTemplate.update("INSERT INTO books (id, title, author, isbn, availability_status, version) " +
+                "SELECT X + 1000000000, 'Seeded ' || X, 'Author ' || MOD(X, 100), 'seed-' || X, 'AVAILABLE', 0 " +
+                "FROM SYSTEM_RANGE(1, ?)", SEEDED_LOANS / 4);
+        jdbcTemplate.update("INSERT INTO borrowers (id, name) " +
+                "SELECT X + 1000000000, 'Seeded ' || X FROM SYSTEM_RANGE(1, ?)", SEEDED_LOANS / 20);
+        jdbcTemplate.update("INSERT INTO borrowing_transactions " +
+                "(id, book_id, borrower_id, borrower_name, borrow_date, due_date, return_date, status, version) " +
+                "SELECT X + 1000000000, MOD(X, ?) + 1000000001, MOD(X, ?) + 1000000001, 'Seeded ' || (MOD(X, ?) + 1), " +
+                "DATEADD(DAY, -MOD(X, 365), CURRENT_TIMESTAMP), DATEADD(DAY, 14 - MOD(X, 365), CURRENT_TIMESTAMP), " +
+                "CASE WHEN MOD(X, 10) = 0 THEN NULL ELSE CURRENT_TIMESTAMP END, " +
+                "CASE WHEN MOD(X, 10) = 0 THEN 'PENDING' ELSE 'RETURNED' END, 0 " +
+                "FROM SYSTEM_RANGE(1, ?)",
+                SEEDED_LOANS / 4, SEEDED_LOANS / 20, SEEDED_LOANS / 20, SEEDED_LOANS);
+        jdbcTemplate.execute("ANALYZE");
+    }
+    
+    /**
+     * Run each query in a rolled back transaction and check the plan of every statement it issued
+     */
+    private void assertIndexed(Map<String, Runnable> queries) {
+        queries.forEach((name, query) -> {
+            STATEMENTS.clear();
+            transactionTemplate.executeWithoutResult(status -> {
+                query.run();
+                status.setRollbackOnly();
+            });
+            List<String> statements = List.copyOf(STATEMENTS);
+            assertThat(statements).as(name).isNotEmpty();
+            for (String sql : statements) {
+                String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+                assertThat(plan).as("%s plan", name).doesNotContainIgnoringCase("tableScan");
+            }
+        });
+    }
+}
@@ -0,0 +1,55 @@
+package com.love.service;
+
+import com.love.dto.BookRequest;
+import com.love.enums.BookAvailabilityStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BookCsvReaderTest {
+    
+    @Test
+    void readsQuotedCellsWithCommasEscapedQuotesAndLineBreaks() throws IOException {
+        List<List<String>> records = readAll("title,author,isbn,availabilityStatus\r\n" +
+                "\"Dune, Part One\",Frank Herbert,978-0441013593,\r\n" +
+                "\"The \"\"Hobbit\"\"\",\"J.R.R. Tolkien\",978-0547928227,borrowed\n" +
+                "\n" +
+                "\"Poems\nin two lines\",Anonymous,978-0000000000");
+        
+        assertThat(records).containsExactly(
+                List.of("Dune, Part One", "Frank Herbert", "978-0441013593", ""),
+                List.of("The \"Hobbit\"", "J.R.R. Tolkien", "978-0547928227", "borrowed"),
+                List.of("Poems\nin two lines", "Anonymous", "978-0000000000"));
+    }
+    
+    @Test
+    void convertsRecordsToBookRequests() {
+        BookRequest book = BookCsvReader.toBookRequest(List.of(" Dune ", "Frank Herbert", "978-0441013593", "borrowed"));
+        assertThat(book.getTitle()).isEqualTo("Dune");
+        assertThat(book.getAvailabilityStatus()).isEqualTo(BookAvailabilityStatus.BORROWED);
+        assertThat(BookCsvReader.toBookRequest(List.of("Dune", "Frank Herbert", "978-0441013593")).getAvailabilityStatus())
+                .isEqualTo(BookAvailabilityStatus.AVAILABLE);
+        
+        assertThatThrownBy(() -> BookCsvReader.toBookRequest(List.of("Dune", "Frank Herbert")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("got 2");
+        assertThatThrownBy(() -> BookCsvReader.toBookRequest(List.of("Dune", "Frank Herbert", "978-0441013593", "lost")))
+                .hasMessage("Unknown availability status lost");
+    }
+    
+    private static List<List<String>> readAll(String csv) throws IOException {
+        BookCsvReader reader = new BookCsvReader(new StringReader(csv));
+        List<List<String>> records = new ArrayList<>();
+        List<String> record;
+        while ((record = reader.nextRecord()) != null) {
+            records.add(record);
+        }
+        return records;
+    }
+}
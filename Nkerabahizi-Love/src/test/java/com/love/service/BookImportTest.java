@@ -0,0 +1,86 @@
+package com.love.service;
+
+import com.love.dto.BookRequest;
+import com.love.dto.BulkImportError;
+import com.love.dto.BulkImportResponse;
+import com.love.enums.BookAvailabilityStatus;
+import com.love.repository.BookRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs on its own in-memory database, since the import commits chunk by chunk.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=INFO",
+        "spring.datasource.url=jdbc:h2:mem:book-import"
+})
+class BookImportTest {
+    
+    @Autowired
+    private BookService bookService;
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    @Test
+    void failedChunkIsReportedWithoutRollingBackTheOthers() {
+        long before = bookRepository.count();
+        List<BookRequest> books = new ArrayList<>();
+        for (int i = 0; i < BookService.IMPORT_CHUNK_SIZE * 2 + 10; i++) {
+            books.add(book("Imported " + i));
+        }
+        // Passes validation but is longer than the title column, so the second chunk fails on insert
+        books.set(BookService.IMPORT_CHUNK_SIZE + 5, book("x".repeat(300)));
+        
+        BulkImportResponse result = bookService.importBooks(books);
+        
+        assertThat(result.getReceived()).isEqualTo(books.size());
+        assertThat(result.getImported()).isEqualTo(BookService.IMPORT_CHUNK_SIZE + 10);
+        assertThat(result.getErrors()).hasSize(BookService.IMPORT_CHUNK_SIZE);
+        assertThat(result.getErrors()).extracting(BulkImportError::getRow)
+                .containsExactlyElementsOf(rows(BookService.IMPORT_CHUNK_SIZE + 1, BookService.IMPORT_CHUNK_SIZE * 2));
+        assertThat(result.getErrors().get(0).getMessage()).startsWith("Chunk rolled back");
+        assertThat(bookRepository.count()).isEqualTo(before + result.getImported());
+    }
+    
+    @Test
+    void csvImportReportsRowErrorsAndImportsTheRest() {
+        String isbn = "978-" + UUID.randomUUID().toString().substring(0, 13);
+        BulkImportResponse result = bookService.importBooksFromCsv(new StringReader(
+                "title,author,isbn\n" +
+                "\"Quoted, \"\"title\"\"\",Author," + isbn + "\n" +
+                "Missing columns,Author\n" +
+                "Same ISBN,Author," + isbn + "\n"));
+        
+        assertThat(result.getReceived()).isEqualTo(3);
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getErrors()).extracting(BulkImportError::getRow).containsExactly(2, 3);
+        assertThat(bookService.findBookByIsbn(isbn)).hasValueSatisfying(book -> {
+            assertThat(book.getTitle()).isEqualTo("Quoted, \"title\"");
+            assertThat(book.getAvailabilityStatus()).isEqualTo(BookAvailabilityStatus.AVAILABLE);
+        });
+    }
+    
+    private static BookRequest book(String title) {
+        return new BookRequest(title, "Author", "978-" + UUID.randomUUID().toString().substring(0, 13),
+                BookAvailabilityStatus.AVAILABLE);
+    }
+    
+    private static List<Integer> rows(int first, int last) {
+        List<Integer> rows = new ArrayList<>();
+        for (int row = first; row <= last; row++) {
+            rows.add(row);
+        }
+        return rows;
+    }
+}
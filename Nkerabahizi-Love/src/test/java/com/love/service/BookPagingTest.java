@@ -0,0 +1,138 @@
+package com.love.service;
+
+import com.love.dto.BookRequest;
+import com.love.dto.BookResponse;
+import com.love.dto.CursorPageResponse;
+import com.love.enums.BookAvailabilityStatus;
+import com.love.index.AvailabilityIndex;
+import com.love.repository.BookRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs on its own in-memory database so the catalog only holds the seed books and those created here.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=INFO",
+        "spring.datasource.url=jdbc:h2:mem:book-paging"
+})
+class BookPagingTest {
+    
+    private static final int BOOKS = 130;
+    
+    @Autowired
+    private BookService bookService;
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    @Autowired
+    private AvailabilityIndex availabilityIndex;
+    
+    @Test
+    void walksEveryBookOnceWithAndWithoutFilters() {
+        String prefix = UUID.randomUUID().toString().substring(0, 8);
+        List<Long> created = createCatalog(prefix);
+        List<Long> borrowed = new ArrayList<>();
+        for (int i = 0; i < BOOKS; i += 3) {
+            bookService.updateBookAvailability(prefix + "-" + i, BookAvailabilityStatus.BORROWED);
+            borrowed.add(created.get(i));
+        }
+        
+        List<Long> all = walk(cursor -> bookService.getBooks(cursor, 7, null, null, null), 7);
+        assertThat(all).isSorted().doesNotHaveDuplicates().containsAll(created).hasSize((int) bookRepository.count());
+        
+        // Title and author fragments are case-insensitive; "_" is matched literally, not as a wildcard
+        List<Long> byTitle = walk(cursor -> bookService.getBooks(cursor, 9, prefix.toUpperCase() + " Title", null, null), 9);
+        assertThat(byTitle).isEqualTo(created);
+        List<Long> byAuthor = walk(cursor -> bookService.getBooks(cursor, 9, null, "author_" + prefix, null), 9);
+        assertThat(byAuthor).isEqualTo(created.stream().filter(id -> created.indexOf(id) % 2 == 0).toList());
+        assertThat(walk(cursor -> bookService.getBooks(cursor, 9, null, "author%" + prefix, null), 9)).isEmpty();
+        
+        List<Long> borrowedByTitle = walk(cursor -> bookService.getBooks(cursor, 4, prefix, null,
+                BookAvailabilityStatus.BORROWED), 4);
+        assertThat(borrowedByTitle).isEqualTo(borrowed);
+        
+        // Without filters the available books come from the availability index, with filters from the table
+        List<Long> available = walk(cursor -> bookService.getAvailableBooks(cursor, 11, null, null), 11);
+        List<Long> availableInTable = walk(cursor -> bookService.getBooks(cursor, 11, null, null,
+                BookAvailabilityStatus.AVAILABLE), 11);
+        assertThat(available).isEqualTo(availableInTable).doesNotContainAnyElementsOf(borrowed);
+        List<Long> availableByTitle = walk(cursor -> bookService.getAvailableBooks(cursor, 11, prefix, null), 11);
+        assertThat(availableByTitle).isEqualTo(created.stream().filter(id -> !borrowed.contains(id)).toList());
+    }
+    
+    @Test
+    void clampsThePageSize() {
+        createCatalog(UUID.randomUUID().toString().substring(0, 8));
+        
+        assertThat(bookService.getBooks(null, null, null, null, null).getSize()).isEqualTo(BookService.DEFAULT_PAGE_SIZE);
+        assertThat(bookService.getBooks(null, 0, null, null, null).getSize()).isEqualTo(1);
+        assertThat(bookService.getBooks(null, -5, null, null, null).getSize()).isEqualTo(1);
+        assertThat(bookService.getBooks(null, 1000, null, null, null).getSize()).isEqualTo(BookService.MAX_PAGE_SIZE);
+        assertThat(bookService.getAvailableBooks(null, 1000, null, null).getSize()).isEqualTo(BookService.MAX_PAGE_SIZE);
+    }
+    
+    @Test
+    void leavesOutBooksBorrowedSinceTheIndexWasRead() {
+        String prefix = UUID.randomUUID().toString().substring(0, 8);
+        List<Long> created = createCatalog(prefix);
+        long stale = created.get(5);
+        bookService.updateBookAvailability(prefix + "-5", BookAvailabilityStatus.BORROWED);
+        
+        // The index still lists the book as available, as it would until the borrow's listener runs
+        availabilityIndex.markAvailable(stale);
+        assertThat(availabilityIndex.isAvailable(stale)).isTrue();
+        try {
+            List<Long> available = walk(cursor -> bookService.getAvailableBooks(cursor, 5, null, null), 5);
+            assertThat(available).isSorted().doesNotHaveDuplicates().doesNotContain(stale)
+                    .containsAll(created.stream().filter(id -> id != stale).toList());
+        } finally {
+            availabilityIndex.markUnavailable(stale);
+        }
+    }
+    
+    /**
+     * Follow the cursors from the first page to the last
+     * @return the ids of every book returned, in order
+     */
+    private static List<Long> walk(Function<Long, CursorPageResponse<BookResponse>> pages, int pageSize) {
+        List<Long> ids = new ArrayList<>();
+        Long cursor = null;
+        while (true) {
+            CursorPageResponse<BookResponse> page = pages.apply(cursor);
+            assertThat(page.getSize()).isLessThanOrEqualTo(pageSize);
+            page.getContent().forEach(book -> ids.add(book.getId()));
+            if (page.getNextCursor() == null) {
+                assertThat(page.isHasNext()).isFalse();
+                return ids;
+            }
+            assertThat(page.isHasNext()).isTrue();
+            cursor = Long.valueOf(page.getNextCursor());
+        }
+    }
+    
+    /**
+     * Create a catalog of books whose titles share the prefix; every other book has an author containing "_"
+     * @return the ids of the created books, in creation order
+     */
+    private List<Long> createCatalog(String prefix) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < BOOKS; i++) {
+            String author = i % 2 == 0 ? "Author_" + prefix : "Authorx" + prefix;
+            BookResponse book = bookService.createBook(new BookRequest(prefix + " Title " + i, author,
+                    prefix + "-" + i, BookAvailabilityStatus.AVAILABLE));
+            ids.add(book.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,105 @@
+package com.love.service;
+
+import com.love.dto.BookRequest;
+import com.love.dto.BorrowerResponse;
+import com.love.dto.BorrowingRequest;
+import com.love.dto.BorrowingResponse;
+import com.love.dto.CursorPageResponse;
+import com.love.enums.BookAvailabilityStatus;
+import com.love.enums.BorrowingStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=INFO",
+        "library.loans.max-open-per-borrower=3"
+})
+class BorrowerServiceTest {
+    
+    @Autowired
+    private BorrowingService borrowingService;
+    
+    @Autowired
+    private BorrowerService borrowerService;
+    
+    @Autowired
+    private BookService bookService;
+    
+    @Test
+    void rejectsBorrowsBeyondTheOpenLoanLimitUntilALoanIsReturned() {
+        String borrower = "Limited " + UUID.randomUUID();
+        List<BorrowingResponse> loans = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            loans.add(borrow(borrower, LocalDateTime.now()));
+        }
+        
+        String isbn = createBook();
+        assertThatThrownBy(() -> borrowingService.createBorrowingTransaction(
+                new BorrowingRequest(isbn, borrower, LocalDateTime.now())))
+                .hasMessageContaining("limit of 3 open loans");
+        assertThat(bookService.getBookAvailability(isbn)).isEqualTo("AVAILABLE");
+        
+        borrowingService.returnBook(loans.get(0).getId());
+        borrowingService.createBorrowingTransaction(new BorrowingRequest(isbn, borrower, LocalDateTime.now()));
+        
+        BorrowerResponse response = borrowerService.getBorrowerByName(borrower).orElseThrow();
+        assertThat(response.getOpenLoans()).isEqualTo(3);
+        assertThat(response.getMaxOpenLoans()).isEqualTo(3);
+    }
+    
+    @Test
+    void pagesThroughLoanHistoryMostRecentFirst() {
+        String borrower = "History " + UUID.randomUUID();
+        LocalDateTime start = LocalDateTime.now().minusDays(30);
+        List<Long> expected = new ArrayList<>();
+        // Two loans share each borrow date, so the id breaks ties across page boundaries
+        for (int i = 0; i < 7; i++) {
+            BorrowingResponse loan = borrow(borrower, start.plusDays(i / 2));
+            borrowingService.returnBook(loan.getId());
+            expected.add(0, loan.getId());
+        }
+        BorrowingResponse open = borrow(borrower, LocalDateTime.now());
+        expected.add(0, open.getId());
+        Long borrowerId = borrowerService.getBorrowerByName(borrower).orElseThrow().getId();
+        
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPageResponse<BorrowingResponse> page = borrowerService.getLoans(borrowerId, null, cursor, 3).orElseThrow();
+            assertThat(page.getSize()).isLessThanOrEqualTo(3);
+            page.getContent().forEach(loan -> seen.add(loan.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertThat(seen).isEqualTo(expected);
+        
+        CursorPageResponse<BorrowingResponse> pending = borrowerService
+                .getLoans(borrowerId, BorrowingStatus.PENDING, null, 3).orElseThrow();
+        assertThat(pending.getContent()).extracting(BorrowingResponse::getId).containsExactly(open.getId());
+        assertThat(pending.isHasNext()).isFalse();
+        
+        assertThat(borrowerService.getLoans(Long.MAX_VALUE, null, null, 3)).isEmpty();
+        assertThatThrownBy(() -> borrowerService.getLoans(borrowerId, null, "not-a-cursor", 3))
+                .hasMessageContaining("Invalid cursor");
+    }
+    
+    private BorrowingResponse borrow(String borrower, LocalDateTime borrowDate) {
+        return borrowingService.createBorrowingTransaction(
+                new BorrowingRequest(createBook(), borrower, borrowDate));
+    }
+    
+    private String createBook() {
+        String isbn = "978-" + UUID.randomUUID().toString().substring(0, 13);
+        bookService.createBook(new BookRequest("Loaned", "Author", isbn, BookAvailabilityStatus.AVAILABLE));
+        return isbn;
+    }
+}
@@ -0,0 +1,291 @@
+package com.love.service;
+
+import com.love.dto.BookRequest;
+import com.love.dto.BorrowingRequest;
+import com.love.dto.BorrowingResponse;
+import com.love.entity.Book;
+import com.love.entity.Borrower;
+import com.love.entity.BorrowingTransaction;
+import com.love.enums.BookAvailabilityStatus;
+import com.love.enums.BorrowingStatus;
+import com.love.repository.BookRepository;
+import com.love.repository.BorrowerRepository;
+import com.love.repository.BorrowingTransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=INFO"
+})
+class BorrowingServiceConcurrencyTest {
+    
+    private static final Logger log = LoggerFactory.getLogger(BorrowingServiceConcurrencyTest.class);
+    
+    private static final int THREADS = 16;
+    private static final int CONTENDED_BOOKS = 25;
+    private static final int CYCLES_PER_THREAD = 200;
+    
+    @Autowired
+    private BorrowingService borrowingService;
+    
+    @Autowired
+    private BookService bookService;
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    @Autowired
+    private BorrowingTransactionRepository borrowingTransactionRepository;
+    
+    @Autowired
+    private BorrowerRepository borrowerRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private ConflictRetryMonitor conflictRetryMonitor;
+    
+    @Autowired
+    private AvailabilityIndexService availabilityIndexService;
+    
+    @Test
+    void concurrentBorrowsOfSameBookCreateExactlyOneLoan() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int i = 0; i < CONTENDED_BOOKS; i++) {
+                String isbn = createBook("contended");
+                CountDownLatch start = new CountDownLatch(1);
+                AtomicInteger successes = new AtomicInteger();
+                
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < THREADS; t++) {
+                    // A fresh borrower per attempt keeps the loan limit out of the contention under test
+                    String borrower = "Borrower " + i + "-" + t;
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        try {
+                            borrowingService.createBorrowingTransaction(
+                                    new BorrowingRequest(isbn, borrower, LocalDateTime.now()));
+                            successes.incrementAndGet();
+                        } catch (RuntimeException e) {
+                            assertThat(e).hasMessageContaining("not available");
+                        }
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+                
+                Book book = bookRepository.findByIsbn(isbn).orElseThrow();
+                assertThat(successes.get()).isEqualTo(1);
+                assertThat(borrowingTransactionRepository.findByBookAndStatus(book, BorrowingStatus.PENDING)).hasSize(1);
+                assertThat(book.getAvailabilityStatus()).isEqualTo(BookAvailabilityStatus.BORROWED);
+            }
+            assertThat(availabilityIndexService.checkConsistency().isConsistent()).isTrue();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    @Test
+    void concurrentReturnsOfSameLoanSucceedOnce() throws Exception {
+        String isbn = createBook("return");
+        BorrowingResponse loan = borrowingService.createBorrowingTransaction(
+                new BorrowingRequest(isbn, "Returner", LocalDateTime.now()));
+        
+        AtomicInteger successes = new AtomicInteger();
+        runConcurrently(thread -> {
+            try {
+                borrowingService.returnBook(loan.getId());
+                successes.incrementAndGet();
+            } catch (RuntimeException e) {
+                assertThat(e).hasMessageContaining("already been returned");
+            }
+        }, 1);
+        
+        assertThat(successes.get()).isEqualTo(1);
+        assertThat(bookService.getBookAvailability(isbn)).isEqualTo("AVAILABLE");
+        assertThat(availabilityIndexService.checkConsistency().isConsistent()).isTrue();
+    }
+    
+    @Test
+    void staleBookWriteIsRejectedInsteadOfOverwriting() {
+        String isbn = createBook("stale");
+        Book stale = bookRepository.findByIsbn(isbn).orElseThrow();
+        
+        bookService.updateBookAvailability(isbn, BookAvailabilityStatus.BORROWED);
+        stale.setAvailabilityStatus(BookAvailabilityStatus.AVAILABLE);
+        
+        assertThatThrownBy(() -> bookRepository.save(stale))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(bookService.getBookAvailability(isbn)).isEqualTo("BORROWED");
+    }
+    
+    @Test
+    void concurrentAvailabilityUpdatesAreRetriedOnConflict() throws Exception {
+        String isbn = createBook("versioned");
+        AtomicInteger successes = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        
+        runConcurrently(thread -> {
+            BookAvailabilityStatus status = thread % 2 == 0
+                    ? BookAvailabilityStatus.BORROWED
+                    : BookAvailabilityStatus.AVAILABLE;
+            try {
+                bookService.updateBookAvailability(isbn, status);
+                successes.incrementAndGet();
+            } catch (ConcurrencyFailureException e) {
+                conflicts.incrementAndGet();
+            }
+        }, 5);
+        
+        // Every call either wrote on a current version or surfaced the conflict after its retries
+        assertThat(successes.get() + conflicts.get()).isEqualTo(THREADS * 5);
+        assertThat(conflictRetryMonitor.getStatistics())
+                .anySatisfy(stats -> {
+                    assertThat(stats.getOperation()).isEqualTo("BookService.updateBookAvailability");
+                    assertThat(stats.getConflicts()).isPositive();
+                    assertThat(stats.getRetries()).isPositive();
+                    assertThat(stats.getExhausted()).isGreaterThanOrEqualTo(conflicts.get());
+                });
+    }
+    
+    @Test
+    void borrowReturnThroughputVersusReadCheckWrite() throws Exception {
+        List<String> atomicIsbns = createBooks("atomic", THREADS);
+        List<String> legacyIsbns = createBooks("legacy", THREADS);
+        Borrower legacyBorrower = borrowerRepository.save(new Borrower("Legacy " + UUID.randomUUID()));
+        
+        // Each thread cycles its own book, so the comparison measures the cost of the write path
+        long legacyNanos = runConcurrently(thread -> {
+            legacyReturn(legacyBorrow(legacyIsbns.get(thread), legacyBorrower));
+        }, CYCLES_PER_THREAD);
+        
+        long atomicNanos = runConcurrently(thread -> {
+            String isbn = atomicIsbns.get(thread);
+            BorrowingResponse loan = borrowingService.createBorrowingTransaction(
+                    new BorrowingRequest(isbn, "Throughput " + thread, LocalDateTime.now()));
+            borrowingService.returnBook(loan.getId());
+        }, CYCLES_PER_THREAD);
+        
+        double operations = 2.0 * THREADS * CYCLES_PER_THREAD;
+        double legacyOpsPerSecond = operations / (legacyNanos / 1e9);
+        double atomicOpsPerSecond = operations / (atomicNanos / 1e9);
+        log.info("Borrow/return throughput with {} threads: read-check-write {} ops/s, conditional update {} ops/s (x{})",
+                THREADS, Math.round(legacyOpsPerSecond), Math.round(atomicOpsPerSecond),
+                String.format("%.2f", atomicOpsPerSecond / legacyOpsPerSecond));
+        
+        for (String isbn : atomicIsbns) {
+            assertThat(bookService.getBookAvailability(isbn)).isEqualTo("AVAILABLE");
+        }
+    }
+    
+    /**
+     * Run the given action on every thread at the same time, the given number of times per thread
+     * @return the wall-clock time taken in nanoseconds
+     */
+    private long runConcurrently(ThreadAction action, int iterations) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                Callable<Void> task = () -> {
+                    start.await();
+                    for (int i = 0; i < iterations; i++) {
+                        action.run(thread);
+                    }
+                    return null;
+                };
+                futures.add(executor.submit(task));
+            }
+            
+            long startNanos = System.nanoTime();
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+            return System.nanoTime() - startNanos;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    /**
+     * The previous borrow path: read the availability, read the book again, insert the loan, update the book
+     */
+    private Long legacyBorrow(String isbn, Borrower borrower) {
+        return transactionTemplate.execute(status -> {
+            Book checked = bookRepository.findByIsbn(isbn).orElseThrow();
+            if (checked.getAvailabilityStatus() != BookAvailabilityStatus.AVAILABLE) {
+                throw new IllegalStateException("Book " + isbn + " is not available");
+            }
+            Book book = bookRepository.findByIsbn(isbn).orElseThrow();
+            BorrowingTransaction transaction = borrowingTransactionRepository.save(
+                    new BorrowingTransaction(book, borrower, LocalDateTime.now(), LocalDateTime.now().plusDays(14)));
+            book.setAvailabilityStatus(BookAvailabilityStatus.BORROWED);
+            bookRepository.save(book);
+            return transaction.getId();
+        });
+    }
+    
+    /**
+     * The previous return path: load the loan, check it, update the book through a second lookup, save the loan
+     */
+    private void legacyReturn(Long transactionId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            BorrowingTransaction transaction = borrowingTransactionRepository.findById(transactionId).orElseThrow();
+            if (transaction.getStatus() == BorrowingStatus.RETURNED) {
+                throw new IllegalStateException("Loan " + transactionId + " is already returned");
+            }
+            transaction.setStatus(BorrowingStatus.RETURNED);
+            transaction.setReturnDate(LocalDateTime.now());
+            bookService.updateBookAvailability(transaction.getBook().getIsbn(), BookAvailabilityStatus.AVAILABLE);
+            borrowingTransactionRepository.save(transaction);
+        });
+    }
+    
+    private List<String> createBooks(String prefix, int count) {
+        List<String> isbns = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            isbns.add(createBook(prefix));
+        }
+        return isbns;
+    }
+    
+    private String createBook(String prefix) {
+        String isbn = prefix + "-" + UUID.randomUUID();
+        bookService.createBook(new BookRequest("Stress " + prefix, "Stress Author", isbn, BookAvailabilityStatus.AVAILABLE));
+        return isbn;
+    }
+    
+    @FunctionalInterface
+    private interface ThreadAction {
+        void run(int thread) throws Exception;
+    }
+}
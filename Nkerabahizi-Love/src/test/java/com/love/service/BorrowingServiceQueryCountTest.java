@@ -0,0 +1,100 @@
+package com.love.service;
+
+import com.love.dto.BookRequest;
+import com.love.dto.BorrowingRequest;
+import com.love.dto.BorrowingResponse;
+import com.love.enums.BookAvailabilityStatus;
+import com.love.enums.BorrowingStatus;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=INFO",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class BorrowingServiceQueryCountTest {
+    
+    @Autowired
+    private BorrowingService borrowingService;
+    
+    @Autowired
+    private BookService bookService;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private Statistics statistics;
+    
+    @BeforeEach
+    void enableStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+    
+    @Test
+    void listingsRunOneStatementWhateverTheNumberOfLoans() {
+        borrowBooks(3);
+        long fewLoans = statementsFor(borrowingService::getAllBorrowingTransactions, 3);
+        long fewPending = statementsFor(() -> borrowingService.getBorrowingTransactionsByStatus(BorrowingStatus.PENDING), 3);
+        
+        borrowBooks(30);
+        long manyLoans = statementsFor(borrowingService::getAllBorrowingTransactions, 33);
+        long manyPending = statementsFor(() -> borrowingService.getBorrowingTransactionsByStatus(BorrowingStatus.PENDING), 33);
+        
+        assertThat(fewLoans).isEqualTo(manyLoans).isEqualTo(1);
+        assertThat(fewPending).isEqualTo(manyPending).isEqualTo(1);
+    }
+    
+    @Test
+    void singleLoanAndExportDoNotLoadBooksLazily() {
+        List<BorrowingResponse> loans = borrowBooks(5);
+        
+        statistics.clear();
+        assertThat(borrowingService.getBorrowingTransactionById(loans.get(0).getId())).isPresent();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        
+        statistics.clear();
+        long exported = borrowingService.exportBorrowingTransactions(response -> assertThat(response.getBookTitle()).isNotNull());
+        assertThat(exported).isGreaterThanOrEqualTo(5);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+    
+    /**
+     * Run a listing and return the number of JDBC statements it prepared,
+     * checking that no entity was hydrated along the way
+     */
+    private long statementsFor(Supplier<List<BorrowingResponse>> listing, int minimumRows) {
+        statistics.clear();
+        List<BorrowingResponse> responses = listing.get();
+        
+        assertThat(responses).hasSizeGreaterThanOrEqualTo(minimumRows);
+        assertThat(responses).allSatisfy(response -> assertThat(response.getBookIsbn()).isNotNull());
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        return statistics.getPrepareStatementCount();
+    }
+    
+    private List<BorrowingResponse> borrowBooks(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> {
+                    String isbn = "978-" + UUID.randomUUID().toString().substring(0, 13);
+                    bookService.createBook(new BookRequest("Listed " + i, "Author " + i, isbn, BookAvailabilityStatus.AVAILABLE));
+                    return borrowingService.createBorrowingTransaction(
+                            new BorrowingRequest(isbn, "Reader " + i, LocalDateTime.now()));
+                })
+                .toList();
+    }
+}